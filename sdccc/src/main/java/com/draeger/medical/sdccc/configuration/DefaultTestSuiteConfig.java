@@ -6,6 +6,7 @@
 
 package com.draeger.medical.sdccc.configuration;
 
+import com.draeger.medical.sdccc.messages.storage.HibernateStorageBackend;
 import com.draeger.medical.sdccc.util.Constants;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.somda.sdc.common.guice.AbstractConfigurationModule;
@@ -28,6 +29,10 @@ public class DefaultTestSuiteConfig extends AbstractConfigurationModule {
         "com.draeger.medical.sdccc.tests.glue",
     };
 
+    public static final int DEFAULT_MDIB_HISTORIAN_THREADS = 1;
+    public static final int DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SIZE = 10000;
+    public static final boolean DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES = true;
+
     private static final int BUFFER_SIZE = 100;
 
     @Override
@@ -50,6 +55,12 @@ public class DefaultTestSuiteConfig extends AbstractConfigurationModule {
         bind(TestSuiteConfig.ENABLE_MESSAGE_ENCODING_CHECK, Boolean.class, true);
         bind(TestSuiteConfig.SUMMARIZE_MESSAGE_ENCODING_ERRORS, Boolean.class, true);
         bind(TestSuiteConfig.MIN_COLLECT_DATA_TIME, long.class, 10L);
+        bind(TestSuiteConfig.MDIB_HISTORIAN_THREADS, int.class, DEFAULT_MDIB_HISTORIAN_THREADS);
+        bind(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SIZE, int.class, DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SIZE);
+        bind(
+                TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES,
+                Boolean.class,
+                DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES);
         bind(Constants.CONFIGURATION_MODULE, AbstractConfigurationModule.class, new AbstractConfigurationModule() {
             @Override
             protected void defaultConfigure() {}
@@ -94,5 +105,9 @@ public class DefaultTestSuiteConfig extends AbstractConfigurationModule {
 
     protected void configureCommlogSettings() {
         bind(TestSuiteConfig.COMMLOG_MESSAGE_BUFFER_SIZE, int.class, BUFFER_SIZE);
+        bind(TestSuiteConfig.COMMLOG_STORAGE_BACKEND, String.class, HibernateStorageBackend.NAME);
+        bind(TestSuiteConfig.COMMLOG_DECODE_THREADS, int.class, 0);
+        bind(TestSuiteConfig.COMMLOG_BODY_STORAGE, String.class, "Text");
+        bind(TestSuiteConfig.COMMLOG_OVERFLOW_POLICY, String.class, "Block");
     }
 }
@@ -15,6 +15,9 @@ import com.draeger.medical.sdccc.messages.HibernateConfig;
 import com.draeger.medical.sdccc.messages.HibernateConfigImpl;
 import com.draeger.medical.sdccc.messages.guice.ManipulationInfoFactory;
 import com.draeger.medical.sdccc.messages.guice.MessageFactory;
+import com.draeger.medical.sdccc.messages.storage.AppendLogStorageBackend;
+import com.draeger.medical.sdccc.messages.storage.HibernateStorageBackend;
+import com.draeger.medical.sdccc.messages.storage.StorageBackend;
 import com.draeger.medical.sdccc.sdcri.CustomCryptoSettings;
 import com.draeger.medical.sdccc.sdcri.LocalAddressResolverImpl;
 import com.draeger.medical.sdccc.sdcri.testclient.TestClient;
@@ -23,8 +26,11 @@ import com.draeger.medical.sdccc.util.junit.guice.XmlReportFactory;
 import com.draeger.medical.sdccc.util.junit.util.ClassUtil;
 import com.draeger.medical.sdccc.util.junit.util.ClassUtilImpl;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.google.inject.name.Named;
 import org.somda.sdc.dpws.crypto.CryptoSettings;
 import org.somda.sdc.dpws.network.LocalAddressResolver;
 
@@ -50,4 +56,18 @@ public class DefaultTestSuiteModule extends AbstractModule {
         bind(LocalAddressResolver.class).to(LocalAddressResolverImpl.class).in(Singleton.class);
         bind(ManipulationSerializer.class).to(GsonManipulationSerializer.class).in(Singleton.class);
     }
+
+    @Provides
+    @Singleton
+    StorageBackend provideStorageBackend(
+            @Named(TestSuiteConfig.COMMLOG_STORAGE_BACKEND) final String storageBackend,
+            final Provider<HibernateStorageBackend> hibernateStorageBackendProvider,
+            final Provider<AppendLogStorageBackend> appendLogStorageBackendProvider) {
+        return switch (storageBackend) {
+            case HibernateStorageBackend.NAME -> hibernateStorageBackendProvider.get();
+            case AppendLogStorageBackend.NAME -> appendLogStorageBackendProvider.get();
+            default -> throw new IllegalArgumentException(
+                    String.format("Unknown storage backend %s configured", storageBackend));
+        };
+    }
 }
@@ -25,6 +25,12 @@ public final class TestSuiteConfig {
     public static final String SUMMARIZE_MESSAGE_ENCODING_ERRORS = SDCCC + "SummarizeMessageEncodingErrors";
     public static final String ENABLE_MESSAGE_ENCODING_CHECK = SDCCC + "EnableMessageEncodingCheck";
     public static final String MIN_COLLECT_DATA_TIME = SDCCC + "MinCollectDataTime";
+    // values greater than one replay the Mdib histories of different SequenceIds concurrently
+    public static final String MDIB_HISTORIAN_THREADS = SDCCC + "MdibHistorianThreads";
+    // number of messages, values of zero or less disable the cache
+    public static final String UNMARSHALLED_MESSAGE_CACHE_SIZE = SDCCC + "UnmarshalledMessageCacheSize";
+    public static final String UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES =
+            SDCCC + "UnmarshalledMessageCacheSoftReferences";
     /*
      * TLS configuration
      */
@@ -68,8 +74,16 @@ public final class TestSuiteConfig {
      * Commlog configuration
      */
     private static final String COMMLOG = "Commlog.";
-    // note, that the actual size will be (this * (thread count + 1))
+    // note, that the actual size will be (this * (thread count + 1)), rounded up to the next power of two
     public static final String COMMLOG_MESSAGE_BUFFER_SIZE = SDCCC + COMMLOG + "BufferSize";
+    // either "Hibernate" or "AppendLog"
+    public static final String COMMLOG_STORAGE_BACKEND = SDCCC + COMMLOG + "StorageBackend";
+    // values of zero or less use one thread per logical processor
+    public static final String COMMLOG_DECODE_THREADS = SDCCC + COMMLOG + "DecodeThreads";
+    // one of "Text", "Raw" or "Compressed"
+    public static final String COMMLOG_BODY_STORAGE = SDCCC + COMMLOG + "BodyStorage";
+    // one of "Block", "Grow" or "Spill"
+    public static final String COMMLOG_OVERFLOW_POLICY = SDCCC + COMMLOG + "OverflowPolicy";
 
     /*
      * Internal settings which should not be overwritten by a user
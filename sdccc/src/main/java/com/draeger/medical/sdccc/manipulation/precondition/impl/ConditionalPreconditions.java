@@ -10,16 +10,14 @@ import com.draeger.medical.sdccc.manipulation.Manipulations;
 import com.draeger.medical.sdccc.manipulation.precondition.PreconditionException;
 import com.draeger.medical.sdccc.manipulation.precondition.SimplePrecondition;
 import com.draeger.medical.sdccc.messages.MessageStorage;
-import com.draeger.medical.sdccc.messages.mapping.MessageContent;
 import com.draeger.medical.sdccc.sdcri.testclient.TestClient;
 import com.draeger.medical.sdccc.tests.util.ImpliedValueUtil;
+import com.draeger.medical.sdccc.tests.util.UnmarshalledMessageCache;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
 import com.draeger.medical.t2iapi.ResponseTypes;
 import com.google.inject.Injector;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -59,7 +57,6 @@ import org.somda.sdc.biceps.model.participant.PatientContextDescriptor;
 import org.somda.sdc.biceps.model.participant.PatientContextState;
 import org.somda.sdc.biceps.model.participant.WorkflowContextDescriptor;
 import org.somda.sdc.biceps.model.participant.WorkflowContextState;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
 import org.somda.sdc.glue.consumer.SdcRemoteDevice;
@@ -76,17 +73,15 @@ public class ConditionalPreconditions {
         final var messageStorage = injector.getInstance(MessageStorage.class);
         final var testClient = injector.getInstance(TestClient.class);
         final var clientInjector = testClient.getInjector();
-        final var marshalling = clientInjector.getInstance(MarshallingService.class);
+        final var messageCache = clientInjector.getInstance(UnmarshalledMessageCache.class);
         final var soapUtil = clientInjector.getInstance(SoapUtil.class);
         try (final var messages =
                 messageStorage.getInboundMessagesByBodyType(Constants.MSG_DESCRIPTION_MODIFICATION_REPORT)) {
             // determine if there were any description insertions or deletions
             return messages.getStream()
-                    .map(MessageContent::getBody)
-                    .map(body -> new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
-                    .map(body -> {
+                    .map(messageContent -> {
                         try {
-                            return marshalling.unmarshal(body);
+                            return messageCache.unmarshal(messageContent);
                         } catch (MarshallingException e) {
                             throw new RuntimeException(e);
                         }
@@ -359,7 +354,7 @@ public class ConditionalPreconditions {
             final var messageStorage = injector.getInstance(MessageStorage.class);
             final var testClient = injector.getInstance(TestClient.class);
             final var clientInjector = testClient.getInjector();
-            final var marshalling = clientInjector.getInstance(MarshallingService.class);
+            final var messageCache = clientInjector.getInstance(UnmarshalledMessageCache.class);
             final var soapUtil = clientInjector.getInstance(SoapUtil.class);
             final var crtSeen = new AtomicBoolean(false);
             final var uptSeen = new AtomicBoolean(false);
@@ -368,11 +363,9 @@ public class ConditionalPreconditions {
                     messageStorage.getInboundMessagesByBodyType(Constants.MSG_DESCRIPTION_MODIFICATION_REPORT)) {
                 // determine if there were a description insertion, update and deletion for an mds descriptor
                 final var reportParts = messages.getStream()
-                        .map(MessageContent::getBody)
-                        .map(body -> new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
-                        .map(body -> {
+                        .map(messageContent -> {
                             try {
-                                return marshalling.unmarshal(body);
+                                return messageCache.unmarshal(messageContent);
                             } catch (MarshallingException e) {
                                 throw new RuntimeException(e);
                             }
@@ -732,7 +725,7 @@ public class ConditionalPreconditions {
             final var messageStorage = injector.getInstance(MessageStorage.class);
             final var testClient = injector.getInstance(TestClient.class);
             final var clientInjector = testClient.getInjector();
-            final var marshalling = clientInjector.getInstance(MarshallingService.class);
+            final var messageCache = clientInjector.getInstance(UnmarshalledMessageCache.class);
             final var soapUtil = clientInjector.getInstance(SoapUtil.class);
             final var contextStates = new ArrayList<AbstractContextState>();
             ALREADY_ASSOCIATED_CONTEXTS.values().forEach(Set::clear);
@@ -740,11 +733,9 @@ public class ConditionalPreconditions {
                     messageStorage.getInboundMessagesByBodyType(Constants.MSG_EPISODIC_CONTEXT_REPORT)) {
                 // determine if there were any context state changes
                 messages.getStream()
-                        .map(MessageContent::getBody)
-                        .map(body -> new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
-                        .map(body -> {
+                        .map(messageContent -> {
                             try {
-                                return marshalling.unmarshal(body);
+                                return messageCache.unmarshal(messageContent);
                             } catch (MarshallingException e) {
                                 throw new RuntimeException(e);
                             }
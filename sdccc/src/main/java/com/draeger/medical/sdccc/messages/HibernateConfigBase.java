@@ -6,10 +6,12 @@
 
 package com.draeger.medical.sdccc.messages;
 
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain;
 import com.draeger.medical.sdccc.messages.mapping.HTTPHeaderEntity;
 import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
 import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter;
 import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody;
 import com.draeger.medical.sdccc.messages.mapping.MessageContent;
 import com.google.inject.Singleton;
 import java.sql.Connection;
@@ -70,6 +72,8 @@ public class HibernateConfigBase implements HibernateConfig {
 
         config.addAnnotatedClass(HTTPHeaderEntity.class);
         config.addAnnotatedClass(MdibVersionGroupEntity.class);
+        config.addAnnotatedClass(MessageBody.class);
+        config.addAnnotatedClass(CertificateChain.class);
         config.addAnnotatedClass(MessageContent.class);
         config.addAnnotatedClass(ManipulationParameter.class);
         config.addAnnotatedClass(ManipulationData.class);
@@ -9,15 +9,19 @@ package com.draeger.medical.sdccc.messages;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.somda.sdc.dpws.CommunicationLog;
 import org.somda.sdc.dpws.soap.CommunicationContext;
+import org.somda.sdc.dpws.soap.HttpApplicationInfo;
 
 /**
  * Message object used for storage purposes.
@@ -27,6 +31,10 @@ public class Message extends OutputStream implements DatabaseEntry {
 
     private static final Logger LOG = LogManager.getLogger(Message.class);
 
+    private static final int DEFAULT_CAPACITY = 4096;
+    // a bogus Content-Length header must not lead to huge allocations
+    private static final int MAXIMUM_CAPACITY_HINT = 16 * 1024 * 1024;
+
     private final MessageStorage messageStorage;
     private final CommunicationLog.Direction direction;
     private final CommunicationLog.MessageType messageType;
@@ -37,7 +45,8 @@ public class Message extends OutputStream implements DatabaseEntry {
 
     private final CommunicationContext communicationContext;
 
-    private ByteArrayOutputStream memory;
+    private byte[] memory;
+    private int memoryLength;
 
     private byte[] finalMemory;
 
@@ -57,24 +66,62 @@ public class Message extends OutputStream implements DatabaseEntry {
 
         this.timestamp = Instant.now().toEpochMilli();
         this.nanoTimestamp = System.nanoTime();
-        this.memory = new ByteArrayOutputStream();
+        this.memory = new byte[getCapacityHint(communicationContext)];
+        this.memoryLength = 0;
+    }
+
+    private static int getCapacityHint(final CommunicationContext communicationContext) {
+        if (communicationContext != null
+                && communicationContext.getApplicationInfo() instanceof final HttpApplicationInfo httpAppInfo) {
+            for (final Map.Entry<String, Collection<String>> header :
+                    httpAppInfo.getHeaders().asMap().entrySet()) {
+                if ("content-length".equalsIgnoreCase(header.getKey()) && header.getValue().size() == 1) {
+                    try {
+                        final long contentLength =
+                                Long.parseLong(header.getValue().iterator().next().trim());
+                        if (contentLength > 0 && contentLength <= MAXIMUM_CAPACITY_HINT) {
+                            return (int) contentLength;
+                        }
+                    } catch (final NumberFormatException e) {
+                        LOG.trace("Ignoring invalid Content-Length header {}", header.getValue(), e);
+                    }
+                }
+            }
+        }
+        return DEFAULT_CAPACITY;
     }
 
     @Override
     public void write(final int b) throws IOException {
+        this.ensureCapacity(1);
+        this.memory[this.memoryLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        this.ensureCapacity(len);
+        System.arraycopy(b, off, this.memory, this.memoryLength, len);
+        this.memoryLength += len;
+    }
+
+    private void ensureCapacity(final int additionalBytes) throws IOException {
         if (this.memory == null) {
             LOG.warn(MESSAGE_WRITE_CALLED_ON_CLOSED_MESSAGE);
             throw new IOException(MESSAGE_WRITE_CALLED_ON_CLOSED_MESSAGE);
         }
-
-        memory.write(b);
+        final int requiredCapacity = Math.addExact(this.memoryLength, additionalBytes);
+        if (requiredCapacity > this.memory.length) {
+            final long doubledCapacity = Math.min(2L * this.memory.length, Integer.MAX_VALUE - 8);
+            this.memory = Arrays.copyOf(this.memory, (int) Math.max(requiredCapacity, doubledCapacity));
+        }
     }
 
     @Override
     public void close() throws IOException {
         if (this.memory != null) {
-            this.finalMemory = memory.toByteArray();
-            this.memory.close();
+            // the buffer is handed over as is, trimming it is left to the storage threads
+            this.finalMemory = this.memory;
             this.memory = null;
 
             this.messageStorage.addMessage(this);
@@ -103,9 +150,28 @@ public class Message extends OutputStream implements DatabaseEntry {
             value = {"EI_EXPOSE_REP"},
             justification = "it doesn't matter, the field might as well be public.")
     public byte[] getFinalMemory() {
+        if (this.finalMemory != null && this.finalMemory.length != this.memoryLength) {
+            this.finalMemory = Arrays.copyOf(this.finalMemory, this.memoryLength);
+        }
         return finalMemory;
     }
 
+    /**
+     * Drops the reference to the content of a closed message while it is held in the overflow journal.
+     */
+    void releaseFinalMemory() {
+        this.finalMemory = null;
+    }
+
+    /**
+     * Restores the content of a closed message after it has been read back from the overflow journal.
+     *
+     * @param content of the message, as previously returned by {@linkplain #getFinalMemory()}
+     */
+    void restoreFinalMemory(final byte[] content) {
+        this.finalMemory = content;
+    }
+
     public CommunicationLog.Direction getDirection() {
         return direction;
     }
@@ -0,0 +1,217 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages;
+
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import javax.xml.namespace.QName;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * In-memory secondary indexes over the messages written by the {@linkplain MessageStorage}.
+ *
+ * <p>
+ * The indexes are updated once a batch of messages has been written to the storage backend, hence they cover exactly
+ * the messages the storage backend can return. They allow answering which messages exist for a body type, SequenceId
+ * or action without querying the storage backend. Messages are referenced by the id assigned by the storage backend,
+ * kept in primitive arrays, so an indexed message costs eight bytes per body type and action it contains.
+ */
+public final class MessageIndex {
+
+    private final Map<String, IdList> inboundMessagesByBodyElement;
+    private final Map<String, Set<String>> inboundBodyElementsBySequenceId;
+    private final Map<String, IdList> messagesByAction;
+    // SequenceIds can be missing, in which case the null key is used just like the storage backends return null
+    private final Map<String, SequenceEntry> sequences;
+    private long messageCount;
+
+    MessageIndex() {
+        this.inboundMessagesByBodyElement = new HashMap<>();
+        this.inboundBodyElementsBySequenceId = new HashMap<>();
+        this.messagesByAction = new HashMap<>();
+        this.sequences = new HashMap<>();
+    }
+
+    /**
+     * Adds messages which have been written to the storage backend.
+     *
+     * @param messageContents which have been written
+     */
+    synchronized void addAll(final Collection<MessageContent> messageContents) {
+        this.messageCount += messageContents.size();
+        for (final MessageContent messageContent : messageContents) {
+            final boolean inbound = messageContent.getDirection() == CommunicationLog.Direction.INBOUND;
+            for (final String action : messageContent.getActions()) {
+                this.messagesByAction.computeIfAbsent(action, key -> new IdList()).add(messageContent.getIncId());
+            }
+            for (final MdibVersionGroupEntity mdibVersionGroup : messageContent.getMdibVersionGroups()) {
+                this.sequences.merge(
+                        mdibVersionGroup.getSequenceId(),
+                        new SequenceEntry(
+                                messageContent.getNanoTimestamp(),
+                                mdibVersionGroup.getMdibVersion(),
+                                mdibVersionGroup.getMdibVersion()),
+                        SequenceEntry::merge);
+                if (inbound) {
+                    this.inboundMessagesByBodyElement
+                            .computeIfAbsent(mdibVersionGroup.getBodyElement(), key -> new IdList())
+                            .add(messageContent.getIncId());
+                    this.inboundBodyElementsBySequenceId
+                            .computeIfAbsent(mdibVersionGroup.getSequenceId(), key -> new HashSet<>())
+                            .add(mdibVersionGroup.getBodyElement());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of messages written so far, which changes whenever further messages have been written
+     */
+    public synchronized long getMessageCount() {
+        return this.messageCount;
+    }
+
+    /**
+     * Checks whether an inbound message with any of the given body types has been written.
+     *
+     * @param bodyTypes to look for
+     * @return true if at least one such message exists, false otherwise
+     */
+    public synchronized boolean containsInbound(final QName... bodyTypes) {
+        for (final QName bodyType : bodyTypes) {
+            if (this.inboundMessagesByBodyElement.containsKey(bodyType.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an inbound message with any of the given body types has been written for the SequenceId.
+     *
+     * @param sequenceId to look for
+     * @param bodyTypes  to look for
+     * @return true if at least one such message exists, false otherwise
+     */
+    public synchronized boolean containsInbound(@Nullable final String sequenceId, final QName... bodyTypes) {
+        final Set<String> bodyElements = this.inboundBodyElementsBySequenceId.get(sequenceId);
+        if (bodyElements != null) {
+            for (final QName bodyType : bodyTypes) {
+                if (bodyElements.contains(bodyType.toString())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the ids of the inbound messages with any of the given body types.
+     *
+     * @param bodyTypes to look for
+     * @return the ids of the matching messages in ascending order, each message is listed once
+     */
+    public synchronized long[] getInboundMessageIds(final QName... bodyTypes) {
+        return collectIds(this.inboundMessagesByBodyElement, Arrays.stream(bodyTypes).map(QName::toString));
+    }
+
+    /**
+     * Retrieves the ids of the messages with any of the given WS-Addressing actions.
+     *
+     * @param actions to look for
+     * @return the ids of the matching messages in ascending order, each message is listed once
+     */
+    public synchronized long[] getMessageIdsByAction(final String... actions) {
+        return collectIds(this.messagesByAction, Arrays.stream(actions));
+    }
+
+    /**
+     * Retrieves the range of MdibVersions seen for a SequenceId.
+     *
+     * @param sequenceId to look for
+     * @return the range if any message with the SequenceId has been written, empty otherwise
+     */
+    public synchronized Optional<MdibVersionRange> getMdibVersionRange(@Nullable final String sequenceId) {
+        return Optional.ofNullable(this.sequences.get(sequenceId))
+                .map(entry -> new MdibVersionRange(entry.minimumMdibVersion(), entry.maximumMdibVersion()));
+    }
+
+    /**
+     * Retrieves all SequenceIds seen, ordered by the timestamp of the first message which used them.
+     *
+     * @return stream of the SequenceIds
+     */
+    synchronized Stream<String> getSequenceIds() {
+        final List<Map.Entry<String, SequenceEntry>> entries = new ArrayList<>(this.sequences.entrySet());
+        entries.sort(Map.Entry.comparingByValue(
+                (first, second) -> Long.compare(first.firstNanoTimestamp(), second.firstNanoTimestamp())));
+        return entries.stream().map(Map.Entry::getKey);
+    }
+
+    private static long[] collectIds(final Map<String, IdList> index, final Stream<String> keys) {
+        // batches of concurrent writers are indexed in the order they finish, hence the ids have to be sorted
+        return keys.map(index::get)
+                .filter(Objects::nonNull)
+                .flatMapToLong(IdList::stream)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Lowest and highest MdibVersion seen for a SequenceId.
+     *
+     * @param first lowest MdibVersion
+     * @param last  highest MdibVersion
+     */
+    public record MdibVersionRange(long first, long last) {}
+
+    private record SequenceEntry(long firstNanoTimestamp, long minimumMdibVersion, long maximumMdibVersion) {
+        private SequenceEntry merge(final SequenceEntry other) {
+            return new SequenceEntry(
+                    Math.min(this.firstNanoTimestamp, other.firstNanoTimestamp),
+                    Math.min(this.minimumMdibVersion, other.minimumMdibVersion),
+                    Math.max(this.maximumMdibVersion, other.maximumMdibVersion));
+        }
+    }
+
+    // growable array of message ids, avoiding a boxed object per indexed message
+    private static final class IdList {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(final long id) {
+            // a message containing several groups of the same body element is only listed once
+            if (this.size > 0 && this.ids[this.size - 1] == id) {
+                return;
+            }
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+
+        private LongStream stream() {
+            return Arrays.stream(this.ids, 0, this.size);
+        }
+    }
+}
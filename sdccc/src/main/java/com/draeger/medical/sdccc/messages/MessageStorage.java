@@ -6,28 +6,36 @@
 
 package com.draeger.medical.sdccc.messages;
 
+import com.draeger.medical.sdccc.configuration.TestRunConfig;
 import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
 import com.draeger.medical.sdccc.messages.guice.MessageFactory;
-import com.draeger.medical.sdccc.messages.mapping.HTTPHeaderEntity;
-import com.draeger.medical.sdccc.messages.mapping.HTTPHeaderEntity_;
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
 import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
-import com.draeger.medical.sdccc.messages.mapping.ManipulationData_;
-import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter;
-import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter_;
 import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
-import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity_;
 import com.draeger.medical.sdccc.messages.mapping.MessageContent;
-import com.draeger.medical.sdccc.messages.mapping.MessageContent_;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.messages.storage.HibernateStorageBackend;
+import com.draeger.medical.sdccc.messages.storage.StorageBackend;
+import com.draeger.medical.sdccc.messages.util.CanonicalElementHasher;
+import com.draeger.medical.sdccc.messages.util.MessageUtil;
+import com.draeger.medical.sdccc.messages.util.XmlPrologScanner;
 import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
 import com.draeger.medical.sdccc.util.XPathExtractor;
 import com.draeger.medical.t2iapi.ResponseTypes;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 import edu.umd.cs.findbugs.annotations.Nullable;
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.ByteBuffer;
@@ -41,47 +49,26 @@ import java.nio.charset.UnsupportedCharsetException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Spliterator;
-import java.util.Spliterators;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
 import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.hibernate.ScrollMode;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
-import org.hibernate.query.spi.ScrollableResultsImplementor;
-import org.hibernate.query.spi.StreamDecorator;
 import org.somda.sdc.dpws.CommunicationLog;
 import org.somda.sdc.dpws.soap.ApplicationInfo;
 import org.somda.sdc.dpws.soap.CommunicationContext;
@@ -98,27 +85,10 @@ public class MessageStorage implements AutoCloseable {
 
     private static final Logger LOG = LogManager.getLogger(MessageStorage.class);
 
-    private static final int FETCH_SIZE = 10;
-
-    // Prefixes of XML declarations according to Appendix F.1 of the XML Standard
-    private static final int XML_DECLARATION_PREFIX_LENGTH = 4;
-    private static final Map<byte[], Charset> XML_DECLARATION_PREFIXES = Map.of(
-            new byte[] {0x00, 0x00, 0x00, 0x3C},
-            Charset.forName("UTF-32BE"),
-            new byte[] {0x3C, 0x00, 0x00, 0x00},
-            Charset.forName("UTF-32LE"),
-            new byte[] {0x00, 0x3C, 0x00, 0x3F},
-            StandardCharsets.UTF_16BE,
-            new byte[] {0x3C, 0x00, 0x3F, 0x00},
-            StandardCharsets.UTF_16LE,
-            new byte[] {0x3C, 0x3F, 0x78, 0x6D},
-            StandardCharsets.US_ASCII, // any ASCII-compatible charset
-            // AFAIK, all charsets of the EBCDIC family have common bit-patterns for the characters used
-            // in the XML declaration. Hence, any of them could be used to decode the declaration. However,
-            // only 'ebcdic-international-500+euro' was tested in this respect and hence it is used as a
-            // placeholder for 'any EBCDIC charset'.
-            new byte[] {0x4C, 0x6F, (byte) 0xA7, (byte) 0x94},
-            Charset.forName("ebcdic-international-500+euro"));
+    private static final QName SOAP_ENVELOPE = new QName(SoapConstants.NAMESPACE, "Envelope");
+    private static final QName SOAP_HEADER = new QName(SoapConstants.NAMESPACE, "Header");
+    private static final QName SOAP_BODY = new QName(SoapConstants.NAMESPACE, "Body");
+    private static final QName WSA_ACTION = new QName(WsAddressingConstants.NAMESPACE, "Action");
     private static final List<String> SDC_MIME_TYPES = List.of("application/soap+xml", "application/xml");
 
     private static final String HTTP_HEADER_NAME_CONTENT_TYPE = "content-type";
@@ -134,6 +104,8 @@ public class MessageStorage implements AutoCloseable {
             "getInboundSoapMessages called on closed storage";
     private static final String GET_INBOUND_MESSAGE_BY_BODY_TYPE_CALLED_ON_CLOSED_STORAGE =
             "getInboundMessagesByBodyType called on closed storage";
+    private static final String GET_MESSAGES_BY_ACTION_CALLED_ON_CLOSED_STORAGE =
+            "getMessagesByAction called on closed storage";
     private static final String GET_INBOUND_MESSAGE_BY_TIME_INTERVAL_CALLED_ON_CLOSED_STORAGE =
             "getInboundMessagesByTimeInterval called on closed storage";
     private static final String GET_INBOUND_MESSAGE_BY_TIMESTAMP_CALLED_ON_CLOSED_STORAGE =
@@ -151,10 +123,6 @@ public class MessageStorage implements AutoCloseable {
     private static final String XML_DECLARATION_PREFIX_ORIGIN = "XML Declaration is encoded in %s";
 
     private final Pattern charsetPattern = Pattern.compile(".*;\\s*charset\\s*=\\s*([^;]*).*");
-    private final Pattern encodingFromXmlDeclarationPatternDoubleQuotes =
-            Pattern.compile(".*<\\?.*encoding\\s*=\\s*\"([^\"]*)\".*\\?>.*", Pattern.DOTALL);
-    private final Pattern encodingFromXmlDeclarationPatternSingleQuotes =
-            Pattern.compile(".*<\\?.*encoding\\s*=\\s*'([^']*)'.*\\?>.*", Pattern.DOTALL);
 
     private final MessageFactory messageFactory;
 
@@ -163,33 +131,41 @@ public class MessageStorage implements AutoCloseable {
     private final XPathExtractor actionExtractor;
     private final XMLInputFactory xmlInputFactory;
 
-    // the containing class has to be singleton, because we want only one SessionFactory
-    private final SessionFactory sessionFactory;
+    private final StorageBackend storageBackend;
+    private final MessageIndex messageIndex;
 
-    private final HibernateConfig configuration;
-
-    private final ArrayBlockingQueue<DatabaseEntry> messageQueue;
-    private final List<DatabaseInteractionThread> databaseInteractionThreads;
-    private final ReentrantLock queueExitLock;
+    private final Disruptor<EntryEvent> disruptor;
+    private final RingBuffer<EntryEvent> ringBuffer;
+    private final List<StorageEventHandler> storageEventHandlers;
+    private final Object commitMonitor;
     private final ReentrantLock closeLock;
 
     private final int blockingQueueSize;
-
-    private final CyclicBarrier flushBarrier;
+    private final OverflowPolicy overflowPolicy;
+    @Nullable
+    private final OverflowQueue overflowQueue;
+    private final AtomicLong maximumQueueDepth;
+    private final AtomicLong stallCount;
+    private final AtomicLong stallNanos;
 
     private final TestRunObserver testRunObserver;
     private final boolean summarizeMessageEncodingErrors;
     private final AtomicLong messageEncodingErrorCount;
-    private int invalidMimeTypeCount;
+    private final AtomicLong invalidMimeTypeCount;
     private final boolean enableEncodingCheck;
+    private final BodyEncoding bodyEncoding;
 
     @Inject
     MessageStorage(
             @Named(TestSuiteConfig.COMMLOG_MESSAGE_BUFFER_SIZE) final int blockingQueueSize,
+            @Named(TestSuiteConfig.COMMLOG_DECODE_THREADS) final int decodeThreads,
+            @Named(TestSuiteConfig.COMMLOG_BODY_STORAGE) final String bodyStorage,
+            @Named(TestSuiteConfig.COMMLOG_OVERFLOW_POLICY) final String overflowPolicy,
             @Named(TestSuiteConfig.SUMMARIZE_MESSAGE_ENCODING_ERRORS) final boolean summarizeMessageEncodingErrors,
             @Named(TestSuiteConfig.ENABLE_MESSAGE_ENCODING_CHECK) final boolean enableEncodingCheck,
+            @Named(TestRunConfig.TEST_RUN_DIR) @Nullable final File testRunDir,
             final MessageFactory messageFactory,
-            final HibernateConfig configuration,
+            final StorageBackend storageBackend,
             final TestRunObserver testRunObserver) {
         this.messageFactory = messageFactory;
         this.testRunObserver = testRunObserver;
@@ -197,16 +173,20 @@ public class MessageStorage implements AutoCloseable {
         this.blockingQueueSize = blockingQueueSize;
         this.summarizeMessageEncodingErrors = summarizeMessageEncodingErrors;
         this.enableEncodingCheck = enableEncodingCheck;
+        this.bodyEncoding = BodyEncoding.fromName(bodyStorage);
+        this.overflowPolicy = OverflowPolicy.fromName(overflowPolicy);
+        this.maximumQueueDepth = new AtomicLong(0);
+        this.stallCount = new AtomicLong(0);
+        this.stallNanos = new AtomicLong(0);
         this.messageEncodingErrorCount = new AtomicLong(0);
-        this.invalidMimeTypeCount = 0;
+        this.invalidMimeTypeCount = new AtomicLong(0);
 
         this.actionExtractor = new XPathExtractor(String.format("//%s:Action", WsAddressingConstants.NAMESPACE_PREFIX));
 
-        this.configuration = configuration;
-        this.sessionFactory = this.configuration.getConfiguration().buildSessionFactory();
+        this.storageBackend = storageBackend;
+        this.messageIndex = new MessageIndex();
 
-        this.messageQueue = new ArrayBlockingQueue<>(this.blockingQueueSize);
-        this.queueExitLock = new ReentrantLock();
+        this.commitMonitor = new Object();
         this.closeLock = new ReentrantLock();
 
         final int logicalProcessorCount = Runtime.getRuntime().availableProcessors();
@@ -218,23 +198,74 @@ public class MessageStorage implements AutoCloseable {
             logicalProcessorsToUse = 1;
         }
 
+        final int decodeThreadsToUse = decodeThreads > 0 ? decodeThreads : logicalProcessorCount;
+
         LOG.info(
-                "Logical processor count is {}. Will use {} database interaction threads.",
+                "Logical processor count is {}. Will use {} message decoding threads and {} database interaction "
+                        + "threads.",
                 logicalProcessorCount,
+                decodeThreadsToUse,
                 logicalProcessorsToUse);
 
-        // database interaction threads plus the main flush functions caller thread
-        this.flushBarrier = new CyclicBarrier(logicalProcessorsToUse + 1);
-
-        this.databaseInteractionThreads = new ArrayList<>(logicalProcessorsToUse);
+        // every handler buffers up to blockingQueueSize entries in addition to the entries waiting in the ring
+        final int ringSize = ringBufferSize(this.blockingQueueSize * (logicalProcessorsToUse + 1));
+        this.disruptor = new Disruptor<>(
+                EntryEvent::new,
+                ringSize,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("MessageStorage-%d")
+                        .setDaemon(true)
+                        .build(),
+                ProducerType.MULTI,
+                // parks idle handlers instead of polling the ring
+                new BlockingWaitStrategy());
+
+        final List<DecodeEventHandler> decodeEventHandlers = new ArrayList<>(decodeThreadsToUse);
+        for (int i = 0; i < decodeThreadsToUse; i++) {
+            decodeEventHandlers.add(new DecodeEventHandler(i, decodeThreadsToUse));
+        }
+        this.storageEventHandlers = new ArrayList<>(logicalProcessorsToUse);
         for (int i = 0; i < logicalProcessorsToUse; i++) {
-            final DatabaseInteractionThread databaseInteractionThread = new DatabaseInteractionThread();
-            databaseInteractionThread.setDaemon(true);
-            databaseInteractionThread.start();
-            this.databaseInteractionThreads.add(databaseInteractionThread);
+            this.storageEventHandlers.add(new StorageEventHandler(i, logicalProcessorsToUse));
+        }
+        // the database interaction threads only receive entries which have already been decoded
+        this.disruptor
+                .handleEventsWith(decodeEventHandlers.toArray(new DecodeEventHandler[0]))
+                .then(this.storageEventHandlers.toArray(new StorageEventHandler[0]));
+        this.ringBuffer = this.disruptor.start();
+
+        if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+            this.overflowQueue = null;
+        } else {
+            this.overflowQueue = new OverflowQueue(
+                    this.overflowPolicy,
+                    testRunDir != null ? testRunDir.toPath() : null,
+                    entry -> this.ringBuffer.tryPublishEvent(EntryEvent.TRANSLATOR, entry),
+                    entry -> this.ringBuffer.publishEvent(EntryEvent.TRANSLATOR, entry),
+                    testRunObserver);
         }
 
-        this.xmlInputFactory = XMLInputFactory.newInstance();
+        this.xmlInputFactory = createXmlInputFactory();
+    }
+
+    MessageStorage(
+            final int blockingQueueSize,
+            final boolean summarizeMessageEncodingErrors,
+            final boolean enableEncodingCheck,
+            final MessageFactory messageFactory,
+            final HibernateConfig configuration,
+            final TestRunObserver testRunObserver) {
+        this(
+                blockingQueueSize,
+                0,
+                BodyEncoding.TEXT.name(),
+                OverflowPolicy.BLOCK.name(),
+                summarizeMessageEncodingErrors,
+                enableEncodingCheck,
+                null,
+                messageFactory,
+                new HibernateStorageBackend(configuration),
+                testRunObserver);
     }
 
     public XPathExtractor getActionExtractor() {
@@ -256,17 +287,64 @@ public class MessageStorage implements AutoCloseable {
                 return;
             }
 
-            try {
-                this.messageQueue.put(message);
-            } catch (final InterruptedException e) {
-                LOG.error("unable to put message content into queue", e);
-                testRunObserver.invalidateTestRun(e);
+            if (this.overflowQueue != null) {
+                this.overflowQueue.add(message);
+            } else if (!this.ringBuffer.tryPublishEvent(EntryEvent.TRANSLATOR, message)) {
+                // blocks while the ring buffer is full
+                final long stallStart = System.nanoTime();
+                this.ringBuffer.publishEvent(EntryEvent.TRANSLATOR, message);
+                this.stallNanos.addAndGet(System.nanoTime() - stallStart);
+                this.stallCount.incrementAndGet();
             }
+            this.maximumQueueDepth.accumulateAndGet(this.getQueueDepth(), Math::max);
         } finally {
             this.closeLock.unlock();
         }
     }
 
+    /**
+     * @return number of entries which have been added but not yet handed to the storage threads
+     */
+    public long getQueueDepth() {
+        final long ringDepth = this.ringBuffer.getBufferSize() - this.ringBuffer.remainingCapacity();
+        return this.overflowQueue != null ? ringDepth + this.overflowQueue.size() : ringDepth;
+    }
+
+    /**
+     * @return highest queue depth observed while adding entries
+     */
+    public long getMaximumQueueDepth() {
+        return this.maximumQueueDepth.get();
+    }
+
+    /**
+     * @return number of times adding an entry had to wait for capacity, only with {@linkplain OverflowPolicy#BLOCK}
+     */
+    public long getStallCount() {
+        return this.stallCount.get();
+    }
+
+    /**
+     * @return total time in nanoseconds spent waiting for capacity while adding entries
+     */
+    public long getStallTimeNanos() {
+        return this.stallNanos.get();
+    }
+
+    /**
+     * @return number of entries which exceeded the buffer and were held in the overflow queue
+     */
+    public long getOverflowCount() {
+        return this.overflowQueue != null ? this.overflowQueue.getOverflowCount() : 0;
+    }
+
+    /**
+     * @return the indexes over the messages written so far
+     */
+    public MessageIndex getMessageIndex() {
+        return messageIndex;
+    }
+
     public XMLInputFactory getXmlInputFactory() {
         return xmlInputFactory;
     }
@@ -277,8 +355,8 @@ public class MessageStorage implements AutoCloseable {
         final Set<String> actions = new HashSet<>();
         final List<MdibVersionGroupEntity.MdibVersionGroup> mdibVersionGroups = new LinkedList<>();
         final byte[] bodyBytes = message.getFinalMemory();
+        Charset messageCharset = StandardCharsets.UTF_8;
         if (bodyBytes.length > 0) {
-            Charset messageCharset = StandardCharsets.UTF_8;
             if (this.enableEncodingCheck) {
                 messageCharset = determineCharsetFromMessage(message);
             }
@@ -307,6 +385,11 @@ public class MessageStorage implements AutoCloseable {
         }
         return new MessageContent(
                 body,
+                bodyBytes,
+                messageCharset,
+                this.bodyEncoding,
+                // binary bodies are identified by the bytes persisted, which avoids encoding the decoded body again
+                this.bodyEncoding.isBinary() ? MessageUtil.hashBytes(bodyBytes) : MessageUtil.hashMessage(body),
                 message.getCommunicationContext(),
                 message.getDirection(),
                 message.getMessageType(),
@@ -363,29 +446,40 @@ public class MessageStorage implements AutoCloseable {
         }
     }
 
+    // a single factory is configured once and shared by all decoding threads, creating readers from it is threadsafe
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        // envelopes are only scanned for a few elements, neither resolving external entities nor merging adjacent
+        // text is ever needed for that
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
     private boolean processMessageBody(
             final String body,
             final Set<String> actions,
             final List<MdibVersionGroupEntity.MdibVersionGroup> mdibVersionGroups) {
         var isSOAP = false;
         try {
-            final XMLEventReader reader = this.getXmlInputFactory().createXMLEventReader(new StringReader(body));
+            final XMLStreamReader reader = this.getXmlInputFactory().createXMLStreamReader(new StringReader(body));
 
+            // only the envelope and its header are descended into, the subtrees of all other elements are skipped
+            // and nothing following the SOAP body is of interest
             while (reader.hasNext()) {
-                final XMLEvent nextEvent = reader.nextEvent();
-
-                if (nextEvent.isStartElement()) {
-                    final StartElement startElement = nextEvent.asStartElement();
-                    if (startElement.getName().getLocalPart().equals("Action")
-                            && startElement.getName().getNamespaceURI().equals(WsAddressingConstants.NAMESPACE)) {
-                        handleActionEvent(actions, reader);
-                    } else if (startElement.getName().getLocalPart().equals("Body")
-                            && startElement.getName().getNamespaceURI().equals(SoapConstants.NAMESPACE)) {
-                        handleSoapBodyEvent(mdibVersionGroups, reader);
-                    } else if (startElement.getName().getLocalPart().equals("Envelope")
-                            && startElement.getName().getNamespaceURI().equals(SoapConstants.NAMESPACE)) {
-                        isSOAP = true;
-                    }
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                final QName name = reader.getName();
+                if (SOAP_ENVELOPE.equals(name)) {
+                    isSOAP = true;
+                } else if (WSA_ACTION.equals(name)) {
+                    handleActionElement(actions, reader);
+                } else if (SOAP_BODY.equals(name)) {
+                    handleSoapBodyElement(mdibVersionGroups, reader);
+                    break;
+                } else if (!SOAP_HEADER.equals(name)) {
+                    skipElement(reader, null);
                 }
             }
         } catch (final XMLStreamException e) {
@@ -416,10 +510,16 @@ public class MessageStorage implements AutoCloseable {
 
             // 1. check HTTP Header
             final Charset charsetFromHttpHeader = determineCharsetFromHttpHeader(message);
+            // 2. and 3. are both part of the prolog, which is scanned once
+            final XmlPrologScanner.XmlProlog prolog = XmlPrologScanner.scan(message.getFinalMemory());
             // 2. check Unicode Byte Order Mark
-            final Charset charsetFromUnicodeByteOrderMark = determineCharsetFromUnicodeByteOrderMark(message);
+            final Charset charsetFromUnicodeByteOrderMark = prolog.byteOrderMark();
+            if (charsetFromUnicodeByteOrderMark == null) {
+                LOG.trace("Unable to determine charset from byte order mark for message with ID '" + message.getID()
+                        + "'. Will use another option.");
+            }
             // 3. check XML Declaration
-            final Charset charsetFromXmlDeclaration = determineCharsetFromXmlDeclaration(message);
+            final Charset charsetFromXmlDeclaration = determineCharsetFromXmlDeclaration(message, prolog);
 
             checkFullCharsetConsistency(
                     charsetFromHttpHeader,
@@ -554,7 +654,7 @@ public class MessageStorage implements AutoCloseable {
                 if (!SDC_MIME_TYPES.contains(mimeType)) {
                     if (summarizeMessageEncodingErrors) {
                         // TestRun will be invalidated in TestSuite if invalidMimeTypeCount > 0
-                        this.invalidMimeTypeCount++;
+                        this.invalidMimeTypeCount.incrementAndGet();
                     } else {
                         this.testRunObserver.invalidateTestRun(String.format(
                                 "encountered a SOAP Envelope whose mimeType '%s' (declared in its "
@@ -567,55 +667,13 @@ public class MessageStorage implements AutoCloseable {
         }
     }
 
-    private Charset determineCharsetFromUnicodeByteOrderMark(final Message message) {
-        Charset charsetFromUnicodeByteOrderMark = null;
-        try {
-            final ByteArrayInputStream in = new ByteArrayInputStream(message.getFinalMemory());
-            final BOMInputStream bomIn = new BOMInputStream(
-                    in,
-                    ByteOrderMark.UTF_8,
-                    ByteOrderMark.UTF_16LE,
-                    ByteOrderMark.UTF_16BE,
-                    ByteOrderMark.UTF_32LE,
-                    ByteOrderMark.UTF_32BE);
-            if (!bomIn.hasBOM()) {
-                LOG.trace("Unable to determine charset from byte order mark for message with ID '" + message.getID()
-                        + "'. Will use another option.");
-            } else if (bomIn.hasBOM(ByteOrderMark.UTF_8)) {
-                charsetFromUnicodeByteOrderMark = StandardCharsets.UTF_8;
-            } else if (bomIn.hasBOM(ByteOrderMark.UTF_16LE)) {
-                charsetFromUnicodeByteOrderMark = StandardCharsets.UTF_16LE;
-            } else if (bomIn.hasBOM(ByteOrderMark.UTF_16BE)) {
-                charsetFromUnicodeByteOrderMark = StandardCharsets.UTF_16BE;
-            } else if (bomIn.hasBOM(ByteOrderMark.UTF_32LE)) {
-                charsetFromUnicodeByteOrderMark = Charset.forName("UTF_32LE");
-            } else if (bomIn.hasBOM(ByteOrderMark.UTF_32BE)) {
-                charsetFromUnicodeByteOrderMark = Charset.forName("UTF_32BE");
-            }
-        } catch (IOException e) {
-            if (this.summarizeMessageEncodingErrors) {
-                // TestRun will be invalidated in TestSuite if messageEncodingErrorCount > 0
-                this.messageEncodingErrorCount.incrementAndGet();
-            } else {
-                this.testRunObserver.invalidateTestRun(
-                        "Unable to read message contents of message with ID '" + message.getID() + "'", e);
-            }
-        }
-        return charsetFromUnicodeByteOrderMark;
-    }
-
-    private Charset determineCharsetFromXmlDeclaration(final Message message) {
-        final Charset charsetFromBOM = determineCharsetFromUnicodeByteOrderMark(message);
-        final Charset charsetFromPrefix = determineCharsetFromXmlDeclarationPrefix(message);
+    private Charset determineCharsetFromXmlDeclaration(
+            final Message message, final XmlPrologScanner.XmlProlog prolog) {
+        final Charset charsetFromBOM = prolog.byteOrderMark();
+        final Charset charsetFromPrefix = prolog.declarationPrefix();
 
-        Charset result = null;
-        if (charsetFromBOM != null) {
-            result = determineCharsetFromXmlDeclarationInternal(message, charsetFromBOM);
-        } else {
-            if (charsetFromPrefix != null) {
-                result = determineCharsetFromXmlDeclarationInternal(message, charsetFromPrefix);
-            }
-        }
+        // the scanner already read the declaration using the byte order mark, or the prefix if there is none
+        final Charset result = prolog.encoding() != null ? Charset.forName(prolog.encoding()) : null;
 
         checkCharsetConsistency(
                 charsetFromBOM,
@@ -701,72 +759,6 @@ public class MessageStorage implements AutoCloseable {
         return result;
     }
 
-    private Charset determineCharsetFromXmlDeclarationPrefix(final Message message) {
-        final ByteArrayInputStream in = new ByteArrayInputStream(message.getFinalMemory());
-        final BOMInputStream bomIn = new BOMInputStream(in, ByteOrderMark.UTF_8);
-        try {
-            Charset result = null;
-            final byte[] msg = bomIn.readNBytes(XML_DECLARATION_PREFIX_LENGTH);
-            for (Map.Entry<byte[], Charset> e : XML_DECLARATION_PREFIXES.entrySet()) {
-                if (startsWith(msg, e.getKey())) {
-                    result = e.getValue();
-                    break;
-                }
-            }
-            return result;
-        } catch (IOException e) {
-            return null;
-        }
-    }
-
-    /**
-     * Utility method to check if one byte array starts with a specified sequence of bytes.
-     *
-     * @param array  The array to check
-     * @param prefix The prefix bytes to test for
-     * @return true if the array starts with the bytes from the prefix
-     */
-    private static boolean startsWith(final byte[] array, final byte[] prefix) {
-        if (array == prefix) {
-            return true;
-        }
-        return startsWithInternal1(array, prefix);
-    }
-
-    private static boolean startsWithInternal1(final byte[] array, final byte[] prefix) {
-        if (prefix.length > array.length) {
-            return false;
-        }
-        return startsWithInternal2(array, prefix);
-    }
-
-    private static boolean startsWithInternal2(final byte[] array, final byte[] prefix) {
-        final int prefixLength = prefix.length;
-        for (int i = 0; i < prefixLength; i++) {
-            if (array[i] != prefix[i]) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    private Charset determineCharsetFromXmlDeclarationInternal(final Message message, final Charset encoding) {
-        Charset charsetFromXmlDeclaration = null;
-
-        final String content = new String(message.getFinalMemory(), encoding);
-        final Matcher matcher = encodingFromXmlDeclarationPatternDoubleQuotes.matcher(content);
-        if (matcher.matches()) {
-            charsetFromXmlDeclaration = Charset.forName(matcher.group(1));
-        } else {
-            final Matcher matcher2 = encodingFromXmlDeclarationPatternSingleQuotes.matcher(content);
-            if (matcher2.matches()) {
-                charsetFromXmlDeclaration = Charset.forName(matcher2.group(1));
-            }
-        }
-        return charsetFromXmlDeclaration;
-    }
-
     private Charset determineCharsetFromHttpHeader(final Message message) {
         Charset charsetFromHttpHeader = null;
         final ApplicationInfo applicationInfo =
@@ -812,14 +804,22 @@ public class MessageStorage implements AutoCloseable {
         }
     }
 
-    private void handleActionEvent(final Set<String> actions, final XMLEventReader reader) throws XMLStreamException {
-        final XMLEvent nextEvent;
-        nextEvent = reader.nextEvent();
-        if (nextEvent.isCharacters()) {
-            actions.add(nextEvent.asCharacters().getData());
-        } else {
+    private void handleActionElement(final Set<String> actions, final XMLStreamReader reader)
+            throws XMLStreamException {
+        final StringBuilder action = new StringBuilder();
+        int event = reader.next();
+        while (event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE) {
+            action.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            event = reader.next();
+        }
+        if (action.isEmpty()) {
             LOG.warn("empty action element encountered");
-            actions.add("");
+        }
+        actions.add(action.toString());
+        if (event == XMLStreamConstants.START_ELEMENT) {
+            skipElement(reader, null);
         }
     }
 
@@ -827,68 +827,66 @@ public class MessageStorage implements AutoCloseable {
         return Constants.RELEVANT_REPORT_BODIES.contains(name) || Constants.MSG_GET_MDIB_RESPONSE.equals(name);
     }
 
-    private void handleSoapBodyEvent(
-            final List<MdibVersionGroupEntity.MdibVersionGroup> mdibVersionGroups, final XMLEventReader reader)
+    // reads the direct children of the SOAP body, starting on its start element and ending on its end element
+    private void handleSoapBodyElement(
+            final List<MdibVersionGroupEntity.MdibVersionGroup> mdibVersionGroups, final XMLStreamReader reader)
             throws XMLStreamException {
         long childCounter = 0;
 
-        XMLEvent nextEvent;
-        var level = 0;
-        while (level >= 0) {
-            nextEvent = reader.nextEvent();
-            if (nextEvent.isStartElement()) {
-                level++;
-                // only add elements on level 1, i.e. direct children of the SOAP body
-                if (level == 1) {
-                    childCounter++;
-
-                    final StartElement startElement = nextEvent.asStartElement();
-
-                    final String bodyElementNameString = startElement.getName().toString();
-
-                    long mdibVersion = -3L;
-                    String sequenceId = null;
-
-                    if (this.checkElementSupportsMdibVersionSorting(startElement.getName())) {
-
-                        final Attribute mdibVersionAttribute = startElement.getAttributeByName(Constants.MDIB_VERSION);
-
-                        if (mdibVersionAttribute == null) {
-                            mdibVersion = 0L;
-                        } else if (mdibVersionAttribute.getValue() == null) {
-                            mdibVersion = -2L;
-                            this.testRunObserver.invalidateTestRun(
-                                    "Calling getValue on mdibVersionAttribute resulted in null. "
-                                            + "Saved -2L as a replacement value.");
-                        } else if (mdibVersionAttribute.getValue().equals("")) {
-                            mdibVersion = -1L;
-                            this.testRunObserver.invalidateTestRun(
-                                    "Encountered MdibVersion attribute that has an empty string as its value"
-                                            + "and saved -1L as a replacement value.");
-                        } else {
-                            try {
-                                mdibVersion = Long.parseLong(mdibVersionAttribute.getValue());
-                            } catch (NumberFormatException e) {
-                                this.testRunObserver.invalidateTestRun(e);
-                            }
-                        }
-
-                        final Attribute sequenceIdAttribute = startElement.getAttributeByName(Constants.SEQUENCE_ID);
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            childCounter++;
+
+            final QName bodyElementName = reader.getName();
+            if (!this.checkElementSupportsMdibVersionSorting(bodyElementName)) {
+                mdibVersionGroups.add(
+                        new MdibVersionGroupEntity.MdibVersionGroup(-3L, null, bodyElementName.toString(), null));
+                skipElement(reader, null);
+                continue;
+            }
 
-                        if (sequenceIdAttribute != null) {
-                            sequenceId = sequenceIdAttribute.getValue();
-                        } else {
-                            this.testRunObserver.invalidateTestRun(String.format(
-                                    "Encountered body with the QName %s " + "without a SequenceId attribute.",
-                                    startElement.getName()));
-                        }
-                    }
-                    mdibVersionGroups.add(new MdibVersionGroupEntity.MdibVersionGroup(
-                            mdibVersion, sequenceId, bodyElementNameString));
+            long mdibVersion = -3L;
+            final int mdibVersionIndex = findAttribute(reader, Constants.MDIB_VERSION);
+            if (mdibVersionIndex < 0) {
+                mdibVersion = 0L;
+            } else if (reader.getAttributeValue(mdibVersionIndex) == null) {
+                mdibVersion = -2L;
+                this.testRunObserver.invalidateTestRun("Calling getValue on mdibVersionAttribute resulted in null. "
+                        + "Saved -2L as a replacement value.");
+            } else if (reader.getAttributeValue(mdibVersionIndex).equals("")) {
+                mdibVersion = -1L;
+                this.testRunObserver.invalidateTestRun(
+                        "Encountered MdibVersion attribute that has an empty string as its value"
+                                + "and saved -1L as a replacement value.");
+            } else {
+                try {
+                    mdibVersion = Long.parseLong(reader.getAttributeValue(mdibVersionIndex));
+                } catch (NumberFormatException e) {
+                    this.testRunObserver.invalidateTestRun(e);
                 }
-            } else if (nextEvent.isEndElement()) {
-                level--;
             }
+
+            String sequenceId = null;
+            final int sequenceIdIndex = findAttribute(reader, Constants.SEQUENCE_ID);
+            if (sequenceIdIndex >= 0) {
+                sequenceId = reader.getAttributeValue(sequenceIdIndex);
+            } else {
+                this.testRunObserver.invalidateTestRun(String.format(
+                        "Encountered body with the QName %s " + "without a SequenceId attribute.", bodyElementName));
+            }
+            mdibVersionGroups.add(new MdibVersionGroupEntity.MdibVersionGroup(
+                    mdibVersion, sequenceId, bodyElementName.toString(), null));
+
+            // the hash is only known once the child is complete, malformed children keep no hash
+            final CanonicalElementHasher hasher = new CanonicalElementHasher();
+            skipElement(reader, hasher);
+            mdibVersionGroups.set(
+                    mdibVersionGroups.size() - 1,
+                    new MdibVersionGroupEntity.MdibVersionGroup(
+                            mdibVersion, sequenceId, bodyElementName.toString(), hasher.finish()));
         }
 
         if (childCounter > 1) {
@@ -897,6 +895,41 @@ public class MessageStorage implements AutoCloseable {
         }
     }
 
+    private static int findAttribute(final XMLStreamReader reader, final QName name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (name.equals(reader.getAttributeName(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves a reader positioned on a start element to the matching end element.
+     *
+     * @param reader positioned on a start element
+     * @param hasher to pass all events of the element to, or null if its content is not needed
+     * @throws XMLStreamException if the element is malformed
+     */
+    private static void skipElement(final XMLStreamReader reader, @Nullable final CanonicalElementHasher hasher)
+            throws XMLStreamException {
+        if (hasher != null) {
+            hasher.update(reader);
+        }
+        int level = 1;
+        while (level > 0) {
+            final int event = reader.next();
+            if (hasher != null) {
+                hasher.update(reader);
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
     /**
      * Creates a {@linkplain Message} object in which the message information can be written.
      *
@@ -952,18 +985,22 @@ public class MessageStorage implements AutoCloseable {
 
                 this.flush();
 
-                this.databaseInteractionThreads.forEach(DatabaseInteractionThread::setStopped);
-                this.databaseInteractionThreads.forEach(thread -> {
-                    try {
-                        thread.join();
-                    } catch (final InterruptedException e) {
-                        LOG.error("unable to wait for database interaction thread termination due to an interrupt", e);
-                        testRunObserver.invalidateTestRun(e);
-                    }
-                });
-
-                this.sessionFactory.close();
-                this.configuration.close();
+                if (this.overflowQueue != null) {
+                    this.overflowQueue.close();
+                }
+                LOG.info(
+                        "Message storage closed using overflow policy {}. Maximum queue depth was {}, {} entries "
+                                + "overflowed, adding entries stalled {} times for {} ms in total.",
+                        this.overflowPolicy,
+                        this.getMaximumQueueDepth(),
+                        this.getOverflowCount(),
+                        this.getStallCount(),
+                        TimeUnit.NANOSECONDS.toMillis(this.getStallTimeNanos()));
+
+                // all published entries have been written, so this only stops the handler threads
+                this.disruptor.shutdown();
+
+                this.storageBackend.close();
             }
         } finally {
             this.closeLock.unlock();
@@ -971,112 +1008,39 @@ public class MessageStorage implements AutoCloseable {
     }
 
     /**
-     * Sends all queued and buffered messages to the database and does a plausibility check via a select query.
+     * Sends all queued and buffered messages to the database and waits until they have been written.
      */
     public synchronized void flush() {
-
-        this.databaseInteractionThreads.forEach(DatabaseInteractionThread::triggerFlush);
-        final List<DatabaseEntry> temp = new ArrayList<>(this.blockingQueueSize);
-        this.messageQueue.drainTo(temp, this.blockingQueueSize);
-        this.awaitFlushBarrier();
-        // will not block at the barrier since other threads had already arrived at the barrier
-        this.flush(temp);
-    }
-
-    private void flush(final List<DatabaseEntry> messageList) {
-        this.flush(messageList, false, null);
-    }
-
-    private void flush(
-            final List<DatabaseEntry> messageList,
-            final boolean await,
-            @Nullable final DatabaseInteractionThread databaseInteractionThread) {
-
-        if (!messageList.isEmpty()) {
-
-            final var firstElement = messageList.get(0);
-            final var lastElement = messageList.get(messageList.size() - 1);
-            final String firstID = firstElement.getID();
-            final String lastID = lastElement.getID();
-
-            this.transmit(messageList);
-
-            // only uuid shall be selected, thus it is a string criteria query
-            final CriteriaQuery<String> criteriaFirst = buildCriteria(firstElement.getClass(), firstID);
-            final CriteriaQuery<String> criteriaLast = buildCriteria(lastElement.getClass(), lastID);
-
-            long uuidCount = 0;
-
-            while (uuidCount < 2) {
-
-                uuidCount = 0;
-
-                try (final Stream<String> uuidStream = this.getStreamForQuery(criteriaLast)) {
-                    final long lastIDCount = uuidStream.filter(lastID::equals).count();
-
-                    if (lastIDCount < 2) {
-                        uuidCount += lastIDCount;
-                    } else {
-                        throw new RuntimeException("duplicate uuid found in database");
-                    }
-                }
-
-                try (final Stream<String> uuidStream = this.getStreamForQuery(criteriaFirst)) {
-                    final long firstIDCount = uuidStream.filter(firstID::equals).count();
-
-                    if (firstIDCount < 2) {
-                        uuidCount += firstIDCount;
-                    } else {
-                        throw new RuntimeException("duplicate uuid found in database");
-                    }
+        try {
+            if (this.overflowQueue != null) {
+                // entries still waiting in the overflow queue have not been published yet
+                this.overflowQueue.awaitDrained();
+            }
+            final long publishedSequence = this.ringBuffer.getCursor();
+            synchronized (this.commitMonitor) {
+                while (!this.isCommitted(publishedSequence)) {
+                    this.commitMonitor.wait();
                 }
-
-                Thread.yield();
             }
-        }
-
-        if (databaseInteractionThread != null) {
-            databaseInteractionThread.resetFlushEvent();
-        }
-
-        if (await) {
-            this.awaitFlushBarrier();
+        } catch (final InterruptedException e) {
+            LOG.error("the message flush was interrupted", e);
+            testRunObserver.invalidateTestRun(e);
+            Thread.currentThread().interrupt();
         }
     }
 
-    private CriteriaQuery<String> buildCriteria(final Class<? extends DatabaseEntry> entryClass, final String id) {
-        final CriteriaQuery<String> criteria;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(String.class);
-            if (entryClass.equals(Message.class)) {
-                final Root<MessageContent> messageContentRoot = criteria.from(MessageContent.class);
-
-                // here we want only the uuid, not the whole row
-                criteria.select(messageContentRoot.get(MessageContent_.uuid));
-
-                criteria.where(criteriaBuilder.equal(messageContentRoot.get(MessageContent_.uuid), id));
-            } else if (entryClass.equals(ManipulationInfo.class)) {
-                final Root<ManipulationData> manipulationDataRoot = criteria.from(ManipulationData.class);
-
-                // here we want only the uuid, not the whole row
-                criteria.select(manipulationDataRoot.get(ManipulationData_.uuid));
-
-                criteria.where(criteriaBuilder.equal(manipulationDataRoot.get(ManipulationData_.uuid), id));
+    private boolean isCommitted(final long sequence) {
+        for (final StorageEventHandler handler : this.storageEventHandlers) {
+            if (handler.getCommittedSequence() < sequence) {
+                return false;
             }
         }
-        return criteria;
+        return true;
     }
 
-    private void awaitFlushBarrier() {
-        try {
-            this.flushBarrier.await();
-        } catch (InterruptedException | BrokenBarrierException e) {
-            LOG.error("the message flush was interrupted", e);
-            testRunObserver.invalidateTestRun(e);
-        }
+    private static int ringBufferSize(final int minimumSize) {
+        // the disruptor requires a power of two
+        return Integer.highestOneBit(Math.max(minimumSize, 2) - 1) << 1;
     }
 
     /**
@@ -1093,20 +1057,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_UNIQUE_SEQUENCE_IDS_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<String> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(String.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(
-                    messageContentRoot.join(MessageContent_.mdibVersionGroups).get(MdibVersionGroupEntity_.sequenceId));
-
-            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot.get(MessageContent_.nanoTimestamp)));
-        }
-
-        return this.getOrderedQueryResult(messageContentQuery).distinct();
+        return this.messageIndex.getSequenceIds();
     }
 
     /**
@@ -1122,23 +1073,29 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_INBOUND_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<MessageContent> criteria;
+        return this.createGetterResult(this.storageBackend::getInboundMessages);
+    }
 
-        try (final Session session = sessionFactory.openSession()) {
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = criteria.from(MessageContent.class);
-            criteria.select(messageContentRoot);
-            criteria.where(criteriaBuilder.equal(
-                    messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND));
-        }
+    /**
+     * Retrieves a projection of all incoming messages.
+     *
+     * <p>
+     * Only the part of the messages selected by the projection is read from the storage, e.g. retrieving the
+     * {@linkplain MessageProjection#METADATA} does not read any message body.
+     *
+     * @param projection part of the messages to retrieve
+     * @param <T>        type of the projected values
+     * @return container with stream of the projected values of all inbound messages
+     * @throws IOException if storage is closed
+     */
+    public <T> GetterResult<T> getInboundMessages(final MessageProjection<T> projection) throws IOException {
 
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
+        if (this.closed.get()) {
+            LOG.error(GET_INBOUND_MESSAGES_CALLED_ON_CLOSED_STORAGE);
+            throw new IOException(GET_INBOUND_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        return new GetterResult<>(this.getQueryResult(criteria), present);
+        return this.createGetterResult(() -> this.storageBackend.getInboundMessages(projection));
     }
 
     /**
@@ -1154,23 +1111,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_OUTBOUND_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<MessageContent> criteria;
-
-        try (final Session session = sessionFactory.openSession()) {
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = criteria.from(MessageContent.class);
-            criteria.select(messageContentRoot);
-            criteria.where(criteriaBuilder.equal(
-                    messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.OUTBOUND));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getQueryResult(criteria), present);
+        return this.createGetterResult(this.storageBackend::getOutboundMessages);
     }
 
     /**
@@ -1189,45 +1130,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_INBOUND_SOAP_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<HTTPHeaderEntity> headerSubQuery = messageContentQuery.subquery(HTTPHeaderEntity.class);
-            final Root<HTTPHeaderEntity> httpHeaderEntityRoot = headerSubQuery.from(HTTPHeaderEntity.class);
-            headerSubQuery.select(httpHeaderEntityRoot);
-
-            headerSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            httpHeaderEntityRoot.get(HTTPHeaderEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.and(
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerKey)),
-                                    HTTP_HEADER_NAME_CONTENT_TYPE),
-                            criteriaBuilder.like(
-                                    criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerValue)),
-                                    criteriaBuilder.literal("%application/soap+xml%")))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
-                    criteriaBuilder.or(
-                            criteriaBuilder.isTrue(messageContentRoot.get(MessageContent_.isSOAP)),
-                            criteriaBuilder.exists(headerSubQuery))));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getQueryResult(messageContentQuery), present);
+        return this.createGetterResult(this.storageBackend::getInboundSoapMessages);
     }
 
     /**
@@ -1246,47 +1149,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_INBOUND_SOAP_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<HTTPHeaderEntity> headerSubQuery = messageContentQuery.subquery(HTTPHeaderEntity.class);
-            final Root<HTTPHeaderEntity> httpHeaderEntityRoot = headerSubQuery.from(HTTPHeaderEntity.class);
-            headerSubQuery.select(httpHeaderEntityRoot);
-
-            headerSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            httpHeaderEntityRoot.get(HTTPHeaderEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.and(
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerKey)),
-                                    HTTP_HEADER_NAME_CONTENT_TYPE),
-                            criteriaBuilder.like(
-                                    criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerValue)),
-                                    criteriaBuilder.literal("%application/soap+xml%")))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.messageType), CommunicationLog.MessageType.RESPONSE),
-                    criteriaBuilder.or(
-                            criteriaBuilder.isTrue(messageContentRoot.get(MessageContent_.isSOAP)),
-                            criteriaBuilder.exists(headerSubQuery))));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getQueryResult(messageContentQuery), present);
+        return this.createGetterResult(this.storageBackend::getInboundSoapResponseMessages);
     }
 
     /**
@@ -1309,72 +1172,8 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(failureString);
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
-                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
-            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
-                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
-            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
-            final List<Predicate> bodyElementPredicates = new ArrayList<>();
-
-            for (final QName bodyElement : bodyTypes) {
-                bodyElementPredicates.add(criteriaBuilder.equal(
-                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
-            }
-
-            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
-
-            final Subquery<HTTPHeaderEntity> headerSubQuery = messageContentQuery.subquery(HTTPHeaderEntity.class);
-            final Root<HTTPHeaderEntity> httpHeaderEntityRoot = headerSubQuery.from(HTTPHeaderEntity.class);
-            headerSubQuery.select(httpHeaderEntityRoot);
-            final var headerPredicates = new ArrayList<Predicate>();
-            for (final AbstractMap.SimpleImmutableEntry<String, String> header : headers) {
-                headerPredicates.add(criteriaBuilder.and(
-                        criteriaBuilder.equal(
-                                criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerKey)),
-                                header.getKey()),
-                        criteriaBuilder.equal(
-                                criteriaBuilder.lower(httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerValue)),
-                                header.getValue())));
-            }
-            headerSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            httpHeaderEntityRoot.get(HTTPHeaderEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(headerPredicates.toArray(new Predicate[0]))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.OUTBOUND),
-                    criteriaBuilder.or(
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
-                                    Constants.HTTP_SCHEME),
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
-                                    Constants.HTTPS_SCHEME)),
-                    criteriaBuilder.exists(mdibVersionGroupSubQuery),
-                    criteriaBuilder.exists(headerSubQuery)));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getQueryResult(messageContentQuery), present);
+        return this.createGetterResult(
+                () -> this.storageBackend.getOutboundHttpMessagesByBodyTypeAndHeaders(bodyTypes, headers));
     }
 
     /**
@@ -1392,32 +1191,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_INBOUND_SOAP_MESSAGES_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final CriteriaQuery<MessageContent> criteria;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = criteria.from(MessageContent.class);
-            criteria.select(messageContentRoot);
-            criteria.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
-                    criteriaBuilder.or(
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
-                                    Constants.HTTP_SCHEME),
-                            criteriaBuilder.equal(
-                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
-                                    Constants.HTTPS_SCHEME))));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getQueryResult(criteria), present);
+        return this.createGetterResult(this.storageBackend::getInboundHttpMessages);
     }
 
     /**
@@ -1449,55 +1223,11 @@ public class MessageStorage implements AutoCloseable {
             }
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
-                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
-            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
-                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
-            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
-            final List<Predicate> bodyElementPredicates = new ArrayList<>();
-
-            for (final QName bodyElement : bodyTypes) {
-                bodyElementPredicates.add(criteriaBuilder.and(
-                        criteriaBuilder.equal(
-                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement),
-                                bodyElement.toString()),
-                        criteriaBuilder.equal(
-                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.sequenceId), sequenceId)));
-            }
-
-            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
-                    criteriaBuilder.exists(mdibVersionGroupSubQuery)));
-
-            messageContentQuery.orderBy(
-                    criteriaBuilder.asc(messageContentRoot
-                            .join(MessageContent_.mdibVersionGroups)
-                            .get(MdibVersionGroupEntity_.mdibVersion)),
-                    criteriaBuilder.asc(messageContentRoot.get(MessageContent_.nanoTimestamp)));
-        }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getOrderedQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
+        if (!this.messageIndex.containsInbound(sequenceId, bodyTypes)) {
+            return this.createGetterResult(Stream::empty);
         }
-
-        return new GetterResult<>(this.getOrderedQueryResult(messageContentQuery), present);
+        return this.createGetterResult(
+                () -> this.storageBackend.getInboundMessagesByBodyTypeAndSequenceId(sequenceId, bodyTypes));
     }
 
     /**
@@ -1530,57 +1260,61 @@ public class MessageStorage implements AutoCloseable {
             }
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
+        if (!enableSorting) {
+            // the index already knows the matching messages, only their content has to be read
+            final long[] messageIds = this.messageIndex.getInboundMessageIds(bodyTypes);
+            return this.createGetterResult(() -> this.storageBackend.getMessagesByIds(messageIds));
+        }
+        if (!this.messageIndex.containsInbound(bodyTypes)) {
+            return this.createGetterResult(Stream::empty);
+        }
+        return this.createGetterResult(() -> this.storageBackend.getInboundMessagesByBodyType(true, bodyTypes));
+    }
 
-            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
-                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
-            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
-                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
-            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
-            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+    /**
+     * Retrieves all messages which contain any of the provided WS-Addressing actions.
+     *
+     * <p>
+     * Messages are sorted in the order they have been written.
+     *
+     * @param actions to match messages against
+     * @return container with stream of all matching {@linkplain MessageContent}s
+     * @throws IOException if storage is closed
+     */
+    public GetterResult<MessageContent> getMessagesByAction(final String... actions) throws IOException {
+        if (this.closed.get()) {
+            LOG.error(GET_MESSAGES_BY_ACTION_CALLED_ON_CLOSED_STORAGE);
+            throw new IOException(GET_MESSAGES_BY_ACTION_CALLED_ON_CLOSED_STORAGE);
+        }
 
-            for (final QName bodyElement : bodyTypes) {
-                bodyElementPredicates.add(criteriaBuilder.equal(
-                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
-            }
+        final long[] messageIds = this.messageIndex.getMessageIdsByAction(actions);
+        return this.createGetterResult(() -> this.storageBackend.getMessagesByIds(messageIds));
+    }
 
-            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
-                    criteriaBuilder.exists(mdibVersionGroupSubQuery)));
-
-            if (enableSorting) {
-                messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
-                        .join(MessageContent_.mdibVersionGroups)
-                        .get(MdibVersionGroupEntity_.mdibVersion)));
-            }
+    /**
+     * Retrieves a projection of all incoming messages which match any of the provided body element QNames.
+     *
+     * <p>
+     * Only the part of the messages selected by the projection is read from the storage. The projected values are
+     * not sorted.
+     *
+     * @param projection part of the messages to retrieve
+     * @param bodyTypes  to match messages against
+     * @param <T>        type of the projected values
+     * @return container with stream of the projected values of all matching inbound messages
+     * @throws IOException if storage is closed
+     */
+    public <T> GetterResult<T> getInboundMessagesByBodyType(
+            final MessageProjection<T> projection, final QName... bodyTypes) throws IOException {
+        if (this.closed.get()) {
+            LOG.error(GET_INBOUND_MESSAGE_BY_BODY_TYPE_CALLED_ON_CLOSED_STORAGE);
+            throw new IOException(GET_INBOUND_MESSAGE_BY_BODY_TYPE_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = enableSorting
-                ? this.getOrderedQueryResult(messageContentQuery)
-                : this.getQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
+        if (!this.messageIndex.containsInbound(bodyTypes)) {
+            return this.createGetterResult(Stream::empty);
         }
-
-        return new GetterResult<>(
-                enableSorting
-                        ? this.getOrderedQueryResult(messageContentQuery)
-                        : this.getQueryResult(messageContentQuery),
-                present);
+        return this.createGetterResult(() -> this.storageBackend.getInboundMessagesByBodyType(projection, bodyTypes));
     }
 
     /**
@@ -1612,25 +1346,7 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_MANIPULATION_DATA_BY_MANIPULATION);
         }
 
-        final CriteriaQuery<ManipulationData> criteria;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(ManipulationData.class);
-            final Root<ManipulationData> manipulationDataRoot = criteria.from(ManipulationData.class);
-            criteria.select(manipulationDataRoot);
-            // the answer should adhere to the order in which the manipulations have been performed,
-            // even when mixing bodies
-            criteria.orderBy(criteriaBuilder.asc(manipulationDataRoot.get(ManipulationData_.startTimestamp)));
-        }
-
-        final boolean present;
-        try (final Stream<ManipulationData> countingStream = this.getOrderedQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getOrderedQueryResult(criteria), present);
+        return this.createGetterResult(this.storageBackend::getManipulationData);
     }
 
     /**
@@ -1662,54 +1378,11 @@ public class MessageStorage implements AutoCloseable {
             }
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
-                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
-            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
-                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
-            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
-            final List<Predicate> bodyElementPredicates = new ArrayList<>();
-
-            for (final QName bodyElement : reportTypes) {
-                bodyElementPredicates.add(criteriaBuilder.equal(
-                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
-            }
-
-            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.and(
-                            criteriaBuilder.ge(messageContentRoot.get(MessageContent_.nanoTimestamp), startTimestamp),
-                            criteriaBuilder.le(messageContentRoot.get(MessageContent_.nanoTimestamp), finishTimestamp)),
-                    criteriaBuilder.and(
-                            criteriaBuilder.equal(
-                                    messageContentRoot.get(MessageContent_.direction),
-                                    CommunicationLog.Direction.INBOUND),
-                            criteriaBuilder.exists(mdibVersionGroupSubQuery))));
-
-            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
-                    .join(MessageContent_.mdibVersionGroups)
-                    .get(MdibVersionGroupEntity_.mdibVersion)));
+        if (!this.messageIndex.containsInbound(reportTypes)) {
+            return this.createGetterResult(Stream::empty);
         }
-
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getOrderedQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getOrderedQueryResult(messageContentQuery), present);
+        return this.createGetterResult(() -> this.storageBackend.getInboundMessagesByTimeIntervalAndBodyType(
+                startTimestamp, finishTimestamp, reportTypes));
     }
 
     /**
@@ -1740,56 +1413,51 @@ public class MessageStorage implements AutoCloseable {
             }
         }
 
-        final CriteriaQuery<MessageContent> messageContentQuery;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
-            final Root<MessageContent> messageContentRoot = messageContentQuery.from(MessageContent.class);
-            messageContentQuery.select(messageContentRoot);
-
-            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
-                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
-            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
-                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
-            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
-            final List<Predicate> bodyElementPredicates = new ArrayList<>();
-
-            for (final QName bodyElement : reportTypes) {
-                bodyElementPredicates.add(criteriaBuilder.and(
-                        criteriaBuilder.equal(
-                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement),
-                                bodyElement.toString()),
-                        criteriaBuilder.equal(
-                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.sequenceId), sequenceId)));
-            }
-
-            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.equal(
-                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
-                            messageContentRoot.get(MessageContent_.incId)),
-                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
-
-            messageContentQuery.where(criteriaBuilder.and(
-                    criteriaBuilder.lt(messageContentRoot.get(MessageContent_.nanoTimestamp), finishTimestamp),
-                    criteriaBuilder.and(
-                            criteriaBuilder.equal(
-                                    messageContentRoot.get(MessageContent_.direction),
-                                    CommunicationLog.Direction.INBOUND),
-                            criteriaBuilder.exists(mdibVersionGroupSubQuery))));
+        if (!this.messageIndex.containsInbound(sequenceId, reportTypes)) {
+            return this.createGetterResult(Stream::empty);
+        }
+        return this.createGetterResult(() ->
+                this.storageBackend.getInboundMessagesByTimestampAndBodyType(sequenceId, finishTimestamp, reportTypes));
+    }
 
-            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
-                    .join(MessageContent_.mdibVersionGroups)
-                    .get(MdibVersionGroupEntity_.mdibVersion)));
+    /**
+     * Retrieves all incoming messages which match any of the provided body element QNames with an MdibVersion greater
+     * than the given one and that were received before the given timestamp and with the same sequenceId.
+     *
+     * <p>
+     * Messages are sorted by MdibVersion on the inner join result.
+     *
+     * @param sequenceId         SequenceId attribute value to filter for
+     * @param minimumMdibVersion MdibVersion to filter out reports with an equal or lower value
+     * @param finishTimestamp    timestamp to filter out reports with a higher value
+     * @param reportTypes        to match message against
+     * @return container with stream of all matching inbound {@linkplain MessageContent}s
+     * @throws IOException if storage is closed
+     */
+    public GetterResult<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            final String sequenceId,
+            final long minimumMdibVersion,
+            final long finishTimestamp,
+            final QName... reportTypes)
+            throws IOException {
+        if (this.closed.get()) {
+            LOG.error(GET_INBOUND_MESSAGE_BY_TIMESTAMP_CALLED_ON_CLOSED_STORAGE);
+            throw new IOException(GET_INBOUND_MESSAGE_BY_TIMESTAMP_CALLED_ON_CLOSED_STORAGE);
         }
 
-        final boolean present;
-        try (final Stream<MessageContent> countingStream = this.getOrderedQueryResult(messageContentQuery)) {
-            present = countingStream.findAny().isPresent();
+        for (final QName qname : reportTypes) {
+            if (!this.checkElementSupportsMdibVersionSorting(qname)) {
+                final String localErrorMessage = String.format(FILTERING_FOR_GIVEN_ELEMENT_NAME_NOT_IMPLEMENTED, qname);
+                this.testRunObserver.invalidateTestRun(localErrorMessage);
+                throw new UnsupportedOperationException(localErrorMessage);
+            }
         }
 
-        return new GetterResult<>(this.getOrderedQueryResult(messageContentQuery), present);
+        if (!this.messageIndex.containsInbound(sequenceId, reportTypes)) {
+            return this.createGetterResult(Stream::empty);
+        }
+        return this.createGetterResult(() -> this.storageBackend.getInboundMessagesByTimestampAndBodyType(
+                sequenceId, minimumMdibVersion, finishTimestamp, reportTypes));
     }
 
     /**
@@ -1809,31 +1477,8 @@ public class MessageStorage implements AutoCloseable {
             throw new IOException(GET_MANIPULATION_DATA_BY_MANIPULATION);
         }
 
-        final CriteriaQuery<ManipulationData> criteria;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(ManipulationData.class);
-            final Root<ManipulationData> manipulationDataRoot = criteria.from(ManipulationData.class);
-            criteria.select(manipulationDataRoot);
-            final var predicates = new ArrayList<Predicate>();
-            for (final var manipulationName : manipulationNames) {
-                predicates.add(criteriaBuilder.equal(
-                        manipulationDataRoot.get(ManipulationData_.methodName), manipulationName));
-            }
-            criteria.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
-            // the answer should adhere to the order in which the manipulations have been performed,
-            // even when mixing bodies
-            criteria.orderBy(criteriaBuilder.asc(manipulationDataRoot.get(ManipulationData_.startTimestamp)));
-        }
-
-        final boolean present;
-        try (final Stream<ManipulationData> countingStream = this.getOrderedQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
-        }
-
-        return new GetterResult<>(this.getOrderedQueryResult(criteria), present);
+        return this.createGetterResult(
+                () -> this.storageBackend.getManipulationDataByManipulation(manipulationNames));
     }
 
     /**
@@ -1859,135 +1504,12 @@ public class MessageStorage implements AutoCloseable {
             return getManipulationDataByManipulation(manipulationName);
         }
 
-        final CriteriaQuery<ManipulationData> criteria;
-        try (final Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-
-            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
-            criteria = criteriaBuilder.createQuery(ManipulationData.class);
-            final Root<ManipulationData> root = criteria.from(ManipulationData.class);
-            criteria.select(root);
-
-            final var rootPredicates = new ArrayList<Predicate>();
-            rootPredicates.add(criteriaBuilder.equal(root.get(ManipulationData_.methodName), manipulationName));
-
-            final List<Predicate> parameterExistPredicates = new ArrayList<>();
-
-            for (var parameterData : parameter.getParameterData()) {
-                final var parameterSubquery = criteria.subquery(ManipulationParameter.class);
-                final Root<ManipulationParameter> manipulationParameterRoot =
-                        parameterSubquery.from(ManipulationParameter.class);
-                parameterSubquery
-                        .select(manipulationParameterRoot)
-                        .where(criteriaBuilder.and(
-                                criteriaBuilder.equal(
-                                        manipulationParameterRoot.get(ManipulationParameter_.manipulationData),
-                                        root.get(ManipulationData_.incId)),
-                                criteriaBuilder.and(
-                                        criteriaBuilder.equal(
-                                                manipulationParameterRoot.get(ManipulationParameter_.parameterName),
-                                                parameterData.getKey()),
-                                        criteriaBuilder.equal(
-                                                manipulationParameterRoot.get(ManipulationParameter_.parameterValue),
-                                                parameterData.getValue()))));
-                parameterExistPredicates.add(criteriaBuilder.exists(parameterSubquery));
-            }
-
-            criteria.where(criteriaBuilder.and(
-                    criteriaBuilder.and(rootPredicates.toArray(new Predicate[0])),
-                    criteriaBuilder.and(parameterExistPredicates.toArray(new Predicate[0]))));
-        }
-        final boolean present;
-        try (final Stream<ManipulationData> countingStream = this.getOrderedQueryResult(criteria)) {
-            present = countingStream.findAny().isPresent();
-        }
-        return new GetterResult<>(this.getOrderedQueryResult(criteria), present);
-    }
-
-    private <T> Stream<T> getQueryResult(final CriteriaQuery<T> criteriaQuery) {
-        final Session session = sessionFactory.openSession();
-        final Stream<T> results = getStreamForQuery(session, criteriaQuery);
-
-        final ResultIterator<T> resultIterator = new ResultIterator<>(session, results);
-
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED), false)
-                .onClose(resultIterator::close);
+        return this.createGetterResult(
+                () -> this.storageBackend.getManipulationDataByParametersAndManipulation(parameter, manipulationName));
     }
 
-    private <T> Stream<T> getOrderedQueryResult(final CriteriaQuery<T> criteriaQuery) {
-        final Session session = sessionFactory.openSession();
-        final Stream<T> results = getOrderedStreamForQuery(session, criteriaQuery);
-
-        final ResultIterator<T> resultIterator = new ResultIterator<>(session, results);
-
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED), false)
-                .onClose(resultIterator::close);
-    }
-
-    // be aware, that this does not use evict on cached objects
-    private <T> Stream<T> getStreamForQuery(final CriteriaQuery<T> criteriaQuery) {
-        final Session session = sessionFactory.openSession();
-        final Stream<T> results =
-                session
-                        .createQuery(criteriaQuery)
-                        .setReadOnly(true)
-                        .setCacheable(false)
-                        .setFetchSize(FETCH_SIZE)
-                        .stream();
-
-        return results.onClose(session::close);
-    }
-
-    // be aware, that this does not use evict on cached objects
-    private <T> Stream<T> getStreamForQuery(final Session session, final CriteriaQuery<T> criteriaQuery) {
-        return session
-                .createQuery(criteriaQuery)
-                .setReadOnly(true)
-                .setCacheable(false)
-                .setFetchSize(FETCH_SIZE)
-                .stream();
-    }
-
-    // be aware, that this does not use evict on cached objects
-    private <T> Stream<T> getOrderedStreamForQuery(final Session session, final CriteriaQuery<T> criteriaQuery) {
-        // The stream provided by Hibernate does not have the ORDERED characteristic.
-        // We hence build our own.
-        final ScrollableResultsImplementor scrollableResults =
-                (ScrollableResultsImplementor) session.createQuery(criteriaQuery)
-                        .setReadOnly(true)
-                        .setCacheable(false)
-                        .setFetchSize(FETCH_SIZE)
-                        .scroll(ScrollMode.FORWARD_ONLY);
-        final OrderedStreamIterator<T> iterator = new OrderedStreamIterator<>(scrollableResults);
-        final Spliterator<T> spliterator =
-                Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.ORDERED);
-
-        return new StreamDecorator<>(StreamSupport.stream(spliterator, false), scrollableResults::close);
-    }
-
-    private void transmit(final List<DatabaseEntry> results) {
-        try (final Session session = sessionFactory.openSession()) {
-            final Transaction transaction = session.beginTransaction();
-
-            for (int i = 0; i < results.size(); i++) {
-                final var entry = results.get(i);
-                if (entry instanceof Message) {
-                    final MessageContent content = convertMessageToMessageContent((Message) entry);
-                    session.save(content);
-                } else if (entry instanceof ManipulationInfo) {
-                    final ManipulationData content =
-                            convertManipulationInfoToManipulationData((ManipulationInfo) entry);
-                    session.save(content);
-                }
-
-                if (i % configuration.getInsertBatchSize() == 0) {
-                    session.flush();
-                    session.clear();
-                }
-            }
-
-            transaction.commit();
-        }
+    private <T> GetterResult<T> createGetterResult(final Supplier<Stream<T>> query) {
+        return new GetterResult<>(query.get());
     }
 
     /**
@@ -2005,22 +1527,26 @@ public class MessageStorage implements AutoCloseable {
      * @return the count
      */
     public long getInvalidMimeTypeErrorCount() {
-        return this.invalidMimeTypeCount;
+        return this.invalidMimeTypeCount.get();
     }
 
     /**
      * Container for the query result stream and the information on whether the objects are present. This shall
      * always be closed after usage!
      *
+     * <p>
+     * The presence of objects is determined lazily by peeking at the first element of the query result, the query
+     * itself is only executed once.
+     *
      * @param <T> query result stream type
      */
     public static final class GetterResult<T> implements AutoCloseable {
         private final Stream<T> stream;
-        private final boolean objectsPresent;
+        private final PeekingSpliterator<T> spliterator;
 
-        private GetterResult(final Stream<T> stream, final boolean objectsPresent) {
-            this.stream = stream;
-            this.objectsPresent = objectsPresent;
+        private GetterResult(final Stream<T> queryResult) {
+            this.spliterator = new PeekingSpliterator<>(queryResult.spliterator());
+            this.stream = StreamSupport.stream(this.spliterator, false).onClose(queryResult::close);
         }
 
         public Stream<T> getStream() {
@@ -2031,7 +1557,7 @@ public class MessageStorage implements AutoCloseable {
          * @return true if at least one object is present, otherwise false.
          */
         public boolean areObjectsPresent() {
-            return objectsPresent;
+            return this.spliterator.hasAnyElement();
         }
 
         @Override
@@ -2040,110 +1566,108 @@ public class MessageStorage implements AutoCloseable {
         }
     }
 
-    private static class ResultIterator<T> implements Iterator<T>, AutoCloseable {
-        private final Session session;
-        private final Iterator<T> iterator;
-        private final Stream<T> originStream;
-        private T currentElement;
-
-        ResultIterator(final Session session, final Stream<T> originStream) {
-            this.session = session;
-            this.iterator = originStream.iterator();
-            this.originStream = originStream;
-        }
-
-        @Override
-        public boolean hasNext() {
-            return this.iterator.hasNext();
-        }
+    private static final class EntryEvent {
+        private static final EventTranslatorOneArg<EntryEvent, DatabaseEntry> TRANSLATOR =
+                (event, sequence, databaseEntry) -> event.entry = databaseEntry;
 
-        @Override
-        public T next() {
-            if (this.currentElement != null) {
-                try {
-                    this.session.evict(this.currentElement);
-                } catch (IllegalArgumentException e) {
-                    this.session.clear();
-                }
-            }
+        @Nullable
+        private DatabaseEntry entry;
 
-            this.currentElement = this.iterator.next();
-            return this.currentElement;
-        }
+        @Nullable
+        private MessageContent messageContent;
 
-        @Override
-        public void close() {
-            this.currentElement = null;
-            this.originStream.close();
-            this.session.close();
-        }
+        @Nullable
+        private ManipulationData manipulationData;
     }
 
-    private final class DatabaseInteractionThread extends Thread {
-        private final AtomicBoolean stopped;
-        private final AtomicBoolean flushEvent;
-
-        private DatabaseInteractionThread() {
-
-            this.stopped = new AtomicBoolean();
-            this.flushEvent = new AtomicBoolean();
-        }
+    /**
+     * Converts the entries of every handlerCount-th sequence of the ring buffer, starting at ordinal, into the
+     * entities persisted by the storage backend.
+     */
+    private final class DecodeEventHandler implements EventHandler<EntryEvent> {
+        private final int ordinal;
+        private final int handlerCount;
 
-        public void setStopped() {
-            if (!this.stopped.compareAndSet(false, true)) {
-                LOG.error("setStopped called on already stopped thread");
-            }
+        private DecodeEventHandler(final int ordinal, final int handlerCount) {
+            this.ordinal = ordinal;
+            this.handlerCount = handlerCount;
         }
 
-        public void triggerFlush() {
-            if (!this.flushEvent.compareAndSet(false, true)) {
-                throw new RuntimeException("a previous flush has not been finished");
+        @Override
+        public void onEvent(final EntryEvent event, final long sequence, final boolean endOfBatch) {
+            if (sequence % this.handlerCount != this.ordinal) {
+                return;
             }
-        }
-
-        private void drainQueue() {
-            final List<DatabaseEntry> results = new ArrayList<>(blockingQueueSize);
-
-            queueExitLock.lock();
             try {
-                while (results.size() < blockingQueueSize && !this.stopped.get()) {
-                    final DatabaseEntry polledElement = messageQueue.poll(100L, TimeUnit.MICROSECONDS);
-                    if (polledElement != null) {
-                        results.add(polledElement);
-                    }
-
-                    if (this.flushEvent.get()) {
-                        queueExitLock.unlock();
-                        try {
-                            // will block at the barrier
-                            flush(results, true, this);
-                            results.clear();
-                        } finally {
-                            queueExitLock.lock();
-                        }
-                    }
+                if (event.entry instanceof final Message message) {
+                    event.messageContent = convertMessageToMessageContent(message);
+                } else if (event.entry instanceof final ManipulationInfo manipulationInfo) {
+                    event.manipulationData = convertManipulationInfoToManipulationData(manipulationInfo);
                 }
-            } catch (final InterruptedException e) {
-                LOG.error("the message content queue poll was interrupted", e);
+            } catch (final RuntimeException e) {
+                LOG.error("unable to decode entry {}", event.entry.getID(), e);
                 testRunObserver.invalidateTestRun(e);
             } finally {
-                queueExitLock.unlock();
+                // release the raw message, only the decoded entity is needed from here on
+                event.entry = null;
             }
+        }
+    }
 
-            transmit(results);
+    /**
+     * Writes the decoded entries of every handlerCount-th sequence of the ring buffer, starting at ordinal, in
+     * batches.
+     */
+    private final class StorageEventHandler implements EventHandler<EntryEvent> {
+        private final int ordinal;
+        private final int handlerCount;
+        private final List<MessageContent> messageContents;
+        private final List<ManipulationData> manipulationData;
+        private volatile long committedSequence;
+
+        private StorageEventHandler(final int ordinal, final int handlerCount) {
+            this.ordinal = ordinal;
+            this.handlerCount = handlerCount;
+            this.messageContents = new ArrayList<>(blockingQueueSize);
+            this.manipulationData = new ArrayList<>();
+            this.committedSequence = -1;
         }
 
-        public void resetFlushEvent() {
-            if (!this.flushEvent.compareAndSet(true, false)) {
-                final String flushEventEarlyReset = "The flush event was reset too early";
-                LOG.error(flushEventEarlyReset);
-                testRunObserver.invalidateTestRun(flushEventEarlyReset);
-            }
+        private long getCommittedSequence() {
+            return this.committedSequence;
         }
 
-        public void run() {
-            while (!this.stopped.get()) {
-                drainQueue();
+        @Override
+        public void onEvent(final EntryEvent event, final long sequence, final boolean endOfBatch) {
+            if (sequence % this.handlerCount == this.ordinal) {
+                if (event.messageContent != null) {
+                    this.messageContents.add(event.messageContent);
+                }
+                if (event.manipulationData != null) {
+                    this.manipulationData.add(event.manipulationData);
+                }
+                // release the references, the slot is reused once all handlers are past this sequence
+                event.messageContent = null;
+                event.manipulationData = null;
+            }
+            final int buffered = this.messageContents.size() + this.manipulationData.size();
+            if (buffered >= blockingQueueSize || (endOfBatch && buffered > 0)) {
+                try {
+                    storageBackend.write(this.messageContents, this.manipulationData);
+                    messageIndex.addAll(this.messageContents);
+                } catch (final RuntimeException e) {
+                    LOG.error("unable to write messages to the storage backend", e);
+                    testRunObserver.invalidateTestRun(e);
+                } finally {
+                    this.messageContents.clear();
+                    this.manipulationData.clear();
+                }
+            }
+            if (endOfBatch) {
+                this.committedSequence = sequence;
+                synchronized (commitMonitor) {
+                    commitMonitor.notifyAll();
+                }
             }
         }
     }
@@ -0,0 +1,41 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages;
+
+import java.util.Locale;
+
+/**
+ * Behavior of the {@linkplain MessageStorage} when messages arrive faster than they can be written.
+ *
+ * <p>
+ * None of the policies drops messages.
+ */
+public enum OverflowPolicy {
+    /**
+     * The thread adding a message waits until the buffer has capacity again, which is the default.
+     */
+    BLOCK,
+    /**
+     * Messages exceeding the buffer are kept in an in-memory queue which grows as needed.
+     */
+    GROW,
+    /**
+     * Messages exceeding the buffer are queued with their content spilled to a journal on disk.
+     */
+    SPILL;
+
+    /**
+     * Parses the value of the SDCcc.Commlog.OverflowPolicy setting.
+     *
+     * @param name of the policy, case-insensitive
+     * @return the matching policy
+     * @throws IllegalArgumentException if no policy with the name exists
+     */
+    public static OverflowPolicy fromName(final String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages;
+
+import com.draeger.medical.sdccc.util.TestRunObserver;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Unbounded queue in front of the {@linkplain MessageStorage} ring buffer, used by the
+ * {@linkplain OverflowPolicy#GROW} and {@linkplain OverflowPolicy#SPILL} policies.
+ *
+ * <p>
+ * Entries are only queued while the ring buffer is full or older entries are still queued, and are moved into the
+ * ring buffer by a single drainer thread in the order they were added. With spilling enabled, a journal writer thread
+ * moves the content of queued {@linkplain Message}s into a journal file in the test run directory, where it is kept
+ * until the entry is moved into the ring buffer. Adding an entry never waits for the journal, entries which are
+ * drained before their content has been spilled are published with the content still in memory.
+ */
+final class OverflowQueue implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(OverflowQueue.class);
+
+    private static final String JOURNAL_PREFIX = "commlog-overflow";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final Predicate<DatabaseEntry> tryPublisher;
+    private final Consumer<DatabaseEntry> publisher;
+    private final TestRunObserver testRunObserver;
+    @Nullable
+    private final Path journalDirectory;
+
+    private final Object lock;
+    private final ArrayDeque<QueuedEntry> queue;
+    // queued messages whose content has not been spilled yet, guarded by lock
+    private final ArrayDeque<QueuedEntry> unspilled;
+    private final Thread drainer;
+    @Nullable
+    private final Thread journalWriter;
+
+    // guarded by lock
+    private long addedCount;
+    private long publishedCount;
+    private boolean closed;
+
+    // created by the journal writer, published to the drainer through the offsets of spilled entries
+    @Nullable
+    private FileChannel journal;
+
+    // only accessed by the journal writer
+    private long journalLength;
+
+    /**
+     * Creates and starts the queue.
+     *
+     * @param policy           either {@linkplain OverflowPolicy#GROW} or {@linkplain OverflowPolicy#SPILL}
+     * @param journalDirectory directory to create the journal in, only used by {@linkplain OverflowPolicy#SPILL}
+     * @param tryPublisher     publishes an entry into the ring buffer if it has capacity, returning whether it did
+     * @param publisher        publishes an entry into the ring buffer, waiting for capacity
+     * @param testRunObserver  to invalidate the test run if a spilled entry cannot be restored
+     */
+    OverflowQueue(
+            final OverflowPolicy policy,
+            @Nullable final Path journalDirectory,
+            final Predicate<DatabaseEntry> tryPublisher,
+            final Consumer<DatabaseEntry> publisher,
+            final TestRunObserver testRunObserver) {
+        this.tryPublisher = tryPublisher;
+        this.publisher = publisher;
+        this.testRunObserver = testRunObserver;
+        this.lock = new Object();
+        this.queue = new ArrayDeque<>();
+        this.unspilled = new ArrayDeque<>();
+        this.drainer = new Thread(this::drain, "MessageStorage-overflow");
+        this.drainer.setDaemon(true);
+        if (policy == OverflowPolicy.SPILL) {
+            this.journalDirectory = Objects.requireNonNull(journalDirectory, "spilling requires a journal directory");
+            this.journalWriter = new Thread(this::writeJournal, "MessageStorage-overflow-journal");
+            this.journalWriter.setDaemon(true);
+            this.journalWriter.start();
+        } else {
+            this.journalDirectory = null;
+            this.journalWriter = null;
+        }
+        this.drainer.start();
+    }
+
+    /**
+     * Publishes the entry into the ring buffer if possible, otherwise queues it.
+     *
+     * @param entry to publish
+     * @return true if the entry had to be queued, false if it was published directly
+     */
+    boolean add(final DatabaseEntry entry) {
+        synchronized (this.lock) {
+            // queued entries go first to keep the order in which entries were added
+            if (this.queue.isEmpty() && this.tryPublisher.test(entry)) {
+                return false;
+            }
+            final QueuedEntry queued = new QueuedEntry(entry);
+            this.queue.add(queued);
+            if (this.journalWriter != null && entry instanceof Message) {
+                this.unspilled.add(queued);
+            }
+            this.addedCount++;
+            this.lock.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Waits until every entry queued before this call has been published into the ring buffer.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitDrained() throws InterruptedException {
+        synchronized (this.lock) {
+            final long target = this.addedCount;
+            while (this.publishedCount < target) {
+                this.lock.wait();
+            }
+        }
+    }
+
+    /**
+     * @return number of entries currently queued
+     */
+    int size() {
+        synchronized (this.lock) {
+            return this.queue.size();
+        }
+    }
+
+    /**
+     * @return number of entries which had to be queued since the queue was created
+     */
+    long getOverflowCount() {
+        synchronized (this.lock) {
+            return this.addedCount;
+        }
+    }
+
+    /**
+     * Stops the drainer once all queued entries have been published, stops the journal writer and removes the
+     * journal.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            this.closed = true;
+            this.lock.notifyAll();
+        }
+        try {
+            this.drainer.join();
+            if (this.journalWriter != null) {
+                this.journalWriter.join();
+            }
+        } catch (final InterruptedException e) {
+            LOG.error("Interrupted while waiting for the overflow queue to drain", e);
+            this.testRunObserver.invalidateTestRun(e);
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this.lock) {
+            if (this.journal != null) {
+                try {
+                    this.journal.close();
+                } catch (final IOException e) {
+                    LOG.warn("Could not close the overflow journal", e);
+                }
+                this.journal = null;
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final QueuedEntry next;
+            final long journalOffset;
+            final FileChannel journalChannel;
+            synchronized (this.lock) {
+                try {
+                    while (this.queue.isEmpty() && !this.closed) {
+                        this.lock.wait();
+                    }
+                } catch (final InterruptedException e) {
+                    LOG.error("The overflow queue was interrupted with {} entries queued", this.queue.size(), e);
+                    this.testRunObserver.invalidateTestRun(e);
+                    return;
+                }
+                if (this.queue.isEmpty()) {
+                    return;
+                }
+                // the head stays queued while it is published, so newer entries cannot overtake it and the journal
+                // is not truncated while it is read
+                next = this.queue.peek();
+                next.taken = true;
+                journalOffset = next.journalOffset;
+                journalChannel = this.journal;
+            }
+
+            if (journalOffset >= 0) {
+                this.restoreContent((Message) next.entry, journalChannel, journalOffset, next.length);
+            }
+            this.publisher.accept(next.entry);
+
+            synchronized (this.lock) {
+                this.queue.poll();
+                this.publishedCount++;
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeJournal() {
+        while (true) {
+            final QueuedEntry next;
+            final byte[] content;
+            synchronized (this.lock) {
+                try {
+                    while (this.unspilled.isEmpty() && !this.isJournalObsolete() && !this.closed) {
+                        this.lock.wait();
+                    }
+                } catch (final InterruptedException e) {
+                    LOG.error("The overflow journal writer was interrupted", e);
+                    this.testRunObserver.invalidateTestRun(e);
+                    return;
+                }
+                if (this.closed) {
+                    // remaining entries are drained with their content in memory
+                    return;
+                }
+                next = this.unspilled.poll();
+                content = next != null && !next.taken ? ((Message) next.entry).getFinalMemory() : null;
+            }
+
+            if (next == null) {
+                this.truncateJournal();
+            } else if (content != null) {
+                this.spillContent(next, content);
+            }
+        }
+    }
+
+    // guarded by lock, no queued entry refers to the content of the journal anymore
+    private boolean isJournalObsolete() {
+        return this.queue.isEmpty() && this.journalLength > 0;
+    }
+
+    private void spillContent(final QueuedEntry queued, final byte[] content) {
+        final long offset = this.journalLength;
+        try {
+            final FileChannel journalChannel = this.openJournal();
+            final ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                journalChannel.write(buffer, offset + buffer.position());
+            }
+            this.journalLength += content.length;
+        } catch (final IOException e) {
+            // keeping the content in memory is preferable to losing it
+            LOG.warn(
+                    "Could not spill message {} to the overflow journal, keeping it in memory", queued.entry.getID(), e);
+            return;
+        }
+        synchronized (this.lock) {
+            // entries taken by the drainer in the meantime are published with the content still in memory
+            if (!queued.taken) {
+                queued.journalOffset = offset;
+                queued.length = content.length;
+                ((Message) queued.entry).releaseFinalMemory();
+            }
+        }
+    }
+
+    private FileChannel openJournal() throws IOException {
+        synchronized (this.lock) {
+            if (this.journal == null) {
+                this.journal = FileChannel.open(
+                        Files.createTempFile(this.journalDirectory, JOURNAL_PREFIX, JOURNAL_SUFFIX),
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            return this.journal;
+        }
+    }
+
+    private void restoreContent(
+            final Message message, final FileChannel journalChannel, final long journalOffset, final int length) {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (journalChannel.read(buffer, journalOffset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of the overflow journal");
+                }
+            }
+        } catch (final IOException e) {
+            final String errorString = String.format(
+                    "Could not restore the content of message %s from the overflow journal", message.getID());
+            LOG.error(errorString, e);
+            this.testRunObserver.invalidateTestRun(errorString);
+        }
+        message.restoreFinalMemory(buffer.array());
+    }
+
+    private void truncateJournal() {
+        final FileChannel journalChannel;
+        synchronized (this.lock) {
+            journalChannel = this.journal;
+        }
+        try {
+            if (journalChannel != null) {
+                journalChannel.truncate(0);
+            }
+        } catch (final IOException e) {
+            LOG.warn("Could not truncate the overflow journal", e);
+        }
+        this.journalLength = 0;
+    }
+
+    private static final class QueuedEntry {
+        private final DatabaseEntry entry;
+        // guarded by lock
+        private boolean taken;
+        private long journalOffset = -1;
+        private int length;
+
+        private QueuedEntry(final DatabaseEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator which allows looking at the first element of the wrapped spliterator without consuming it.
+ *
+ * <p>
+ * This allows answering whether a query has any results from the same cursor that is later consumed, instead of
+ * running the query a second time.
+ *
+ * @param <T> type of the elements
+ */
+final class PeekingSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> source;
+    private T peeked;
+    private boolean hasPeeked;
+    private boolean anyElement;
+
+    PeekingSpliterator(final Spliterator<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * Checks whether the wrapped spliterator has provided or is able to provide at least one element.
+     *
+     * @return true if at least one element exists, false otherwise
+     */
+    boolean hasAnyElement() {
+        if (!this.anyElement && !this.hasPeeked) {
+            this.hasPeeked = this.source.tryAdvance(element -> this.peeked = element);
+            this.anyElement = this.hasPeeked;
+        }
+        return this.anyElement;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (this.hasPeeked) {
+            final T element = this.peeked;
+            this.peeked = null;
+            this.hasPeeked = false;
+            action.accept(element);
+            return true;
+        }
+        final boolean advanced = this.source.tryAdvance(action);
+        this.anyElement |= advanced;
+        return advanced;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        final long size = this.source.estimateSize();
+        if (this.hasPeeked && size != Long.MAX_VALUE) {
+            return size + 1;
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return this.source.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Converts the bytes of a body as sent on the wire into the bytes persisted by a binary {@linkplain BodyEncoding}
+ * and back.
+ */
+enum BinaryBodyCodec {
+    /**
+     * Persists the bytes unchanged.
+     */
+    IDENTITY {
+        @Override
+        byte[] encode(final byte[] rawBody) {
+            return rawBody;
+        }
+
+        @Override
+        InputStream decode(final byte[] storedBody) {
+            return new ByteArrayInputStream(storedBody);
+        }
+    },
+    /**
+     * Persists the bytes compressed using deflate at its fastest level.
+     */
+    DEFLATE {
+        @Override
+        byte[] encode(final byte[] rawBody) {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(rawBody.length / 4 + 16);
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (final DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+                out.write(rawBody);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Could not compress message body", e);
+            } finally {
+                deflater.end();
+            }
+            return compressed.toByteArray();
+        }
+
+        @Override
+        InputStream decode(final byte[] storedBody) {
+            return new InflaterInputStream(new ByteArrayInputStream(storedBody));
+        }
+    };
+
+    abstract byte[] encode(byte[] rawBody);
+
+    abstract InputStream decode(byte[] storedBody);
+}
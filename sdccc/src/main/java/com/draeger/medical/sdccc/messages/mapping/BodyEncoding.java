@@ -0,0 +1,64 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import java.util.Locale;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Form in which the body of a {@linkplain MessageContent} is persisted.
+ *
+ * <p>
+ * Text bodies are persisted as decoded text, binary ones as bytes converted by a {@linkplain BinaryBodyCodec}.
+ */
+public enum BodyEncoding {
+    /**
+     * The body is stored as decoded text, which is the default.
+     */
+    TEXT(null),
+    /**
+     * The body is stored as the bytes received or sent on the wire.
+     */
+    RAW(BinaryBodyCodec.IDENTITY),
+    /**
+     * The body is stored as the bytes received or sent on the wire, compressed using deflate at its fastest level.
+     */
+    COMPRESSED(BinaryBodyCodec.DEFLATE);
+
+    @Nullable
+    private final BinaryBodyCodec codec;
+
+    BodyEncoding(@Nullable final BinaryBodyCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Parses the value of the SDCcc.Commlog.BodyStorage setting.
+     *
+     * @param name of the encoding, case-insensitive
+     * @return the matching encoding
+     * @throws IllegalArgumentException if no encoding with the name exists
+     */
+    public static BodyEncoding fromName(final String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if bodies are stored as bytes, false if they are stored as text
+     */
+    public boolean isBinary() {
+        return this.codec != null;
+    }
+
+    /**
+     * @return the codec converting the bodies, only available if {@linkplain #isBinary()}
+     */
+    BinaryBodyCodec getCodec() {
+        return Objects.requireNonNull(this.codec, () -> this + " bodies are stored as text");
+    }
+}
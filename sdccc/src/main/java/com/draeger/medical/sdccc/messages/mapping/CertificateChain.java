@@ -0,0 +1,120 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import com.draeger.medical.sdccc.messages.util.MessageUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * POJO for persisting certificate chains of the transport layer, messages sent with the same chain share one row.
+ */
+@Entity(name = "CertificateChain")
+@Table(
+        name = "certificate_chain",
+        indexes = @Index(name = CertificateChain.FINGERPRINT_INDEX, columnList = "fingerprint", unique = true))
+public class CertificateChain {
+
+    public static final String FINGERPRINT_INDEX = "idx_certificate_chain_fingerprint";
+
+    @Transient
+    private static final int MAXIMUM_LENGTH = 2147483647;
+
+    @Id
+    @GenericGenerator(name = "CertificateChainIDGen", strategy = "increment")
+    @GeneratedValue(generator = "CertificateChainIDGen")
+    private long incId;
+
+    private String fingerprint;
+
+    // messages reference their chain lazily, once it is loaded all of its certificates are needed
+    @ElementCollection(fetch = FetchType.EAGER)
+    @OrderColumn
+    @Column(columnDefinition = "blob", length = MAXIMUM_LENGTH)
+    private List<X509Certificate> certs;
+
+    /**
+     * This will be used by hibernate when creating the POJO from database entries.
+     */
+    public CertificateChain() {}
+
+    /**
+     * This will be used when creating the POJO before loading it into the database.
+     *
+     * @param fingerprint hash of the encoded certificates of the chain, see {@linkplain #fingerprint(List)}
+     * @param certs       certificates of the chain
+     */
+    public CertificateChain(final String fingerprint, final List<X509Certificate> certs) {
+        this.fingerprint = fingerprint;
+        this.certs = certs;
+    }
+
+    /**
+     * Creates the chain for the certificates of a message.
+     *
+     * @param certs certificates of the transport layer
+     * @return the chain of the certificates or null if there are none
+     */
+    @Nullable
+    public static CertificateChain of(@Nullable final List<X509Certificate> certs) {
+        if (certs == null || certs.isEmpty()) {
+            return null;
+        }
+        return new CertificateChain(fingerprint(certs), List.copyOf(certs));
+    }
+
+    /**
+     * Computes the fingerprint of a certificate chain.
+     *
+     * @param certs certificates of the chain
+     * @return hex representation of the SHA-256 hash over the length prefixed encodings of the certificates
+     */
+    public static String fingerprint(final List<X509Certificate> certs) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            for (final X509Certificate cert : certs) {
+                final byte[] encoded = cert.getEncoded();
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        } catch (final CertificateEncodingException e) {
+            throw new IllegalArgumentException("Could not encode certificate", e);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MessageUtil.hashBytes(bytes.toByteArray());
+    }
+
+    public long getIncId() {
+        return this.incId;
+    }
+
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    public List<X509Certificate> getCerts() {
+        return this.certs;
+    }
+}
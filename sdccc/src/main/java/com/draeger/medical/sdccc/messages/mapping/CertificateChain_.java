@@ -0,0 +1,29 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.security.cert.X509Certificate;
+import javax.persistence.metamodel.ListAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+/**
+ * Used for building database query criteria.
+ */
+@SuppressFBWarnings(
+        value = {"UUF_UNUSED_PUBLIC_OR_PROTECTED_FIELD", "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD"},
+        justification = "This is a commonly made design choice for persistence meta models.")
+@StaticMetamodel(CertificateChain.class)
+public final class CertificateChain_ {
+
+    public static volatile SingularAttribute<CertificateChain, Long> incId;
+    public static volatile SingularAttribute<CertificateChain, String> fingerprint;
+    public static volatile ListAttribute<CertificateChain, X509Certificate> certs;
+
+    private CertificateChain_() {}
+}
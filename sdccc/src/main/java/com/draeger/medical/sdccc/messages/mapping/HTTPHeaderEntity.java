@@ -6,6 +6,7 @@
 
 package com.draeger.medical.sdccc.messages.mapping;
 
+import java.util.Set;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -15,12 +16,21 @@ import javax.persistence.Table;
 import org.hibernate.annotations.GenericGenerator;
 
 /**
- * POJO for persisting headers.
+ * POJO for persisting the headers queries filter on.
+ *
+ * <p>
+ * All headers of a message are stored in a compact form with the {@linkplain MessageContent}, only the headers listed
+ * in {@linkplain #INDEXED_HEADER_NAMES} are additionally stored as rows with lower case names and values.
  */
 @Entity(name = "HTTPHeaderEntity")
 @Table(name = "http_header_entity")
 public class HTTPHeaderEntity {
 
+    /**
+     * Lower case names of the headers stored as rows.
+     */
+    public static final Set<String> INDEXED_HEADER_NAMES = Set.of("content-type", "transfer-encoding");
+
     @Id
     @GenericGenerator(name = "HTTPHeaderIDGen", strategy = "increment")
     @GeneratedValue(generator = "HTTPHeaderIDGen")
@@ -41,8 +51,8 @@ public class HTTPHeaderEntity {
     /**
      * This will be used when creating the POJO before loading it into the database.
      *
-     * @param headerKey       the key string
-     * @param headerValue     the string the key gets mapped to
+     * @param headerKey       the lower case key string
+     * @param headerValue     the lower case string the key gets mapped to
      * @param messageContent row to link to
      */
     public HTTPHeaderEntity(final String headerKey, final String headerValue, final MessageContent messageContent) {
@@ -0,0 +1,125 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the http headers of a message into a single compact value.
+ *
+ * <p>
+ * Names of commonly used headers are replaced by their index in a static table, similar to the static table of HPACK,
+ * so that they take up a single byte and all decoded messages share the same name instances. Other names and all
+ * values are stored as length prefixed UTF-8.
+ */
+final class HttpHeaderCodec {
+
+    // never reorder or remove entries, persisted headers refer to them by index, index 0 marks a literal name
+    private static final List<String> STATIC_NAMES = List.of(
+            "accept",
+            "accept-encoding",
+            "connection",
+            "content-encoding",
+            "content-length",
+            "content-type",
+            "date",
+            "host",
+            "keep-alive",
+            "server",
+            "soapaction",
+            "transfer-encoding",
+            "user-agent");
+    private static final int LITERAL_NAME = 0;
+    private static final Map<String, Integer> STATIC_NAME_INDICES = createStaticNameIndices();
+
+    private HttpHeaderCodec() {}
+
+    private static Map<String, Integer> createStaticNameIndices() {
+        final Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < STATIC_NAMES.size(); i++) {
+            indices.put(STATIC_NAMES.get(i), i + 1);
+        }
+        return Map.copyOf(indices);
+    }
+
+    /**
+     * Encodes headers.
+     *
+     * @param headers to encode
+     * @return the encoded headers
+     */
+    static byte[] encode(final Map<String, ? extends Collection<String>> headers) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(headers.size());
+            for (final Map.Entry<String, ? extends Collection<String>> header : headers.entrySet()) {
+                final int nameIndex = STATIC_NAME_INDICES.getOrDefault(header.getKey(), LITERAL_NAME);
+                out.writeByte(nameIndex);
+                if (nameIndex == LITERAL_NAME) {
+                    writeString(out, header.getKey());
+                }
+                out.writeInt(header.getValue().size());
+                for (final String value : header.getValue()) {
+                    writeString(out, value);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not encode http headers", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes headers.
+     *
+     * @param encodedHeaders as returned by {@linkplain #encode(Map)}
+     * @return the headers in the order they were encoded in
+     */
+    static Map<String, List<String>> decode(final byte[] encodedHeaders) {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedHeaders))) {
+            final int headerCount = in.readInt();
+            final Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                final int nameIndex = in.readUnsignedByte();
+                final String name = nameIndex == LITERAL_NAME ? readString(in) : STATIC_NAMES.get(nameIndex - 1);
+                final int valueCount = in.readInt();
+                final List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(readString(in));
+                }
+                headers.put(name, List.copyOf(values));
+            }
+            return headers;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not decode http headers", e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+}
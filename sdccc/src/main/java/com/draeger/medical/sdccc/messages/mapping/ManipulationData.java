@@ -14,6 +14,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.Transient;
@@ -24,9 +25,13 @@ import org.hibernate.annotations.GenericGenerator;
  * POJO for persisting relevant manipulation data.
  */
 @Entity(name = "ManipulationData")
-@Table(name = "manipulation_data")
+@Table(
+        name = "manipulation_data",
+        indexes = {@Index(name = ManipulationData.UUID_INDEX, columnList = "uuid")})
 public class ManipulationData {
 
+    public static final String UUID_INDEX = "idx_manipulation_data_uuid";
+
     @Transient
     private static final int MAXIMUM_LENGTH = 2147483647;
 
@@ -7,10 +7,12 @@
 package com.draeger.medical.sdccc.messages.mapping;
 
 import javax.annotation.Nullable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import org.hibernate.annotations.GenericGenerator;
@@ -19,9 +21,23 @@ import org.hibernate.annotations.GenericGenerator;
  * POJO for persisting MdibVersionGroups.
  */
 @Entity(name = "MdibVersionGroupEntity")
-@Table(name = "mdib_version_groups")
+@Table(
+        name = "mdib_version_groups",
+        indexes = {
+            @Index(
+                    name = MdibVersionGroupEntity.BODY_ELEMENT_INDEX,
+                    columnList = "bodyElement, sequenceId, mdibVersion"),
+            @Index(
+                    name = MdibVersionGroupEntity.MESSAGE_CONTENT_INDEX,
+                    columnList = "messageContent_incId, bodyElement, sequenceId, mdibVersion")
+        })
 public class MdibVersionGroupEntity {
 
+    // covers the body type, SequenceId and MdibVersion filters and sorting of the message storage queries
+    public static final String BODY_ELEMENT_INDEX = "idx_mdib_version_groups_body_element";
+    // covers the body type subqueries correlated on the message, which probe the groups of one message at a time
+    public static final String MESSAGE_CONTENT_INDEX = "idx_mdib_version_groups_message_content";
+
     @Id
     @GenericGenerator(name = "MdibVersionGroupIDGen", strategy = "increment")
     @GeneratedValue(generator = "MdibVersionGroupIDGen")
@@ -31,6 +47,9 @@ public class MdibVersionGroupEntity {
     private String sequenceId;
     private String bodyElement;
 
+    @Column(nullable = true)
+    private String bodyHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     private MessageContent messageContent;
 
@@ -50,6 +69,7 @@ public class MdibVersionGroupEntity {
         this.mdibVersion = mdibVersionGroup.mdibVersion();
         this.sequenceId = mdibVersionGroup.sequenceId();
         this.bodyElement = mdibVersionGroup.bodyElement();
+        this.bodyHash = mdibVersionGroup.bodyHash();
         this.messageContent = messageContent;
     }
 
@@ -65,12 +85,21 @@ public class MdibVersionGroupEntity {
         return this.bodyElement;
     }
 
+    @Nullable
+    public String getBodyHash() {
+        return this.bodyHash;
+    }
+
     /**
      * Stores selected MdibVersionGroup attributes and also a string representation of the respective elements QName.
      *
      * @param mdibVersion MdibVersion attribute value converted to long
      * @param sequenceId  SequenceId attribute value
      * @param bodyElement string representation of the respective elements QName
+     * @param bodyHash    hash of the element which does not depend on its serialization, see
+     *                    {@linkplain com.draeger.medical.sdccc.messages.util.CanonicalElementHasher}, or null if the
+     *                    element does not support sorting by MdibVersion
      */
-    public record MdibVersionGroup(long mdibVersion, @Nullable String sequenceId, String bodyElement) {}
+    public record MdibVersionGroup(
+            long mdibVersion, @Nullable String sequenceId, String bodyElement, @Nullable String bodyHash) {}
 }
@@ -23,6 +23,7 @@ public final class MdibVersionGroupEntity_ {
     public static volatile SingularAttribute<MdibVersionGroupEntity, Long> mdibVersion;
     public static volatile SingularAttribute<MdibVersionGroupEntity, String> sequenceId;
     public static volatile SingularAttribute<MdibVersionGroupEntity, String> bodyElement;
+    public static volatile SingularAttribute<MdibVersionGroupEntity, String> bodyHash;
     public static volatile SingularAttribute<MdibVersionGroupEntity, MessageContent> messageContent;
 
     private MdibVersionGroupEntity_() {}
@@ -0,0 +1,83 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import javax.annotation.Nullable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * POJO for persisting message bodies, identical bodies of different messages share one row.
+ */
+@Entity(name = "MessageBody")
+@Table(
+        name = "message_body",
+        indexes = @Index(name = MessageBody.BODY_HASH_INDEX, columnList = "bodyHash", unique = true))
+public class MessageBody {
+
+    public static final String BODY_HASH_INDEX = "idx_message_body_hash";
+
+    @Transient
+    private static final int MAXIMUM_LENGTH = 2147483647;
+
+    @Id
+    @GenericGenerator(name = "MessageBodyIDGen", strategy = "increment")
+    @GeneratedValue(generator = "MessageBodyIDGen")
+    private long incId;
+
+    private String bodyHash;
+
+    @Column(columnDefinition = "clob", length = MAXIMUM_LENGTH, nullable = true)
+    private String body;
+
+    @Column(columnDefinition = "blob", length = MAXIMUM_LENGTH, nullable = true)
+    private byte[] storedBody;
+
+    /**
+     * This will be used by hibernate when creating the POJO from database entries.
+     */
+    public MessageBody() {}
+
+    /**
+     * This will be used when creating the POJO before loading it into the database.
+     *
+     * @param bodyHash   hash of the persisted form of the body, i.e. of the text or of the raw bytes
+     * @param body       the body as text, null if it is stored as bytes
+     * @param storedBody the body as stored bytes, null if it is stored as text
+     */
+    public MessageBody(final String bodyHash, @Nullable final String body, @Nullable final byte[] storedBody) {
+        this.bodyHash = bodyHash;
+        this.body = body;
+        this.storedBody = storedBody;
+    }
+
+    public long getIncId() {
+        return this.incId;
+    }
+
+    public String getBodyHash() {
+        return this.bodyHash;
+    }
+
+    public String getBody() {
+        return this.body;
+    }
+
+    @SuppressFBWarnings(
+            value = {"EI_EXPOSE_REP"},
+            justification = "it doesn't matter, the field might as well be public.")
+    public byte[] getStoredBody() {
+        return this.storedBody;
+    }
+}
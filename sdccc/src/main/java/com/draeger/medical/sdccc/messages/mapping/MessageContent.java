@@ -6,13 +6,19 @@
 
 package com.draeger.medical.sdccc.messages.mapping;
 
-import com.draeger.medical.sdccc.messages.util.MessageUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.X509Certificate;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -20,11 +26,16 @@ import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.GenericGenerator;
 import org.somda.sdc.dpws.CommunicationLog;
 import org.somda.sdc.dpws.soap.CommunicationContext;
@@ -34,9 +45,18 @@ import org.somda.sdc.dpws.soap.HttpApplicationInfo;
  * POJO for persisting relevant message information.
  */
 @Entity(name = "MessageContent")
-@Table(name = "message_content")
+@Table(
+        name = "message_content",
+        indexes = {
+            @Index(name = MessageContent.DIRECTION_INDEX, columnList = "direction, isSOAP"),
+            @Index(name = MessageContent.UUID_INDEX, columnList = "uuid")
+        })
 public class MessageContent {
 
+    public static final String DIRECTION_INDEX = "idx_message_content_direction";
+    public static final String UUID_INDEX = "idx_message_content_uuid";
+    public static final int MDIB_VERSION_GROUP_BATCH_SIZE = 50;
+
     @Transient
     private static final int MAXIMUM_LENGTH = 2147483647;
 
@@ -45,17 +65,37 @@ public class MessageContent {
     @GeneratedValue(generator = "MessageContentIDGen")
     private long incId;
 
-    @Column(columnDefinition = "clob", length = MAXIMUM_LENGTH)
-    private String body;
+    // identical bodies of different messages reference the same row
+    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.DETACH)
+    private MessageBody messageBody;
 
-    @ElementCollection
-    @Column(columnDefinition = "blob", length = MAXIMUM_LENGTH)
-    private List<X509Certificate> certs;
+    @Column(nullable = true)
+    private String bodyCharset;
+
+    private BodyEncoding bodyEncoding;
+
+    @Transient
+    private String decodedBody;
+
+    // messages sent over the same connection reference the same row, null if there are no certificates
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = true)
+    private CertificateChain certificateChain;
 
+    // all headers in the compact form of the HttpHeaderCodec, null if there are none
+    @Column(columnDefinition = "blob", length = MAXIMUM_LENGTH, nullable = true)
+    private byte[] encodedHeaders;
+
+    @Transient
+    private Map<String, List<String>> decodedHeaders;
+
+    // copies of the headers queries filter on, see HTTPHeaderEntity#INDEXED_HEADER_NAMES
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "messageContent", orphanRemoval = true)
-    private List<HTTPHeaderEntity> headers;
+    private List<HTTPHeaderEntity> indexedHeaders;
 
+    // readers of the report queries look at the groups of every message, so they are loaded for many messages at once
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "messageContent", orphanRemoval = true)
+    @BatchSize(size = MDIB_VERSION_GROUP_BATCH_SIZE)
     private List<MdibVersionGroupEntity> mdibVersionGroups;
 
     @ElementCollection
@@ -87,6 +127,11 @@ public class MessageContent {
      * This will be used when creating the POJO before loading it into the database.
      *
      * @param body                 data send on top of the transport or application layer
+     * @param rawBody              the body as sent on the wire
+     * @param bodyCharset          charset the body was decoded with
+     * @param bodyEncoding         form in which the body is persisted
+     * @param messageHash          hash of the body as persisted, i.e. of the decoded body for text bodies and of the
+     *                             raw body for binary ones
      * @param communicationContext information about the transport and application layer
      * @param direction            declares, if the message was outgoing or ingoing
      * @param messageType          type of the message, i.e. request, response
@@ -101,6 +146,10 @@ public class MessageContent {
      */
     public MessageContent(
             final String body,
+            final byte[] rawBody,
+            final Charset bodyCharset,
+            final BodyEncoding bodyEncoding,
+            final String messageHash,
             final CommunicationContext communicationContext,
             final CommunicationLog.Direction direction,
             final CommunicationLog.MessageType messageType,
@@ -112,7 +161,14 @@ public class MessageContent {
             final boolean isSOAP,
             @Nullable final String sender) {
 
-        this.body = body;
+        this.bodyEncoding = bodyEncoding;
+        if (bodyEncoding.isBinary()) {
+            this.messageBody = new MessageBody(messageHash, null, bodyEncoding.getCodec().encode(rawBody));
+            this.bodyCharset = bodyCharset.name();
+            this.decodedBody = body;
+        } else {
+            this.messageBody = new MessageBody(messageHash, body, null);
+        }
         this.direction = direction;
         this.messageType = messageType;
         this.timestamp = timestamp;
@@ -122,38 +178,178 @@ public class MessageContent {
         this.isSOAP = isSOAP;
         this.sender = sender;
 
-        this.messageHash = MessageUtil.hashMessage(this.body);
+        this.messageHash = messageHash;
         this.scheme = communicationContext.getTransportInfo().getScheme();
 
-        this.certs = communicationContext.getTransportInfo().getX509Certificates();
+        this.certificateChain =
+                CertificateChain.of(communicationContext.getTransportInfo().getX509Certificates());
 
-        final List<HTTPHeaderEntity> httpHeaderEntityList;
         // handle http headers
         if (communicationContext.getApplicationInfo() instanceof final HttpApplicationInfo httpAppInfo) {
-
-            httpHeaderEntityList = new ArrayList<>();
-            for (final Map.Entry<String, Collection<String>> entry :
-                    httpAppInfo.getHeaders().asMap().entrySet()) {
-                final String key = entry.getKey();
-                final Collection<String> value = entry.getValue();
-                value.forEach(element -> httpHeaderEntityList.add(new HTTPHeaderEntity(key, element, this)));
-            }
+            this.setHeaders(httpAppInfo.getHeaders().asMap());
             transactionId = httpAppInfo.getTransactionId();
             requestUri = httpAppInfo.getRequestUri().orElse(null);
         } else {
-            httpHeaderEntityList = Collections.emptyList();
+            this.setHeaders(Collections.emptyMap());
             transactionId = null;
             requestUri = null;
         }
-        this.headers = httpHeaderEntityList;
 
         this.mdibVersionGroups = mdibVersionGroups.stream()
                 .map(mdibVersionGroup -> new MdibVersionGroupEntity(mdibVersionGroup, this))
                 .toList();
     }
 
+    /**
+     * This will be used when restoring the POJO from storage backends other than hibernate.
+     *
+     * @param messageBody       the body as persisted
+     * @param bodyCharset       charset of the raw body or null
+     * @param bodyEncoding      form in which the body is persisted
+     * @param certificateChain  certificates of the transport layer or null if there are none
+     * @param headers           http headers of the message
+     * @param mdibVersionGroups MdibVersionGroup values
+     * @param actions           ws addressing actions
+     * @param direction         declares, if the message was outgoing or ingoing
+     * @param messageType       type of the message, i.e. request, response
+     * @param transactionId     http transaction identifier or null
+     * @param requestUri        http request uri or null
+     * @param timestamp         time point of the stream creation for getting the body
+     * @param nanoTimestamp     point in time relative to current jvm start at which message arrived
+     * @param messageHash       hash of the body as computed when the message was stored
+     * @param scheme            scheme of the transport
+     * @param uuid              identifier of the message
+     * @param isSOAP            shall be true if a SOAP envelope was found and false otherwise
+     * @param sender            the IP address of the message's sender or null if it could not be determined.
+     */
+    public MessageContent(
+            final MessageBody messageBody,
+            @Nullable final String bodyCharset,
+            final BodyEncoding bodyEncoding,
+            @Nullable final CertificateChain certificateChain,
+            final Map<String, List<String>> headers,
+            final List<MdibVersionGroupEntity.MdibVersionGroup> mdibVersionGroups,
+            final Set<String> actions,
+            final CommunicationLog.Direction direction,
+            final CommunicationLog.MessageType messageType,
+            @Nullable final String transactionId,
+            @Nullable final String requestUri,
+            final long timestamp,
+            final long nanoTimestamp,
+            final String messageHash,
+            final String scheme,
+            final String uuid,
+            final boolean isSOAP,
+            @Nullable final String sender) {
+        this.messageBody = messageBody;
+        this.bodyCharset = bodyCharset;
+        this.bodyEncoding = bodyEncoding;
+        this.certificateChain = certificateChain;
+        this.actions = actions;
+        this.direction = direction;
+        this.messageType = messageType;
+        this.transactionId = transactionId;
+        this.requestUri = requestUri;
+        this.timestamp = timestamp;
+        this.nanoTimestamp = nanoTimestamp;
+        this.messageHash = messageHash;
+        this.scheme = scheme;
+        this.uuid = uuid;
+        this.isSOAP = isSOAP;
+        this.sender = sender;
+
+        this.setHeaders(headers);
+
+        this.mdibVersionGroups = mdibVersionGroups.stream()
+                .map(mdibVersionGroup -> new MdibVersionGroupEntity(mdibVersionGroup, this))
+                .toList();
+    }
+
+    /**
+     * Returns the decoded body, bodies which are not stored as text are decoded on first access.
+     *
+     * @return the body as text
+     */
     public String getBody() {
-        return this.body;
+        if (this.bodyEncoding == null || !this.bodyEncoding.isBinary()) {
+            return this.messageBody.getBody();
+        }
+        if (this.decodedBody == null) {
+            this.decodedBody = decodeBody(this.messageBody, this.bodyEncoding, this.bodyCharset);
+        }
+        return this.decodedBody;
+    }
+
+    /**
+     * Decodes a body as persisted.
+     *
+     * @param messageBody  the body as persisted
+     * @param bodyEncoding form in which the body is persisted, null for text
+     * @param bodyCharset  charset of the raw body, only used if the body is not stored as text
+     * @return the body as text
+     */
+    public static String decodeBody(
+            final MessageBody messageBody,
+            @Nullable final BodyEncoding bodyEncoding,
+            @Nullable final String bodyCharset) {
+        if (bodyEncoding == null || !bodyEncoding.isBinary()) {
+            return messageBody.getBody();
+        }
+        try (final InputStream bodyStream = bodyEncoding.getCodec().decode(messageBody.getStoredBody())) {
+            return new String(bodyStream.readAllBytes(), Charset.forName(bodyCharset));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not read message body", e);
+        }
+    }
+
+    /**
+     * Returns the body as bytes, i.e. the bytes as sent on the wire unless the body is stored as text, in which case
+     * the text is encoded using UTF-8.
+     *
+     * @return stream of the body bytes
+     */
+    public InputStream getBodyStream() {
+        if (this.bodyEncoding == null || !this.bodyEncoding.isBinary()) {
+            return new ByteArrayInputStream(this.messageBody.getBody().getBytes(StandardCharsets.UTF_8));
+        }
+        return this.bodyEncoding.getCodec().decode(this.messageBody.getStoredBody());
+    }
+
+    /**
+     * @return id of the message, assigned by the storage backend once the message has been written
+     */
+    public long getIncId() {
+        return this.incId;
+    }
+
+    /**
+     * Assigns the id of the message, used by storage backends which do not let hibernate generate it.
+     *
+     * @param incId id of the message
+     */
+    public void setIncId(final long incId) {
+        this.incId = incId;
+    }
+
+    public MessageBody getMessageBody() {
+        return this.messageBody;
+    }
+
+    /**
+     * Replaces the body by an already persisted body with the same hash.
+     *
+     * @param messageBody persisted body to reference
+     */
+    public void setMessageBody(final MessageBody messageBody) {
+        this.messageBody = messageBody;
+    }
+
+    public String getBodyCharset() {
+        return this.bodyCharset;
+    }
+
+    public BodyEncoding getBodyEncoding() {
+        return this.bodyEncoding;
     }
 
     public String getScheme() {
@@ -185,20 +381,76 @@ public class MessageContent {
     }
 
     public List<X509Certificate> getCerts() {
-        return this.certs;
+        return this.certificateChain != null ? this.certificateChain.getCerts() : List.of();
+    }
+
+    @Nullable
+    public CertificateChain getCertificateChain() {
+        return this.certificateChain;
     }
 
+    public void setCertificateChain(@Nullable final CertificateChain certificateChain) {
+        this.certificateChain = certificateChain;
+    }
+
+    /**
+     * Returns the http headers of the message, the headers are decoded on first access.
+     *
+     * @return unmodifiable map of the header names to their values, empty if the message has no headers
+     */
     public Map<String, List<String>> getHeaders() {
-        final HashMap<String, List<String>> headersMap = new HashMap<>();
+        if (this.decodedHeaders == null) {
+            this.decodedHeaders = decodeHeaders(this.encodedHeaders);
+        }
+        return this.decodedHeaders;
+    }
+
+    /**
+     * Decodes headers as persisted.
+     *
+     * @param encodedHeaders the headers as persisted, null if there are none
+     * @return unmodifiable map of the header names to their values
+     */
+    public static Map<String, List<String>> decodeHeaders(@Nullable final byte[] encodedHeaders) {
+        return encodedHeaders != null
+                ? Collections.unmodifiableMap(HttpHeaderCodec.decode(encodedHeaders))
+                : Collections.emptyMap();
+    }
 
-        for (final HTTPHeaderEntity httpHeaderEntity : this.headers) {
-            if (!headersMap.containsKey(httpHeaderEntity.getHeaderKey())) {
-                headersMap.put(httpHeaderEntity.getHeaderKey(), new ArrayList<>());
+    /**
+     * Checks whether the message has any of the given headers, ignoring the case of names and values.
+     *
+     * @param headers pairs of lower case header names and values to look for
+     * @return true if the message has at least one of the headers, false otherwise
+     */
+    public boolean hasAnyHeader(final List<AbstractMap.SimpleImmutableEntry<String, String>> headers) {
+        for (final Map.Entry<String, List<String>> header : this.getHeaders().entrySet()) {
+            final String key = header.getKey().toLowerCase(Locale.ROOT);
+            for (final String value : header.getValue()) {
+                final String lowerCaseValue = value.toLowerCase(Locale.ROOT);
+                if (headers.stream()
+                        .anyMatch(filter ->
+                                filter.getKey().equals(key) && filter.getValue().equals(lowerCaseValue))) {
+                    return true;
+                }
             }
-            headersMap.get(httpHeaderEntity.getHeaderKey()).add(httpHeaderEntity.getHeaderValue());
         }
+        return false;
+    }
+
+    private void setHeaders(final Map<String, ? extends Collection<String>> headers) {
+        this.encodedHeaders = headers.isEmpty() ? null : HttpHeaderCodec.encode(headers);
+        this.decodedHeaders = null;
 
-        return headersMap;
+        final List<HTTPHeaderEntity> httpHeaderEntityList = new ArrayList<>();
+        headers.forEach((key, values) -> {
+            final String lowerCaseKey = key.toLowerCase(Locale.ROOT);
+            if (HTTPHeaderEntity.INDEXED_HEADER_NAMES.contains(lowerCaseKey)) {
+                values.forEach(value -> httpHeaderEntityList.add(
+                        new HTTPHeaderEntity(lowerCaseKey, value.toLowerCase(Locale.ROOT), this)));
+            }
+        });
+        this.indexedHeaders = httpHeaderEntityList;
     }
 
     public CommunicationLog.Direction getDirection() {
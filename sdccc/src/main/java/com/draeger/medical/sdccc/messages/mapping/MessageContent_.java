@@ -7,7 +7,6 @@
 package com.draeger.medical.sdccc.messages.mapping;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.security.cert.X509Certificate;
 import javax.persistence.metamodel.ListAttribute;
 import javax.persistence.metamodel.SetAttribute;
 import javax.persistence.metamodel.SingularAttribute;
@@ -24,9 +23,12 @@ import org.somda.sdc.dpws.CommunicationLog;
 public final class MessageContent_ {
 
     public static volatile SingularAttribute<MessageContent, Long> incId;
-    public static volatile SingularAttribute<MessageContent, String> body;
-    public static volatile ListAttribute<MessageContent, X509Certificate> certs;
-    public static volatile ListAttribute<MessageContent, HTTPHeaderEntity> headers;
+    public static volatile SingularAttribute<MessageContent, MessageBody> messageBody;
+    public static volatile SingularAttribute<MessageContent, String> bodyCharset;
+    public static volatile SingularAttribute<MessageContent, BodyEncoding> bodyEncoding;
+    public static volatile SingularAttribute<MessageContent, CertificateChain> certificateChain;
+    public static volatile SingularAttribute<MessageContent, byte[]> encodedHeaders;
+    public static volatile ListAttribute<MessageContent, HTTPHeaderEntity> indexedHeaders;
     public static volatile SingularAttribute<MessageContent, CommunicationLog.Direction> direction;
     public static volatile SingularAttribute<MessageContent, CommunicationLog.MessageType> messageType;
     public static volatile SingularAttribute<MessageContent, String> transactionId;
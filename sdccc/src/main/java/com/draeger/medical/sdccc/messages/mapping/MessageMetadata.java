@@ -0,0 +1,58 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import javax.annotation.Nullable;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * Attributes of a message which are stored in the message row itself, i.e. without its body, headers, certificates,
+ * actions and MdibVersionGroups.
+ *
+ * @param uuid          identifier of the message
+ * @param direction     declares, if the message was outgoing or ingoing
+ * @param messageType   type of the message, i.e. request, response
+ * @param timestamp     time point of the stream creation for getting the body
+ * @param nanoTimestamp point in time relative to current jvm start at which message arrived
+ * @param scheme        scheme of the transport
+ * @param isSOAP        true if a SOAP envelope was found and false otherwise
+ * @param transactionId http transaction identifier or null
+ * @param requestUri    http request uri or null
+ * @param sender        the IP address of the message's sender or null if it could not be determined
+ */
+public record MessageMetadata(
+        String uuid,
+        CommunicationLog.Direction direction,
+        CommunicationLog.MessageType messageType,
+        long timestamp,
+        long nanoTimestamp,
+        String scheme,
+        boolean isSOAP,
+        @Nullable String transactionId,
+        @Nullable String requestUri,
+        @Nullable String sender) {
+
+    /**
+     * Extracts the metadata of a message.
+     *
+     * @param messageContent to extract the metadata from
+     * @return the metadata of the message
+     */
+    public static MessageMetadata of(final MessageContent messageContent) {
+        return new MessageMetadata(
+                messageContent.getUuid(),
+                messageContent.getDirection(),
+                messageContent.getMessageType(),
+                messageContent.getTimestamp(),
+                messageContent.getNanoTimestamp(),
+                messageContent.getScheme(),
+                messageContent.getIsSOAP(),
+                messageContent.getTransactionId(),
+                messageContent.getRequestUri(),
+                messageContent.getSender());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.mapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Part of a message a query returns instead of the whole {@linkplain MessageContent}.
+ *
+ * <p>
+ * Storage backends select only the columns a projection needs, e.g. the metadata projection never reads the body,
+ * headers or certificates of a message. Backends without such a possibility may derive the projection from the whole
+ * message using {@linkplain #apply(MessageContent)}.
+ *
+ * @param <T> type of the projected values
+ */
+public final class MessageProjection<T> {
+
+    /**
+     * Projects messages to their {@linkplain MessageMetadata}.
+     */
+    public static final MessageProjection<MessageMetadata> METADATA =
+            new MessageProjection<>(Kind.METADATA, MessageMetadata::of);
+
+    /**
+     * Projects messages to their decoded body.
+     */
+    public static final MessageProjection<String> BODY = new MessageProjection<>(Kind.BODY, MessageContent::getBody);
+
+    /**
+     * Projects messages to their http headers, empty for messages without headers.
+     */
+    public static final MessageProjection<Map<String, List<String>>> HEADERS =
+            new MessageProjection<>(Kind.HEADERS, MessageContent::getHeaders);
+
+    /**
+     * Projects messages to their MdibVersionGroups, empty for messages without MdibVersionGroups.
+     */
+    public static final MessageProjection<List<MdibVersionGroupEntity.MdibVersionGroup>> MDIB_VERSION_GROUPS =
+            new MessageProjection<>(Kind.MDIB_VERSION_GROUPS, messageContent -> messageContent
+                    .getMdibVersionGroups()
+                    .stream()
+                    .map(entity -> new MdibVersionGroupEntity.MdibVersionGroup(
+                            entity.getMdibVersion(),
+                            entity.getSequenceId(),
+                            entity.getBodyElement(),
+                            entity.getBodyHash()))
+                    .toList());
+
+    private final Kind kind;
+    private final Function<MessageContent, T> fromMessage;
+
+    private MessageProjection(final Kind kind, final Function<MessageContent, T> fromMessage) {
+        this.kind = kind;
+        this.fromMessage = fromMessage;
+    }
+
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Derives the projection from a whole message.
+     *
+     * @param messageContent to project
+     * @return the projected value
+     */
+    public T apply(final MessageContent messageContent) {
+        return this.fromMessage.apply(messageContent);
+    }
+
+    /**
+     * Distinguishes the available projections, so that storage backends can select the matching columns.
+     */
+    public enum Kind {
+        METADATA,
+        BODY,
+        HEADERS,
+        MDIB_VERSION_GROUPS
+    }
+}
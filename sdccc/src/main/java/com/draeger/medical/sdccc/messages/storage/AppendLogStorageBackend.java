@@ -0,0 +1,841 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.storage;
+
+import com.draeger.medical.sdccc.configuration.TestRunConfig;
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
+import com.draeger.medical.sdccc.util.Constants;
+import com.draeger.medical.t2iapi.ResponseTypes;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.namespace.QName;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * {@linkplain StorageBackend} persisting messages into an embedded, append-only log.
+ *
+ * <p>
+ * Entries are appended to segment files as length prefixed records, a segment is rolled over once it exceeds
+ * {@linkplain #SEGMENT_SIZE} bytes. The location and the queryable attributes of each record, e.g. the direction,
+ * timestamps and MdibVersionGroups of a message, are only kept in an in-memory index, so queries only touch the
+ * segment files for the records they actually return. The log is not meant to outlive the test run, existing logs in
+ * the test run directory are discarded on startup and records are not forced to disk, the operating system writes
+ * them back on its own.
+ */
+@Singleton
+public class AppendLogStorageBackend implements StorageBackend {
+
+    public static final String NAME = "AppendLog";
+
+    static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final Logger LOG = LogManager.getLogger(AppendLogStorageBackend.class);
+
+    private static final String LOG_DIRECTORY = "MessageLog";
+    private static final String SEGMENT_FILE_FORMAT = "segment-%06d.log";
+    private static final String HTTP_HEADER_NAME_CONTENT_TYPE = "content-type";
+    private static final String SOAP_CONTENT_TYPE = "application/soap+xml";
+    private static final int RECORD_HEADER_LENGTH = Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final byte MESSAGE_KIND = 1;
+    private static final byte MANIPULATION_KIND = 2;
+    private static final byte BODY_KIND = 3;
+    private static final byte CERTIFICATE_CHAIN_KIND = 4;
+
+    private final Path directory;
+    private final Object writeLock;
+
+    // in memory index of the records, guarded by the write lock
+    private final List<MessageIndexEntry> messageIndex;
+    private final List<ManipulationIndexEntry> manipulationIndex;
+    // identical bodies are only appended once, guarded by the write lock
+    private final Map<String, RecordLocation> bodyLocations;
+    // identical certificate chains are only appended once, guarded by the write lock
+    private final Map<String, RecordLocation> certificateChainLocations;
+
+    private int segmentNumber;
+    private FileChannel segmentChannel;
+    private long segmentPosition;
+    private boolean closed;
+
+    /**
+     * Creates an append log in the test run directory, replacing any log left over from earlier runs.
+     *
+     * @param testRunDir directory of the current test run
+     * @throws IOException if the log directory could not be set up
+     */
+    @Inject
+    public AppendLogStorageBackend(@Named(TestRunConfig.TEST_RUN_DIR) final File testRunDir) throws IOException {
+        this(testRunDir.toPath().resolve(LOG_DIRECTORY));
+    }
+
+    AppendLogStorageBackend(final Path directory) throws IOException {
+        this.directory = directory;
+        this.writeLock = new Object();
+        this.messageIndex = new ArrayList<>();
+        this.manipulationIndex = new ArrayList<>();
+        this.bodyLocations = new HashMap<>();
+        this.certificateChainLocations = new HashMap<>();
+
+        Files.createDirectories(this.directory);
+        try (final Stream<Path> existingFiles = Files.list(this.directory)) {
+            for (final Path existingFile : existingFiles.toList()) {
+                Files.delete(existingFile);
+            }
+        }
+        this.segmentNumber = -1;
+        this.openNextSegment();
+    }
+
+    private void openNextSegment() throws IOException {
+        if (this.segmentChannel != null) {
+            this.segmentChannel.close();
+        }
+        this.segmentNumber++;
+        this.segmentChannel = FileChannel.open(
+                this.segmentFile(this.segmentNumber),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.segmentPosition = 0;
+        LOG.debug("Opened segment {} of the message log", this.segmentNumber);
+    }
+
+    private Path segmentFile(final int segment) {
+        return this.directory.resolve(String.format(SEGMENT_FILE_FORMAT, segment));
+    }
+
+    @Override
+    public void write(final List<MessageContent> messageContents, final List<ManipulationData> manipulationData) {
+        synchronized (this.writeLock) {
+            if (this.closed) {
+                throw new IllegalStateException("write called on closed message log");
+            }
+            try {
+                final List<MessageIndexEntry> newMessageEntries = new ArrayList<>(messageContents.size());
+                for (final MessageContent messageContent : messageContents) {
+                    final MessageBody messageBody = messageContent.getMessageBody();
+                    RecordLocation bodyLocation = this.bodyLocations.get(messageBody.getBodyHash());
+                    if (bodyLocation == null) {
+                        bodyLocation = this.append(encodeBody(messageBody));
+                        this.bodyLocations.put(messageBody.getBodyHash(), bodyLocation);
+                    }
+                    final CertificateChain certificateChain = messageContent.getCertificateChain();
+                    RecordLocation certificateChainLocation = null;
+                    if (certificateChain != null) {
+                        certificateChainLocation =
+                                this.certificateChainLocations.get(certificateChain.getFingerprint());
+                        if (certificateChainLocation == null) {
+                            certificateChainLocation = this.append(encodeCertificateChain(certificateChain));
+                            this.certificateChainLocations.put(
+                                    certificateChain.getFingerprint(), certificateChainLocation);
+                        }
+                    }
+                    final RecordLocation location =
+                            this.append(encodeMessage(messageContent, bodyLocation, certificateChainLocation));
+                    // ids start at 1 like the ones generated by hibernate and equal the position in the index plus one
+                    messageContent.setIncId(this.messageIndex.size() + newMessageEntries.size() + 1L);
+                    final MessageIndexEntry entry = MessageIndexEntry.of(location, messageContent);
+                    newMessageEntries.add(entry);
+                }
+                final List<ManipulationIndexEntry> newManipulationEntries = new ArrayList<>(manipulationData.size());
+                for (final ManipulationData manipulation : manipulationData) {
+                    final RecordLocation location = this.append(encodeManipulation(manipulation));
+                    final ManipulationIndexEntry entry = ManipulationIndexEntry.of(location, manipulation);
+                    newManipulationEntries.add(entry);
+                }
+
+                // entries become visible to queries only once all of their records have been appended
+                this.messageIndex.addAll(newMessageEntries);
+                this.manipulationIndex.addAll(newManipulationEntries);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Could not append entries to the message log", e);
+            }
+        }
+    }
+
+    private RecordLocation append(final byte[] payload) throws IOException {
+        final int recordLength = RECORD_HEADER_LENGTH + payload.length;
+        if (this.segmentPosition > 0 && this.segmentPosition + recordLength > SEGMENT_SIZE) {
+            this.openNextSegment();
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            this.segmentChannel.write(buffer);
+        }
+        final RecordLocation location =
+                new RecordLocation(this.segmentNumber, this.segmentPosition + RECORD_HEADER_LENGTH, payload.length);
+        this.segmentPosition += recordLength;
+        return location;
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessages() {
+        return this.readMessages(this.filterMessages(MessageIndexEntry::isInbound));
+    }
+
+    @Override
+    public <T> Stream<T> getInboundMessages(final MessageProjection<T> projection) {
+        return this.getInboundMessages().map(projection::apply);
+    }
+
+    @Override
+    public Stream<MessageContent> getOutboundMessages() {
+        return this.readMessages(this.filterMessages(entry -> !entry.isInbound()));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundSoapMessages() {
+        return this.readMessages(
+                this.filterMessages(entry -> entry.isInbound() && (entry.isSOAP() || entry.hasSoapContentType())));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundSoapResponseMessages() {
+        return this.readMessages(this.filterMessages(entry -> entry.isInbound()
+                && entry.messageType() == CommunicationLog.MessageType.RESPONSE
+                && (entry.isSOAP() || entry.hasSoapContentType())));
+    }
+
+    @Override
+    public Stream<MessageContent> getOutboundHttpMessagesByBodyTypeAndHeaders(
+            final List<QName> bodyTypes, final List<AbstractMap.SimpleImmutableEntry<String, String>> headers) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes.toArray(new QName[0]));
+        final List<MessageIndexEntry> candidates = this.filterMessages(
+                entry -> !entry.isInbound() && entry.isHttp() && entry.hasAnyBodyElement(bodyElements, null));
+        return this.readMessages(candidates).filter(messageContent -> messageContent.hasAnyHeader(headers));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundHttpMessages() {
+        return this.readMessages(this.filterMessages(entry -> entry.isInbound() && entry.isHttp()));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByBodyTypeAndSequenceId(
+            final String sequenceId, final QName... bodyTypes) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes);
+        final List<MessageIndexEntry> candidates =
+                this.filterMessages(entry -> entry.isInbound() && entry.hasAnyBodyElement(bodyElements, sequenceId));
+        return this.readMessages(sortByMdibVersion(candidates, true));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByBodyType(final boolean enableSorting, final QName... bodyTypes) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes);
+        final List<MessageIndexEntry> candidates =
+                this.filterMessages(entry -> entry.isInbound() && entry.hasAnyBodyElement(bodyElements, null));
+        return this.readMessages(enableSorting ? sortByMdibVersion(candidates, false) : candidates);
+    }
+
+    @Override
+    public Stream<MessageContent> getMessagesByIds(final long... incIds) {
+        final List<MessageIndexEntry> snapshot = this.messageSnapshot();
+        final List<MessageIndexEntry> entries = new ArrayList<>(incIds.length);
+        for (final long incId : incIds) {
+            if (incId > 0 && incId <= snapshot.size()) {
+                entries.add(snapshot.get((int) (incId - 1)));
+            }
+        }
+        return this.readMessages(entries);
+    }
+
+    @Override
+    public <T> Stream<T> getInboundMessagesByBodyType(final MessageProjection<T> projection, final QName... bodyTypes) {
+        return this.getInboundMessagesByBodyType(false, bodyTypes).map(projection::apply);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimeIntervalAndBodyType(
+            final long startTimestamp, final long finishTimestamp, final QName... bodyTypes) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes);
+        final List<MessageIndexEntry> candidates = this.filterMessages(entry -> entry.isInbound()
+                && entry.nanoTimestamp() >= startTimestamp
+                && entry.nanoTimestamp() <= finishTimestamp
+                && entry.hasAnyBodyElement(bodyElements, null));
+        return this.readMessages(sortByMdibVersion(candidates, false));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            final String sequenceId, final long finishTimestamp, final QName... bodyTypes) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes);
+        final List<MessageIndexEntry> candidates = this.filterMessages(entry -> entry.isInbound()
+                && entry.nanoTimestamp() < finishTimestamp
+                && entry.hasAnyBodyElement(bodyElements, sequenceId));
+        return this.readMessages(sortByMdibVersion(candidates, false));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            final String sequenceId,
+            final long minimumMdibVersion,
+            final long finishTimestamp,
+            final QName... bodyTypes) {
+        final Set<String> bodyElements = toBodyElements(bodyTypes);
+        final List<MessageIndexEntry> candidates = this.filterMessages(entry -> entry.isInbound()
+                && entry.nanoTimestamp() < finishTimestamp
+                && entry.hasAnyBodyElementAfter(bodyElements, sequenceId, minimumMdibVersion));
+        return this.readMessages(sortByMdibVersion(candidates, false));
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationData() {
+        return this.readManipulations(this.filterManipulations(entry -> true, true));
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationDataByManipulation(final String... manipulationNames) {
+        return this.readManipulations(this.filterManipulations(
+                entry -> Arrays.stream(manipulationNames).allMatch(entry.methodName()::equals), true));
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationDataByParametersAndManipulation(
+            final ManipulationParameterUtil.ManipulationParameterData parameter, final String manipulationName) {
+        final List<ManipulationIndexEntry> candidates =
+                this.filterManipulations(entry -> entry.methodName().equals(manipulationName), false);
+        return this.readManipulations(candidates).filter(manipulation -> parameter.getParameterData().stream()
+                .allMatch(parameterData -> manipulation.getParameters().stream()
+                        .anyMatch(manipulationParameter -> matches(manipulationParameter, parameterData))));
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.writeLock) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                this.segmentChannel.close();
+            } catch (final IOException e) {
+                LOG.error("Could not close the message log", e);
+            }
+        }
+    }
+
+    private List<MessageIndexEntry> messageSnapshot() {
+        synchronized (this.writeLock) {
+            return List.copyOf(this.messageIndex);
+        }
+    }
+
+    private List<MessageIndexEntry> filterMessages(final Predicate<MessageIndexEntry> filter) {
+        return this.messageSnapshot().stream().filter(filter).toList();
+    }
+
+    private List<ManipulationIndexEntry> filterManipulations(
+            final Predicate<ManipulationIndexEntry> filter, final boolean sortByStartTimestamp) {
+        final List<ManipulationIndexEntry> snapshot;
+        synchronized (this.writeLock) {
+            snapshot = List.copyOf(this.manipulationIndex);
+        }
+        final Stream<ManipulationIndexEntry> filtered = snapshot.stream().filter(filter);
+        return sortByStartTimestamp
+                ? filtered.sorted(Comparator.comparingLong(ManipulationIndexEntry::startTimestamp))
+                        .toList()
+                : filtered.toList();
+    }
+
+    /*
+     * Mirrors the inner join on the MdibVersionGroups done by the hibernate backend: every message is returned once
+     * per MdibVersionGroup it contains, ordered by the MdibVersion and optionally by the timestamp.
+     */
+    private static List<MessageIndexEntry> sortByMdibVersion(
+            final List<MessageIndexEntry> entries, final boolean thenByTimestamp) {
+        final List<Pair<Long, MessageIndexEntry>> joined = new ArrayList<>();
+        for (final MessageIndexEntry entry : entries) {
+            for (final MdibVersionGroupEntity.MdibVersionGroup group : entry.groups()) {
+                joined.add(Pair.of(group.mdibVersion(), entry));
+            }
+        }
+        Comparator<Pair<Long, MessageIndexEntry>> comparator = Comparator.comparingLong(Pair::getLeft);
+        if (thenByTimestamp) {
+            comparator = comparator.thenComparingLong(pair -> pair.getRight().nanoTimestamp());
+        }
+        joined.sort(comparator);
+        return joined.stream().map(Pair::getRight).toList();
+    }
+
+    private static Set<String> toBodyElements(final QName... bodyTypes) {
+        return Arrays.stream(bodyTypes).map(QName::toString).collect(Collectors.toSet());
+    }
+
+    private static boolean matches(
+            final ManipulationParameter manipulationParameter, final Pair<String, String> parameterData) {
+        return manipulationParameter.getParameterName().equals(parameterData.getKey())
+                && manipulationParameter.getParameterValue().equals(parameterData.getValue());
+    }
+
+    private Stream<MessageContent> readMessages(final List<MessageIndexEntry> entries) {
+        final SegmentReader reader = new SegmentReader();
+        return entries.stream()
+                .map(entry -> {
+                    final MessageContent messageContent = decodeMessage(reader, reader.read(entry.location()));
+                    messageContent.setIncId(entry.incId());
+                    return messageContent;
+                })
+                .onClose(reader::close);
+    }
+
+    private Stream<ManipulationData> readManipulations(final List<ManipulationIndexEntry> entries) {
+        final SegmentReader reader = new SegmentReader();
+        return entries.stream()
+                .map(entry -> decodeManipulation(reader.read(entry.location())))
+                .onClose(reader::close);
+    }
+
+    private static byte[] encodeBody(final MessageBody messageBody) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(BODY_KIND);
+            writeString(out, messageBody.getBodyHash());
+            writeString(out, messageBody.getBody());
+            writeBytes(out, messageBody.getStoredBody());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MessageBody decodeBody(final byte[] payload) {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            checkKind(in, BODY_KIND);
+            return new MessageBody(readString(in), readString(in), readBytes(in));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not decode message body from the message log", e);
+        }
+    }
+
+    private static byte[] encodeCertificateChain(final CertificateChain certificateChain) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CERTIFICATE_CHAIN_KIND);
+            writeString(out, certificateChain.getFingerprint());
+            out.writeInt(certificateChain.getCerts().size());
+            for (final X509Certificate cert : certificateChain.getCerts()) {
+                try {
+                    writeBytes(out, cert.getEncoded());
+                } catch (final CertificateException e) {
+                    throw new IOException("Could not encode certificate", e);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CertificateChain decodeCertificateChain(final byte[] payload) {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            checkKind(in, CERTIFICATE_CHAIN_KIND);
+            final String fingerprint = readString(in);
+            final int certCount = in.readInt();
+            final List<X509Certificate> certs = new ArrayList<>(certCount);
+            final CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+            for (int i = 0; i < certCount; i++) {
+                certs.add((X509Certificate)
+                        certificateFactory.generateCertificate(new ByteArrayInputStream(readBytes(in))));
+            }
+            return new CertificateChain(fingerprint, certs);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not decode certificate chain from the message log", e);
+        } catch (final CertificateException e) {
+            throw new IllegalStateException("Could not decode certificate from the message log", e);
+        }
+    }
+
+    private static byte[] encodeMessage(
+            final MessageContent messageContent,
+            final RecordLocation bodyLocation,
+            @Nullable final RecordLocation certificateChainLocation)
+            throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MESSAGE_KIND);
+            final BodyEncoding bodyEncoding = messageContent.getBodyEncoding() != null
+                    ? messageContent.getBodyEncoding()
+                    : BodyEncoding.TEXT;
+            out.writeByte(bodyEncoding.ordinal());
+            writeString(out, messageContent.getBodyCharset());
+            out.writeInt(bodyLocation.segment());
+            out.writeLong(bodyLocation.offset());
+            out.writeInt(bodyLocation.length());
+            out.writeBoolean(certificateChainLocation != null);
+            if (certificateChainLocation != null) {
+                out.writeInt(certificateChainLocation.segment());
+                out.writeLong(certificateChainLocation.offset());
+                out.writeInt(certificateChainLocation.length());
+            }
+            final Map<String, List<String>> headers = messageContent.getHeaders();
+            out.writeInt(headers.size());
+            for (final Map.Entry<String, List<String>> header : headers.entrySet()) {
+                writeString(out, header.getKey());
+                out.writeInt(header.getValue().size());
+                for (final String value : header.getValue()) {
+                    writeString(out, value);
+                }
+            }
+            writeGroups(out, toGroups(messageContent));
+            out.writeInt(messageContent.getActions().size());
+            for (final String action : messageContent.getActions()) {
+                writeString(out, action);
+            }
+            writeString(out, messageContent.getDirection().name());
+            writeString(out, messageContent.getMessageType().name());
+            writeString(out, messageContent.getTransactionId());
+            writeString(out, messageContent.getRequestUri());
+            out.writeLong(messageContent.getTimestamp());
+            out.writeLong(messageContent.getNanoTimestamp());
+            writeString(out, messageContent.getMessageHash());
+            writeString(out, messageContent.getScheme());
+            writeString(out, messageContent.getUuid());
+            out.writeBoolean(messageContent.getIsSOAP());
+            writeString(out, messageContent.getSender());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MessageContent decodeMessage(final SegmentReader reader, final byte[] payload) {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            checkKind(in, MESSAGE_KIND);
+            final BodyEncoding bodyEncoding = BodyEncoding.values()[in.readByte()];
+            final String bodyCharset = readString(in);
+            final MessageBody messageBody =
+                    reader.readBody(new RecordLocation(in.readInt(), in.readLong(), in.readInt()));
+            final CertificateChain certificateChain = in.readBoolean()
+                    ? reader.readCertificateChain(new RecordLocation(in.readInt(), in.readLong(), in.readInt()))
+                    : null;
+            final int headerCount = in.readInt();
+            final Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                final String key = readString(in);
+                final int valueCount = in.readInt();
+                final List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(readString(in));
+                }
+                headers.put(key, values);
+            }
+            final List<MdibVersionGroupEntity.MdibVersionGroup> groups = readGroups(in);
+            final int actionCount = in.readInt();
+            final Set<String> actions = new HashSet<>();
+            for (int i = 0; i < actionCount; i++) {
+                actions.add(readString(in));
+            }
+            return new MessageContent(
+                    messageBody,
+                    bodyCharset,
+                    bodyEncoding,
+                    certificateChain,
+                    headers,
+                    groups,
+                    actions,
+                    CommunicationLog.Direction.valueOf(readString(in)),
+                    CommunicationLog.MessageType.valueOf(readString(in)),
+                    readString(in),
+                    readString(in),
+                    in.readLong(),
+                    in.readLong(),
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    in.readBoolean(),
+                    readString(in));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not decode message from the message log", e);
+        }
+    }
+
+    private static byte[] encodeManipulation(final ManipulationData manipulationData) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MANIPULATION_KIND);
+            out.writeLong(manipulationData.getStartTimestamp());
+            out.writeLong(manipulationData.getFinishTimestamp());
+            writeString(
+                    out,
+                    manipulationData.getResult() != null
+                            ? manipulationData.getResult().name()
+                            : null);
+            writeString(out, manipulationData.getResponse());
+            writeString(out, manipulationData.getMethodName());
+            out.writeInt(manipulationData.getParameters().size());
+            for (final ManipulationParameter parameter : manipulationData.getParameters()) {
+                writeString(out, parameter.getParameterName());
+                writeString(out, parameter.getParameterValue());
+            }
+            writeString(out, manipulationData.getUuid());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ManipulationData decodeManipulation(final byte[] payload) {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            checkKind(in, MANIPULATION_KIND);
+            final long startTimestamp = in.readLong();
+            final long finishTimestamp = in.readLong();
+            final String result = readString(in);
+            final String response = readString(in);
+            final String methodName = readString(in);
+            final int parameterCount = in.readInt();
+            final List<Pair<String, String>> parameters = new ArrayList<>(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                parameters.add(Pair.of(readString(in), readString(in)));
+            }
+            return new ManipulationData(
+                    startTimestamp,
+                    finishTimestamp,
+                    result != null ? ResponseTypes.Result.valueOf(result) : null,
+                    response,
+                    methodName,
+                    parameters,
+                    readString(in));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not decode manipulation from the message log", e);
+        }
+    }
+
+    private static void checkKind(final DataInputStream in, final byte expectedKind) throws IOException {
+        final byte kind = in.readByte();
+        if (kind != expectedKind) {
+            throw new IOException(String.format("Unexpected record kind %s, expected %s", kind, expectedKind));
+        }
+    }
+
+    private static List<MdibVersionGroupEntity.MdibVersionGroup> toGroups(final MessageContent messageContent) {
+        return messageContent.getMdibVersionGroups().stream()
+                .map(entity -> new MdibVersionGroupEntity.MdibVersionGroup(
+                        entity.getMdibVersion(),
+                        entity.getSequenceId(),
+                        entity.getBodyElement(),
+                        entity.getBodyHash()))
+                .toList();
+    }
+
+    private static void writeGroups(
+            final DataOutputStream out, final List<MdibVersionGroupEntity.MdibVersionGroup> groups)
+            throws IOException {
+        out.writeInt(groups.size());
+        for (final MdibVersionGroupEntity.MdibVersionGroup group : groups) {
+            out.writeLong(group.mdibVersion());
+            writeString(out, group.sequenceId());
+            writeString(out, group.bodyElement());
+            writeString(out, group.bodyHash());
+        }
+    }
+
+    private static List<MdibVersionGroupEntity.MdibVersionGroup> readGroups(final DataInputStream in)
+            throws IOException {
+        final int groupCount = in.readInt();
+        final List<MdibVersionGroupEntity.MdibVersionGroup> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(new MdibVersionGroupEntity.MdibVersionGroup(
+                    in.readLong(), readString(in), readString(in), readString(in)));
+        }
+        return groups;
+    }
+
+    // DataOutputStream.writeUTF is limited to 64 KiB, which is not sufficient for message bodies
+    private static void writeString(final DataOutputStream out, @Nullable final String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    @Nullable
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeBytes(final DataOutputStream out, @Nullable final byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    @Nullable
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private record RecordLocation(int segment, long offset, int length) {}
+
+    private record MessageIndexEntry(
+            RecordLocation location,
+            long incId,
+            String uuid,
+            CommunicationLog.Direction direction,
+            CommunicationLog.MessageType messageType,
+            long nanoTimestamp,
+            boolean isSOAP,
+            boolean hasSoapContentType,
+            boolean isHttp,
+            List<MdibVersionGroupEntity.MdibVersionGroup> groups) {
+
+        static MessageIndexEntry of(final RecordLocation location, final MessageContent messageContent) {
+            final boolean soapContentType = messageContent.getHeaders().entrySet().stream()
+                    .filter(header -> HTTP_HEADER_NAME_CONTENT_TYPE.equals(header.getKey().toLowerCase(Locale.ROOT)))
+                    .flatMap(header -> header.getValue().stream())
+                    .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains(SOAP_CONTENT_TYPE));
+            final String scheme = messageContent.getScheme() != null
+                    ? messageContent.getScheme().toLowerCase(Locale.ROOT)
+                    : "";
+            return new MessageIndexEntry(
+                    location,
+                    messageContent.getIncId(),
+                    messageContent.getUuid(),
+                    messageContent.getDirection(),
+                    messageContent.getMessageType(),
+                    messageContent.getNanoTimestamp(),
+                    messageContent.getIsSOAP(),
+                    soapContentType,
+                    Constants.HTTP_SCHEME.equals(scheme) || Constants.HTTPS_SCHEME.equals(scheme),
+                    toGroups(messageContent));
+        }
+
+        boolean isInbound() {
+            return this.direction == CommunicationLog.Direction.INBOUND;
+        }
+
+        boolean hasAnyBodyElement(final Set<String> bodyElements, @Nullable final String sequenceId) {
+            return this.groups.stream()
+                    .anyMatch(group -> bodyElements.contains(group.bodyElement())
+                            && (sequenceId == null || sequenceId.equals(group.sequenceId())));
+        }
+
+        boolean hasAnyBodyElementAfter(
+                final Set<String> bodyElements, final String sequenceId, final long minimumMdibVersion) {
+            return this.groups.stream()
+                    .anyMatch(group -> bodyElements.contains(group.bodyElement())
+                            && sequenceId.equals(group.sequenceId())
+                            && group.mdibVersion() > minimumMdibVersion);
+        }
+    }
+
+    private record ManipulationIndexEntry(
+            RecordLocation location, String uuid, long startTimestamp, String methodName) {
+
+        static ManipulationIndexEntry of(final RecordLocation location, final ManipulationData manipulationData) {
+            return new ManipulationIndexEntry(
+                    location,
+                    manipulationData.getUuid(),
+                    manipulationData.getStartTimestamp(),
+                    manipulationData.getMethodName());
+        }
+    }
+
+    /**
+     * Reads records using positional reads, keeping one channel per touched segment open until closed.
+     */
+    private final class SegmentReader implements AutoCloseable {
+        private final Map<Integer, FileChannel> channels = new HashMap<>();
+        // consecutive results frequently share their body, e.g. periodic reports without changes
+        private RecordLocation lastBodyLocation;
+        private MessageBody lastBody;
+        // the few chains of a test run are shared by all messages referencing them
+        private final Map<RecordLocation, CertificateChain> certificateChains = new HashMap<>();
+
+        MessageBody readBody(final RecordLocation location) {
+            if (!location.equals(this.lastBodyLocation)) {
+                this.lastBody = decodeBody(this.read(location));
+                this.lastBodyLocation = location;
+            }
+            return this.lastBody;
+        }
+
+        CertificateChain readCertificateChain(final RecordLocation location) {
+            return this.certificateChains.computeIfAbsent(
+                    location, chainLocation -> decodeCertificateChain(this.read(chainLocation)));
+        }
+
+        byte[] read(final RecordLocation location) {
+            try {
+                FileChannel channel = this.channels.get(location.segment());
+                if (channel == null) {
+                    channel = FileChannel.open(segmentFile(location.segment()), StandardOpenOption.READ);
+                    this.channels.put(location.segment(), channel);
+                }
+                final ByteBuffer buffer = ByteBuffer.allocate(location.length());
+                long position = location.offset();
+                while (buffer.hasRemaining()) {
+                    final int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of segment " + location.segment());
+                    }
+                    position += read;
+                }
+                return buffer.array();
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Could not read from the message log", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            for (final FileChannel channel : this.channels.values()) {
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    LOG.warn("Could not close segment of the message log", e);
+                }
+            }
+            this.channels.clear();
+        }
+    }
+}
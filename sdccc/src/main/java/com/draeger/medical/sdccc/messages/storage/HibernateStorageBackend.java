@@ -0,0 +1,1128 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.storage;
+
+import com.draeger.medical.sdccc.messages.HibernateConfig;
+import com.draeger.medical.sdccc.messages.OrderedStreamIterator;
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain;
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain_;
+import com.draeger.medical.sdccc.messages.mapping.HTTPHeaderEntity;
+import com.draeger.medical.sdccc.messages.mapping.HTTPHeaderEntity_;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData_;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter_;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity_;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody_;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent_;
+import com.draeger.medical.sdccc.messages.mapping.MessageMetadata;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
+import com.draeger.medical.sdccc.util.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.PersistenceException;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.xml.namespace.QName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.spi.ScrollableResultsImplementor;
+import org.hibernate.query.spi.StreamDecorator;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * {@linkplain StorageBackend} persisting messages into a relational database using hibernate.
+ */
+@Singleton
+public class HibernateStorageBackend implements StorageBackend {
+    private static final Logger LOG = LogManager.getLogger(HibernateStorageBackend.class);
+
+    public static final String NAME = "Hibernate";
+
+    private static final int FETCH_SIZE = 10;
+    private static final int MAXIMUM_IN_LIST_SIZE = 500;
+    // a write only has to be repeated if another writer inserts one of its bodies or certificate chains concurrently
+    private static final int MAXIMUM_WRITE_ATTEMPTS = 3;
+
+    private static final String HTTP_HEADER_NAME_CONTENT_TYPE = "content-type";
+
+    // the containing class has to be singleton, because we want only one SessionFactory
+    private final SessionFactory sessionFactory;
+
+    private final HibernateConfig configuration;
+
+    /**
+     * Creates a hibernate backend for the given configuration.
+     *
+     * @param configuration hibernate configuration to build the session factory from
+     */
+    @Inject
+    public HibernateStorageBackend(final HibernateConfig configuration) {
+        this.configuration = configuration;
+        this.sessionFactory = this.configuration.getConfiguration().buildSessionFactory();
+    }
+
+    @Override
+    public void write(final List<MessageContent> messageContents, final List<ManipulationData> manipulationData) {
+        for (int attempt = 1; ; attempt++) {
+            try (final Session session = sessionFactory.openSession()) {
+                final Transaction transaction = session.beginTransaction();
+
+                final Map<String, Long> bodyIds;
+                final Map<String, Long> chainIds;
+                try {
+                    bodyIds = this.persistSharedRows(
+                            session,
+                            MessageBody.class,
+                            MessageBody_.bodyHash,
+                            MessageBody_.incId,
+                            messageContents.stream().map(MessageContent::getMessageBody).toList(),
+                            MessageBody::getBodyHash,
+                            MessageBody::getIncId);
+                    chainIds = this.persistSharedRows(
+                            session,
+                            CertificateChain.class,
+                            CertificateChain_.fingerprint,
+                            CertificateChain_.incId,
+                            messageContents.stream()
+                                    .map(MessageContent::getCertificateChain)
+                                    .filter(Objects::nonNull)
+                                    .toList(),
+                            CertificateChain::getFingerprint,
+                            CertificateChain::getIncId);
+                    // violations of the unique keys surface here, before any message refers to the shared rows
+                    session.flush();
+                } catch (final PersistenceException e) {
+                    if (!isConstraintViolation(e) || attempt >= MAXIMUM_WRITE_ATTEMPTS) {
+                        throw e;
+                    }
+                    // another writer has committed one of the rows since the lookup, the next attempt finds it
+                    LOG.debug("Shared rows were inserted concurrently, retrying the write (attempt {})", attempt, e);
+                    transaction.rollback();
+                    continue;
+                }
+
+                int i = 0;
+                for (final MessageContent content : messageContents) {
+                    content.setMessageBody(
+                            session.load(MessageBody.class, bodyIds.get(content.getMessageBody().getBodyHash())));
+                    final CertificateChain certificateChain = content.getCertificateChain();
+                    if (certificateChain != null) {
+                        content.setCertificateChain(session.load(
+                                CertificateChain.class, chainIds.get(certificateChain.getFingerprint())));
+                    }
+                    session.save(content);
+                    this.flushBatch(session, i++);
+                }
+                for (final ManipulationData content : manipulationData) {
+                    session.save(content);
+                    this.flushBatch(session, i++);
+                }
+
+                transaction.commit();
+                return;
+            }
+        }
+    }
+
+    private static boolean isConstraintViolation(final PersistenceException exception) {
+        // the session converts the exceptions of hibernate into the ones of the persistence api
+        return exception instanceof ConstraintViolationException
+                || exception.getCause() instanceof ConstraintViolationException;
+    }
+
+    // inserts the rows which are not persisted yet and returns the ids of all rows by their key
+    private <T> Map<String, Long> persistSharedRows(
+            final Session session,
+            final Class<T> entityClass,
+            final SingularAttribute<T, String> keyAttribute,
+            final SingularAttribute<T, Long> idAttribute,
+            final List<T> entities,
+            final Function<T, String> keyGetter,
+            final ToLongFunction<T> idGetter) {
+        final Map<String, Long> ids = findPersistedIds(
+                session,
+                entityClass,
+                keyAttribute,
+                idAttribute,
+                entities.stream().map(keyGetter).toList());
+        // writers insert their new rows in the order of the keys, so they cannot wait for each other's rows crosswise
+        final SortedMap<String, T> newEntities = new TreeMap<>();
+        for (final T entity : entities) {
+            final String key = keyGetter.apply(entity);
+            if (!ids.containsKey(key)) {
+                newEntities.putIfAbsent(key, entity);
+            }
+        }
+        int i = 0;
+        for (final Map.Entry<String, T> entry : newEntities.entrySet()) {
+            session.save(entry.getValue());
+            ids.put(entry.getKey(), idGetter.applyAsLong(entry.getValue()));
+            this.flushBatch(session, i++);
+        }
+        return ids;
+    }
+
+    // looks up the ids of the already persisted entities with the given keys
+    private static <T> Map<String, Long> findPersistedIds(
+            final Session session,
+            final Class<T> entityClass,
+            final SingularAttribute<T, String> keyAttribute,
+            final SingularAttribute<T, Long> idAttribute,
+            final List<String> keys) {
+        final List<String> distinctKeys = keys.stream().distinct().toList();
+        final Map<String, Long> ids = new HashMap<>();
+        for (int start = 0; start < distinctKeys.size(); start += MAXIMUM_IN_LIST_SIZE) {
+            final List<String> chunk =
+                    distinctKeys.subList(start, Math.min(start + MAXIMUM_IN_LIST_SIZE, distinctKeys.size()));
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            final CriteriaQuery<Object[]> criteria = criteriaBuilder.createQuery(Object[].class);
+            final Root<T> entityRoot = criteria.from(entityClass);
+            criteria.multiselect(entityRoot.get(keyAttribute), entityRoot.get(idAttribute));
+            criteria.where(entityRoot.get(keyAttribute).in(chunk));
+            for (final Object[] row : session.createQuery(criteria).getResultList()) {
+                ids.putIfAbsent((String) row[0], (Long) row[1]);
+            }
+        }
+        return ids;
+    }
+
+    private static Root<MessageContent> fromMessageContent(final CriteriaQuery<MessageContent> query) {
+        final Root<MessageContent> messageContentRoot = query.from(MessageContent.class);
+        // the body is needed for every result, fetching it avoids a select per message
+        messageContentRoot.fetch(MessageContent_.messageBody);
+        return messageContentRoot;
+    }
+
+    private void flushBatch(final Session session, final int index) {
+        if (index % configuration.getInsertBatchSize() == 0) {
+            session.flush();
+            session.clear();
+        }
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessages() {
+        final CriteriaQuery<MessageContent> criteria;
+
+        try (final Session session = sessionFactory.openSession()) {
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(criteria);
+            criteria.select(messageContentRoot);
+            criteria.where(criteriaBuilder.equal(
+                    messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND));
+        }
+
+        return this.getQueryResult(criteria);
+    }
+
+    @Override
+    public <T> Stream<T> getInboundMessages(final MessageProjection<T> projection) {
+        return this.getProjectionResult(
+                projection,
+                (criteriaBuilder, query, messageContentRoot) -> criteriaBuilder.equal(
+                        messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND));
+    }
+
+    @Override
+    public Stream<MessageContent> getOutboundMessages() {
+        final CriteriaQuery<MessageContent> criteria;
+
+        try (final Session session = sessionFactory.openSession()) {
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(criteria);
+            criteria.select(messageContentRoot);
+            criteria.where(criteriaBuilder.equal(
+                    messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.OUTBOUND));
+        }
+
+        return this.getQueryResult(criteria);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundSoapMessages() {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<HTTPHeaderEntity> headerSubQuery =
+                    this.buildSoapContentTypeSubquery(criteriaBuilder, messageContentQuery, messageContentRoot);
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                    criteriaBuilder.or(
+                            criteriaBuilder.isTrue(messageContentRoot.get(MessageContent_.isSOAP)),
+                            criteriaBuilder.exists(headerSubQuery))));
+        }
+
+        return this.getQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundSoapResponseMessages() {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<HTTPHeaderEntity> headerSubQuery =
+                    this.buildSoapContentTypeSubquery(criteriaBuilder, messageContentQuery, messageContentRoot);
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.messageType), CommunicationLog.MessageType.RESPONSE),
+                    criteriaBuilder.or(
+                            criteriaBuilder.isTrue(messageContentRoot.get(MessageContent_.isSOAP)),
+                            criteriaBuilder.exists(headerSubQuery))));
+        }
+
+        return this.getQueryResult(messageContentQuery);
+    }
+
+    private Subquery<HTTPHeaderEntity> buildSoapContentTypeSubquery(
+            final CriteriaBuilder criteriaBuilder,
+            final CriteriaQuery<MessageContent> messageContentQuery,
+            final Root<MessageContent> messageContentRoot) {
+        final Subquery<HTTPHeaderEntity> headerSubQuery = messageContentQuery.subquery(HTTPHeaderEntity.class);
+        final Root<HTTPHeaderEntity> httpHeaderEntityRoot = headerSubQuery.from(HTTPHeaderEntity.class);
+        headerSubQuery.select(httpHeaderEntityRoot);
+
+        headerSubQuery.where(criteriaBuilder.and(
+                criteriaBuilder.equal(
+                        httpHeaderEntityRoot.get(HTTPHeaderEntity_.messageContent),
+                        messageContentRoot.get(MessageContent_.incId)),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerKey), HTTP_HEADER_NAME_CONTENT_TYPE),
+                        criteriaBuilder.like(
+                                httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerValue),
+                                criteriaBuilder.literal("%application/soap+xml%")))));
+        return headerSubQuery;
+    }
+
+    @Override
+    public Stream<MessageContent> getOutboundHttpMessagesByBodyTypeAndHeaders(
+            final List<QName> bodyTypes, final List<AbstractMap.SimpleImmutableEntry<String, String>> headers) {
+        final boolean headersAreIndexed = headers.stream()
+                .allMatch(header -> HTTPHeaderEntity.INDEXED_HEADER_NAMES.contains(header.getKey()));
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.equal(
+                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            final List<Predicate> predicates = new ArrayList<>(List.of(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.OUTBOUND),
+                    criteriaBuilder.or(
+                            criteriaBuilder.equal(
+                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
+                                    Constants.HTTP_SCHEME),
+                            criteriaBuilder.equal(
+                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
+                                    Constants.HTTPS_SCHEME)),
+                    criteriaBuilder.exists(mdibVersionGroupSubQuery)));
+            if (headersAreIndexed) {
+                final Subquery<HTTPHeaderEntity> headerSubQuery =
+                        messageContentQuery.subquery(HTTPHeaderEntity.class);
+                final Root<HTTPHeaderEntity> httpHeaderEntityRoot = headerSubQuery.from(HTTPHeaderEntity.class);
+                headerSubQuery.select(httpHeaderEntityRoot);
+                final var headerPredicates = new ArrayList<Predicate>();
+                for (final AbstractMap.SimpleImmutableEntry<String, String> header : headers) {
+                    headerPredicates.add(criteriaBuilder.and(
+                            criteriaBuilder.equal(
+                                    httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerKey), header.getKey()),
+                            criteriaBuilder.equal(
+                                    httpHeaderEntityRoot.get(HTTPHeaderEntity_.headerValue), header.getValue())));
+                }
+                headerSubQuery.where(criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                httpHeaderEntityRoot.get(HTTPHeaderEntity_.messageContent),
+                                messageContentRoot.get(MessageContent_.incId)),
+                        criteriaBuilder.or(headerPredicates.toArray(new Predicate[0]))));
+                predicates.add(criteriaBuilder.exists(headerSubQuery));
+            }
+
+            messageContentQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+        }
+
+        if (headersAreIndexed) {
+            return this.getQueryResult(messageContentQuery);
+        }
+        // headers without rows are only available in their compact form and have to be matched after decoding
+        return this.getQueryResult(messageContentQuery).filter(messageContent -> messageContent.hasAnyHeader(headers));
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundHttpMessages() {
+        final CriteriaQuery<MessageContent> criteria;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(criteria);
+            criteria.select(messageContentRoot);
+            criteria.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                    criteriaBuilder.or(
+                            criteriaBuilder.equal(
+                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
+                                    Constants.HTTP_SCHEME),
+                            criteriaBuilder.equal(
+                                    criteriaBuilder.lower(messageContentRoot.get(MessageContent_.scheme)),
+                                    Constants.HTTPS_SCHEME))));
+        }
+
+        return this.getQueryResult(criteria);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByBodyTypeAndSequenceId(
+            final String sequenceId, final QName... bodyTypes) {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement),
+                                bodyElement.toString()),
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.sequenceId), sequenceId)));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                    criteriaBuilder.exists(mdibVersionGroupSubQuery)));
+
+            messageContentQuery.orderBy(
+                    criteriaBuilder.asc(messageContentRoot
+                            .join(MessageContent_.mdibVersionGroups)
+                            .get(MdibVersionGroupEntity_.mdibVersion)),
+                    criteriaBuilder.asc(messageContentRoot.get(MessageContent_.nanoTimestamp)));
+        }
+
+        return this.getOrderedQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByBodyType(final boolean enableSorting, final QName... bodyTypes) {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.equal(
+                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                    criteriaBuilder.exists(mdibVersionGroupSubQuery)));
+
+            if (enableSorting) {
+                messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
+                        .join(MessageContent_.mdibVersionGroups)
+                        .get(MdibVersionGroupEntity_.mdibVersion)));
+            }
+        }
+
+        return enableSorting
+                ? this.getOrderedQueryResult(messageContentQuery)
+                : this.getQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<MessageContent> getMessagesByIds(final long... incIds) {
+        // each chunk is only queried once the messages of the previous one have been consumed
+        return IntStream.iterate(0, start -> start < incIds.length, start -> start + MAXIMUM_IN_LIST_SIZE)
+                .mapToObj(start -> Arrays.stream(incIds, start, Math.min(start + MAXIMUM_IN_LIST_SIZE, incIds.length))
+                        .boxed()
+                        .toList())
+                .flatMap(chunk -> {
+                    final CriteriaQuery<MessageContent> criteria;
+                    try (final Session session = sessionFactory.openSession()) {
+                        final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+                        criteria = criteriaBuilder.createQuery(MessageContent.class);
+                        final Root<MessageContent> messageContentRoot = fromMessageContent(criteria);
+                        criteria.select(messageContentRoot);
+                        criteria.where(messageContentRoot.get(MessageContent_.incId).in(chunk));
+                        criteria.orderBy(criteriaBuilder.asc(messageContentRoot.get(MessageContent_.incId)));
+                    }
+                    return this.getOrderedQueryResult(criteria);
+                });
+    }
+
+    @Override
+    public <T> Stream<T> getInboundMessagesByBodyType(final MessageProjection<T> projection, final QName... bodyTypes) {
+        return this.getProjectionResult(
+                projection,
+                (criteriaBuilder, query, messageContentRoot) -> criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                messageContentRoot.get(MessageContent_.direction), CommunicationLog.Direction.INBOUND),
+                        criteriaBuilder.exists(
+                                buildBodyTypeSubquery(criteriaBuilder, query, messageContentRoot, bodyTypes))));
+    }
+
+    private static Subquery<MdibVersionGroupEntity> buildBodyTypeSubquery(
+            final CriteriaBuilder criteriaBuilder,
+            final AbstractQuery<?> query,
+            final Root<MessageContent> messageContentRoot,
+            final QName... bodyTypes) {
+        final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery = query.subquery(MdibVersionGroupEntity.class);
+        final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+        mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+        final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+        for (final QName bodyElement : bodyTypes) {
+            bodyElementPredicates.add(criteriaBuilder.equal(
+                    mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
+        }
+
+        mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                criteriaBuilder.equal(
+                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                        messageContentRoot.get(MessageContent_.incId)),
+                criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+        return mdibVersionGroupSubQuery;
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimeIntervalAndBodyType(
+            final long startTimestamp, final long finishTimestamp, final QName... bodyTypes) {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.equal(
+                        mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement), bodyElement.toString()));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.and(
+                            criteriaBuilder.ge(messageContentRoot.get(MessageContent_.nanoTimestamp), startTimestamp),
+                            criteriaBuilder.le(messageContentRoot.get(MessageContent_.nanoTimestamp), finishTimestamp)),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(
+                                    messageContentRoot.get(MessageContent_.direction),
+                                    CommunicationLog.Direction.INBOUND),
+                            criteriaBuilder.exists(mdibVersionGroupSubQuery))));
+
+            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
+                    .join(MessageContent_.mdibVersionGroups)
+                    .get(MdibVersionGroupEntity_.mdibVersion)));
+        }
+
+        return this.getOrderedQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            final String sequenceId, final long finishTimestamp, final QName... bodyTypes) {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement),
+                                bodyElement.toString()),
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.sequenceId), sequenceId)));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.lt(messageContentRoot.get(MessageContent_.nanoTimestamp), finishTimestamp),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(
+                                    messageContentRoot.get(MessageContent_.direction),
+                                    CommunicationLog.Direction.INBOUND),
+                            criteriaBuilder.exists(mdibVersionGroupSubQuery))));
+
+            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
+                    .join(MessageContent_.mdibVersionGroups)
+                    .get(MdibVersionGroupEntity_.mdibVersion)));
+        }
+
+        return this.getOrderedQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            final String sequenceId,
+            final long minimumMdibVersion,
+            final long finishTimestamp,
+            final QName... bodyTypes) {
+        final CriteriaQuery<MessageContent> messageContentQuery;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            messageContentQuery = criteriaBuilder.createQuery(MessageContent.class);
+            final Root<MessageContent> messageContentRoot = fromMessageContent(messageContentQuery);
+            messageContentQuery.select(messageContentRoot);
+
+            final Subquery<MdibVersionGroupEntity> mdibVersionGroupSubQuery =
+                    messageContentQuery.subquery(MdibVersionGroupEntity.class);
+            final Root<MdibVersionGroupEntity> mdibVersionGroupEntityRoot =
+                    mdibVersionGroupSubQuery.from(MdibVersionGroupEntity.class);
+            mdibVersionGroupSubQuery.select(mdibVersionGroupEntityRoot);
+            final List<Predicate> bodyElementPredicates = new ArrayList<>();
+
+            for (final QName bodyElement : bodyTypes) {
+                bodyElementPredicates.add(criteriaBuilder.and(
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.bodyElement),
+                                bodyElement.toString()),
+                        criteriaBuilder.equal(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.sequenceId), sequenceId),
+                        criteriaBuilder.gt(
+                                mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.mdibVersion),
+                                minimumMdibVersion)));
+            }
+
+            mdibVersionGroupSubQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.equal(
+                            mdibVersionGroupEntityRoot.get(MdibVersionGroupEntity_.messageContent),
+                            messageContentRoot.get(MessageContent_.incId)),
+                    criteriaBuilder.or(bodyElementPredicates.toArray(new Predicate[0]))));
+
+            messageContentQuery.where(criteriaBuilder.and(
+                    criteriaBuilder.lt(messageContentRoot.get(MessageContent_.nanoTimestamp), finishTimestamp),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(
+                                    messageContentRoot.get(MessageContent_.direction),
+                                    CommunicationLog.Direction.INBOUND),
+                            criteriaBuilder.exists(mdibVersionGroupSubQuery))));
+
+            messageContentQuery.orderBy(criteriaBuilder.asc(messageContentRoot
+                    .join(MessageContent_.mdibVersionGroups)
+                    .get(MdibVersionGroupEntity_.mdibVersion)));
+        }
+
+        return this.getOrderedQueryResult(messageContentQuery);
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationData() {
+        final CriteriaQuery<ManipulationData> criteria;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(ManipulationData.class);
+            final Root<ManipulationData> manipulationDataRoot = criteria.from(ManipulationData.class);
+            criteria.select(manipulationDataRoot);
+            // the answer should adhere to the order in which the manipulations have been performed,
+            // even when mixing bodies
+            criteria.orderBy(criteriaBuilder.asc(manipulationDataRoot.get(ManipulationData_.startTimestamp)));
+        }
+
+        return this.getOrderedQueryResult(criteria);
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationDataByManipulation(final String... manipulationNames) {
+        final CriteriaQuery<ManipulationData> criteria;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(ManipulationData.class);
+            final Root<ManipulationData> manipulationDataRoot = criteria.from(ManipulationData.class);
+            criteria.select(manipulationDataRoot);
+            final var predicates = new ArrayList<Predicate>();
+            for (final var manipulationName : manipulationNames) {
+                predicates.add(criteriaBuilder.equal(
+                        manipulationDataRoot.get(ManipulationData_.methodName), manipulationName));
+            }
+            criteria.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+            // the answer should adhere to the order in which the manipulations have been performed,
+            // even when mixing bodies
+            criteria.orderBy(criteriaBuilder.asc(manipulationDataRoot.get(ManipulationData_.startTimestamp)));
+        }
+
+        return this.getOrderedQueryResult(criteria);
+    }
+
+    @Override
+    public Stream<ManipulationData> getManipulationDataByParametersAndManipulation(
+            final ManipulationParameterUtil.ManipulationParameterData parameter, final String manipulationName) {
+        final CriteriaQuery<ManipulationData> criteria;
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            criteria = criteriaBuilder.createQuery(ManipulationData.class);
+            final Root<ManipulationData> root = criteria.from(ManipulationData.class);
+            criteria.select(root);
+
+            final var rootPredicates = new ArrayList<Predicate>();
+            rootPredicates.add(criteriaBuilder.equal(root.get(ManipulationData_.methodName), manipulationName));
+
+            final List<Predicate> parameterExistPredicates = new ArrayList<>();
+
+            for (var parameterData : parameter.getParameterData()) {
+                final var parameterSubquery = criteria.subquery(ManipulationParameter.class);
+                final Root<ManipulationParameter> manipulationParameterRoot =
+                        parameterSubquery.from(ManipulationParameter.class);
+                parameterSubquery
+                        .select(manipulationParameterRoot)
+                        .where(criteriaBuilder.and(
+                                criteriaBuilder.equal(
+                                        manipulationParameterRoot.get(ManipulationParameter_.manipulationData),
+                                        root.get(ManipulationData_.incId)),
+                                criteriaBuilder.and(
+                                        criteriaBuilder.equal(
+                                                manipulationParameterRoot.get(ManipulationParameter_.parameterName),
+                                                parameterData.getKey()),
+                                        criteriaBuilder.equal(
+                                                manipulationParameterRoot.get(ManipulationParameter_.parameterValue),
+                                                parameterData.getValue()))));
+                parameterExistPredicates.add(criteriaBuilder.exists(parameterSubquery));
+            }
+
+            criteria.where(criteriaBuilder.and(
+                    criteriaBuilder.and(rootPredicates.toArray(new Predicate[0])),
+                    criteriaBuilder.and(parameterExistPredicates.toArray(new Predicate[0]))));
+        }
+        return this.getOrderedQueryResult(criteria);
+    }
+
+    @Override
+    public void close() {
+        this.sessionFactory.close();
+        this.configuration.close();
+    }
+
+    /**
+     * Selects only the columns needed for a projection of the messages matching the filter.
+     *
+     * <p>
+     * Rows of a projection are no entities and are hence not cached in the session, which is why the results are
+     * streamed without the eviction done by {@linkplain ResultIterator}.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Stream<T> getProjectionResult(final MessageProjection<T> projection, final MessageFilter filter) {
+        final Session session = sessionFactory.openSession();
+        try {
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            final CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+            final Root<MessageContent> messageContentRoot = query.from(MessageContent.class);
+            query.where(filter.toPredicate(criteriaBuilder, query, messageContentRoot));
+
+            final Stream<?> results =
+                    switch (projection.getKind()) {
+                        case METADATA -> this.selectMetadata(session, query, messageContentRoot);
+                        case BODY -> this.selectBodies(session, query, messageContentRoot);
+                        case HEADERS -> this.selectHeaders(session, query, messageContentRoot);
+                        case MDIB_VERSION_GROUPS -> this.selectMdibVersionGroups(
+                                session, criteriaBuilder, query, messageContentRoot);
+                    };
+            return ((Stream<T>) results).onClose(session::close);
+        } catch (final RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private Stream<MessageMetadata> selectMetadata(
+            final Session session, final CriteriaQuery<Tuple> query, final Root<MessageContent> messageContentRoot) {
+        query.multiselect(
+                messageContentRoot.get(MessageContent_.uuid),
+                messageContentRoot.get(MessageContent_.direction),
+                messageContentRoot.get(MessageContent_.messageType),
+                messageContentRoot.get(MessageContent_.timestamp),
+                messageContentRoot.get(MessageContent_.nanoTimestamp),
+                messageContentRoot.get(MessageContent_.scheme),
+                messageContentRoot.get(MessageContent_.isSOAP),
+                messageContentRoot.get(MessageContent_.transactionId),
+                messageContentRoot.get(MessageContent_.requestUri),
+                messageContentRoot.get(MessageContent_.sender));
+        return getStreamForQuery(session, query)
+                .map(tuple -> new MessageMetadata(
+                        tuple.get(0, String.class),
+                        tuple.get(1, CommunicationLog.Direction.class),
+                        tuple.get(2, CommunicationLog.MessageType.class),
+                        tuple.get(3, Long.class),
+                        tuple.get(4, Long.class),
+                        tuple.get(5, String.class),
+                        tuple.get(6, Boolean.class),
+                        tuple.get(7, String.class),
+                        tuple.get(8, String.class),
+                        tuple.get(9, String.class)));
+    }
+
+    private Stream<String> selectBodies(
+            final Session session, final CriteriaQuery<Tuple> query, final Root<MessageContent> messageContentRoot) {
+        final Join<MessageContent, MessageBody> messageBody = messageContentRoot.join(MessageContent_.messageBody);
+        query.multiselect(
+                messageBody.get(MessageBody_.bodyHash),
+                messageBody.get(MessageBody_.body),
+                messageBody.get(MessageBody_.storedBody),
+                messageContentRoot.get(MessageContent_.bodyEncoding),
+                messageContentRoot.get(MessageContent_.bodyCharset));
+        return getStreamForQuery(session, query)
+                .map(tuple -> MessageContent.decodeBody(
+                        new MessageBody(
+                                tuple.get(0, String.class), tuple.get(1, String.class), tuple.get(2, byte[].class)),
+                        tuple.get(3, BodyEncoding.class),
+                        tuple.get(4, String.class)));
+    }
+
+    private Stream<Map<String, List<String>>> selectHeaders(
+            final Session session, final CriteriaQuery<Tuple> query, final Root<MessageContent> messageContentRoot) {
+        query.multiselect(messageContentRoot.get(MessageContent_.encodedHeaders));
+        return getStreamForQuery(session, query).map(tuple -> MessageContent.decodeHeaders(tuple.get(0, byte[].class)));
+    }
+
+    private Stream<List<MdibVersionGroupEntity.MdibVersionGroup>> selectMdibVersionGroups(
+            final Session session,
+            final CriteriaBuilder criteriaBuilder,
+            final CriteriaQuery<Tuple> query,
+            final Root<MessageContent> messageContentRoot) {
+        // the left join keeps messages without MdibVersionGroups, their single row has no group values
+        final Join<MessageContent, MdibVersionGroupEntity> mdibVersionGroup =
+                messageContentRoot.join(MessageContent_.mdibVersionGroups, JoinType.LEFT);
+        query.multiselect(
+                messageContentRoot.get(MessageContent_.incId),
+                mdibVersionGroup.get(MdibVersionGroupEntity_.mdibVersion),
+                mdibVersionGroup.get(MdibVersionGroupEntity_.sequenceId),
+                mdibVersionGroup.get(MdibVersionGroupEntity_.bodyElement),
+                mdibVersionGroup.get(MdibVersionGroupEntity_.bodyHash));
+        query.orderBy(
+                criteriaBuilder.asc(messageContentRoot.get(MessageContent_.incId)),
+                criteriaBuilder.asc(mdibVersionGroup.get(MdibVersionGroupEntity_.incId)));
+
+        final Stream<Tuple> rows = getOrderedStreamForQuery(session, query);
+        final MdibVersionGroupIterator iterator = new MdibVersionGroupIterator(rows.iterator());
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.ORDERED), false)
+                .onClose(rows::close);
+    }
+
+    private <T> Stream<T> getQueryResult(final CriteriaQuery<T> criteriaQuery) {
+        final Session session = sessionFactory.openSession();
+        final Stream<T> results = getStreamForQuery(session, criteriaQuery);
+
+        final ResultIterator<T> resultIterator = new ResultIterator<>(session, results);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED), false)
+                .onClose(resultIterator::close);
+    }
+
+    private <T> Stream<T> getOrderedQueryResult(final CriteriaQuery<T> criteriaQuery) {
+        final Session session = sessionFactory.openSession();
+        final Stream<T> results = getOrderedStreamForQuery(session, criteriaQuery);
+
+        final ResultIterator<T> resultIterator = new ResultIterator<>(session, results);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED), false)
+                .onClose(resultIterator::close);
+    }
+
+    // be aware, that this does not use evict on cached objects
+    private <T> Stream<T> getStreamForQuery(final CriteriaQuery<T> criteriaQuery) {
+        final Session session = sessionFactory.openSession();
+        final Stream<T> results =
+                session
+                        .createQuery(criteriaQuery)
+                        .setReadOnly(true)
+                        .setCacheable(false)
+                        .setFetchSize(FETCH_SIZE)
+                        .stream();
+
+        return results.onClose(session::close);
+    }
+
+    // be aware, that this does not use evict on cached objects
+    private <T> Stream<T> getStreamForQuery(final Session session, final CriteriaQuery<T> criteriaQuery) {
+        return session
+                .createQuery(criteriaQuery)
+                .setReadOnly(true)
+                .setCacheable(false)
+                .setFetchSize(FETCH_SIZE)
+                .stream();
+    }
+
+    // be aware, that this does not use evict on cached objects
+    private <T> Stream<T> getOrderedStreamForQuery(final Session session, final CriteriaQuery<T> criteriaQuery) {
+        // The stream provided by Hibernate does not have the ORDERED characteristic.
+        // We hence build our own.
+        final ScrollableResultsImplementor scrollableResults =
+                (ScrollableResultsImplementor) session.createQuery(criteriaQuery)
+                        .setReadOnly(true)
+                        .setCacheable(false)
+                        .setFetchSize(FETCH_SIZE)
+                        .scroll(ScrollMode.FORWARD_ONLY);
+        final OrderedStreamIterator<T> iterator = new OrderedStreamIterator<>(scrollableResults);
+        final Spliterator<T> spliterator =
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.ORDERED);
+
+        return new StreamDecorator<>(StreamSupport.stream(spliterator, false), scrollableResults::close);
+    }
+
+    /**
+     * Evicts each element from the session once the next one is requested.
+     *
+     * <p>
+     * Elements are read ahead in pages which stay attached to the session until they are handed out, so hibernate
+     * loads the lazy MdibVersionGroups of a whole page with a single select, see
+     * {@linkplain MessageContent#MDIB_VERSION_GROUP_BATCH_SIZE}.
+     */
+    private static class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+        private final Session session;
+        private final Iterator<T> iterator;
+        private final Stream<T> originStream;
+        private final ArrayDeque<T> page;
+        private T currentElement;
+
+        ResultIterator(final Session session, final Stream<T> originStream) {
+            this.session = session;
+            this.iterator = originStream.iterator();
+            this.originStream = originStream;
+            this.page = new ArrayDeque<>(MessageContent.MDIB_VERSION_GROUP_BATCH_SIZE);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.page.isEmpty() || this.iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            // a message with several MdibVersionGroups is returned once per group by the sorted queries, it stays
+            // attached until its last occurrence in the page has been handed out
+            if (this.currentElement != null && !this.page.contains(this.currentElement)) {
+                try {
+                    this.session.evict(this.currentElement);
+                } catch (IllegalArgumentException e) {
+                    this.session.clear();
+                }
+            }
+
+            if (this.page.isEmpty()) {
+                while (this.page.size() < MessageContent.MDIB_VERSION_GROUP_BATCH_SIZE && this.iterator.hasNext()) {
+                    this.page.add(this.iterator.next());
+                }
+            }
+            this.currentElement = this.page.poll();
+            if (this.currentElement == null) {
+                throw new NoSuchElementException();
+            }
+            return this.currentElement;
+        }
+
+        @Override
+        public void close() {
+            this.currentElement = null;
+            this.page.clear();
+            this.originStream.close();
+            this.session.close();
+        }
+    }
+
+    /**
+     * Combines the consecutive rows of a message into the list of its MdibVersionGroups.
+     */
+    private static class MdibVersionGroupIterator implements Iterator<List<MdibVersionGroupEntity.MdibVersionGroup>> {
+        private final Iterator<Tuple> rows;
+        private Tuple nextRow;
+
+        MdibVersionGroupIterator(final Iterator<Tuple> rows) {
+            this.rows = rows;
+            this.nextRow = rows.hasNext() ? rows.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextRow != null;
+        }
+
+        @Override
+        public List<MdibVersionGroupEntity.MdibVersionGroup> next() {
+            if (this.nextRow == null) {
+                throw new NoSuchElementException();
+            }
+            final Long messageId = this.nextRow.get(0, Long.class);
+            final List<MdibVersionGroupEntity.MdibVersionGroup> groups = new ArrayList<>();
+            while (this.nextRow != null && messageId.equals(this.nextRow.get(0, Long.class))) {
+                final String bodyElement = this.nextRow.get(3, String.class);
+                if (bodyElement != null) {
+                    groups.add(new MdibVersionGroupEntity.MdibVersionGroup(
+                            this.nextRow.get(1, Long.class),
+                            this.nextRow.get(2, String.class),
+                            bodyElement,
+                            this.nextRow.get(4, String.class)));
+                }
+                this.nextRow = this.rows.hasNext() ? this.rows.next() : null;
+            }
+            return List.copyOf(groups);
+        }
+    }
+
+    /**
+     * Restricts the messages a projection is selected from.
+     */
+    @FunctionalInterface
+    private interface MessageFilter {
+        Predicate toPredicate(
+                CriteriaBuilder criteriaBuilder, AbstractQuery<?> query, Root<MessageContent> messageContentRoot);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.storage;
+
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.xml.namespace.QName;
+
+/**
+ * Persistence layer behind the {@linkplain com.draeger.medical.sdccc.messages.MessageStorage}.
+ *
+ * <p>
+ * Implementations must be safe for concurrent writers and readers. Every returned stream holds resources of the
+ * backend and has to be closed after usage. Checks for a closed storage and the validation of query parameters are
+ * done by the message storage, implementations can rely on the parameters being valid.
+ */
+public interface StorageBackend extends AutoCloseable {
+
+    /**
+     * Persists a batch of entries. The entries are durable once this method returns, and each message carries the id
+     * it can be retrieved by via {@linkplain #getMessagesByIds(long...)}.
+     *
+     * @param messageContents  messages to persist
+     * @param manipulationData manipulations to persist
+     */
+    void write(List<MessageContent> messageContents, List<ManipulationData> manipulationData);
+
+    /**
+     * @return stream of all inbound messages
+     */
+    Stream<MessageContent> getInboundMessages();
+
+    /**
+     * Retrieves a projection of all inbound messages.
+     *
+     * @param projection part of the messages to retrieve
+     * @param <T>        type of the projected values
+     * @return stream of the projected values of all inbound messages
+     */
+    <T> Stream<T> getInboundMessages(MessageProjection<T> projection);
+
+    /**
+     * @return stream of all outbound messages
+     */
+    Stream<MessageContent> getOutboundMessages();
+
+    /**
+     * @return stream of all inbound messages with a SOAP envelope or a SOAP content type
+     */
+    Stream<MessageContent> getInboundSoapMessages();
+
+    /**
+     * @return stream of all inbound responses with a SOAP envelope or a SOAP content type
+     */
+    Stream<MessageContent> getInboundSoapResponseMessages();
+
+    /**
+     * Retrieves all outbound HTTP messages matching any of the body types and any of the headers.
+     *
+     * @param bodyTypes to match messages against
+     * @param headers   to match messages against, keys and values are expected in lower case
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getOutboundHttpMessagesByBodyTypeAndHeaders(
+            List<QName> bodyTypes, List<AbstractMap.SimpleImmutableEntry<String, String>> headers);
+
+    /**
+     * @return stream of all inbound messages sent via http or https
+     */
+    Stream<MessageContent> getInboundHttpMessages();
+
+    /**
+     * Retrieves all inbound messages matching any of the body types within the given sequence, ordered by MdibVersion
+     * and timestamp.
+     *
+     * @param sequenceId SequenceId attribute value to filter for
+     * @param bodyTypes  to match messages against
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getInboundMessagesByBodyTypeAndSequenceId(String sequenceId, QName... bodyTypes);
+
+    /**
+     * Retrieves all inbound messages matching any of the body types.
+     *
+     * @param enableSorting whether the messages shall be ordered by MdibVersion
+     * @param bodyTypes     to match messages against
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getInboundMessagesByBodyType(boolean enableSorting, QName... bodyTypes);
+
+    /**
+     * Retrieves the messages with the given ids, i.e. the {@linkplain MessageContent#getIncId()} assigned when writing
+     * them.
+     *
+     * @param incIds ids of the messages in ascending order
+     * @return stream of the messages in the order of the ids
+     */
+    Stream<MessageContent> getMessagesByIds(long... incIds);
+
+    /**
+     * Retrieves a projection of all inbound messages matching any of the body types.
+     *
+     * @param projection part of the messages to retrieve
+     * @param bodyTypes  to match messages against
+     * @param <T>        type of the projected values
+     * @return stream of the projected values of matching messages
+     */
+    <T> Stream<T> getInboundMessagesByBodyType(MessageProjection<T> projection, QName... bodyTypes);
+
+    /**
+     * Retrieves all inbound messages matching any of the body types within a time interval, ordered by MdibVersion.
+     *
+     * @param startTimestamp  of the time interval, inclusive
+     * @param finishTimestamp of the time interval, inclusive
+     * @param bodyTypes       to match messages against
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getInboundMessagesByTimeIntervalAndBodyType(
+            long startTimestamp, long finishTimestamp, QName... bodyTypes);
+
+    /**
+     * Retrieves all inbound messages matching any of the body types within the given sequence that were received
+     * before the given timestamp, ordered by MdibVersion.
+     *
+     * @param sequenceId      SequenceId attribute value to filter for
+     * @param finishTimestamp timestamp to filter for, exclusive
+     * @param bodyTypes       to match messages against
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            String sequenceId, long finishTimestamp, QName... bodyTypes);
+
+    /**
+     * Retrieves all inbound messages matching any of the body types within the given sequence with an MdibVersion
+     * greater than the given one that were received before the given timestamp, ordered by MdibVersion.
+     *
+     * @param sequenceId         SequenceId attribute value to filter for
+     * @param minimumMdibVersion MdibVersion to filter for, exclusive
+     * @param finishTimestamp    timestamp to filter for, exclusive
+     * @param bodyTypes          to match messages against
+     * @return stream of matching messages
+     */
+    Stream<MessageContent> getInboundMessagesByTimestampAndBodyType(
+            String sequenceId, long minimumMdibVersion, long finishTimestamp, QName... bodyTypes);
+
+    /**
+     * @return stream of all manipulations ordered by their start timestamp
+     */
+    Stream<ManipulationData> getManipulationData();
+
+    /**
+     * Retrieves all manipulations with the given names, ordered by their start timestamp.
+     *
+     * @param manipulationNames to match manipulations against
+     * @return stream of matching manipulations
+     */
+    Stream<ManipulationData> getManipulationDataByManipulation(String... manipulationNames);
+
+    /**
+     * Retrieves all manipulations with the given name which were called with all of the given parameters.
+     *
+     * @param parameter        to match manipulations against, must not be empty
+     * @param manipulationName to match manipulations against
+     * @return stream of matching manipulations
+     */
+    Stream<ManipulationData> getManipulationDataByParametersAndManipulation(
+            ManipulationParameterUtil.ManipulationParameterData parameter, String manipulationName);
+
+    @Override
+    void close();
+}
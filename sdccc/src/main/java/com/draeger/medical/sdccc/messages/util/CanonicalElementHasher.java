@@ -0,0 +1,142 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Computes a SHA-256 hash of an XML element from the events of its subtree, which does not depend on how the element
+ * has been serialized.
+ *
+ * <p>
+ * Namespace prefixes and declarations, comments, processing instructions and whitespace between elements are not
+ * part of the hash, attributes are hashed in order of their names and prefixes of xsi:type values are resolved to
+ * their namespace. Elements which only differ in these respects, e.g. a report which has been sent again within a
+ * different envelope, hence share their hash, while elements sharing a hash are equal once unmarshalled.
+ */
+public final class CanonicalElementHasher {
+    private static final Logger LOG = LogManager.getLogger(CanonicalElementHasher.class);
+
+    private static final byte START_ELEMENT = 1;
+    private static final byte END_ELEMENT = 2;
+    private static final byte ATTRIBUTE = 3;
+    private static final byte TEXT = 4;
+    private static final QName XSI_TYPE = new QName(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+
+    private final MessageDigest digest;
+    private final StringBuilder text;
+    private boolean leaf;
+
+    /**
+     * Creates a hasher for a single element, whose events are passed to {@linkplain #update(XMLStreamReader)} starting
+     * with its start element.
+     */
+    public CanonicalElementHasher() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            LOG.error("Error while initializing message digest", e);
+            throw new RuntimeException(e);
+        }
+        this.text = new StringBuilder();
+    }
+
+    /**
+     * Adds the current event of a reader positioned within the element to the hash.
+     *
+     * @param reader positioned at the next event within the element, including its start and end element
+     */
+    public void update(final XMLStreamReader reader) {
+        switch (reader.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT -> {
+                this.flushText(false);
+                this.leaf = true;
+                this.digest.update(START_ELEMENT);
+                this.updateName(reader.getName());
+
+                final List<Integer> attributes = new ArrayList<>(reader.getAttributeCount());
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    attributes.add(i);
+                }
+                attributes.sort(Comparator.comparing(
+                                (Integer index) -> reader.getAttributeName(index).getNamespaceURI())
+                        .thenComparing(index -> reader.getAttributeName(index).getLocalPart()));
+                for (final int index : attributes) {
+                    final QName name = reader.getAttributeName(index);
+                    this.digest.update(ATTRIBUTE);
+                    this.updateName(name);
+                    this.updateString(
+                            XSI_TYPE.equals(name)
+                                    ? resolveTypeName(reader.getNamespaceContext(), reader.getAttributeValue(index))
+                                    : reader.getAttributeValue(index));
+                }
+            }
+            case XMLStreamConstants.END_ELEMENT -> {
+                // text of elements without children is content even if it only consists of whitespace
+                this.flushText(this.leaf);
+                this.leaf = false;
+                this.digest.update(END_ELEMENT);
+            }
+            case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                this.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+            default -> {
+                // comments and processing instructions are not part of the hash
+            }
+        }
+    }
+
+    /**
+     * Completes the hash, the hasher must not be used afterward.
+     *
+     * @return hex representation of the hash
+     */
+    public String finish() {
+        return MessageUtil.bytesToHex(this.digest.digest());
+    }
+
+    private void flushText(final boolean keepWhitespace) {
+        if (!this.text.isEmpty() && (keepWhitespace || !this.text.toString().isBlank())) {
+            this.digest.update(TEXT);
+            this.updateString(this.text.toString());
+        }
+        this.text.setLength(0);
+    }
+
+    private void updateName(final QName name) {
+        this.updateString(name.getNamespaceURI());
+        this.updateString(name.getLocalPart());
+    }
+
+    // strings are prefixed by their length, so that adjacent strings cannot be confused
+    private void updateString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        this.digest.update(bytes);
+    }
+
+    private static String resolveTypeName(final NamespaceContext namespaceContext, final String value) {
+        final String typeName = value.strip();
+        final int separator = typeName.indexOf(':');
+        final String prefix = separator < 0 ? XMLConstants.DEFAULT_NS_PREFIX : typeName.substring(0, separator);
+        final String namespace = namespaceContext.getNamespaceURI(prefix);
+        return "{" + namespace + "}" + typeName.substring(separator + 1);
+    }
+}
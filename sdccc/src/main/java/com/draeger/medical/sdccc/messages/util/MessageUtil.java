@@ -29,9 +29,19 @@ public final class MessageUtil {
      * @return hex representation of the SHA-256 hash
      */
     public static String hashMessage(final String data) {
+        return hashBytes(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hashes bytes using the SHA-256 algorithm.
+     *
+     * @param data bytes to hash
+     * @return hex representation of the SHA-256 hash
+     */
+    public static String hashBytes(final byte[] data) {
         try {
             final MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            final byte[] encodedHash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
+            final byte[] encodedHash = digest.digest(data);
             return bytesToHex(encodedHash);
         } catch (final NoSuchAlgorithmException e) {
             LOG.error("Error while initializing message digest", e);
@@ -39,7 +49,7 @@ public final class MessageUtil {
         }
     }
 
-    private static String bytesToHex(final byte[] hash) {
+    static String bytesToHex(final byte[] hash) {
         final StringBuilder hexString = new StringBuilder();
         for (final byte b : hash) {
             final String hex = Integer.toHexString(BYTE_SIZE & b);
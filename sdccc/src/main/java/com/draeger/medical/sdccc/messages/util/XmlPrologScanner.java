@@ -0,0 +1,261 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the encoding related parts of the prolog of an XML document directly from its bytes.
+ *
+ * <p>
+ * The Unicode byte order mark, the encoding family indicated by the first bytes of the XML declaration according to
+ * Appendix F.1 of the XML Standard and the encoding pseudo-attribute of the XML declaration are determined in a single
+ * pass over the start of the document. The document is never decoded as a whole and no more than
+ * {@value #MAXIMUM_DECLARATION_LENGTH} characters of it are inspected, independent of its size.
+ */
+public final class XmlPrologScanner {
+    /**
+     * Number of characters of an XML declaration after which the scanner gives up looking for its end.
+     */
+    public static final int MAXIMUM_DECLARATION_LENGTH = 1024;
+
+    private static final Charset EBCDIC = Charset.forName("ebcdic-international-500+euro");
+    private static final char[] EBCDIC_CHARACTERS = decodeAllBytes(EBCDIC);
+    private static final char[] DECLARATION_START = "<?xml".toCharArray();
+    private static final char[] ENCODING = "encoding".toCharArray();
+
+    // byte order marks which are prefixes of others have to be checked last
+    private static final List<Signature> BYTE_ORDER_MARKS = List.of(
+            new Signature(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, StandardCharsets.UTF_8, CodeUnits.BYTE),
+            new Signature(
+                    new byte[] {0x00, 0x00, (byte) 0xFE, (byte) 0xFF}, Charset.forName("UTF-32BE"), CodeUnits.UTF_32BE),
+            new Signature(
+                    new byte[] {(byte) 0xFF, (byte) 0xFE, 0x00, 0x00}, Charset.forName("UTF-32LE"), CodeUnits.UTF_32LE),
+            new Signature(new byte[] {(byte) 0xFE, (byte) 0xFF}, StandardCharsets.UTF_16BE, CodeUnits.UTF_16BE),
+            new Signature(new byte[] {(byte) 0xFF, (byte) 0xFE}, StandardCharsets.UTF_16LE, CodeUnits.UTF_16LE));
+
+    // prefixes of XML declarations according to Appendix F.1 of the XML Standard
+    private static final List<Signature> DECLARATION_PREFIXES = List.of(
+            new Signature(new byte[] {0x00, 0x00, 0x00, 0x3C}, Charset.forName("UTF-32BE"), CodeUnits.UTF_32BE),
+            new Signature(new byte[] {0x3C, 0x00, 0x00, 0x00}, Charset.forName("UTF-32LE"), CodeUnits.UTF_32LE),
+            new Signature(new byte[] {0x00, 0x3C, 0x00, 0x3F}, StandardCharsets.UTF_16BE, CodeUnits.UTF_16BE),
+            new Signature(new byte[] {0x3C, 0x00, 0x3F, 0x00}, StandardCharsets.UTF_16LE, CodeUnits.UTF_16LE),
+            // any ASCII-compatible charset
+            new Signature(new byte[] {0x3C, 0x3F, 0x78, 0x6D}, StandardCharsets.US_ASCII, CodeUnits.BYTE),
+            // AFAIK, all charsets of the EBCDIC family have common bit-patterns for the characters used
+            // in the XML declaration. Hence, any of them could be used to decode the declaration. However,
+            // only 'ebcdic-international-500+euro' was tested in this respect and hence it is used as a
+            // placeholder for 'any EBCDIC charset'.
+            new Signature(new byte[] {0x4C, 0x6F, (byte) 0xA7, (byte) 0x94}, EBCDIC, CodeUnits.EBCDIC));
+
+    private final byte[] document;
+    private final CodeUnits codeUnits;
+    private final int end;
+    private int position;
+
+    private XmlPrologScanner(final byte[] document, final CodeUnits codeUnits, final int start) {
+        this.document = document;
+        this.codeUnits = codeUnits;
+        this.position = start;
+        this.end = (int) Math.min(document.length, start + (long) MAXIMUM_DECLARATION_LENGTH * codeUnits.width);
+    }
+
+    /**
+     * Scans the prolog of an XML document.
+     *
+     * @param document the encoded document
+     * @return the encoding related parts of the prolog which are present in the document
+     */
+    public static XmlProlog scan(final byte[] document) {
+        final Signature byteOrderMark = findSignature(document, 0, BYTE_ORDER_MARKS);
+        // only a UTF-8 byte order mark may precede the prefix of the declaration
+        final Signature declarationPrefix = findSignature(
+                document,
+                byteOrderMark != null && byteOrderMark.charset().equals(StandardCharsets.UTF_8)
+                        ? byteOrderMark.bytes().length
+                        : 0,
+                DECLARATION_PREFIXES);
+
+        // the byte order mark takes precedence in determining how to read the declaration
+        String encoding = null;
+        if (byteOrderMark != null) {
+            encoding = new XmlPrologScanner(document, byteOrderMark.codeUnits(), byteOrderMark.bytes().length)
+                    .readEncodingDeclaration();
+        } else if (declarationPrefix != null) {
+            encoding = new XmlPrologScanner(document, declarationPrefix.codeUnits(), 0).readEncodingDeclaration();
+        }
+        return new XmlProlog(
+                byteOrderMark != null ? byteOrderMark.charset() : null,
+                declarationPrefix != null ? declarationPrefix.charset() : null,
+                encoding);
+    }
+
+    @Nullable
+    private static Signature findSignature(final byte[] document, final int offset, final List<Signature> signatures) {
+        for (final Signature signature : signatures) {
+            if (signature.matches(document, offset)) {
+                return signature;
+            }
+        }
+        return null;
+    }
+
+    private static char[] decodeAllBytes(final Charset charset) {
+        final byte[] bytes = new byte[1 << Byte.SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new String(bytes, charset).toCharArray();
+    }
+
+    private static boolean isWhitespace(final int character) {
+        return character == ' ' || character == '\t' || character == '\r' || character == '\n';
+    }
+
+    // reads the value of the encoding pseudo-attribute, the declaration itself is not validated
+    @Nullable
+    private String readEncodingDeclaration() {
+        if (!this.skip(DECLARATION_START) || !isWhitespace(this.peek())) {
+            return null;
+        }
+        while (true) {
+            this.skipWhitespace();
+            final int next = this.peek();
+            if (next < 0 || next == '?') {
+                return null;
+            }
+            final boolean isEncoding = this.skip(ENCODING) && (this.peek() == '=' || isWhitespace(this.peek()));
+            // skip the remainder of the name, if any
+            while (this.peek() >= 0 && this.peek() != '=' && !isWhitespace(this.peek())) {
+                this.position += this.codeUnits.width;
+            }
+            this.skipWhitespace();
+            if (this.read() != '=') {
+                return null;
+            }
+            this.skipWhitespace();
+            final int quote = this.read();
+            if (quote != '"' && quote != '\'') {
+                return null;
+            }
+            final int valueStart = this.position;
+            while (this.peek() >= 0 && this.peek() != quote) {
+                this.position += this.codeUnits.width;
+            }
+            if (this.peek() < 0) {
+                return null;
+            }
+            if (isEncoding) {
+                return this.string(valueStart, this.position);
+            }
+            this.position += this.codeUnits.width;
+        }
+    }
+
+    private boolean skip(final char[] expected) {
+        final int start = this.position;
+        for (final char character : expected) {
+            if (this.read() != character) {
+                this.position = start;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (isWhitespace(this.peek())) {
+            this.position += this.codeUnits.width;
+        }
+    }
+
+    private int read() {
+        final int character = this.peek();
+        if (character >= 0) {
+            this.position += this.codeUnits.width;
+        }
+        return character;
+    }
+
+    // the next character, or -1 at the end of the inspected range
+    private int peek() {
+        if (this.position + this.codeUnits.width > this.end) {
+            return -1;
+        }
+        return this.codeUnits.characterAt(this.document, this.position);
+    }
+
+    private String string(final int start, final int stop) {
+        final StringBuilder result = new StringBuilder((stop - start) / this.codeUnits.width);
+        for (int i = start; i < stop; i += this.codeUnits.width) {
+            result.append((char) this.codeUnits.characterAt(this.document, i));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Encoding related parts of the prolog of an XML document.
+     *
+     * @param byteOrderMark     charset indicated by the Unicode byte order mark
+     * @param declarationPrefix charset family in which the start of the XML declaration is encoded, US-ASCII for any
+     *                          ASCII-compatible charset and ebcdic-international-500+euro for any EBCDIC charset
+     * @param encoding          value of the encoding pseudo-attribute of the XML declaration
+     */
+    public record XmlProlog(
+            @Nullable Charset byteOrderMark, @Nullable Charset declarationPrefix, @Nullable String encoding) {}
+
+    private record Signature(byte[] bytes, Charset charset, CodeUnits codeUnits) {
+
+        private boolean matches(final byte[] document, final int offset) {
+            if (document.length < offset + this.bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < this.bytes.length; i++) {
+                if (document[offset + i] != this.bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // characters of the XML declaration are encoded in a single code unit of these widths
+    private enum CodeUnits {
+        BYTE(1),
+        EBCDIC(1),
+        UTF_16BE(2),
+        UTF_16LE(2),
+        UTF_32BE(4),
+        UTF_32LE(4);
+
+        private final int width;
+
+        CodeUnits(final int width) {
+            this.width = width;
+        }
+
+        private int characterAt(final byte[] document, final int index) {
+            return switch (this) {
+                case BYTE -> document[index] & 0xFF;
+                case EBCDIC -> EBCDIC_CHARACTERS[document[index] & 0xFF];
+                case UTF_16BE -> (document[index] & 0xFF) << 8 | document[index + 1] & 0xFF;
+                case UTF_16LE -> (document[index + 1] & 0xFF) << 8 | document[index] & 0xFF;
+                case UTF_32BE -> (document[index] & 0xFF) << 24
+                        | (document[index + 1] & 0xFF) << 16
+                        | (document[index + 2] & 0xFF) << 8
+                        | document[index + 3] & 0xFF;
+                case UTF_32LE -> (document[index + 3] & 0xFF) << 24
+                        | (document[index + 2] & 0xFF) << 16
+                        | (document[index + 1] & 0xFF) << 8
+                        | document[index] & 0xFF;
+            };
+        }
+    }
+}
@@ -6,6 +6,7 @@
 
 package com.draeger.medical.sdccc.sdcri.testclient;
 
+import com.draeger.medical.sdccc.configuration.DefaultTestSuiteConfig;
 import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
 import com.draeger.medical.sdccc.messages.MessageStorage;
 import com.draeger.medical.sdccc.sdcri.CommunicationLogMessageStorage;
@@ -24,6 +25,7 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.name.Named;
+import com.google.inject.name.Names;
 import com.google.inject.util.Modules;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -100,6 +102,9 @@ public class TestClientUtil {
      *                                       Values from 1 to 255 are valid.
      * @param enabledTlsProtocols            TLS protocol versions to be enabled
      * @param enabledCiphers                 ciphers to be enabled
+     * @param mdibHistorianThreads           threads replaying Mdib histories of different SequenceIds
+     * @param unmarshalledMessageCacheSize   number of unmarshalled messages shared between tests
+     * @param unmarshalledMessageCacheSoft   whether unmarshalled messages are softly referenced
      * @param configurationModule            configuration for AbstractConfigurationModule
      */
     @Inject
@@ -111,6 +116,10 @@ public class TestClientUtil {
             @Named(TestSuiteConfig.NETWORK_MULTICAST_TTL) final Long multicastTTL,
             @Named(TestSuiteConfig.TLS_ENABLED_PROTOCOLS) final String[] enabledTlsProtocols,
             @Named(TestSuiteConfig.TLS_ENABLED_CIPHERS) final String[] enabledCiphers,
+            @Named(TestSuiteConfig.MDIB_HISTORIAN_THREADS) final int mdibHistorianThreads,
+            @Named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SIZE) final int unmarshalledMessageCacheSize,
+            @Named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES)
+                    final boolean unmarshalledMessageCacheSoft,
             @Named(Constants.CONFIGURATION_MODULE) final AbstractConfigurationModule configurationModule) {
 
         injector = createClientInjector(List.of(
@@ -127,6 +136,15 @@ public class TestClientUtil {
                         bind(DpwsConfig.HTTPS_SUPPORT, Boolean.class, true);
                         bind(DpwsConfig.HTTP_SUPPORT, Boolean.class, false);
                         bind(DpwsConfig.MULTICAST_TTL, Integer.class, multicastTTL.intValue());
+                        bind(TestSuiteConfig.MDIB_HISTORIAN_THREADS, int.class, mdibHistorianThreads);
+                        bind(
+                                TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SIZE,
+                                int.class,
+                                unmarshalledMessageCacheSize);
+                        bind(
+                                TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES,
+                                Boolean.class,
+                                unmarshalledMessageCacheSoft);
                     }
                 },
                 new AbstractModule() {
@@ -292,6 +310,16 @@ public class TestClientUtil {
                         install(new FactoryModuleBuilder()
                                 .implement(MdibHistorian.class, MdibHistorian.class)
                                 .build(MdibHistorianFactory.class));
+                        // unit tests create the client injector without the test suite configuration
+                        bind(Integer.class)
+                                .annotatedWith(Names.named(TestSuiteConfig.MDIB_HISTORIAN_THREADS))
+                                .toInstance(DefaultTestSuiteConfig.DEFAULT_MDIB_HISTORIAN_THREADS);
+                        bind(Integer.class)
+                                .annotatedWith(Names.named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SIZE))
+                                .toInstance(DefaultTestSuiteConfig.DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SIZE);
+                        bind(Boolean.class)
+                                .annotatedWith(Names.named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES))
+                                .toInstance(DefaultTestSuiteConfig.DEFAULT_UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES);
                     }
                 });
 
@@ -26,12 +26,11 @@ import com.draeger.medical.sdccc.tests.util.ImpliedValueUtil;
 import com.draeger.medical.sdccc.tests.util.InitialImpliedValue;
 import com.draeger.medical.sdccc.tests.util.InitialImpliedValueException;
 import com.draeger.medical.sdccc.tests.util.NoTestData;
+import com.draeger.medical.sdccc.tests.util.UnmarshalledMessageCache;
 import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -67,7 +66,6 @@ import org.somda.sdc.biceps.model.participant.MdsDescriptor;
 import org.somda.sdc.biceps.model.participant.ScoDescriptor;
 import org.somda.sdc.biceps.model.participant.SystemContextDescriptor;
 import org.somda.sdc.biceps.model.participant.VmdDescriptor;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapMessage;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
@@ -78,7 +76,7 @@ import org.somda.sdc.dpws.soap.exception.MarshallingException;
 public class InvariantMessageModelAnnexTest extends InjectorTestBase {
     private static final String STATE_ABSENT = "The state with handle %s is not present";
     private static final String STATE_UNCHANGED = "The state with the handle %s from the report has not changed";
-    private MarshallingService marshalling;
+    private UnmarshalledMessageCache messageCache;
     private SoapUtil soapUtil;
     private MessageStorage messageStorage;
     private MdibHistorianFactory mdibHistorianFactory;
@@ -88,7 +86,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
         this.messageStorage = getInjector().getInstance(MessageStorage.class);
         final var riInjector = getInjector().getInstance(TestClient.class).getInjector();
         this.mdibHistorianFactory = riInjector.getInstance(MdibHistorianFactory.class);
-        this.marshalling = riInjector.getInstance(MarshallingService.class);
+        this.messageCache = riInjector.getInstance(UnmarshalledMessageCache.class);
         this.soapUtil = riInjector.getInstance(SoapUtil.class);
     }
 
@@ -111,8 +109,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
             for (final Iterator<MessageContent> iterator = reports.getStream().iterator(); iterator.hasNext(); ) {
 
                 final MessageContent messageContent = iterator.next();
-                final SoapMessage soapMessage = marshalling.unmarshal(
-                        new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                final SoapMessage soapMessage = messageCache.unmarshal(messageContent);
                 final Optional<DescriptionModificationReport> reportOpt =
                         soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                 final DescriptionModificationReport descriptionModificationReport = reportOpt.orElseThrow();
@@ -243,8 +240,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
                 messageStorage.getInboundMessagesByBodyType(Constants.MSG_DESCRIPTION_MODIFICATION_REPORT)) {
             for (MessageContent messageContent :
                     descriptionModificationReports.getStream().toList()) {
-                final SoapMessage soapMessage = marshalling.unmarshal(
-                        new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                final SoapMessage soapMessage = messageCache.unmarshal(messageContent);
                 final DescriptionModificationReport descriptionModificationReport = soapUtil.getBody(
                                 soapMessage, DescriptionModificationReport.class)
                         .orElseThrow();
@@ -283,8 +279,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
 
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                     if (reportOpt.isPresent()) {
                         for (var part : reportOpt.orElseThrow().getReportPart()) {
@@ -323,8 +318,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
 
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                     reportOpt.ifPresent(descriptionModificationReport ->
                             checkOrderOfReportParts(descriptionModificationReport, descriptorsSeen));
@@ -500,8 +494,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
             final var impliedValueMap = new HashMap<String, InitialImpliedValue>();
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                     final var crtReportParts = reportOpt.orElseThrow().getReportPart().stream()
                             .filter(part ->
@@ -564,8 +557,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
             final var impliedValueMap = new HashMap<Object, InitialImpliedValue>();
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                     final var uptReportParts = reportOpt.orElseThrow().getReportPart().stream()
                             .filter(part ->
@@ -629,8 +621,7 @@ public class InvariantMessageModelAnnexTest extends InjectorTestBase {
 
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, DescriptionModificationReport.class);
                     final var delReportParts = reportOpt.orElseThrow().getReportPart().stream()
                             .filter(part ->
@@ -22,12 +22,11 @@ import com.draeger.medical.sdccc.tests.annotations.TestDescription;
 import com.draeger.medical.sdccc.tests.annotations.TestIdentifier;
 import com.draeger.medical.sdccc.tests.util.ImpliedValueUtil;
 import com.draeger.medical.sdccc.tests.util.NoTestData;
+import com.draeger.medical.sdccc.tests.util.UnmarshalledMessageCache;
 import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -45,7 +44,6 @@ import org.somda.sdc.biceps.model.message.DescriptionModificationType;
 import org.somda.sdc.biceps.model.participant.AbstractContextState;
 import org.somda.sdc.biceps.model.participant.AbstractDescriptor;
 import org.somda.sdc.biceps.model.participant.AbstractMultiState;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapMessage;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
@@ -59,7 +57,7 @@ public class InvariantParticipantModelHandleTest extends InjectorTestBase {
 
     private MessageStorage messageStorage;
     private MdibHistorianFactory mdibHistorianFactory;
-    private MarshallingService marshalling;
+    private UnmarshalledMessageCache messageCache;
     private SoapUtil soapUtil;
 
     @BeforeEach
@@ -68,7 +66,7 @@ public class InvariantParticipantModelHandleTest extends InjectorTestBase {
 
         final var riInjector = getInjector().getInstance(TestClient.class).getInjector();
         this.mdibHistorianFactory = riInjector.getInstance(MdibHistorianFactory.class);
-        this.marshalling = riInjector.getInstance(MarshallingService.class);
+        this.messageCache = riInjector.getInstance(UnmarshalledMessageCache.class);
         this.soapUtil = riInjector.getInstance(SoapUtil.class);
     }
 
@@ -211,11 +209,9 @@ public class InvariantParticipantModelHandleTest extends InjectorTestBase {
 
     private Optional<DescriptionModificationReport> getDescriptionModificationReportFromMessageContent(
             final MessageContent content) {
-        final var body = content.getBody();
-
         final SoapMessage message;
         try {
-            message = marshalling.unmarshal(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            message = messageCache.unmarshal(content);
         } catch (MarshallingException e) {
             fail("Could not unmarshal message", e);
             // unreachable, silence warnings
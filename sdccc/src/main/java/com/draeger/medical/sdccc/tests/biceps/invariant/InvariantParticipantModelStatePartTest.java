@@ -396,35 +396,25 @@ public class InvariantParticipantModelStatePartTest extends InjectorTestBase {
                 messageStorage, getInjector().getInstance(TestRunObserver.class));
 
         final var endTimestamp = manipulationData.getFinishTimestamp() + buffer;
-        try (final var history = historian.uniqueEpisodicReportBasedHistoryUntilTimestamp(sequenceId, endTimestamp)) {
-            try (final var historyNext =
-                    historian.uniqueEpisodicReportBasedHistoryUntilTimestamp(sequenceId, endTimestamp)) {
+        try {
+            // last mdib state before the end timestamp
+            final RemoteMdibAccess mdib =
+                    historian.uniqueEpisodicReportBasedMdibUntilTimestamp(sequenceId, endTimestamp);
+            assertNotNull(mdib, String.format(NO_REPORT_IN_TIME, endTimestamp));
 
-                RemoteMdibAccess first = history.next();
-                RemoteMdibAccess second = historyNext.next();
-                // skip the first entry so that history and historyNext are off by one entry
-                final var skippedElement = historyNext.next();
-                assertNotNull(skippedElement, String.format(NO_REPORT_IN_TIME, endTimestamp));
-
-                // fast-forward to last mdib state before the end timestamp
-                while (second != null) {
-                    first = history.next();
-                    second = historyNext.next();
-                }
-                final var relevantMetricStateOpt = first.getState(manipulatedHandle, AbstractMetricState.class);
-                assertTrue(
-                        relevantMetricStateOpt.isPresent(),
-                        String.format(NO_METRIC_WITH_EXPECTED_HANDLE, manipulatedHandle));
-                final var relevantMetricState = relevantMetricStateOpt.orElseThrow();
-                Assertions.assertEquals(
-                        expectedActivationState,
-                        ImpliedValueUtil.getMetricActivation(relevantMetricState),
-                        String.format(
-                                WRONG_ACTIVATION_STATE,
-                                manipulatedHandle,
-                                expectedActivationState,
-                                ImpliedValueUtil.getMetricActivation(relevantMetricState)));
-            }
+            final var relevantMetricStateOpt = mdib.getState(manipulatedHandle, AbstractMetricState.class);
+            assertTrue(
+                    relevantMetricStateOpt.isPresent(),
+                    String.format(NO_METRIC_WITH_EXPECTED_HANDLE, manipulatedHandle));
+            final var relevantMetricState = relevantMetricStateOpt.orElseThrow();
+            Assertions.assertEquals(
+                    expectedActivationState,
+                    ImpliedValueUtil.getMetricActivation(relevantMetricState),
+                    String.format(
+                            WRONG_ACTIVATION_STATE,
+                            manipulatedHandle,
+                            expectedActivationState,
+                            ImpliedValueUtil.getMetricActivation(relevantMetricState)));
         } catch (ReportProcessingException | PreprocessingException e) {
             fail(e);
         }
@@ -20,17 +20,24 @@ import com.draeger.medical.sdccc.tests.annotations.TestIdentifier;
 import com.draeger.medical.sdccc.tests.util.ImpliedValueUtil;
 import com.draeger.medical.sdccc.tests.util.InitialImpliedValue;
 import com.draeger.medical.sdccc.tests.util.InitialImpliedValueException;
+import com.draeger.medical.sdccc.tests.util.MdibChangeSet;
 import com.draeger.medical.sdccc.tests.util.MdibHistorian;
+import com.draeger.medical.sdccc.tests.util.MdibHistoryEvaluator;
+import com.draeger.medical.sdccc.tests.util.MdibHistoryVisitor;
 import com.draeger.medical.sdccc.tests.util.NoTestData;
 import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
 import com.draeger.medical.sdccc.util.TestRunObserver;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -66,12 +73,24 @@ public class InvariantParticipantModelVersioningTest extends InjectorTestBase {
             "Descriptor version has not been incremented by one, but descriptor has changed.";
     private MessageStorage messageStorage;
     private MdibHistorianFactory mdibHistorianFactory;
+    private MdibHistoryEvaluator historyEvaluator;
+    // checks evaluated in the same replay of the episodic report based history
+    private Map<String, Supplier<MdibHistoryVisitor>> historyChecks;
 
     @BeforeEach
     void setUp() {
         this.messageStorage = getInjector().getInstance(MessageStorage.class);
         final var riInjector = getInjector().getInstance(TestClient.class).getInjector();
         this.mdibHistorianFactory = riInjector.getInstance(MdibHistorianFactory.class);
+        this.historyEvaluator = riInjector.getInstance(MdibHistoryEvaluator.class);
+        final Map<String, Supplier<MdibHistoryVisitor>> checks = Map.of(
+                EnabledTestConfig.BICEPS_R0033, DescriptorChildrenVersionCheck::new,
+                EnabledTestConfig.BICEPS_R0034_0, DescriptorVersionCheck::new,
+                EnabledTestConfig.BICEPS_R0038_0, StateVersionCheck::new);
+        // checks of disabled test cases are not evaluated along with the enabled ones
+        this.historyChecks = checks.entrySet().stream()
+                .filter(check -> getInjector().getInstance(Key.get(Boolean.class, Names.named(check.getKey()))))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
     @Test
@@ -82,60 +101,11 @@ public class InvariantParticipantModelVersioningTest extends InjectorTestBase {
     @RequirePrecondition(
             simplePreconditions = {ConditionalPreconditions.DescriptionModificationCrtOrDelPrecondition.class})
     void testRequirementR0033() throws NoTestData, IOException {
-        final var mdibHistorian = mdibHistorianFactory.createMdibHistorian(
-                messageStorage, getInjector().getInstance(TestRunObserver.class));
-
-        final var descriptorChanges = new AtomicInteger(0);
-
-        try (final Stream<String> sequenceIds = mdibHistorian.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                final var impliedValueMap = new InitialImpliedValue();
-                mdibHistorian.processAllConsecutivePairsForSequenceId(
-                        (first, second) -> {
-                            final var currentDescriptors = first.findEntitiesByType(AbstractDescriptor.class);
-                            for (MdibEntity entity : currentDescriptors) {
-                                final var descriptor = entity.getDescriptor(AbstractDescriptor.class)
-                                        .orElseThrow();
-                                final var nextEntityOpt = second.getEntity(descriptor.getHandle());
-                                if (nextEntityOpt.isEmpty()) {
-                                    continue;
-                                }
-                                final var nextEntity = nextEntityOpt.orElseThrow();
-                                final var nextDescriptor = nextEntity
-                                        .getDescriptor(AbstractDescriptor.class)
-                                        .orElseThrow();
-
-                                // compare children of current and next descriptor one by one
-                                final var childrenChanged =
-                                        haveDescriptorChildrenDisOrReappeared(descriptor.getHandle(), first, second);
-
-                                if (!childrenChanged) {
-                                    continue;
-                                }
-
-                                descriptorChanges.incrementAndGet();
-
-                                try {
-                                    assertTrue(
-                                            isIncrementedVersion(
-                                                    ImpliedValueUtil.getDescriptorVersion(descriptor, impliedValueMap),
-                                                    ImpliedValueUtil.getDescriptorVersion(
-                                                            nextDescriptor, impliedValueMap)),
-                                            "Descriptor version has not changed, but children have."
-                                                    + " MdibVersions " + first.getMdibVersion()
-                                                    + " and " + second.getMdibVersion()
-                                                    + ". Descriptor handle " + descriptor.getHandle()
-                                                    + ". Old children " + descriptor
-                                                    + " new children " + nextEntity.getChildren());
-                                } catch (InitialImpliedValueException e) {
-                                    fail(e);
-                                }
-                            }
-                        },
-                        sequenceId);
-            });
-        }
-        assertTestData(descriptorChanges.get(), "No descriptor changed during the test run.");
+        historyEvaluator.evaluate(
+                messageStorage,
+                getInjector().getInstance(TestRunObserver.class),
+                EnabledTestConfig.BICEPS_R0033,
+                historyChecks);
     }
 
     @Test
@@ -149,84 +119,11 @@ public class InvariantParticipantModelVersioningTest extends InjectorTestBase {
     @RequirePrecondition(
             simplePreconditions = {ConditionalPreconditions.TriggerDescriptionModificationReportPrecondition.class})
     void testRequirementR0034() throws NoTestData, IOException {
-        final var mdibHistorian = mdibHistorianFactory.createMdibHistorian(
-                messageStorage, getInjector().getInstance(TestRunObserver.class));
-
-        final var descriptorChanges = new AtomicInteger(0);
-
-        try (final Stream<String> sequenceIds = mdibHistorian.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                final var impliedValueMap = new InitialImpliedValue();
-                final var lastDescriptorMap = new HashMap<String, AbstractDescriptor>();
-                mdibHistorian.processAllConsecutivePairsForSequenceId(
-                        (first, second) -> {
-                            final var currentDescriptors = first.findEntitiesByType(AbstractDescriptor.class);
-                            for (MdibEntity entity : currentDescriptors) {
-                                // check if this was previously deleted and returned
-                                final var descriptor = entity.getDescriptor(AbstractDescriptor.class)
-                                        .orElseThrow();
-                                final var oldVersion = lastDescriptorMap.remove(descriptor.getHandle());
-                                if (oldVersion != null) {
-                                    final var descriptorChanged = hasDescriptorChanged(oldVersion, descriptor);
-                                    if (descriptorChanged) {
-                                        descriptorChanges.incrementAndGet();
-                                        try {
-                                            assertTrue(
-                                                    isIncrementedVersion(
-                                                            ImpliedValueUtil.getDescriptorVersion(
-                                                                    oldVersion, impliedValueMap),
-                                                            ImpliedValueUtil.getDescriptorVersion(
-                                                                    descriptor, impliedValueMap)),
-                                                    DESCRIPTOR_REINSERTION_PREFIX
-                                                            + " MdibVersions of insertion " + first.getMdibVersion()
-                                                            + ". Descriptor handle " + descriptor.getHandle()
-                                                            + ". Old Descriptor " + oldVersion
-                                                            + " Inserted Descriptor " + descriptor);
-                                        } catch (InitialImpliedValueException e) {
-                                            fail(e);
-                                        }
-                                    }
-                                }
-
-                                final var nextEntityOpt = second.getEntity(descriptor.getHandle());
-                                if (nextEntityOpt.isEmpty()) {
-                                    // descriptor was removed, add to storage
-                                    lastDescriptorMap.put(descriptor.getHandle(), descriptor);
-                                    continue;
-                                }
-
-                                final var nextDescriptor = nextEntityOpt
-                                        .orElseThrow()
-                                        .getDescriptor(AbstractDescriptor.class)
-                                        .orElseThrow();
-                                // compare children of current and next descriptor one by one
-                                final var descriptorChanged = hasDescriptorChanged(descriptor, nextDescriptor);
-                                if (!descriptorChanged) {
-                                    continue;
-                                }
-
-                                descriptorChanges.incrementAndGet();
-                                try {
-                                    assertTrue(
-                                            isIncrementedVersion(
-                                                    ImpliedValueUtil.getDescriptorVersion(descriptor, impliedValueMap),
-                                                    ImpliedValueUtil.getDescriptorVersion(
-                                                            nextDescriptor, impliedValueMap)),
-                                            DESCRIPTOR_UPDATE_PREFIX
-                                                    + " MdibVersions " + first.getMdibVersion()
-                                                    + " and " + second.getMdibVersion()
-                                                    + ". Descriptor handle " + descriptor.getHandle()
-                                                    + ". Old Descriptor " + descriptor
-                                                    + " New Descriptor " + nextDescriptor);
-                                } catch (InitialImpliedValueException e) {
-                                    fail(e);
-                                }
-                            }
-                        },
-                        sequenceId);
-            });
-        }
-        assertTestData(descriptorChanges.get(), "No descriptor changed during the test run.");
+        historyEvaluator.evaluate(
+                messageStorage,
+                getInjector().getInstance(TestRunObserver.class),
+                EnabledTestConfig.BICEPS_R0034_0,
+                historyChecks);
     }
 
     @Test
@@ -238,84 +135,11 @@ public class InvariantParticipantModelVersioningTest extends InjectorTestBase {
             + " changed.")
     @RequirePrecondition(simplePreconditions = {ConditionalPreconditions.StateChangedPrecondition.class})
     void testRequirementR0038() throws NoTestData, IOException {
-        final var mdibHistorian = mdibHistorianFactory.createMdibHistorian(
-                messageStorage, getInjector().getInstance(TestRunObserver.class));
-
-        final var stateChanges = new AtomicInteger(0);
-
-        try (final Stream<String> sequenceIds = mdibHistorian.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                final var impliedValueMap = new InitialImpliedValue();
-                final var removedStatesMap = new HashMap<String, AbstractState>();
-                mdibHistorian.processAllConsecutivePairsForSequenceId(
-                        (first, second) -> {
-                            final var states = first.getStatesByType(AbstractState.class);
-                            for (var state : states) {
-
-                                final String stateHandle;
-                                if (state instanceof AbstractMultiState) {
-                                    stateHandle = ((AbstractMultiState) state).getHandle();
-                                } else {
-                                    stateHandle = state.getDescriptorHandle();
-                                }
-                                final Optional<AbstractState> nextStateOpt = second.getState(stateHandle);
-
-                                if (removedStatesMap.containsKey(stateHandle)) {
-                                    final var removedState = removedStatesMap.get(stateHandle);
-                                    if (!removedState.equals(state)) {
-                                        try {
-                                            assertTrue(
-                                                    isIncrementedVersion(
-                                                            ImpliedValueUtil.getStateVersion(
-                                                                    removedState, impliedValueMap),
-                                                            ImpliedValueUtil.getStateVersion(state, impliedValueMap)),
-                                                    "State version has not been incremented by one, but reinserted state"
-                                                            + " has changed. MdibVersions " + first.getMdibVersion()
-                                                            + " and " + second.getMdibVersion()
-                                                            + ". State handle " + stateHandle
-                                                            + ". Old State " + removedState
-                                                            + " New State " + state);
-                                        } catch (InitialImpliedValueException e) {
-                                            fail(e);
-                                        }
-                                    }
-                                    removedStatesMap.remove(stateHandle);
-                                }
-
-                                if (nextStateOpt.isEmpty()) {
-                                    // state will be removed
-                                    removedStatesMap.put(stateHandle, state);
-                                    continue;
-                                }
-
-                                final var nextState = nextStateOpt.orElseThrow();
-
-                                if (state.equals(nextState)) {
-                                    continue;
-                                }
-
-                                stateChanges.incrementAndGet();
-                                try {
-                                    assertTrue(
-                                            isIncrementedVersion(
-                                                    ImpliedValueUtil.getStateVersion(state, impliedValueMap),
-                                                    ImpliedValueUtil.getStateVersion(nextState, impliedValueMap)),
-                                            "State version has not been incremented by one, but state has changed."
-                                                    + " MdibVersions " + first.getMdibVersion()
-                                                    + " and " + second.getMdibVersion()
-                                                    + ". State handle " + stateHandle
-                                                    + ". Old State " + state
-                                                    + " New State " + nextState);
-                                } catch (InitialImpliedValueException e) {
-                                    fail(e);
-                                }
-                            }
-                        },
-                        sequenceId);
-                removedStatesMap.clear();
-            });
-        }
-        assertTestData(stateChanges.get(), "No state changed during the test run.");
+        historyEvaluator.evaluate(
+                messageStorage,
+                getInjector().getInstance(TestRunObserver.class),
+                EnabledTestConfig.BICEPS_R0038_0,
+                historyChecks);
     }
 
     @Test
@@ -494,4 +318,252 @@ public class InvariantParticipantModelVersioningTest extends InjectorTestBase {
     private boolean isIncrementedVersion(final BigInteger version, final BigInteger nextVersion) {
         return nextVersion.equals(version.add(BigInteger.ONE));
     }
+
+    /**
+     * Check for BICEPS.R0033, verifies that the descriptor version is incremented whenever children appear or vanish.
+     */
+    private final class DescriptorChildrenVersionCheck implements MdibHistoryVisitor {
+        private final AtomicInteger descriptorChanges = new AtomicInteger(0);
+        private InitialImpliedValue impliedValueMap;
+
+        @Override
+        public void startSequence(final String sequenceId) {
+            this.impliedValueMap = new InitialImpliedValue();
+        }
+
+        @Override
+        public void visitPair(
+                final RemoteMdibAccess first, final RemoteMdibAccess second, final MdibChangeSet changes) {
+            // only descriptors touched by the report can have gained or lost children
+            for (var handle : changes.descriptorHandles()) {
+                final var entityOpt = first.getEntity(handle);
+                final var nextEntityOpt = second.getEntity(handle);
+                if (entityOpt.isEmpty() || nextEntityOpt.isEmpty()) {
+                    continue;
+                }
+                final var descriptor = entityOpt
+                        .orElseThrow()
+                        .getDescriptor(AbstractDescriptor.class)
+                        .orElseThrow();
+                final var nextEntity = nextEntityOpt.orElseThrow();
+                final var nextDescriptor =
+                        nextEntity.getDescriptor(AbstractDescriptor.class).orElseThrow();
+
+                // compare children of current and next descriptor one by one
+                final var childrenChanged = haveDescriptorChildrenDisOrReappeared(descriptor.getHandle(), first, second);
+
+                if (!childrenChanged) {
+                    continue;
+                }
+
+                descriptorChanges.incrementAndGet();
+
+                try {
+                    assertTrue(
+                            isIncrementedVersion(
+                                    ImpliedValueUtil.getDescriptorVersion(descriptor, impliedValueMap),
+                                    ImpliedValueUtil.getDescriptorVersion(nextDescriptor, impliedValueMap)),
+                            "Descriptor version has not changed, but children have."
+                                    + " MdibVersions " + first.getMdibVersion()
+                                    + " and " + second.getMdibVersion()
+                                    + ". Descriptor handle " + descriptor.getHandle()
+                                    + ". Old children " + descriptor
+                                    + " new children " + nextEntity.getChildren());
+                } catch (InitialImpliedValueException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws NoTestData {
+            assertTestData(descriptorChanges.get(), "No descriptor changed during the test run.");
+        }
+    }
+
+    /**
+     * Check for BICEPS.R0034, verifies that the descriptor version is incremented whenever the descriptor changes,
+     * including changes between the deletion and the reinsertion of a descriptor.
+     */
+    private final class DescriptorVersionCheck implements MdibHistoryVisitor {
+        private final AtomicInteger descriptorChanges = new AtomicInteger(0);
+        private InitialImpliedValue impliedValueMap;
+        private Map<String, AbstractDescriptor> lastDescriptorMap;
+
+        @Override
+        public void startSequence(final String sequenceId) {
+            this.impliedValueMap = new InitialImpliedValue();
+            this.lastDescriptorMap = new HashMap<>();
+        }
+
+        @Override
+        public void visitPair(
+                final RemoteMdibAccess first, final RemoteMdibAccess second, final MdibChangeSet changes) {
+            for (var handle : changes.descriptorHandles()) {
+                final var entityOpt = first.getEntity(handle);
+                final var nextEntityOpt = second.getEntity(handle);
+                if (nextEntityOpt.isEmpty()) {
+                    // descriptor was removed, add to storage
+                    entityOpt.ifPresent(entity -> lastDescriptorMap.put(
+                            handle, entity.getDescriptor(AbstractDescriptor.class).orElseThrow()));
+                    continue;
+                }
+
+                if (entityOpt.isEmpty()) {
+                    // check if this was previously deleted and returned
+                    final var oldVersion = lastDescriptorMap.remove(handle);
+                    if (oldVersion != null) {
+                        checkReinsertedDescriptor(
+                                oldVersion,
+                                nextEntityOpt
+                                        .orElseThrow()
+                                        .getDescriptor(AbstractDescriptor.class)
+                                        .orElseThrow(),
+                                second);
+                    }
+                    continue;
+                }
+
+                final var descriptor = entityOpt
+                        .orElseThrow()
+                        .getDescriptor(AbstractDescriptor.class)
+                        .orElseThrow();
+                final var nextDescriptor = nextEntityOpt
+                        .orElseThrow()
+                        .getDescriptor(AbstractDescriptor.class)
+                        .orElseThrow();
+                // compare children of current and next descriptor one by one
+                final var descriptorChanged = hasDescriptorChanged(descriptor, nextDescriptor);
+                if (!descriptorChanged) {
+                    continue;
+                }
+
+                descriptorChanges.incrementAndGet();
+                try {
+                    assertTrue(
+                            isIncrementedVersion(
+                                    ImpliedValueUtil.getDescriptorVersion(descriptor, impliedValueMap),
+                                    ImpliedValueUtil.getDescriptorVersion(nextDescriptor, impliedValueMap)),
+                            DESCRIPTOR_UPDATE_PREFIX
+                                    + " MdibVersions " + first.getMdibVersion()
+                                    + " and " + second.getMdibVersion()
+                                    + ". Descriptor handle " + descriptor.getHandle()
+                                    + ". Old Descriptor " + descriptor
+                                    + " New Descriptor " + nextDescriptor);
+                } catch (InitialImpliedValueException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws NoTestData {
+            assertTestData(descriptorChanges.get(), "No descriptor changed during the test run.");
+        }
+
+        private void checkReinsertedDescriptor(
+                final AbstractDescriptor oldVersion,
+                final AbstractDescriptor descriptor,
+                final RemoteMdibAccess insertion) {
+            if (!hasDescriptorChanged(oldVersion, descriptor)) {
+                return;
+            }
+            descriptorChanges.incrementAndGet();
+            try {
+                assertTrue(
+                        isIncrementedVersion(
+                                ImpliedValueUtil.getDescriptorVersion(oldVersion, impliedValueMap),
+                                ImpliedValueUtil.getDescriptorVersion(descriptor, impliedValueMap)),
+                        DESCRIPTOR_REINSERTION_PREFIX
+                                + " MdibVersions of insertion " + insertion.getMdibVersion()
+                                + ". Descriptor handle " + descriptor.getHandle()
+                                + ". Old Descriptor " + oldVersion
+                                + " Inserted Descriptor " + descriptor);
+            } catch (InitialImpliedValueException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Check for BICEPS.R0038, verifies that the state version is incremented whenever the state changes, including
+     * changes between the removal and the reinsertion of a state.
+     */
+    private final class StateVersionCheck implements MdibHistoryVisitor {
+        private final AtomicInteger stateChanges = new AtomicInteger(0);
+        private InitialImpliedValue impliedValueMap;
+        private Map<String, AbstractState> removedStatesMap;
+
+        @Override
+        public void startSequence(final String sequenceId) {
+            this.impliedValueMap = new InitialImpliedValue();
+            this.removedStatesMap = new HashMap<>();
+        }
+
+        @Override
+        public void visitPair(
+                final RemoteMdibAccess first, final RemoteMdibAccess second, final MdibChangeSet changes) {
+            for (var stateHandle : changes.stateHandles()) {
+                final Optional<AbstractState> stateOpt = first.getState(stateHandle);
+                final Optional<AbstractState> nextStateOpt = second.getState(stateHandle);
+
+                if (nextStateOpt.isEmpty()) {
+                    // state has been removed
+                    stateOpt.ifPresent(state -> removedStatesMap.put(stateHandle, state));
+                    continue;
+                }
+
+                if (stateOpt.isEmpty()) {
+                    // check if this was previously removed and returned
+                    final var removedState = removedStatesMap.remove(stateHandle);
+                    final var state = nextStateOpt.orElseThrow();
+                    if (removedState != null && !removedState.equals(state)) {
+                        try {
+                            assertTrue(
+                                    isIncrementedVersion(
+                                            ImpliedValueUtil.getStateVersion(removedState, impliedValueMap),
+                                            ImpliedValueUtil.getStateVersion(state, impliedValueMap)),
+                                    "State version has not been incremented by one, but reinserted state"
+                                            + " has changed. MdibVersions " + first.getMdibVersion()
+                                            + " and " + second.getMdibVersion()
+                                            + ". State handle " + stateHandle
+                                            + ". Old State " + removedState
+                                            + " New State " + state);
+                        } catch (InitialImpliedValueException e) {
+                            fail(e);
+                        }
+                    }
+                    continue;
+                }
+
+                final var state = stateOpt.orElseThrow();
+                final var nextState = nextStateOpt.orElseThrow();
+
+                if (state.equals(nextState)) {
+                    continue;
+                }
+
+                stateChanges.incrementAndGet();
+                try {
+                    assertTrue(
+                            isIncrementedVersion(
+                                    ImpliedValueUtil.getStateVersion(state, impliedValueMap),
+                                    ImpliedValueUtil.getStateVersion(nextState, impliedValueMap)),
+                            "State version has not been incremented by one, but state has changed."
+                                    + " MdibVersions " + first.getMdibVersion()
+                                    + " and " + second.getMdibVersion()
+                                    + ". State handle " + stateHandle
+                                    + ". Old State " + state
+                                    + " New State " + nextState);
+                } catch (InitialImpliedValueException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws NoTestData {
+            assertTestData(stateChanges.get(), "No state changed during the test run.");
+        }
+    }
 }
@@ -212,7 +212,7 @@ public class InvariantNonFunctionalQualityAttributesTest extends InjectorTestBas
 
         final var acceptableSequenceSeen = new AtomicInteger(0);
 
-        mdibHistorian.processAllConsecutivePairs((last, current) -> {
+        mdibHistorian.processAllConsecutiveSnapshotPairs((last, current) -> {
             final var currentAlertConditionStates = current.getStatesByType(AlertConditionState.class);
 
             for (var currentAlertConditionState : currentAlertConditionStates) {
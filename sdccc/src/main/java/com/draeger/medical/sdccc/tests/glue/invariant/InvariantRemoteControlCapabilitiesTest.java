@@ -20,17 +20,15 @@ import com.draeger.medical.sdccc.tests.annotations.TestDescription;
 import com.draeger.medical.sdccc.tests.annotations.TestIdentifier;
 import com.draeger.medical.sdccc.tests.util.CryptoUtil;
 import com.draeger.medical.sdccc.tests.util.NoTestData;
+import com.draeger.medical.sdccc.tests.util.UnmarshalledMessageCache;
 import com.draeger.medical.sdccc.util.Constants;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.security.cert.X509Certificate;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.somda.sdc.biceps.model.message.OperationInvokedReport;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
 
@@ -43,14 +41,14 @@ public class InvariantRemoteControlCapabilitiesTest extends InjectorTestBase {
     public static final String WRONG_EXTENSION_ERROR_MESSAGE =
             "Extension is not the expected extension%n%s%nbut" + " is%n%s%n";
     private MessageStorage messageStorage;
-    private MarshallingService marshalling;
+    private UnmarshalledMessageCache messageCache;
     private SoapUtil soapUtil;
 
     @BeforeEach
     void setup() {
         this.messageStorage = getInjector().getInstance(MessageStorage.class);
         final var riInjector = getInjector().getInstance(TestClient.class).getInjector();
-        this.marshalling = riInjector.getInstance(MarshallingService.class);
+        this.messageCache = riInjector.getInstance(UnmarshalledMessageCache.class);
         this.soapUtil = riInjector.getInstance(SoapUtil.class);
     }
 
@@ -71,8 +69,7 @@ public class InvariantRemoteControlCapabilitiesTest extends InjectorTestBase {
             final var operationInvokedReportsSeen = new AtomicInteger(0);
             messages.getStream().forEach(messageContent -> {
                 try {
-                    final var soapMessage = marshalling.unmarshal(
-                            new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+                    final var soapMessage = messageCache.unmarshal(messageContent);
                     final var reportOpt = soapUtil.getBody(soapMessage, OperationInvokedReport.class);
                     if (reportOpt.isPresent()) {
                         for (var reportPart : reportOpt.orElseThrow().getReportPart()) {
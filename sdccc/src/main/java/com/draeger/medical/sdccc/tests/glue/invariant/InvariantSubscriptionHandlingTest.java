@@ -23,13 +23,12 @@ import com.draeger.medical.sdccc.tests.util.InitialImpliedValue;
 import com.draeger.medical.sdccc.tests.util.InitialImpliedValueException;
 import com.draeger.medical.sdccc.tests.util.MdibHistorian;
 import com.draeger.medical.sdccc.tests.util.NoTestData;
+import com.draeger.medical.sdccc.tests.util.UnmarshalledMessageCache;
 import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -52,7 +51,6 @@ import org.somda.sdc.biceps.model.participant.AbstractState;
 import org.somda.sdc.biceps.model.participant.DistributionSampleArrayMetricState;
 import org.somda.sdc.biceps.model.participant.RealTimeSampleArrayMetricState;
 import org.somda.sdc.biceps.model.participant.SampleArrayValue;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapMessage;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
@@ -64,7 +62,7 @@ public class InvariantSubscriptionHandlingTest extends InjectorTestBase {
 
     private MessageStorage messageStorage;
     private MdibHistorianFactory historianFactory;
-    private MarshallingService marshalling;
+    private UnmarshalledMessageCache messageCache;
     private SoapUtil soapUtil;
 
     @BeforeEach
@@ -72,7 +70,7 @@ public class InvariantSubscriptionHandlingTest extends InjectorTestBase {
         this.messageStorage = getInjector().getInstance(MessageStorage.class);
         final var riInjector = getInjector().getInstance(TestClient.class).getInjector();
         this.historianFactory = riInjector.getInstance(MdibHistorianFactory.class);
-        this.marshalling = riInjector.getInstance(MarshallingService.class);
+        this.messageCache = riInjector.getInstance(UnmarshalledMessageCache.class);
         this.soapUtil = riInjector.getInstance(SoapUtil.class);
     }
 
@@ -124,11 +122,9 @@ public class InvariantSubscriptionHandlingTest extends InjectorTestBase {
 
     private Optional<DescriptionModificationReport> getDescriptionModificationReportFromMessageContent(
             final MessageContent content) {
-        final var body = content.getBody();
-
         final SoapMessage message;
         try {
-            message = marshalling.unmarshal(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            message = messageCache.unmarshal(content);
         } catch (MarshallingException e) {
             fail("Could not unmarshal message", e);
             // unreachable, silence warnings
@@ -0,0 +1,142 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import org.somda.sdc.biceps.common.MdibEntity;
+import org.somda.sdc.biceps.common.access.MdibAccess;
+import org.somda.sdc.biceps.model.message.AbstractAlertReport;
+import org.somda.sdc.biceps.model.message.AbstractComponentReport;
+import org.somda.sdc.biceps.model.message.AbstractContextReport;
+import org.somda.sdc.biceps.model.message.AbstractMetricReport;
+import org.somda.sdc.biceps.model.message.AbstractOperationalStateReport;
+import org.somda.sdc.biceps.model.message.AbstractReport;
+import org.somda.sdc.biceps.model.message.DescriptionModificationReport;
+import org.somda.sdc.biceps.model.message.DescriptionModificationType;
+import org.somda.sdc.biceps.model.participant.AbstractMultiState;
+import org.somda.sdc.biceps.model.participant.AbstractState;
+
+/**
+ * A report applied between two consecutive Mdibs and the handles of the descriptors and states it may have changed.
+ *
+ * <p>
+ * The sets are derived from the parts of the report and hence are a superset of the actual changes, i.e. every
+ * descriptor or state that differs between the two Mdibs is contained, but a contained handle does not guarantee a
+ * difference. Descriptor handles include the parents of created and deleted descriptors as well as all descendants of
+ * deleted ones, state handles use the multi state handle for multi states and the descriptor handle otherwise.
+ *
+ * @param report            the report which has been applied
+ * @param descriptorHandles handles of descriptors which may have been created, updated or deleted
+ * @param stateHandles      handles of states which may have been created, updated or deleted
+ */
+public record MdibChangeSet(AbstractReport report, Set<String> descriptorHandles, Set<String> stateHandles) {
+
+    /**
+     * Derives the change set of a report which has been applied to an Mdib.
+     *
+     * @param report the report that has been applied
+     * @param before Mdib before the report was applied
+     * @param after  Mdib after the report was applied
+     * @return the handles the report may have changed
+     */
+    static MdibChangeSet fromReport(final AbstractReport report, final MdibAccess before, final MdibAccess after) {
+        return fromReport(report, before::getEntity, after::getEntity);
+    }
+
+    /**
+     * Derives the change set of a report which has been applied to an Mdib, which is only accessible by entity lookups.
+     *
+     * @param report the report that has been applied
+     * @param before entity lookup of the Mdib before the report was applied
+     * @param after  entity lookup of the Mdib after the report was applied
+     * @return the handles the report may have changed
+     */
+    static MdibChangeSet fromReport(
+            final AbstractReport report,
+            final Function<String, Optional<MdibEntity>> before,
+            final Function<String, Optional<MdibEntity>> after) {
+        final Set<String> descriptorHandles = new HashSet<>();
+        final Set<String> stateHandles = new HashSet<>();
+
+        if (report instanceof AbstractMetricReport metricReport) {
+            for (var part : metricReport.getReportPart()) {
+                addStateHandles(part.getMetricState(), stateHandles);
+            }
+        } else if (report instanceof AbstractAlertReport alertReport) {
+            for (var part : alertReport.getReportPart()) {
+                addStateHandles(part.getAlertState(), stateHandles);
+            }
+        } else if (report instanceof AbstractComponentReport componentReport) {
+            for (var part : componentReport.getReportPart()) {
+                addStateHandles(part.getComponentState(), stateHandles);
+            }
+        } else if (report instanceof AbstractOperationalStateReport operationalStateReport) {
+            for (var part : operationalStateReport.getReportPart()) {
+                addStateHandles(part.getOperationState(), stateHandles);
+            }
+        } else if (report instanceof AbstractContextReport contextReport) {
+            for (var part : contextReport.getReportPart()) {
+                addStateHandles(part.getContextState(), stateHandles);
+            }
+        } else if (report instanceof DescriptionModificationReport descriptionModificationReport) {
+            for (var part : descriptionModificationReport.getReportPart()) {
+                final var modificationType = ImpliedValueUtil.getModificationType(part);
+                final var affected = new HashSet<String>();
+                for (var descriptor : part.getDescriptor()) {
+                    affected.add(descriptor.getHandle());
+                    if (modificationType == DescriptionModificationType.DEL) {
+                        addDescendants(descriptor.getHandle(), before, affected);
+                    }
+                }
+                addStateHandles(part.getState(), stateHandles);
+
+                for (var handle : affected) {
+                    descriptorHandles.add(handle);
+                    before.apply(handle).ifPresent(entity -> {
+                        entity.getParent().ifPresent(descriptorHandles::add);
+                        addStateHandles(entity.getStates(AbstractState.class), stateHandles);
+                    });
+                    after.apply(handle).ifPresent(entity -> {
+                        entity.getParent().ifPresent(descriptorHandles::add);
+                        addStateHandles(entity.getStates(AbstractState.class), stateHandles);
+                    });
+                }
+                if (part.getParentDescriptor() != null) {
+                    descriptorHandles.add(part.getParentDescriptor());
+                }
+            }
+        }
+        return new MdibChangeSet(
+                report, Collections.unmodifiableSet(descriptorHandles), Collections.unmodifiableSet(stateHandles));
+    }
+
+    private static void addDescendants(
+            final String handle, final Function<String, Optional<MdibEntity>> mdib, final Set<String> handles) {
+        final var pending = new ArrayDeque<String>();
+        pending.add(handle);
+        while (!pending.isEmpty()) {
+            mdib.apply(pending.poll())
+                    .map(MdibEntity::getChildren)
+                    .ifPresent(children -> children.stream().filter(handles::add).forEach(pending::add));
+        }
+    }
+
+    private static void addStateHandles(final Collection<? extends AbstractState> states, final Set<String> handles) {
+        for (var state : states) {
+            handles.add(
+                    state instanceof AbstractMultiState multiState
+                            ? multiState.getHandle()
+                            : state.getDescriptorHandle());
+        }
+    }
+}
@@ -8,24 +8,28 @@ package com.draeger.medical.sdccc.tests.util;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
+import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
 import com.draeger.medical.sdccc.messages.MessageStorage;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
 import com.draeger.medical.sdccc.messages.mapping.MessageContent;
 import com.draeger.medical.sdccc.util.Constants;
 import com.draeger.medical.sdccc.util.TestRunObserver;
-import com.google.inject.Guice;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Provider;
-import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
-import com.google.inject.assistedinject.FactoryModuleBuilder;
-import java.io.ByteArrayInputStream;
+import com.google.inject.name.Named;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -37,34 +41,15 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.util.TriConsumer;
-import org.somda.sdc.biceps.common.CommonConfig;
-import org.somda.sdc.biceps.common.access.ReadTransaction;
-import org.somda.sdc.biceps.common.access.ReadTransactionImpl;
-import org.somda.sdc.biceps.common.access.factory.ReadTransactionFactory;
-import org.somda.sdc.biceps.common.preprocessing.DescriptorChildRemover;
-import org.somda.sdc.biceps.common.storage.MdibStorage;
-import org.somda.sdc.biceps.common.storage.MdibStorageImpl;
-import org.somda.sdc.biceps.common.storage.MdibStoragePreprocessingChain;
 import org.somda.sdc.biceps.common.storage.PreprocessingException;
-import org.somda.sdc.biceps.common.storage.StatePreprocessingSegment;
-import org.somda.sdc.biceps.common.storage.factory.MdibStorageFactory;
-import org.somda.sdc.biceps.common.storage.factory.MdibStoragePreprocessingChainFactory;
 import org.somda.sdc.biceps.consumer.access.RemoteMdibAccess;
-import org.somda.sdc.biceps.consumer.access.RemoteMdibAccessImpl;
-import org.somda.sdc.biceps.consumer.access.factory.RemoteMdibAccessFactory;
-import org.somda.sdc.biceps.consumer.preprocessing.DuplicateContextStateHandleHandler;
 import org.somda.sdc.biceps.model.message.AbstractReport;
 import org.somda.sdc.biceps.model.message.GetMdibResponse;
 import org.somda.sdc.biceps.model.participant.Mdib;
 import org.somda.sdc.biceps.model.participant.MdibVersion;
-import org.somda.sdc.biceps.provider.preprocessing.ContextHandleDuplicateChecker;
-import org.somda.sdc.biceps.provider.preprocessing.DuplicateChecker;
-import org.somda.sdc.biceps.provider.preprocessing.DuplicateDescriptorChecker;
-import org.somda.sdc.common.guice.AbstractConfigurationModule;
-import org.somda.sdc.common.guice.DefaultCommonModule;
-import org.somda.sdc.dpws.soap.MarshallingService;
 import org.somda.sdc.dpws.soap.SoapUtil;
 import org.somda.sdc.dpws.soap.exception.MarshallingException;
+import org.somda.sdc.glue.common.factory.MdibMapperFactory;
 import org.somda.sdc.glue.common.factory.ModificationsBuilderFactory;
 import org.somda.sdc.glue.consumer.report.ReportProcessingException;
 import org.somda.sdc.glue.consumer.report.ReportProcessor;
@@ -79,74 +64,45 @@ public class MdibHistorian {
     private static final Logger LOG = LogManager.getLogger(MdibHistorian.class);
 
     private static final QName GET_MDIB_RESPONSE = Constants.MSG_GET_MDIB_RESPONSE;
+    // catching up with more reports than this is considered more expensive than copying the Mdib
+    private static final int MAXIMUM_PENDING_REPORTS = 64;
 
     private final MessageStorage messageStorage;
     private final TestRunObserver testRunObserver;
-    private final MarshallingService marshalling;
+    private final UnmarshalledMessageCache messageCache;
     private final SoapUtil soapUtil;
-    private final RemoteMdibAccessFactory remoteMdibAccessFactory;
+    private final MdibHistorianStorageFactory storageFactory;
     private final ModificationsBuilderFactory modificationsBuilderFactory;
     private final Provider<ReportProcessor> reportProcessorProvider;
+    private final MdibMapperFactory mdibMapperFactory;
+    private final MdibHistoryCache historyCache;
+    private final int historianThreads;
+    // serializes the callbacks of the processAll methods, which callers do not expect to be invoked concurrently
+    private final Object processorLock;
 
     @AssistedInject
     MdibHistorian(
             final @Assisted MessageStorage messageStorage,
             final @Assisted TestRunObserver testRunObserver,
-            final MarshallingService marshalling,
+            final UnmarshalledMessageCache messageCache,
             final SoapUtil soapUtil,
             final ModificationsBuilderFactory modificationsBuilderFactory,
-            final Provider<ReportProcessor> reportProcessorProvider) {
+            final Provider<ReportProcessor> reportProcessorProvider,
+            final MdibMapperFactory mdibMapperFactory,
+            final MdibHistoryCache historyCache,
+            final MdibHistorianStorageFactory storageFactory,
+            @Named(TestSuiteConfig.MDIB_HISTORIAN_THREADS) final int historianThreads) {
         this.messageStorage = messageStorage;
         this.testRunObserver = testRunObserver;
-        this.marshalling = marshalling;
+        this.messageCache = messageCache;
         this.soapUtil = soapUtil;
         this.modificationsBuilderFactory = modificationsBuilderFactory;
         this.reportProcessorProvider = reportProcessorProvider;
-
-        class MdibHistorianBicepsModule extends AbstractConfigurationModule {
-            @Override
-            protected void defaultConfigure() {
-                install(new FactoryModuleBuilder()
-                        .implement(MdibStoragePreprocessingChain.class, MdibStoragePreprocessingChain.class)
-                        .build(MdibStoragePreprocessingChainFactory.class));
-                install(new FactoryModuleBuilder()
-                        .implement(MdibStorage.class, MdibStorageImpl.class)
-                        .build(MdibStorageFactory.class));
-                install(new FactoryModuleBuilder()
-                        .implement(ReadTransaction.class, ReadTransactionImpl.class)
-                        .build(ReadTransactionFactory.class));
-                install(new FactoryModuleBuilder()
-                        .implement(RemoteMdibAccess.class, RemoteMdibAccessImpl.class)
-                        .build(RemoteMdibAccessFactory.class));
-            }
-        }
-
-        class MdibHistorianConfigurationModule extends AbstractConfigurationModule {
-            @Override
-            protected void defaultConfigure() {
-                bind(org.somda.sdc.common.CommonConfig.INSTANCE_IDENTIFIER, String.class, "");
-                bind(CommonConfig.STORE_NOT_ASSOCIATED_CONTEXT_STATES, Boolean.class, true);
-                bind(CommonConfig.COPY_MDIB_INPUT, Boolean.class, true);
-                bind(CommonConfig.COPY_MDIB_OUTPUT, Boolean.class, true);
-                bind(
-                        CommonConfig.CONSUMER_STATE_PREPROCESSING_SEGMENTS,
-                        new TypeLiteral<List<Class<? extends StatePreprocessingSegment>>>() {},
-                        List.of(DuplicateContextStateHandleHandler.class, ContextHandleDuplicateChecker.class));
-                bind(
-                        CommonConfig.CONSUMER_DESCRIPTION_PREPROCESSING_SEGMENTS,
-                        new TypeLiteral<>() {},
-                        List.of(
-                                DescriptorChildRemover.class, DuplicateChecker.class,
-                                DuplicateDescriptorChecker.class, ContextHandleDuplicateChecker.class));
-            }
-        }
-
-        final var historianBicepsModule = new MdibHistorianBicepsModule();
-        final var historianConfiguration = new MdibHistorianConfigurationModule();
-
-        final var injector =
-                Guice.createInjector(new DefaultCommonModule(), historianBicepsModule, historianConfiguration);
-        this.remoteMdibAccessFactory = injector.getInstance(RemoteMdibAccessFactory.class);
+        this.mdibMapperFactory = mdibMapperFactory;
+        this.historyCache = historyCache;
+        this.storageFactory = storageFactory;
+        this.historianThreads = historianThreads;
+        this.processorLock = new Object();
     }
 
     /**
@@ -167,6 +123,12 @@ public class MdibHistorian {
      * @throws PreprocessingException if converting the initial mdib fails
      */
     public RemoteMdibAccess createNewStorage(final String sequenceId) throws PreprocessingException {
+        final RemoteMdibAccess cachedMdib = historyCache.getInitialMdib(messageStorage, sequenceId);
+        if (cachedMdib != null) {
+            return copyStorage(cachedMdib);
+        }
+
+        final long messageCount = messageStorage.getMessageIndex().getMessageCount();
         final Mdib initialMdib;
         try (final var messages =
                 messageStorage.getInboundMessagesByBodyTypeAndSequenceId(sequenceId, GET_MDIB_RESPONSE)) {
@@ -183,7 +145,9 @@ public class MdibHistorian {
             throw new RuntimeException(e);
         }
 
-        return convertToRemoteMdib(initialMdib);
+        final var storage = convertToRemoteMdib(initialMdib);
+        historyCache.putInitialMdib(messageStorage, messageCount, sequenceId, storage);
+        return copyStorage(storage);
     }
 
     /**
@@ -197,7 +161,7 @@ public class MdibHistorian {
      */
     public HistorianResult uniqueEpisodicReportBasedHistory(final String sequenceId)
             throws PreprocessingException, ReportProcessingException {
-        return getHistorianResultForEpisodicReportBasedHistory(sequenceId, true);
+        return getHistorianResultForEpisodicReportBasedHistory(sequenceId, true, null);
     }
 
     /**
@@ -212,11 +176,13 @@ public class MdibHistorian {
     public HistorianResult episodicReportBasedHistory(final String sequenceId)
             throws PreprocessingException, ReportProcessingException {
 
-        return getHistorianResultForEpisodicReportBasedHistory(sequenceId, false);
+        return getHistorianResultForEpisodicReportBasedHistory(sequenceId, false, null);
     }
 
     private HistorianResult getHistorianResultForEpisodicReportBasedHistory(
-            final String sequenceId, final boolean ensureUnique)
+            final String sequenceId,
+            final boolean ensureUnique,
+            @Nullable final Consumer<AbstractReport> reportListener)
             throws PreprocessingException, ReportProcessingException {
         // create new storage
         final var storage = createNewStorage(sequenceId);
@@ -224,12 +190,22 @@ public class MdibHistorian {
         reportProcessor.startApplyingReportsOnMdib(storage);
         final var mdibVersionPredicate =
                 new InitialMdibVersionPredicateWithUUID(ImpliedValueUtil.getMdibVersion(storage.getMdibVersion()));
+        // only unique histories apply exactly one report per content and are suitable for checkpoints
+        final var recorder = ensureUnique ? new CheckpointRecorder(sequenceId, storage) : null;
 
         try {
             final var messages =
                     messageStorage.getInboundMessagesByBodyType(Constants.RELEVANT_REPORT_BODIES.toArray(new QName[0]));
-            var preStream = messages.getStream()
-                    .sequential() // the stateful filter operation below is not threadsafe
+            // the stateful filter operation below is not threadsafe
+            var contentStream = messages.getStream().sequential();
+            if (ensureUnique) {
+                contentStream = filterContentDuplicates(contentStream, sequenceId);
+            }
+            if (recorder != null) {
+                // messages pass the pipeline one at a time, the last one seen belongs to the report applied next
+                contentStream = contentStream.peek(recorder::onMessage);
+            }
+            var preStream = contentStream
                     .map(this::unmarshallReportKeepUUID)
                     .filter(report -> sequenceId.equals(report.getLeft().getSequenceId()))
                     .filter(mdibVersionPredicate);
@@ -251,6 +227,9 @@ public class MdibHistorian {
                                 + " same version has already been applied, and is expected behavior when e.g."
                                 + " descriptors update, as both a report for description and state will arrive.");
                     }
+                    if (recorder != null) {
+                        recorder.beforeReport(storage, ImpliedValueUtil.getReportMdibVersion(report));
+                    }
                     final var episodic = EpisodicReport.tryFrom(report);
                     if (episodic != null) {
                         LOG.debug(
@@ -267,6 +246,12 @@ public class MdibHistorian {
                                 report.getClass().getSimpleName(),
                                 ImpliedValueUtil.getReportMdibVersion(report));
                     }
+                    if (recorder != null) {
+                        recorder.afterReport();
+                    }
+                    if (reportListener != null) {
+                        reportListener.accept(report);
+                    }
                 } catch (final Exception e) {
                     fail(e);
                 }
@@ -276,7 +261,8 @@ public class MdibHistorian {
             // initial mdib stream
             final var initialMdibStream = Stream.of(storage);
 
-            return new HistorianResult(messages, Stream.concat(initialMdibStream, stream));
+            return new HistorianResult(
+                    messages, Stream.concat(initialMdibStream, stream), recorder != null ? recorder::complete : null);
         } catch (IOException e) {
             final var errorMessage = "Error while trying to retrieve reports from storage";
             LOG.error("{}: {}", errorMessage, e.getMessage());
@@ -309,8 +295,8 @@ public class MdibHistorian {
         try {
             final var messages = messageStorage.getInboundMessagesByTimestampAndBodyType(
                     sequenceId, timestamp, Constants.RELEVANT_REPORT_BODIES.toArray(new QName[0]));
-            var preStream = messages.getStream()
-                    .sequential() // the stateful filter operation below is not threadsafe
+            // the stateful filter operations below are not threadsafe
+            var preStream = filterContentDuplicates(messages.getStream().sequential(), sequenceId)
                     .map(this::unmarshallReportKeepUUID)
                     .filter(report -> sequenceId.equals(report.getLeft().getSequenceId()))
                     .filter(mdibVersionPredicate);
@@ -415,8 +401,8 @@ public class MdibHistorian {
             final var messages = messageStorage.getInboundMessagesByBodyTypeAndSequenceId(
                     sequenceId, Constants.RELEVANT_REPORT_BODIES.toArray(new QName[0]));
 
-            var iter = messages.getStream()
-                    .sequential() // the stateful filter operation below is not thread-safe
+            // the stateful filter operations below are not thread-safe
+            var iter = filterContentDuplicates(messages.getStream().sequential(), sequenceId)
                     .map(this::unmarshallReportKeepUUID);
             if (minimumMdibVersion != null) {
                 iter = iter.filter(it ->
@@ -433,6 +419,41 @@ public class MdibHistorian {
         }
     }
 
+    /**
+     * Drops messages repeating the report of the previous message of the sequence before they are unmarshalled.
+     *
+     * <p>
+     * A report is repeated if it has the same MdibVersion, type and body hash as the previous report of the sequence.
+     * The body hash does not depend on the serialization of the report, i.e. it matches for reports which have been
+     * sent again within a different envelope. Reports without a body hash are left to
+     * {@linkplain #filterReportDuplicates(Stream)}, which also compares reports with differing hashes before treating
+     * them as different.
+     */
+    private static Stream<MessageContent> filterContentDuplicates(
+            final Stream<MessageContent> messages, final String sequenceId) {
+        final MdibVersionGroupEntity[] last = new MdibVersionGroupEntity[1];
+
+        return messages.filter(messageContent -> {
+            MdibVersionGroupEntity group = null;
+            for (final MdibVersionGroupEntity candidate : messageContent.getMdibVersionGroups()) {
+                if (sequenceId.equals(candidate.getSequenceId())) {
+                    group = candidate;
+                }
+            }
+            if (group == null) {
+                // messages of other sequences are dropped later on
+                return true;
+            }
+            final var previous = last[0];
+            last[0] = group;
+            return previous == null
+                    || group.getBodyHash() == null
+                    || group.getMdibVersion() != previous.getMdibVersion()
+                    || !group.getBodyElement().equals(previous.getBodyElement())
+                    || !group.getBodyHash().equals(previous.getBodyHash());
+        });
+    }
+
     private Stream<Pair<AbstractReport, String>> filterReportDuplicates(
             final Stream<Pair<AbstractReport, String>> iter) {
         final Pair<AbstractReport, String>[] last = new ImmutablePair[1];
@@ -521,7 +542,75 @@ public class MdibHistorian {
             throws PreprocessingException, ReportProcessingException {
         final var reportProcessor = reportProcessorProvider.get();
         reportProcessor.startApplyingReportsOnMdib(storage);
+        return applyReport(reportProcessor, storage, report);
+    }
+
+    /**
+     * Generates the mdib of a sequence id after applying all unique episodic reports received before the specified
+     * timestamp, exclusive.
+     *
+     * <p>
+     * Starts from the latest checkpoint of the run-scoped {@linkplain MdibHistoryCache} whose reports have all been
+     * received before the timestamp and only applies the reports following it. If the history of the sequence has not
+     * been replayed yet, it is replayed once to create the checkpoints.
+     *
+     * @param sequenceId of the sequence to generate the mdib for
+     * @param timestamp  to apply reports until, exclusive
+     * @return the mdib with all reports applied, or null if no report was received before the timestamp
+     * @throws PreprocessingException    if converting the initial mdib fails
+     * @throws ReportProcessingException if applying reports fails
+     */
+    @Nullable
+    public RemoteMdibAccess uniqueEpisodicReportBasedMdibUntilTimestamp(final String sequenceId, final long timestamp)
+            throws PreprocessingException, ReportProcessingException {
+        if (!historyCache.isComplete(messageStorage, sequenceId)) {
+            try (final var history = uniqueEpisodicReportBasedHistory(sequenceId)) {
+                while (history.next() != null) {
+                    // replaying the history records the checkpoints
+                }
+            }
+        }
+
+        final var checkpoint = historyCache.getLatestCheckpoint(messageStorage, sequenceId, timestamp);
+        RemoteMdibAccess storage = checkpoint != null ? copyStorage(checkpoint.mdib()) : createNewStorage(sequenceId);
+        boolean reportApplied = checkpoint != null;
+        final var startMdibVersion = ImpliedValueUtil.getMdibVersion(storage.getMdibVersion());
+        final var mdibVersionPredicate = new InitialMdibVersionPredicateWithUUID(startMdibVersion);
+        final var reportProcessor = reportProcessorProvider.get();
+        reportProcessor.startApplyingReportsOnMdib(storage);
+
+        final var bodyTypes = Constants.RELEVANT_REPORT_BODIES.toArray(new QName[0]);
+        // the reports covered by the checkpoint are skipped by the storage, seeking by MdibVersion
+        try (final var messages = checkpoint != null
+                        ? messageStorage.getInboundMessagesByTimestampAndBodyType(
+                                sequenceId, startMdibVersion.longValueExact(), timestamp, bodyTypes)
+                        : messageStorage.getInboundMessagesByTimestampAndBodyType(sequenceId, timestamp, bodyTypes);
+                // the stateful filter operations below are not threadsafe
+                final var reports = filterReportDuplicates(filterContentDuplicates(
+                                        messages.getStream().sequential(), sequenceId)
+                                .map(this::unmarshallReportKeepUUID)
+                                .filter(report -> sequenceId.equals(report.getLeft().getSequenceId()))
+                                .filter(mdibVersionPredicate))
+                        .map(Pair::getLeft)) {
+            for (final Iterator<AbstractReport> iterator = reports.iterator(); iterator.hasNext(); ) {
+                storage = applyReport(reportProcessor, storage, iterator.next());
+                reportApplied = true;
+            }
+        } catch (IOException e) {
+            final var errorMessage = "Error while trying to retrieve reports from storage";
+            LOG.error("{}: {}", errorMessage, e.getMessage());
+            LOG.debug("{}", errorMessage, e);
+            testRunObserver.invalidateTestRun(errorMessage, e);
+            fail(e);
+            // unreachable code, silence warnings
+            throw new RuntimeException(e);
+        }
+        return reportApplied ? storage : null;
+    }
 
+    private RemoteMdibAccess applyReport(
+            final ReportProcessor reportProcessor, final RemoteMdibAccess storage, final AbstractReport report)
+            throws PreprocessingException, ReportProcessingException {
         final var cmp = ImpliedValueUtil.getMdibVersion(storage.getMdibVersion())
                 .compareTo(ImpliedValueUtil.getReportMdibVersion(report));
         if (cmp > 0) {
@@ -562,8 +651,7 @@ public class MdibHistorian {
     private AbstractReport unmarshallReport(final MessageContent messageContent) {
         final var failMessage = "Could not unmarshall report in message " + messageContent.getMessageHash();
         try {
-            final var currentMdib = marshalling.unmarshal(
-                    new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+            final var currentMdib = messageCache.unmarshal(messageContent);
             final var reportOpt = soapUtil.getBody(currentMdib, AbstractReport.class);
             if (reportOpt.isEmpty()) {
                 fail(failMessage);
@@ -583,8 +671,7 @@ public class MdibHistorian {
     private Mdib unmarshallMdib(final MessageContent messageContent) {
         final var failMessage = "Could not unmarshall Mdib in message " + messageContent.getMessageHash();
         try {
-            final var currentMdib = marshalling.unmarshal(
-                    new ByteArrayInputStream(messageContent.getBody().getBytes(StandardCharsets.UTF_8)));
+            final var currentMdib = messageCache.unmarshal(messageContent);
             final var mdibOpt = soapUtil.getBody(currentMdib, GetMdibResponse.class);
             if (mdibOpt.isEmpty()) {
                 fail(failMessage);
@@ -602,7 +689,7 @@ public class MdibHistorian {
     }
 
     private RemoteMdibAccess convertToRemoteMdib(final Mdib mdib) throws PreprocessingException {
-        final var mdibStorage = this.remoteMdibAccessFactory.createRemoteMdibAccess();
+        final var mdibStorage = this.storageFactory.createRemoteMdibAccess();
         final var modifications =
                 modificationsBuilderFactory.createModificationsBuilder(mdib).get();
 
@@ -617,6 +704,10 @@ public class MdibHistorian {
         return mdibStorage;
     }
 
+    private RemoteMdibAccess copyStorage(final RemoteMdibAccess storage) throws PreprocessingException {
+        return convertToRemoteMdib(mdibMapperFactory.createMdibMapper(storage).mapMdib());
+    }
+
     /**
      * Processes each RemoteMdibAccess from the episodic report based history for the specified sequence ID
      * using the provided processor.
@@ -629,7 +720,9 @@ public class MdibHistorian {
         try (HistorianResult history = episodicReportBasedHistory(sequenceId)) {
             RemoteMdibAccess mdibAccess;
             while ((mdibAccess = history.next()) != null) {
-                processor.accept(mdibAccess);
+                synchronized (processorLock) {
+                    processor.accept(mdibAccess);
+                }
             }
         } catch (PreprocessingException | ReportProcessingException e) {
             fail(e);
@@ -643,11 +736,9 @@ public class MdibHistorian {
      * @param processor  a consumer that processes each RemoteMdibAccess
      */
     public void processAllRemoteMdibAccess(final Consumer<RemoteMdibAccess> processor) throws IOException {
-        try (final Stream<String> sequenceIds = this.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                processRemoteMdibAccessForSequence(processor, sequenceId);
-            });
-        }
+        forEachKnownSequenceId(sequenceId -> {
+            processRemoteMdibAccessForSequence(processor, sequenceId);
+        });
     }
 
     /**
@@ -657,37 +748,73 @@ public class MdibHistorian {
      * @param processor a BiConsumer that processes a RemoteMdibAccess and its associated sequence id.
      */
     public void processAllRemoteMdibAccess(final BiConsumer<RemoteMdibAccess, String> processor) throws IOException {
-        try (final Stream<String> sequenceIds = this.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                processRemoteMdibAccessForSequence(mdibAccess -> processor.accept(mdibAccess, sequenceId), sequenceId);
-            });
-        }
+        forEachKnownSequenceId(sequenceId -> {
+            processRemoteMdibAccessForSequence(mdibAccess -> processor.accept(mdibAccess, sequenceId), sequenceId);
+        });
     }
 
     /**
      * Processes each consecutive pair of RemoteMdibAccess instances from the episodic report based history
      * of the specified sequenceId using the provided processor.
      *
+     * <p>
+     * The history is only retrieved and unmarshalled once, the previous Mdib of each pair trails behind it.
+     *
      * @param processor  a consumer that processes each pair of RemoteMdibAccess
      * @param sequenceId  of the sequence to retrieve reports for
      */
     public void processAllConsecutivePairsForSequenceId(
             final BiConsumer<RemoteMdibAccess, RemoteMdibAccess> processor, final String sequenceId) {
-        try (final MdibHistorian.HistorianResult history = episodicReportBasedHistory(sequenceId);
-                final MdibHistorian.HistorianResult historyNext = episodicReportBasedHistory(sequenceId)) {
+        processConsecutivePairs((first, second, changes) -> processor.accept(first, second), sequenceId, false);
+    }
 
-            // skip the first entry so that history and historyNext are off by one entry
-            final var skippedElement = historyNext.next();
-            if (skippedElement == null) {
-                throw new NoTestData("Not enough input to compare mdib revisions");
-            }
+    /**
+     * Processes each consecutive pair of RemoteMdibAccess instances from the episodic report based history
+     * of the specified sequenceId together with the handles changed in between using the provided processor.
+     *
+     * <p>
+     * Processors only interested in what has changed can restrict themselves to the handles of the change set
+     * instead of scanning the entire Mdib for every pair.
+     *
+     * @param processor  a consumer that processes each pair of RemoteMdibAccess and the changes between them
+     * @param sequenceId  of the sequence to retrieve reports for
+     */
+    public void processAllConsecutivePairsWithChangesForSequenceId(
+            final TriConsumer<RemoteMdibAccess, RemoteMdibAccess, MdibChangeSet> processor, final String sequenceId) {
+        processConsecutivePairs(processor, sequenceId, true);
+    }
+
+    private void processConsecutivePairs(
+            final TriConsumer<RemoteMdibAccess, RemoteMdibAccess, MdibChangeSet> processor,
+            final String sequenceId,
+            final boolean trackChanges) {
+        try {
+            final var previous = new TrailingMdib(sequenceId);
+            final var lastReport = new AbstractReport[1];
+            try (final MdibHistorian.HistorianResult history =
+                    getHistorianResultForEpisodicReportBasedHistory(sequenceId, false, report -> {
+                        previous.add(report);
+                        lastReport[0] = report;
+                    })) {
 
-            RemoteMdibAccess first = history.next();
-            RemoteMdibAccess second = historyNext.next();
-            while (second != null) {
-                processor.accept(first, second);
-                first = history.next();
-                second = historyNext.next();
+                RemoteMdibAccess current = history.next();
+                if (current == null) {
+                    throw new NoTestData("Not enough input to compare mdib revisions");
+                }
+
+                while (true) {
+                    // the trailing mdib has to catch up before the history applies the next report in place
+                    final var first = previous.catchUp(current);
+                    current = history.next();
+                    if (current == null) {
+                        break;
+                    }
+                    final var changes =
+                            trackChanges ? MdibChangeSet.fromReport(lastReport[0], first, current) : null;
+                    synchronized (processorLock) {
+                        processor.accept(first, current, changes);
+                    }
+                }
             }
         } catch (PreprocessingException | ReportProcessingException | NoTestData e) {
             fail(e);
@@ -702,13 +829,79 @@ public class MdibHistorian {
      */
     public void processAllConsecutivePairs(final BiConsumer<RemoteMdibAccess, RemoteMdibAccess> processor)
             throws IOException {
-        try (final Stream<String> sequenceIds = this.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                processAllConsecutivePairsForSequenceId(processor, sequenceId);
-            });
+        forEachKnownSequenceId(sequenceId -> {
+            processAllConsecutivePairsForSequenceId(processor, sequenceId);
+        });
+    }
+
+    /**
+     * Processes an immutable snapshot of each Mdib revision from the episodic report based history of the specified
+     * sequenceId using the provided processor.
+     *
+     * <p>
+     * The history is only replayed once and each snapshot only re-reads the entities changed by the preceding report,
+     * sharing all others with the previous snapshot. Snapshots may therefore be retained by the processor, e.g. to
+     * compare revisions which are not consecutive, without copying the Mdib.
+     *
+     * @param processor  a consumer that processes each snapshot, starting with the initial Mdib
+     * @param sequenceId  of the sequence to retrieve reports for
+     */
+    public void processSnapshotsForSequenceId(final Consumer<MdibSnapshot> processor, final String sequenceId) {
+        final var pendingReports = new ArrayList<AbstractReport>();
+        try (final MdibHistorian.HistorianResult history =
+                getHistorianResultForEpisodicReportBasedHistory(sequenceId, false, pendingReports::add)) {
+
+            RemoteMdibAccess current = history.next();
+            if (current == null) {
+                throw new NoTestData("Not enough input to compare mdib revisions");
+            }
+            MdibSnapshot snapshot = MdibSnapshot.of(current);
+            pendingReports.clear();
+            while (true) {
+                synchronized (processorLock) {
+                    processor.accept(snapshot);
+                }
+                current = history.next();
+                if (current == null) {
+                    break;
+                }
+                for (final AbstractReport report : pendingReports) {
+                    final var previous = snapshot;
+                    final var changes = MdibChangeSet.fromReport(report, previous::getEntity, current::getEntity);
+                    snapshot = previous.next(current, changes);
+                }
+                pendingReports.clear();
+            }
+        } catch (PreprocessingException | ReportProcessingException | NoTestData e) {
+            fail(e);
         }
     }
 
+    /**
+     * Processes each consecutive pair of immutable Mdib snapshots from the episodic report based histories of all
+     * known sequence ids using the provided processor.
+     *
+     * <p>
+     * Unlike {@linkplain #processAllConsecutivePairs(BiConsumer)}, each report is only applied once and no trailing
+     * Mdib has to be maintained, consecutive snapshots share all entities the report in between has not changed.
+     *
+     * @param processor a consumer that processes each pair of snapshots
+     */
+    public void processAllConsecutiveSnapshotPairs(final BiConsumer<MdibSnapshot, MdibSnapshot> processor)
+            throws IOException {
+        forEachKnownSequenceId(sequenceId -> {
+            final var previous = new MdibSnapshot[1];
+            processSnapshotsForSequenceId(
+                    snapshot -> {
+                        if (previous[0] != null) {
+                            processor.accept(previous[0], snapshot);
+                        }
+                        previous[0] = snapshot;
+                    },
+                    sequenceId);
+        });
+    }
+
     /**
      * Processes a RemoteMdibAccess instance for which the AbstractReport is applicable across all known sequence ids.
      *
@@ -718,36 +911,39 @@ public class MdibHistorian {
     public void processAllApplicableReports(
             final Predicate<AbstractReport> applicable, final BiConsumer<RemoteMdibAccess, AbstractReport> processor)
             throws IOException {
-        try (final Stream<String> sequenceIds = this.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                RemoteMdibAccess mdib = null;
-                try {
-                    mdib = createNewStorage(sequenceId);
-                } catch (PreprocessingException e) {
-                    fail(e);
-                }
+        forEachKnownSequenceId(sequenceId -> {
+            RemoteMdibAccess mdib = null;
+            try {
+                mdib = createNewStorage(sequenceId);
+            } catch (PreprocessingException e) {
+                fail(e);
+            }
 
-                final var minimumMdibVersion = ImpliedValueUtil.getMdibVersion(mdib.getMdibVersion());
-                try (final var reports = getAllUniqueReports(sequenceId, minimumMdibVersion)) {
-                    for (final Iterator<AbstractReport> iterator = reports.iterator(); iterator.hasNext(); ) {
-                        final AbstractReport report = iterator.next();
+            final var minimumMdibVersion = ImpliedValueUtil.getMdibVersion(mdib.getMdibVersion());
+            try (final var reports = getAllUniqueReports(sequenceId, minimumMdibVersion)) {
+                for (final Iterator<AbstractReport> iterator = reports.iterator(); iterator.hasNext(); ) {
+                    final AbstractReport report = iterator.next();
 
-                        if (applicable.test(report)) {
+                    if (applicable.test(report)) {
+                        synchronized (processorLock) {
                             processor.accept(mdib, report);
                         }
-                        mdib = applyReportOnStorage(mdib, report);
                     }
-                } catch (PreprocessingException | ReportProcessingException e) {
-                    fail(e);
+                    mdib = applyReportOnStorage(mdib, report);
                 }
-            });
-        }
+            } catch (PreprocessingException | ReportProcessingException e) {
+                fail(e);
+            }
+        });
     }
 
     /**
      * Processes each consecutive pair of RemoteMdibAccess instances for which the AbstractReport is applicable
      * across all known sequence ids.
      *
+     * <p>
+     * The reports are only applied twice when needed to provide the Mdib before an applicable report.
+     *
      * @param applicable  a predicate that determines whether a given AbstractReport should be processed
      * @param processor  a consumer that processes each pair of RemoteMdibAccess and an AbstractReport
      *
@@ -756,34 +952,209 @@ public class MdibHistorian {
             final Predicate<AbstractReport> applicable,
             final TriConsumer<RemoteMdibAccess, RemoteMdibAccess, AbstractReport> processor)
             throws IOException {
-        try (final Stream<String> sequenceIds = this.getKnownSequenceIds()) {
-            sequenceIds.forEach(sequenceId -> {
-                RemoteMdibAccess first = null;
-                RemoteMdibAccess second = null;
+        forEachKnownSequenceId(sequenceId -> {
+            RemoteMdibAccess mdib = null;
+            TrailingMdib previous = null;
+            final var reportProcessor = reportProcessorProvider.get();
+            try {
+                mdib = createNewStorage(sequenceId);
+                previous = new TrailingMdib(sequenceId);
+                reportProcessor.startApplyingReportsOnMdib(mdib);
+            } catch (PreprocessingException | ReportProcessingException e) {
+                fail(e);
+            }
+
+            final var minimumMdibVersion = ImpliedValueUtil.getMdibVersion(mdib.getMdibVersion());
+            try (final var reports = getAllUniqueReports(sequenceId, minimumMdibVersion)) {
+                for (final Iterator<AbstractReport> iterator = reports.iterator(); iterator.hasNext(); ) {
+                    final AbstractReport report = iterator.next();
+                    if (applicable.test(report)) {
+                        final var first = previous.catchUp(mdib);
+                        mdib = applyReport(reportProcessor, mdib, report);
+                        synchronized (processorLock) {
+                            processor.accept(first, mdib, report);
+                        }
+                    } else {
+                        mdib = applyReport(reportProcessor, mdib, report);
+                    }
+                    previous.add(report);
+                }
+            } catch (PreprocessingException | ReportProcessingException e) {
+                fail(e);
+            }
+        });
+    }
+
+    /**
+     * Performs an action for each known sequence id.
+     *
+     * <p>
+     * With more than one historian thread configured, the actions for different sequence ids run concurrently, while
+     * each action still processes the reports of its sequence id in order. Callbacks guarded by the processor lock are
+     * never invoked concurrently. Failures are rethrown once all actions have finished, the failure of the earliest
+     * sequence id first with the failures of the later ones suppressed, regardless of the order they occurred in.
+     *
+     * @param action to perform for each sequence id
+     * @throws IOException if retrieving the sequence ids fails
+     */
+    private void forEachKnownSequenceId(final Consumer<String> action) throws IOException {
+        final List<String> sequenceIds;
+        try (final Stream<String> knownSequenceIds = this.getKnownSequenceIds()) {
+            sequenceIds = knownSequenceIds.toList();
+        }
+        // nested calls from within a callback would wait for the lock held by the calling thread
+        if (historianThreads <= 1 || sequenceIds.size() <= 1 || Thread.holdsLock(processorLock)) {
+            sequenceIds.forEach(action);
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(historianThreads, sequenceIds.size()),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("MdibHistorian-thread-%d")
+                        .setDaemon(true)
+                        .build());
+        try {
+            final List<Future<?>> results = new ArrayList<>(sequenceIds.size());
+            for (final String sequenceId : sequenceIds) {
+                results.add(executor.submit(() -> action.accept(sequenceId)));
+            }
+
+            Throwable failure = null;
+            for (final Future<?> result : results) {
                 try {
-                    first = createNewStorage(sequenceId);
-                    second = createNewStorage(sequenceId);
-                } catch (PreprocessingException e) {
+                    result.get();
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
                     fail(e);
                 }
+            }
 
-                final var minimumMdibVersion = ImpliedValueUtil.getMdibVersion(first.getMdibVersion());
-                try (final var reports = getAllUniqueReports(sequenceId, minimumMdibVersion)) {
-                    for (final Iterator<AbstractReport> iterator = reports.iterator(); iterator.hasNext(); ) {
-                        final AbstractReport report = iterator.next();
-                        if (applicable.test(report)) {
-                            second = applyReportOnStorage(second, report);
-                            processor.accept(first, second, report);
-                            first = applyReportOnStorage(first, report);
-                        } else {
-                            first = applyReportOnStorage(first, report);
-                            second = applyReportOnStorage(second, report);
-                        }
-                    }
-                } catch (PreprocessingException | ReportProcessingException e) {
+            if (failure instanceof final Error error) {
+                throw error;
+            } else if (failure instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Mdib trailing behind the Mdib a history is replayed on, providing the state before the latest report.
+     *
+     * <p>
+     * Reports are only applied once the trailing Mdib is requested. If too many reports are pending by then, the
+     * replayed Mdib is copied instead.
+     */
+    private final class TrailingMdib {
+        private final List<AbstractReport> pendingReports;
+        private RemoteMdibAccess mdib;
+        private ReportProcessor reportProcessor;
+
+        private TrailingMdib(final String sequenceId) throws PreprocessingException, ReportProcessingException {
+            this.pendingReports = new ArrayList<>();
+            this.reset(createNewStorage(sequenceId));
+        }
+
+        private void add(final AbstractReport report) {
+            this.pendingReports.add(report);
+        }
+
+        /**
+         * Brings the trailing Mdib up to date with the replayed Mdib.
+         *
+         * @param replayed Mdib with all reports passed to {@linkplain #add(AbstractReport)} applied
+         * @return the trailing Mdib, which is not modified until the next call
+         */
+        private RemoteMdibAccess catchUp(final RemoteMdibAccess replayed)
+                throws PreprocessingException, ReportProcessingException {
+            if (this.pendingReports.size() > MAXIMUM_PENDING_REPORTS) {
+                this.reset(copyStorage(replayed));
+            } else {
+                for (final AbstractReport report : this.pendingReports) {
+                    this.mdib = applyReport(this.reportProcessor, this.mdib, report);
+                }
+            }
+            this.pendingReports.clear();
+            return this.mdib;
+        }
+
+        private void reset(final RemoteMdibAccess newMdib) throws PreprocessingException, ReportProcessingException {
+            this.mdib = newMdib;
+            this.reportProcessor = reportProcessorProvider.get();
+            this.reportProcessor.startApplyingReportsOnMdib(newMdib);
+        }
+    }
+
+    /**
+     * Records checkpoints into the {@linkplain MdibHistoryCache} while a unique history of a sequence is replayed.
+     */
+    private final class CheckpointRecorder {
+        private final String sequenceId;
+        private final RemoteMdibAccess storage;
+        private final long messageCount;
+        private long currentTimestamp;
+        private long lastReportTimestamp;
+        private int reportsSinceCheckpoint;
+
+        private CheckpointRecorder(final String sequenceId, final RemoteMdibAccess storage) {
+            this.sequenceId = sequenceId;
+            this.storage = storage;
+            this.messageCount = messageStorage.getMessageIndex().getMessageCount();
+            this.lastReportTimestamp = Long.MIN_VALUE;
+        }
+
+        private void onMessage(final MessageContent messageContent) {
+            this.currentTimestamp = messageContent.getNanoTimestamp();
+        }
+
+        private void beforeReport(final RemoteMdibAccess storage, final BigInteger reportMdibVersion)
+                throws PreprocessingException {
+            final var storageMdibVersion = ImpliedValueUtil.getMdibVersion(storage.getMdibVersion());
+            // reports sharing an MdibVersion must not be split across a checkpoint
+            if (this.reportsSinceCheckpoint >= MdibHistoryCache.CHECKPOINT_INTERVAL
+                    && reportMdibVersion.compareTo(storageMdibVersion) > 0) {
+                historyCache.putCheckpoint(
+                        messageStorage,
+                        this.messageCount,
+                        this.sequenceId,
+                        new MdibHistoryCache.Checkpoint(
+                                storageMdibVersion, this.lastReportTimestamp, copyStorage(storage)));
+                this.reportsSinceCheckpoint = 0;
+            }
+        }
+
+        private void afterReport() {
+            this.lastReportTimestamp = Math.max(this.lastReportTimestamp, this.currentTimestamp);
+            this.reportsSinceCheckpoint++;
+        }
+
+        private void complete() {
+            // the final Mdib serves all timestamps after the last report without applying any report
+            if (this.reportsSinceCheckpoint > 0) {
+                try {
+                    historyCache.putCheckpoint(
+                            messageStorage,
+                            this.messageCount,
+                            this.sequenceId,
+                            new MdibHistoryCache.Checkpoint(
+                                    ImpliedValueUtil.getMdibVersion(this.storage.getMdibVersion()),
+                                    this.lastReportTimestamp,
+                                    copyStorage(this.storage)));
+                } catch (final PreprocessingException e) {
                     fail(e);
                 }
-            });
+            }
+            historyCache.markComplete(messageStorage, this.messageCount, this.sequenceId);
         }
     }
 
@@ -798,11 +1169,22 @@ public class MdibHistorian {
         private final MessageStorage.GetterResult<MessageContent> messageContent;
         private final Iterator<RemoteMdibAccess> transformedStream;
 
+        @Nullable
+        private Runnable onExhausted;
+
         HistorianResult(
                 final MessageStorage.GetterResult<MessageContent> messageContent,
                 final Stream<RemoteMdibAccess> transformedStream) {
+            this(messageContent, transformedStream, null);
+        }
+
+        HistorianResult(
+                final MessageStorage.GetterResult<MessageContent> messageContent,
+                final Stream<RemoteMdibAccess> transformedStream,
+                @Nullable final Runnable onExhausted) {
             this.messageContent = messageContent;
             this.transformedStream = transformedStream.iterator();
+            this.onExhausted = onExhausted;
         }
 
         /**
@@ -818,6 +1200,10 @@ public class MdibHistorian {
             try {
                 return transformedStream.next();
             } catch (NoSuchElementException e) {
+                if (onExhausted != null) {
+                    onExhausted.run();
+                    onExhausted = null;
+                }
                 return null;
             }
         }
@@ -0,0 +1,102 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
+import com.google.inject.assistedinject.FactoryModuleBuilder;
+import java.util.List;
+import org.somda.sdc.biceps.common.CommonConfig;
+import org.somda.sdc.biceps.common.access.ReadTransaction;
+import org.somda.sdc.biceps.common.access.ReadTransactionImpl;
+import org.somda.sdc.biceps.common.access.factory.ReadTransactionFactory;
+import org.somda.sdc.biceps.common.preprocessing.DescriptorChildRemover;
+import org.somda.sdc.biceps.common.storage.MdibStorage;
+import org.somda.sdc.biceps.common.storage.MdibStorageImpl;
+import org.somda.sdc.biceps.common.storage.MdibStoragePreprocessingChain;
+import org.somda.sdc.biceps.common.storage.StatePreprocessingSegment;
+import org.somda.sdc.biceps.common.storage.factory.MdibStorageFactory;
+import org.somda.sdc.biceps.common.storage.factory.MdibStoragePreprocessingChainFactory;
+import org.somda.sdc.biceps.consumer.access.RemoteMdibAccess;
+import org.somda.sdc.biceps.consumer.access.RemoteMdibAccessImpl;
+import org.somda.sdc.biceps.consumer.access.factory.RemoteMdibAccessFactory;
+import org.somda.sdc.biceps.consumer.preprocessing.DuplicateContextStateHandleHandler;
+import org.somda.sdc.biceps.provider.preprocessing.ContextHandleDuplicateChecker;
+import org.somda.sdc.biceps.provider.preprocessing.DuplicateChecker;
+import org.somda.sdc.biceps.provider.preprocessing.DuplicateDescriptorChecker;
+import org.somda.sdc.common.guice.AbstractConfigurationModule;
+import org.somda.sdc.common.guice.DefaultCommonModule;
+
+/**
+ * Creates the Mdib storages of all {@linkplain MdibHistorian}s of a test run.
+ *
+ * <p>
+ * The storages are configured independently of the test client, which is why they are created by a separate
+ * injector. Bootstrapping that injector is costly compared to creating a historian, hence it is only built once and
+ * shared by all historians instead of once per historian.
+ */
+@Singleton
+public class MdibHistorianStorageFactory {
+
+    private final RemoteMdibAccessFactory remoteMdibAccessFactory;
+
+    @Inject
+    MdibHistorianStorageFactory() {
+        final var injector = Guice.createInjector(
+                new DefaultCommonModule(), new MdibHistorianBicepsModule(), new MdibHistorianConfigurationModule());
+        this.remoteMdibAccessFactory = injector.getInstance(RemoteMdibAccessFactory.class);
+    }
+
+    /**
+     * Creates a new, empty Mdib storage.
+     *
+     * @return the new storage
+     */
+    RemoteMdibAccess createRemoteMdibAccess() {
+        return this.remoteMdibAccessFactory.createRemoteMdibAccess();
+    }
+
+    private static final class MdibHistorianBicepsModule extends AbstractConfigurationModule {
+        @Override
+        protected void defaultConfigure() {
+            install(new FactoryModuleBuilder()
+                    .implement(MdibStoragePreprocessingChain.class, MdibStoragePreprocessingChain.class)
+                    .build(MdibStoragePreprocessingChainFactory.class));
+            install(new FactoryModuleBuilder()
+                    .implement(MdibStorage.class, MdibStorageImpl.class)
+                    .build(MdibStorageFactory.class));
+            install(new FactoryModuleBuilder()
+                    .implement(ReadTransaction.class, ReadTransactionImpl.class)
+                    .build(ReadTransactionFactory.class));
+            install(new FactoryModuleBuilder()
+                    .implement(RemoteMdibAccess.class, RemoteMdibAccessImpl.class)
+                    .build(RemoteMdibAccessFactory.class));
+        }
+    }
+
+    private static final class MdibHistorianConfigurationModule extends AbstractConfigurationModule {
+        @Override
+        protected void defaultConfigure() {
+            bind(org.somda.sdc.common.CommonConfig.INSTANCE_IDENTIFIER, String.class, "");
+            bind(CommonConfig.STORE_NOT_ASSOCIATED_CONTEXT_STATES, Boolean.class, true);
+            bind(CommonConfig.COPY_MDIB_INPUT, Boolean.class, true);
+            bind(CommonConfig.COPY_MDIB_OUTPUT, Boolean.class, true);
+            bind(
+                    CommonConfig.CONSUMER_STATE_PREPROCESSING_SEGMENTS,
+                    new TypeLiteral<List<Class<? extends StatePreprocessingSegment>>>() {},
+                    List.of(DuplicateContextStateHandleHandler.class, ContextHandleDuplicateChecker.class));
+            bind(
+                    CommonConfig.CONSUMER_DESCRIPTION_PREPROCESSING_SEGMENTS,
+                    new TypeLiteral<>() {},
+                    List.of(
+                            DescriptorChildRemover.class, DuplicateChecker.class,
+                            DuplicateDescriptorChecker.class, ContextHandleDuplicateChecker.class));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import com.draeger.medical.sdccc.messages.MessageStorage;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.ref.SoftReference;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import javax.annotation.Nullable;
+import org.somda.sdc.biceps.consumer.access.RemoteMdibAccess;
+
+/**
+ * Run-scoped cache of Mdib checkpoints shared by all {@linkplain MdibHistorian}s of a test run.
+ *
+ * <p>
+ * A checkpoint holds the Mdib of a sequence after all unique episodic reports up to its MdibVersion have been
+ * applied, it is taken while a unique episodic report based history is replayed, including one at the end of the
+ * history. The checkpoints of a sequence form a timeline ordered by the latest timestamp of their reports, so the
+ * nearest checkpoint before a point in time is found with a single lookup. Histories which only need the Mdib at a
+ * later point start from that checkpoint and only replay the reports following it. The initial Mdib of every sequence
+ * is kept as well, so it is only retrieved and unmarshalled once.
+ *
+ * <p>
+ * The cached Mdibs are never handed out, callers have to work on copies. Checkpoints are softly referenced and may be
+ * dropped under memory pressure. All entries for a message storage are discarded as soon as further messages have been
+ * written to it.
+ */
+@Singleton
+public class MdibHistoryCache {
+
+    /**
+     * Minimum number of reports applied between two checkpoints.
+     */
+    static final int CHECKPOINT_INTERVAL = 500;
+
+    private final Map<MessageStorage, StorageEntry> storages;
+
+    @Inject
+    MdibHistoryCache() {
+        this.storages = new WeakHashMap<>();
+    }
+
+    /**
+     * Retrieves the initial Mdib of a sequence.
+     *
+     * @param messageStorage the Mdib was retrieved from
+     * @param sequenceId     of the sequence
+     * @return the cached Mdib, which must not be modified, or null if none is cached
+     */
+    @Nullable
+    synchronized RemoteMdibAccess getInitialMdib(final MessageStorage messageStorage, final String sequenceId) {
+        return this.sequenceEntry(messageStorage, sequenceId).initialMdib;
+    }
+
+    synchronized void putInitialMdib(
+            final MessageStorage messageStorage,
+            final long messageCount,
+            final String sequenceId,
+            final RemoteMdibAccess initialMdib) {
+        if (isCurrent(messageStorage, messageCount)) {
+            this.sequenceEntry(messageStorage, sequenceId).initialMdib = initialMdib;
+        }
+    }
+
+    /**
+     * Retrieves the checkpoint with the highest MdibVersion whose reports have all been received before a timestamp.
+     *
+     * @param messageStorage the reports were retrieved from
+     * @param sequenceId     of the sequence
+     * @param timestamp      all reports of the checkpoint must have been received before, exclusive
+     * @return the checkpoint, or null if none is cached
+     */
+    @Nullable
+    synchronized Checkpoint getLatestCheckpoint(
+            final MessageStorage messageStorage, final String sequenceId, final long timestamp) {
+        // later checkpoints may have been dropped, in which case the next earlier one is used
+        for (final SoftReference<Checkpoint> reference : this.sequenceEntry(messageStorage, sequenceId)
+                .timeline
+                .headMap(timestamp, false)
+                .descendingMap()
+                .values()) {
+            final Checkpoint checkpoint = reference.get();
+            if (checkpoint != null) {
+                return checkpoint;
+            }
+        }
+        return null;
+    }
+
+    synchronized void putCheckpoint(
+            final MessageStorage messageStorage,
+            final long messageCount,
+            final String sequenceId,
+            final Checkpoint checkpoint) {
+        if (isCurrent(messageStorage, messageCount)) {
+            // checkpoints are taken in order, a later checkpoint replaces an earlier one sharing its timestamp
+            this.sequenceEntry(messageStorage, sequenceId)
+                    .timeline
+                    .put(checkpoint.lastReportTimestamp(), new SoftReference<>(checkpoint));
+        }
+    }
+
+    /**
+     * @param messageStorage the reports were retrieved from
+     * @param sequenceId     of the sequence
+     * @return true if the whole history of the sequence has been replayed and its checkpoints are cached
+     */
+    synchronized boolean isComplete(final MessageStorage messageStorage, final String sequenceId) {
+        return this.sequenceEntry(messageStorage, sequenceId).complete;
+    }
+
+    synchronized void markComplete(
+            final MessageStorage messageStorage, final long messageCount, final String sequenceId) {
+        if (isCurrent(messageStorage, messageCount)) {
+            this.sequenceEntry(messageStorage, sequenceId).complete = true;
+        }
+    }
+
+    // entries derived from an older state of the storage must not be added
+    private static boolean isCurrent(final MessageStorage messageStorage, final long messageCount) {
+        return messageStorage.getMessageIndex().getMessageCount() == messageCount;
+    }
+
+    private SequenceEntry sequenceEntry(final MessageStorage messageStorage, final String sequenceId) {
+        final long messageCount = messageStorage.getMessageIndex().getMessageCount();
+        StorageEntry storageEntry = this.storages.get(messageStorage);
+        if (storageEntry == null || storageEntry.messageCount != messageCount) {
+            storageEntry = new StorageEntry(messageCount);
+            this.storages.put(messageStorage, storageEntry);
+        }
+        return storageEntry.sequences.computeIfAbsent(sequenceId, key -> new SequenceEntry());
+    }
+
+    /**
+     * Mdib of a sequence after all unique episodic reports up to an MdibVersion have been applied.
+     *
+     * @param mdibVersion         of the Mdib
+     * @param lastReportTimestamp latest timestamp of the applied reports
+     * @param mdib                which must not be modified
+     */
+    record Checkpoint(BigInteger mdibVersion, long lastReportTimestamp, RemoteMdibAccess mdib) {}
+
+    private static final class StorageEntry {
+        private final long messageCount;
+        private final Map<String, SequenceEntry> sequences;
+
+        private StorageEntry(final long messageCount) {
+            this.messageCount = messageCount;
+            this.sequences = new HashMap<>();
+        }
+    }
+
+    private static final class SequenceEntry {
+        // checkpoints by the latest timestamp of their reports
+        private final NavigableMap<Long, SoftReference<Checkpoint>> timeline = new TreeMap<>();
+
+        @Nullable
+        private RemoteMdibAccess initialMdib;
+
+        private boolean complete;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import com.draeger.medical.sdccc.messages.MessageStorage;
+import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
+import com.draeger.medical.sdccc.util.TestRunObserver;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Evaluates the checks of multiple test cases in a single replay of the Mdib history of each sequence.
+ *
+ * <p>
+ * Test cases which only look at pairs of consecutive revisions of the episodic report based history register their
+ * checks as {@linkplain MdibHistoryVisitor}s. The first test case to be evaluated replays the history once for all
+ * registered checks which have not been evaluated yet, the outcome of every check is kept for the test run. The
+ * remaining test cases only report the outcome of their check, which is thrown just as if the check had been evaluated
+ * on its own. Only the checks of enabled test cases should be registered, every registered check is evaluated.
+ *
+ * <p>
+ * Outcomes for a message storage are discarded as soon as further messages have been written to it.
+ */
+@Singleton
+public class MdibHistoryEvaluator {
+    private static final Logger LOG = LogManager.getLogger(MdibHistoryEvaluator.class);
+
+    private final MdibHistorianFactory mdibHistorianFactory;
+    private final Map<MessageStorage, StorageOutcomes> storages;
+
+    @Inject
+    MdibHistoryEvaluator(final MdibHistorianFactory mdibHistorianFactory) {
+        this.mdibHistorianFactory = mdibHistorianFactory;
+        this.storages = new WeakHashMap<>();
+    }
+
+    /**
+     * Evaluates the check of a test case, replaying the history for all given checks which have not been evaluated
+     * yet if needed.
+     *
+     * @param messageStorage  to replay the history from
+     * @param testRunObserver to report problems with the history to
+     * @param testIdentifier  of the test case to evaluate
+     * @param checks          checks by test identifier, including the one to evaluate, which are evaluated along with
+     *                        it in the same replay
+     * @throws NoTestData  if the check has not seen sufficient data
+     * @throws IOException if retrieving the sequence ids fails
+     */
+    public synchronized void evaluate(
+            final MessageStorage messageStorage,
+            final TestRunObserver testRunObserver,
+            final String testIdentifier,
+            final Map<String, Supplier<MdibHistoryVisitor>> checks)
+            throws NoTestData, IOException {
+        if (!checks.containsKey(testIdentifier)) {
+            throw new IllegalArgumentException("No check registered for " + testIdentifier);
+        }
+
+        final long messageCount = messageStorage.getMessageIndex().getMessageCount();
+        var outcomes = this.storages.get(messageStorage);
+        if (outcomes == null || outcomes.messageCount != messageCount) {
+            outcomes = new StorageOutcomes(messageCount);
+            this.storages.put(messageStorage, outcomes);
+        }
+
+        if (!outcomes.failures.containsKey(testIdentifier)) {
+            final Map<String, MdibHistoryVisitor> visitors = new LinkedHashMap<>();
+            for (var entry : checks.entrySet()) {
+                if (!outcomes.failures.containsKey(entry.getKey())) {
+                    visitors.put(entry.getKey(), entry.getValue().get());
+                }
+            }
+            LOG.debug("Replaying the Mdib history for {}", visitors.keySet());
+            outcomes.failures.putAll(
+                    replay(this.mdibHistorianFactory.createMdibHistorian(messageStorage, testRunObserver), visitors));
+        }
+
+        final var failure = outcomes.failures.get(testIdentifier);
+        if (failure instanceof NoTestData noTestData) {
+            throw noTestData;
+        } else if (failure instanceof Error error) {
+            throw error;
+        } else if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+    }
+
+    private static Map<String, Throwable> replay(
+            final MdibHistorian mdibHistorian, final Map<String, MdibHistoryVisitor> visitors) throws IOException {
+        final Map<String, Throwable> failures = new HashMap<>();
+        final List<String> sequenceIds;
+        try (final Stream<String> knownSequenceIds = mdibHistorian.getKnownSequenceIds()) {
+            sequenceIds = knownSequenceIds.toList();
+        }
+
+        for (var sequenceId : sequenceIds) {
+            visitAll(visitors, failures, visitor -> visitor.startSequence(sequenceId));
+            try {
+                mdibHistorian.processAllConsecutivePairsWithChangesForSequenceId(
+                        (first, second, changes) ->
+                                visitAll(visitors, failures, visitor -> visitor.visitPair(first, second, changes)),
+                        sequenceId);
+            } catch (final AssertionError | RuntimeException e) {
+                // the history itself is broken, which fails every check still running
+                for (var testIdentifier : visitors.keySet()) {
+                    failures.putIfAbsent(testIdentifier, e);
+                }
+            }
+        }
+
+        final Map<String, Throwable> outcomes = new HashMap<>();
+        for (var entry : visitors.entrySet()) {
+            var failure = failures.get(entry.getKey());
+            if (failure == null) {
+                try {
+                    entry.getValue().finish();
+                } catch (final NoTestData | AssertionError | RuntimeException e) {
+                    failure = e;
+                }
+            }
+            outcomes.put(entry.getKey(), failure);
+        }
+        return outcomes;
+    }
+
+    private static void visitAll(
+            final Map<String, MdibHistoryVisitor> visitors,
+            final Map<String, Throwable> failures,
+            final Consumer<MdibHistoryVisitor> visit) {
+        final List<String> failed = new ArrayList<>();
+        for (var entry : visitors.entrySet()) {
+            if (failures.containsKey(entry.getKey())) {
+                continue;
+            }
+            try {
+                visit.accept(entry.getValue());
+            } catch (final AssertionError | RuntimeException e) {
+                failures.put(entry.getKey(), e);
+                failed.add(entry.getKey());
+            }
+        }
+        if (!failed.isEmpty()) {
+            LOG.debug("Checks {} failed during the replay", failed);
+        }
+    }
+
+    private static final class StorageOutcomes {
+        private final long messageCount;
+        // a null failure denotes a passed check
+        private final Map<String, Throwable> failures;
+
+        private StorageOutcomes(final long messageCount) {
+            this.messageCount = messageCount;
+            this.failures = new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import org.somda.sdc.biceps.consumer.access.RemoteMdibAccess;
+
+/**
+ * Check of a single test case which is evaluated while the {@linkplain MdibHistoryEvaluator} replays the episodic
+ * report based Mdib history of each sequence.
+ *
+ * <p>
+ * Checks fail by throwing, e.g. through assertions, which stops the check from being visited any further without
+ * affecting the other checks of the same replay. The Mdibs passed to a check are shared with all other checks and
+ * must not be modified or retained beyond the call.
+ */
+public interface MdibHistoryVisitor {
+
+    /**
+     * Called before the history of a sequence is replayed.
+     *
+     * @param sequenceId of the sequence
+     */
+    default void startSequence(final String sequenceId) {}
+
+    /**
+     * Called for each pair of consecutive revisions of the Mdib.
+     *
+     * @param first   the revision before the report
+     * @param second  the revision after the report
+     * @param changes the report and the handles it may have changed
+     */
+    default void visitPair(final RemoteMdibAccess first, final RemoteMdibAccess second, final MdibChangeSet changes) {}
+
+    /**
+     * Called once the histories of all sequences have been replayed.
+     *
+     * @throws NoTestData if the check has not seen sufficient data
+     */
+    default void finish() throws NoTestData {}
+}
@@ -0,0 +1,200 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.somda.sdc.biceps.common.MdibEntity;
+import org.somda.sdc.biceps.common.access.MdibAccess;
+import org.somda.sdc.biceps.model.participant.AbstractDescriptor;
+import org.somda.sdc.biceps.model.participant.AbstractMultiState;
+import org.somda.sdc.biceps.model.participant.AbstractState;
+import org.somda.sdc.biceps.model.participant.MdibVersion;
+
+/**
+ * Immutable revision of an Mdib within a history.
+ *
+ * <p>
+ * Unlike the {@linkplain org.somda.sdc.biceps.consumer.access.RemoteMdibAccess} a history is replayed on, which is
+ * modified in place by every report, a snapshot never changes and can be retained for as long as needed. The entities
+ * of a snapshot are kept in persistent maps, the snapshot following a report only replaces the entities the report may
+ * have changed and shares all others with its predecessor. Retaining every revision of a history hence only costs
+ * memory for what has actually changed.
+ *
+ * <p>
+ * Entities are read from the Mdib storages of the {@linkplain MdibHistorian}, which copy their output, so that the
+ * entities of a snapshot are not modified by reports applied later on.
+ */
+public final class MdibSnapshot {
+    private final MdibVersion mdibVersion;
+    // entities by descriptor handle
+    private final PersistentHashMap<String, MdibEntity> entities;
+    // descriptor handles by the handle of their multi states
+    private final PersistentHashMap<String, String> multiStateOwners;
+
+    private MdibSnapshot(
+            final MdibVersion mdibVersion,
+            final PersistentHashMap<String, MdibEntity> entities,
+            final PersistentHashMap<String, String> multiStateOwners) {
+        this.mdibVersion = mdibVersion;
+        this.entities = entities;
+        this.multiStateOwners = multiStateOwners;
+    }
+
+    /**
+     * Takes a snapshot of all entities of an Mdib.
+     *
+     * @param mdib to take the snapshot of
+     * @return the snapshot
+     */
+    static MdibSnapshot of(final MdibAccess mdib) {
+        return new MdibSnapshot(mdib.getMdibVersion(), PersistentHashMap.empty(), PersistentHashMap.empty())
+                .withEntities(
+                        mdib,
+                        mdib.findEntitiesByType(AbstractDescriptor.class).stream()
+                                .map(MdibEntity::getHandle)
+                                .toList());
+    }
+
+    /**
+     * Derives the snapshot of an Mdib after a report has been applied to the Mdib of this snapshot.
+     *
+     * @param mdib    the Mdib with the report applied
+     * @param changes the handles the report may have changed
+     * @return the snapshot of the Mdib, sharing all unchanged entities with this snapshot
+     */
+    MdibSnapshot next(final MdibAccess mdib, final MdibChangeSet changes) {
+        final Set<String> handles = new HashSet<>(changes.descriptorHandles());
+        for (final String stateHandle : changes.stateHandles()) {
+            final String owner = this.multiStateOwners.get(stateHandle);
+            handles.add(
+                    owner != null
+                            ? owner
+                            : mdib.getState(stateHandle)
+                                    .map(AbstractState::getDescriptorHandle)
+                                    .orElse(stateHandle));
+        }
+        return new MdibSnapshot(mdib.getMdibVersion(), this.entities, this.multiStateOwners)
+                .withEntities(mdib, handles);
+    }
+
+    public MdibVersion getMdibVersion() {
+        return this.mdibVersion;
+    }
+
+    /**
+     * Retrieves an entity.
+     *
+     * @param handle of the descriptor of the entity
+     * @return the entity if present
+     */
+    public Optional<MdibEntity> getEntity(final String handle) {
+        return Optional.ofNullable(this.entities.get(handle));
+    }
+
+    /**
+     * Retrieves a descriptor of a specific type.
+     *
+     * @param handle          of the descriptor
+     * @param descriptorClass expected type of the descriptor
+     * @param <T>             type of the descriptor
+     * @return the descriptor if present and of the expected type
+     */
+    public <T extends AbstractDescriptor> Optional<T> getDescriptor(
+            final String handle, final Class<T> descriptorClass) {
+        return this.getEntity(handle).flatMap(entity -> entity.getDescriptor(descriptorClass));
+    }
+
+    /**
+     * Retrieves a state.
+     *
+     * @param handle of the state, i.e. the descriptor handle for single states
+     * @return the state if present
+     */
+    public Optional<AbstractState> getState(final String handle) {
+        final String owner = this.multiStateOwners.get(handle);
+        return this.getEntity(owner != null ? owner : handle)
+                .flatMap(entity -> entity.getStates(AbstractState.class).stream()
+                        .filter(state -> handle.equals(stateHandle(state)))
+                        .findFirst());
+    }
+
+    /**
+     * Retrieves a state of a specific type.
+     *
+     * @param handle     of the state, i.e. the descriptor handle for single states
+     * @param stateClass expected type of the state
+     * @param <T>        type of the state
+     * @return the state if present and of the expected type
+     */
+    public <T extends AbstractState> Optional<T> getState(final String handle, final Class<T> stateClass) {
+        return this.getState(handle).filter(stateClass::isInstance).map(stateClass::cast);
+    }
+
+    /**
+     * Retrieves all states of a specific type.
+     *
+     * @param stateClass type of the states
+     * @param <T>        type of the states
+     * @return the states in no particular order
+     */
+    public <T extends AbstractState> List<T> getStatesByType(final Class<T> stateClass) {
+        final List<T> states = new ArrayList<>();
+        for (final MdibEntity entity : this.entities.values()) {
+            for (final AbstractState state : entity.getStates(AbstractState.class)) {
+                if (stateClass.isInstance(state)) {
+                    states.add(stateClass.cast(state));
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Retrieves all entities with a descriptor of a specific type.
+     *
+     * @param descriptorClass type of the descriptors
+     * @param <T>             type of the descriptors
+     * @return the entities in no particular order
+     */
+    public <T extends AbstractDescriptor> List<MdibEntity> findEntitiesByType(final Class<T> descriptorClass) {
+        return this.entities.values().stream()
+                .filter(entity -> descriptorClass.isInstance(entity.getDescriptor()))
+                .toList();
+    }
+
+    private MdibSnapshot withEntities(final MdibAccess mdib, final Iterable<String> handles) {
+        var newEntities = this.entities;
+        var newMultiStateOwners = this.multiStateOwners;
+        for (final String handle : handles) {
+            final MdibEntity previous = newEntities.get(handle);
+            if (previous != null) {
+                for (final AbstractState state : previous.getStates(AbstractMultiState.class)) {
+                    newMultiStateOwners = newMultiStateOwners.minus(stateHandle(state));
+                }
+            }
+
+            final Optional<MdibEntity> entity = mdib.getEntity(handle);
+            if (entity.isPresent()) {
+                newEntities = newEntities.plus(handle, entity.orElseThrow());
+                for (final AbstractState state : entity.orElseThrow().getStates(AbstractMultiState.class)) {
+                    newMultiStateOwners = newMultiStateOwners.plus(stateHandle(state), handle);
+                }
+            } else {
+                newEntities = newEntities.minus(handle);
+            }
+        }
+        return new MdibSnapshot(this.mdibVersion, newEntities, newMultiStateOwners);
+    }
+
+    private static String stateHandle(final AbstractState state) {
+        return state instanceof AbstractMultiState multiState ? multiState.getHandle() : state.getDescriptorHandle();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable hash map which shares its structure with the map it has been derived from.
+ *
+ * <p>
+ * Entries are kept in a trie branching on five bits of the key hash per level. Adding or removing an entry only copies
+ * the branches on the path to it, all other branches are shared, which makes keeping many versions of a large map
+ * cheap as long as each version only differs in a few entries. Keys with equal hashes are kept in a common node.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+final class PersistentHashMap<K, V> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    // null, an Entry, a Collision or an Object[] of WIDTH child nodes
+    @Nullable
+    private final Object root;
+
+    private final int size;
+
+    private PersistentHashMap(@Nullable final Object root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> type of the keys
+     * @param <V> type of the values
+     * @return map without entries
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Looks up the value of a key.
+     *
+     * @param key to look up
+     * @return the value of the key or null if the map does not contain the key
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(final Object key) {
+        final int hash = hash(key);
+        Object node = this.root;
+        int shift = 0;
+        while (node instanceof Object[] children) {
+            node = children[index(hash, shift)];
+            shift += BITS;
+        }
+        if (node instanceof Entry<?, ?> entry) {
+            return entry.hash() == hash && entry.key().equals(key) ? (V) entry.value() : null;
+        } else if (node instanceof Collision collision && collision.hash() == hash) {
+            for (final Entry<?, ?> entry : collision.entries()) {
+                if (entry.key().equals(key)) {
+                    return (V) entry.value();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives a map which additionally contains the given entry, replacing the previous value of the key.
+     *
+     * @param key   of the entry
+     * @param value of the entry
+     * @return the derived map
+     */
+    PersistentHashMap<K, V> plus(final K key, final V value) {
+        final boolean[] added = new boolean[1];
+        final Object newRoot = put(this.root, new Entry<>(key, value, hash(key)), 0, added);
+        return new PersistentHashMap<>(newRoot, added[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Derives a map which does not contain the given key.
+     *
+     * @param key to remove
+     * @return the derived map, or this map if it does not contain the key
+     */
+    PersistentHashMap<K, V> minus(final Object key) {
+        final Object newRoot = remove(this.root, key, hash(key), 0);
+        return newRoot == this.root ? this : new PersistentHashMap<>(newRoot, this.size - 1);
+    }
+
+    /**
+     * Collects the values of the map.
+     *
+     * @return the values in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        final List<Object> values = new ArrayList<>(this.size);
+        collectValues(this.root, values);
+        return (List<V>) values;
+    }
+
+    private static Object put(
+            @Nullable final Object node, final Entry<?, ?> entry, final int shift, final boolean[] added) {
+        if (node == null) {
+            added[0] = true;
+            return entry;
+        }
+        if (node instanceof Object[] children) {
+            final Object[] copy = children.clone();
+            final int index = index(entry.hash(), shift);
+            copy[index] = put(children[index], entry, shift + BITS, added);
+            return copy;
+        }
+
+        final int nodeHash = node instanceof Entry<?, ?> existing ? existing.hash() : ((Collision) node).hash();
+        if (nodeHash != entry.hash()) {
+            // hashes differing in any bit are separated at the latest on the level of the most significant bits
+            final Object[] branch = new Object[WIDTH];
+            branch[index(nodeHash, shift)] = node;
+            return put(branch, entry, shift, added);
+        }
+
+        final List<Entry<?, ?>> entries = new ArrayList<>();
+        if (node instanceof Entry<?, ?> existing) {
+            entries.add(existing);
+        } else {
+            entries.addAll(((Collision) node).entries());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).key().equals(entry.key())) {
+                entries.set(i, entry);
+                return entries.size() == 1 ? entry : new Collision(entry.hash(), List.copyOf(entries));
+            }
+        }
+        added[0] = true;
+        entries.add(entry);
+        return new Collision(entry.hash(), List.copyOf(entries));
+    }
+
+    @Nullable
+    private static Object remove(@Nullable final Object node, final Object key, final int hash, final int shift) {
+        if (node instanceof Entry<?, ?> entry) {
+            return entry.hash() == hash && entry.key().equals(key) ? null : node;
+        } else if (node instanceof Collision collision) {
+            if (collision.hash() != hash) {
+                return node;
+            }
+            final List<Entry<?, ?>> remaining = collision.entries().stream()
+                    .filter(entry -> !entry.key().equals(key))
+                    .toList();
+            if (remaining.size() == collision.entries().size()) {
+                return node;
+            }
+            return remaining.size() == 1 ? remaining.get(0) : new Collision(hash, remaining);
+        } else if (node instanceof Object[] children) {
+            final int index = index(hash, shift);
+            final Object child = remove(children[index], key, hash, shift + BITS);
+            if (child == children[index]) {
+                return node;
+            }
+            final Object[] copy = children.clone();
+            copy[index] = child;
+            return compact(copy);
+        }
+        return null;
+    }
+
+    // a branch left with a single entry is replaced by the entry, lookups compare the key once they reach it
+    @Nullable
+    private static Object compact(final Object[] children) {
+        Object single = null;
+        for (final Object child : children) {
+            if (child != null) {
+                if (single != null || child instanceof Object[]) {
+                    return children;
+                }
+                single = child;
+            }
+        }
+        return single;
+    }
+
+    private static void collectValues(@Nullable final Object node, final List<Object> values) {
+        if (node instanceof Entry<?, ?> entry) {
+            values.add(entry.value());
+        } else if (node instanceof Collision collision) {
+            collision.entries().forEach(entry -> values.add(entry.value()));
+        } else if (node instanceof Object[] children) {
+            for (final Object child : children) {
+                collectValues(child, values);
+            }
+        }
+    }
+
+    private static int hash(final Object key) {
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> (Integer.SIZE / 2));
+    }
+
+    private static int index(final int hash, final int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    private record Entry<K, V>(K key, V value, int hash) {}
+
+    private record Collision(int hash, List<Entry<?, ?>> entries) {}
+}
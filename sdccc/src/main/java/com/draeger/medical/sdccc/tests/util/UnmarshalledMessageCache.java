@@ -0,0 +1,100 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.somda.sdc.dpws.soap.MarshallingService;
+import org.somda.sdc.dpws.soap.SoapMessage;
+import org.somda.sdc.dpws.soap.exception.MarshallingException;
+
+/**
+ * Run-scoped cache of unmarshalled messages shared by all tests and preconditions, keyed by the message UUID.
+ *
+ * <p>
+ * Stored messages never change, hence a message only has to be unmarshalled once per test run no matter how many
+ * tests look at it. The cache holds a bounded number of messages and evicts the least recently used one first. With
+ * soft references enabled, cached messages may additionally be dropped under memory pressure.
+ *
+ * <p>
+ * The returned messages are shared and must not be modified.
+ */
+@Singleton
+public class UnmarshalledMessageCache {
+
+    private final MarshallingService marshalling;
+    private final int maximumSize;
+    private final boolean softReferences;
+    private final Map<String, Supplier<SoapMessage>> messages;
+
+    @Inject
+    UnmarshalledMessageCache(
+            final MarshallingService marshalling,
+            @Named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SIZE) final int maximumSize,
+            @Named(TestSuiteConfig.UNMARSHALLED_MESSAGE_CACHE_SOFT_REFERENCES) final boolean softReferences) {
+        this.marshalling = marshalling;
+        this.maximumSize = maximumSize;
+        this.softReferences = softReferences;
+        this.messages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Supplier<SoapMessage>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Unmarshals the body of a stored message, unless it has been unmarshalled before.
+     *
+     * @param messageContent to unmarshal
+     * @return the unmarshalled message, which must not be modified
+     * @throws MarshallingException if the body cannot be unmarshalled
+     */
+    public SoapMessage unmarshal(final MessageContent messageContent) throws MarshallingException {
+        if (this.maximumSize <= 0) {
+            return this.marshalling.unmarshal(messageContent.getBodyStream());
+        }
+
+        synchronized (this.messages) {
+            final var cached = this.messages.get(messageContent.getUuid());
+            final var message = cached != null ? cached.get() : null;
+            if (message != null) {
+                return message;
+            }
+        }
+
+        // unmarshalling happens outside the lock, concurrent callers may end up unmarshalling the same message
+        final SoapMessage message = this.marshalling.unmarshal(messageContent.getBodyStream());
+        final Supplier<SoapMessage> entry;
+        if (this.softReferences) {
+            final var reference = new SoftReference<>(message);
+            entry = reference::get;
+        } else {
+            entry = () -> message;
+        }
+        synchronized (this.messages) {
+            this.messages.put(messageContent.getUuid(), entry);
+        }
+        return message;
+    }
+
+    /**
+     * @return number of cached messages, including softly referenced ones which have already been dropped
+     */
+    int size() {
+        synchronized (this.messages) {
+            return this.messages.size();
+        }
+    }
+}
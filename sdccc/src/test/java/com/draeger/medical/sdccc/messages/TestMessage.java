@@ -19,6 +19,8 @@ import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 import com.draeger.medical.sdccc.util.XPathExtractor;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,6 +32,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.somda.sdc.dpws.CommunicationLog;
 import org.somda.sdc.dpws.soap.CommunicationContext;
+import org.somda.sdc.dpws.soap.HttpApplicationInfo;
+import org.somda.sdc.dpws.soap.TransportInfo;
 
 /**
  * Unit tests for the Message container.
@@ -135,4 +139,46 @@ public class TestMessage {
             });
         }
     }
+
+    /**
+     * Tests whether bulk writes with offsets and single byte writes can be mixed, regardless of whether the
+     * Content-Length header used as a size hint is too small, too large or missing.
+     *
+     * @throws Exception on any exception
+     */
+    @Test
+    public void testBulkWriteWithSizeHint() throws Exception {
+        final byte[] testBytes = "<Envelope>Testäöó</Envelope>".getBytes(StandardCharsets.UTF_8);
+        final byte[] expected = new byte[testBytes.length + 1];
+        System.arraycopy(testBytes, 1, expected, 0, testBytes.length - 1);
+        expected[testBytes.length - 1] = 'x';
+        expected[testBytes.length] = 'y';
+
+        for (final String contentLength : List.of("1", String.valueOf(expected.length), "100000", "invalid")) {
+            final ListMultimap<String, String> headers = ArrayListMultimap.create();
+            headers.put("Content-Length", contentLength);
+            final CommunicationContext context = new CommunicationContext(
+                    new HttpApplicationInfo(headers, "transactionId", "requestUri"),
+                    new TransportInfo("https", null, null, null, null, List.of()),
+                    null);
+
+            final MessageStorage mockStorage = mock(MessageStorage.class);
+            final Message message = new Message(
+                    CommunicationLog.Direction.INBOUND, CommunicationLog.MessageType.REQUEST, context, mockStorage);
+
+            message.write(testBytes, 1, testBytes.length - 1);
+            message.write('x');
+            message.write(new byte[] {'y'});
+            message.close();
+
+            verify(mockStorage, times(1)).addMessage(message);
+            assertEquals(Arrays.toString(expected), Arrays.toString(message.getFinalMemory()));
+            assertThrows(IndexOutOfBoundsException.class, () -> new Message(
+                            CommunicationLog.Direction.INBOUND,
+                            CommunicationLog.MessageType.REQUEST,
+                            context,
+                            mockStorage)
+                    .write(testBytes, 2, testBytes.length));
+        }
+    }
 }
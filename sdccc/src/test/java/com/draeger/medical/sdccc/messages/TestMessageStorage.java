@@ -6,6 +6,7 @@
 
 package com.draeger.medical.sdccc.messages;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -25,9 +26,12 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.draeger.medical.sdccc.messages.guice.MessageFactory;
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
 import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
 import com.draeger.medical.sdccc.messages.mapping.ManipulationParameter;
 import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.messages.storage.HibernateStorageBackend;
 import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
 import com.draeger.medical.sdccc.util.CertificateUtil;
 import com.draeger.medical.sdccc.util.Constants;
@@ -37,6 +41,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -48,8 +53,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.xml.namespace.QName;
@@ -337,6 +345,70 @@ public class TestMessageStorage {
         }
     }
 
+    /**
+     * Tests whether the message index covers the written messages by body type, SequenceId and action, and whether
+     * the messages can be retrieved using the ids of the index.
+     *
+     * @param dir message storage directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testMessageIndex(@TempDir final File dir) throws IOException {
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, true, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+
+            for (final String mdibVersion : List.of("5", "3", "4")) {
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        this.messageContext,
+                        messageStorage)) {
+                    message.write(String.format(
+                                    BASE_MESSAGE_STRING,
+                                    "action",
+                                    String.format(SEQUENCE_ID_METRIC_BODY_STRING, mdibVersion, "1"))
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            messageStorage.flush();
+
+            final MessageIndex messageIndex = messageStorage.getMessageIndex();
+            assertTrue(messageIndex.containsInbound(Constants.MSG_EPISODIC_METRIC_REPORT));
+            assertTrue(messageIndex.containsInbound("urn:uuid:1", Constants.MSG_EPISODIC_METRIC_REPORT));
+            assertFalse(messageIndex.containsInbound("urn:uuid:2", Constants.MSG_EPISODIC_METRIC_REPORT));
+            assertFalse(messageIndex.containsInbound(Constants.MSG_EPISODIC_ALERT_REPORT));
+            assertEquals(
+                    Optional.of(new MessageIndex.MdibVersionRange(3, 5)),
+                    messageIndex.getMdibVersionRange("urn:uuid:1"));
+            assertEquals(3, messageIndex.getMessageCount());
+            final long[] metricReportIds = messageIndex.getInboundMessageIds(Constants.MSG_EPISODIC_METRIC_REPORT);
+            assertEquals(3, metricReportIds.length);
+            assertArrayEquals(metricReportIds, messageIndex.getMessageIdsByAction("action", "otherAction"));
+            assertEquals(0, messageIndex.getInboundMessageIds(Constants.MSG_EPISODIC_ALERT_REPORT).length);
+
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessagesByBodyType(false, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertArrayEquals(
+                        metricReportIds,
+                        inboundMessages.getStream().mapToLong(MessageContent::getIncId).toArray());
+            }
+            try (final MessageStorage.GetterResult<MessageContent> messages =
+                    messageStorage.getMessagesByAction("action")) {
+                assertArrayEquals(
+                        metricReportIds,
+                        messages.getStream().mapToLong(MessageContent::getIncId).toArray());
+            }
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessagesByBodyType(Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(3, inboundMessages.getStream().count());
+            }
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessagesByBodyType(Constants.MSG_EPISODIC_ALERT_REPORT)) {
+                assertFalse(inboundMessages.areObjectsPresent());
+            }
+        }
+    }
+
     private static @NotNull CommunicationContext getCommunicationContext(final ListMultimap<String, String> multimap)
             throws CertificateException, IOException {
         final String transactionId = "transactionId";
@@ -610,6 +682,225 @@ public class TestMessageStorage {
         }
     }
 
+    /**
+     * Tests whether bodies stored as raw or compressed bytes are returned as sent on the wire by the body stream and
+     * decoded with the charset of the message by the body getter. The charset is not UTF-8 on purpose, which the
+     * message storage reports as an encoding problem.
+     *
+     * @param dir message storage directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testRawAndCompressedBodies(@TempDir final File dir) throws IOException {
+        final String expected = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><body>äöü</body>";
+        final byte[] expectedBytes = expected.getBytes(StandardCharsets.ISO_8859_1);
+
+        for (final BodyEncoding bodyEncoding : List.of(BodyEncoding.RAW, BodyEncoding.COMPRESSED)) {
+            try (final MessageStorage messageStorage = new MessageStorage(
+                    3,
+                    0,
+                    bodyEncoding.name(),
+                    OverflowPolicy.BLOCK.name(),
+                    false,
+                    true,
+                    null,
+                    mock(MessageFactory.class),
+                    new HibernateStorageBackend(new HibernateConfigImpl(new File(dir, bodyEncoding.name()))),
+                    this.testRunObserver)) {
+
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        this.messageContext,
+                        messageStorage)) {
+                    message.write(expectedBytes);
+                }
+
+                messageStorage.flush();
+
+                try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                        messageStorage.getInboundMessages()) {
+                    final List<MessageContent> messages = inboundMessages.getStream().toList();
+                    assertEquals(1, messages.size());
+                    assertEquals(bodyEncoding, messages.get(0).getBodyEncoding());
+                    assertEquals(expected, messages.get(0).getBody());
+                    try (final InputStream bodyStream = messages.get(0).getBodyStream()) {
+                        assertArrayEquals(expectedBytes, bodyStream.readAllBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests whether identical bodies of messages written in different batches reference the same body row, while
+     * every message still returns its full body.
+     *
+     * @param dir message storage directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testIdenticalBodiesShareOneRow(@TempDir final File dir) throws IOException {
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, true, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+
+            for (final String body : List.of("identical_body", "identical_body", "other_body")) {
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        this.messageContext,
+                        messageStorage)) {
+                    message.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+                messageStorage.flush();
+            }
+
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessages()) {
+                final List<MessageContent> messages = inboundMessages.getStream().toList();
+                assertEquals(
+                        List.of("identical_body", "identical_body", "other_body"),
+                        messages.stream().map(MessageContent::getBody).toList());
+                assertEquals(
+                        messages.get(0).getMessageBody().getIncId(),
+                        messages.get(1).getMessageBody().getIncId());
+                assertNotEquals(
+                        messages.get(0).getMessageBody().getIncId(),
+                        messages.get(2).getMessageBody().getIncId());
+            }
+        }
+    }
+
+    /**
+     * Tests whether identical bodies which are written concurrently by several database interaction threads still
+     * reference a single body row.
+     *
+     * @param dir message storage directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testConcurrentIdenticalBodiesShareOneRow(@TempDir final File dir) throws IOException {
+        final int messageCount = 100;
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, true, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+
+            for (int i = 0; i < messageCount; i++) {
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        this.messageContext,
+                        messageStorage)) {
+                    message.write("identical_body".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            messageStorage.flush();
+
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessages()) {
+                final Set<Long> bodyIds = inboundMessages
+                        .getStream()
+                        .map(content -> content.getMessageBody().getIncId())
+                        .collect(Collectors.toSet());
+                assertEquals(1, bodyIds.size());
+            }
+        }
+        verifyNoInteractions(this.testRunObserver);
+    }
+
+    /**
+     * Tests whether messages received with the same certificates in different batches reference the same certificate
+     * chain row, while messages without certificates reference none.
+     *
+     * @param dir message storage directory
+     * @throws IOException          on io exceptions
+     * @throws CertificateException on certificate exceptions
+     */
+    @Test
+    public void testIdenticalCertificateChainsShareOneRow(@TempDir final File dir)
+            throws IOException, CertificateException {
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, true, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+
+            for (final CommunicationContext context :
+                    List.of(this.messageContext, this.messageContext, this.insecureMessageContext)) {
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        context,
+                        messageStorage)) {
+                    message.write("body".getBytes(StandardCharsets.UTF_8));
+                }
+                messageStorage.flush();
+            }
+
+            final X509Certificate certificate = CertificateUtil.getDummyCert();
+            try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                    messageStorage.getInboundMessages()) {
+                final List<MessageContent> messages = inboundMessages.getStream().toList();
+                assertEquals(3, messages.size());
+                assertEquals(List.of(certificate), messages.get(0).getCerts());
+                assertEquals(List.of(certificate), messages.get(1).getCerts());
+                assertEquals(
+                        messages.get(0).getCertificateChain().getIncId(),
+                        messages.get(1).getCertificateChain().getIncId());
+                assertNull(messages.get(2).getCertificateChain());
+                assertEquals(List.of(), messages.get(2).getCerts());
+            }
+        }
+    }
+
+    /**
+     * Tests whether the grow and spill overflow policies store every message with its complete body when far more
+     * messages are added than fit into the buffer.
+     *
+     * @param dir message storage directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testOverflowPoliciesKeepAllMessages(@TempDir final File dir) throws IOException {
+        final int messageCount = 200;
+        for (final OverflowPolicy overflowPolicy : List.of(OverflowPolicy.GROW, OverflowPolicy.SPILL)) {
+            try (final MessageStorage messageStorage = new MessageStorage(
+                    1,
+                    1,
+                    BodyEncoding.TEXT.name(),
+                    overflowPolicy.name(),
+                    false,
+                    true,
+                    dir,
+                    mock(MessageFactory.class),
+                    new HibernateStorageBackend(new HibernateConfigImpl(new File(dir, overflowPolicy.name()))),
+                    this.testRunObserver)) {
+
+                for (int i = 0; i < messageCount; i++) {
+                    try (final Message message = new Message(
+                            CommunicationLog.Direction.INBOUND,
+                            CommunicationLog.MessageType.REQUEST,
+                            this.messageContext,
+                            messageStorage)) {
+                        message.write(("body_" + i).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+
+                messageStorage.flush();
+
+                assertEquals(0, messageStorage.getQueueDepth());
+                assertEquals(0, messageStorage.getStallCount());
+
+                try (final MessageStorage.GetterResult<MessageContent> inboundMessages =
+                        messageStorage.getInboundMessages()) {
+                    final Set<String> bodies =
+                            inboundMessages.getStream().map(MessageContent::getBody).collect(Collectors.toSet());
+                    assertEquals(messageCount, bodies.size());
+                    for (int i = 0; i < messageCount; i++) {
+                        assertTrue(bodies.contains("body_" + i));
+                    }
+                }
+            }
+        }
+        verifyNoInteractions(this.testRunObserver);
+    }
+
     /**
      * Tests whether only outbound messages are retrieved from storage.
      *
@@ -1057,6 +1348,17 @@ public class TestMessageStorage {
                     assertEquals(1, count.get());
                 }
             }
+
+            // headers without indexed rows are matched against the compact form of the headers
+            {
+                try (final var outboundMessages = messageStorage.getOutboundHttpMessagesByBodyTypeAndHeaders(
+                        List.of(expectedQName1),
+                        List.of(new AbstractMap.SimpleImmutableEntry<>(listName1, "headercontent2")))) {
+                    final List<MessageContent> messages = outboundMessages.getStream().toList();
+                    assertEquals(1, messages.size());
+                    assertEquals(expectedList1, messages.get(0).getHeaders().get(listName1));
+                }
+            }
         }
     }
 
@@ -1190,6 +1492,89 @@ public class TestMessageStorage {
         }
     }
 
+    /**
+     * Tests whether every projection of inbound messages is equal to the projection derived from the whole messages.
+     *
+     * @param dir message storage directory
+     * @throws IOException          on io exceptions
+     * @throws CertificateException on certificate exceptions
+     */
+    @Test
+    public void testGetInboundMessagesProjections(@TempDir final File dir) throws IOException, CertificateException {
+        try (final MessageStorage messageStorage = new MessageStorage(
+                4, false, true, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+            final var expectedQName = new QName(CommonConstants.NAMESPACE_MESSAGE, "EpisodicMetricReport", "msg");
+            final ListMultimap<String, String> headers = ArrayListMultimap.create();
+            headers.put("content-type", "application/soap+xml");
+            headers.put("headername", "headercontent");
+
+            for (final CommunicationContext context : List.of(
+                    this.messageContext, getCommunicationContext(headers), this.insecureMessageContext)) {
+                try (final Message message = new Message(
+                        CommunicationLog.Direction.INBOUND,
+                        CommunicationLog.MessageType.REQUEST,
+                        context,
+                        messageStorage)) {
+                    message.write(String.format(BASE_MESSAGE_STRING, "1", "<msg:EpisodicMetricReport/>")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            try (final Message message = new Message(
+                    CommunicationLog.Direction.INBOUND,
+                    CommunicationLog.MessageType.RESPONSE,
+                    this.messageContext,
+                    messageStorage)) {
+                message.write("no_envelope".getBytes(StandardCharsets.UTF_8));
+            }
+
+            try (final Message message = new Message(
+                    CommunicationLog.Direction.OUTBOUND,
+                    CommunicationLog.MessageType.RESPONSE,
+                    this.messageContext,
+                    messageStorage)) {
+                message.write("outbound_body".getBytes(StandardCharsets.UTF_8));
+            }
+
+            messageStorage.flush();
+
+            for (final MessageProjection<?> projection : List.of(
+                    MessageProjection.METADATA,
+                    MessageProjection.BODY,
+                    MessageProjection.HEADERS,
+                    MessageProjection.MDIB_VERSION_GROUPS)) {
+                final List<?> expected;
+                try (final var inboundMessages = messageStorage.getInboundMessages()) {
+                    expected = inboundMessages.getStream().map(projection::apply).toList();
+                }
+                try (final var inboundProjections = messageStorage.getInboundMessages(projection)) {
+                    final List<?> actual = inboundProjections.getStream().toList();
+                    assertEquals(4, actual.size(), projection.getKind().name());
+                    assertTrue(actual.containsAll(expected), projection.getKind().name());
+                    assertTrue(expected.containsAll(actual), projection.getKind().name());
+                }
+
+                final List<?> expectedByBodyType;
+                try (final var inboundMessages = messageStorage.getInboundMessagesByBodyType(expectedQName)) {
+                    expectedByBodyType = inboundMessages.getStream().map(projection::apply).toList();
+                }
+                try (final var inboundProjections =
+                        messageStorage.getInboundMessagesByBodyType(projection, expectedQName)) {
+                    final List<?> actual = inboundProjections.getStream().toList();
+                    assertEquals(3, actual.size(), projection.getKind().name());
+                    assertTrue(actual.containsAll(expectedByBodyType), projection.getKind().name());
+                    assertTrue(expectedByBodyType.containsAll(actual), projection.getKind().name());
+                }
+            }
+
+            try (final var inboundHeaders = messageStorage.getInboundMessages(MessageProjection.HEADERS)) {
+                assertTrue(inboundHeaders
+                        .getStream()
+                        .anyMatch(messageHeaders -> List.of("headercontent").equals(messageHeaders.get("headername"))));
+            }
+        }
+    }
+
     /**
      * Tests whether only inbound messages matching the body type and sequence id are retrieved.
      *
@@ -2759,6 +3144,94 @@ public class TestMessageStorage {
         }
     }
 
+    /**
+     * Checks that convertMessageToMessageContent() hashes reports independently of their envelope and serialization.
+     *
+     * @param dir - a temporary directory.
+     * @throws IOException - when something goes wrong.
+     */
+    @Test
+    public void testConvertMessageToMessageContentBodyHash(@TempDir final File dir) throws IOException {
+        final String report = "<msg:EpisodicMetricReport MdibVersion=\"3\" SequenceId=\"urn:uuid:1\" "
+                + "xmlns:pm=\"http://standards.ieee.org/downloads/11073/11073-10207-2017/participant\">"
+                + "<msg:ReportPart><msg:MetricState xsi:type=\"pm:NumericMetricState\" StateVersion=\"%s\" "
+                + "DescriptorHandle=\"H0\"/></msg:ReportPart></msg:EpisodicMetricReport>";
+        final String sameReport = "<m:EpisodicMetricReport "
+                + "xmlns:m=\"http://standards.ieee.org/downloads/11073/11073-10207-2017/message\" "
+                + "xmlns:p=\"http://standards.ieee.org/downloads/11073/11073-10207-2017/participant\" "
+                + "SequenceId=\"urn:uuid:1\" MdibVersion=\"3\">\n  <m:ReportPart><!-- resent -->"
+                + "<m:MetricState DescriptorHandle=\"H0\" StateVersion=\"1\" xsi:type=\"p:NumericMetricState\">"
+                + "</m:MetricState></m:ReportPart>\n</m:EpisodicMetricReport>";
+
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, false, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+            final String firstHash = convertAndGetBodyHash(
+                    messageStorage, String.format(BASE_MESSAGE_STRING, "first", String.format(report, "1")));
+            final String resentHash = convertAndGetBodyHash(
+                    messageStorage,
+                    String.format(BASE_MESSAGE_STRING, "resent", sameReport)
+                            .replace("407229f6-a17d-45ae-9e57-d951d55767c3", UUID.randomUUID().toString()));
+            final String changedHash = convertAndGetBodyHash(
+                    messageStorage, String.format(BASE_MESSAGE_STRING, "first", String.format(report, "2")));
+
+            assertNotNull(firstHash);
+            assertEquals(firstHash, resentHash);
+            assertNotEquals(firstHash, changedHash);
+        }
+    }
+
+    /**
+     * Checks that convertMessageToMessageContent() classifies every direct child of the SOAP body, including ones whose
+     * content is skipped, and invalidates the TestRun when there is more than one.
+     *
+     * @param dir - a temporary directory.
+     * @throws IOException - when something goes wrong.
+     */
+    @Test
+    public void testConvertMessageToMessageContentMultipleBodyChildren(@TempDir final File dir) throws IOException {
+        final String body = "<msg:GetContextStatesResponse MdibVersion=\"1\" SequenceId=\"urn:uuid:1\">"
+                + "<msg:ContextState xsi:type=\"pm:LocationContextState\" DescriptorHandle=\"H1\" Handle=\"H2\"/>"
+                + "</msg:GetContextStatesResponse>"
+                + String.format(SEQUENCE_ID_METRIC_BODY_STRING, "2", "1");
+
+        try (final MessageStorage messageStorage = new MessageStorage(
+                1, false, false, mock(MessageFactory.class), new HibernateConfigImpl(dir), this.testRunObserver)) {
+            final Message message = new Message(
+                    CommunicationLog.Direction.INBOUND,
+                    CommunicationLog.MessageType.REQUEST,
+                    this.messageContext,
+                    messageStorage);
+            message.write(String.format(BASE_MESSAGE_STRING, "action", body).getBytes(StandardCharsets.UTF_8));
+            message.close();
+
+            final var result = messageStorage.convertMessageToMessageContent(message);
+
+            assertTrue(result.getIsSOAP());
+            assertEquals(Set.of("action"), result.getActions());
+            assertEquals(2, result.getMdibVersionGroups().size());
+            assertNull(result.getMdibVersionGroups().get(0).getBodyHash());
+            assertEquals(2L, result.getMdibVersionGroups().get(1).getMdibVersion());
+            assertNotNull(result.getMdibVersionGroups().get(1).getBodyHash());
+            verify(this.testRunObserver)
+                    .invalidateTestRun("Encountered multiple elements in soap body, but more than one are not allowed.");
+        }
+    }
+
+    private String convertAndGetBodyHash(final MessageStorage messageStorage, final String content)
+            throws IOException {
+        final Message message = new Message(
+                CommunicationLog.Direction.INBOUND,
+                CommunicationLog.MessageType.REQUEST,
+                this.messageContext,
+                messageStorage);
+        message.write(content.getBytes(StandardCharsets.UTF_8));
+        message.close();
+
+        final var result = messageStorage.convertMessageToMessageContent(message);
+        assertEquals(1, result.getMdibVersionGroups().size());
+        return result.getMdibVersionGroups().get(0).getBodyHash();
+    }
+
     /**
      * Checks that convertMessageToMessageContent() uses the detected encoding.
      *
@@ -0,0 +1,58 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@linkplain PeekingSpliterator}.
+ */
+public class TestPeekingSpliterator {
+
+    /**
+     * Tests whether peeking does not consume the first element.
+     */
+    @Test
+    public void testPeekDoesNotConsume() {
+        final PeekingSpliterator<String> spliterator =
+                new PeekingSpliterator<>(Stream.of("a", "b", "c").spliterator());
+
+        assertTrue(spliterator.hasAnyElement());
+        assertTrue(spliterator.hasAnyElement());
+        assertEquals(List.of("a", "b", "c"), StreamSupport.stream(spliterator, false).toList());
+        assertTrue(spliterator.hasAnyElement());
+    }
+
+    /**
+     * Tests whether an empty source is reported as such.
+     */
+    @Test
+    public void testEmpty() {
+        final PeekingSpliterator<String> spliterator = new PeekingSpliterator<>(Stream.<String>empty().spliterator());
+
+        assertFalse(spliterator.hasAnyElement());
+        assertEquals(List.of(), StreamSupport.stream(spliterator, false).toList());
+    }
+
+    /**
+     * Tests whether the presence is known after consuming elements without peeking first.
+     */
+    @Test
+    public void testPresenceAfterConsumption() {
+        final PeekingSpliterator<String> spliterator = new PeekingSpliterator<>(Stream.of("a").spliterator());
+
+        assertEquals(1, StreamSupport.stream(spliterator, false).count());
+        assertTrue(spliterator.hasAnyElement());
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.mapping.MessageMetadata;
+import com.draeger.medical.sdccc.messages.mapping.MessageProjection;
+import com.draeger.medical.sdccc.messages.util.MessageUtil;
+import com.draeger.medical.sdccc.tests.util.ManipulationParameterUtil;
+import com.draeger.medical.sdccc.util.CertificateUtil;
+import com.draeger.medical.sdccc.util.Constants;
+import com.draeger.medical.t2iapi.ResponseTypes;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * Unit tests for the {@linkplain AppendLogStorageBackend}.
+ */
+public class TestAppendLogStorageBackend {
+
+    private static final String SEQUENCE_ID = "urn:uuid:1";
+    private static final String SOAP_CONTENT_TYPE = "application/soap+xml; charset=utf-8";
+
+    /**
+     * Tests whether messages and manipulations are restored with all their attributes.
+     *
+     * @param dir log directory
+     * @throws IOException          on io exceptions
+     * @throws CertificateException on certificate exceptions
+     */
+    @Test
+    public void testRoundTrip(@TempDir final Path dir) throws IOException, CertificateException {
+        final X509Certificate certificate = CertificateUtil.getDummyCert();
+        final MessageContent message = new MessageContent(
+                new MessageBody(MessageUtil.hashMessage("<body>äöü</body>"), "<body>äöü</body>", null),
+                null,
+                BodyEncoding.TEXT,
+                CertificateChain.of(List.of(certificate)),
+                Map.of("Content-Type", List.of(SOAP_CONTENT_TYPE)),
+                List.of(new MdibVersionGroupEntity.MdibVersionGroup(
+                        5, SEQUENCE_ID, Constants.MSG_EPISODIC_METRIC_REPORT.toString(), "bodyHash")),
+                Set.of("action"),
+                CommunicationLog.Direction.INBOUND,
+                CommunicationLog.MessageType.REQUEST,
+                "transaction",
+                null,
+                1,
+                2,
+                "hash",
+                Constants.HTTPS_SCHEME,
+                UUID.randomUUID().toString(),
+                true,
+                "127.0.0.1");
+        final ManipulationData manipulation = new ManipulationData(
+                3,
+                4,
+                ResponseTypes.Result.RESULT_SUCCESS,
+                "response",
+                "setAlertActivation",
+                List.of(Pair.of("handle", "alert")),
+                UUID.randomUUID().toString());
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(message), List.of(manipulation));
+
+            try (final Stream<MessageContent> stream = backend.getInboundMessages()) {
+                final List<MessageContent> restored = stream.toList();
+                assertEquals(1, restored.size());
+                final MessageContent restoredMessage = restored.get(0);
+                assertEquals(message.getBody(), restoredMessage.getBody());
+                assertEquals(List.of(certificate), restoredMessage.getCerts());
+                assertEquals(message.getHeaders(), restoredMessage.getHeaders());
+                assertEquals(message.getActions(), restoredMessage.getActions());
+                assertEquals(message.getUuid(), restoredMessage.getUuid());
+                assertEquals(message.getMessageHash(), restoredMessage.getMessageHash());
+                assertEquals(message.getTransactionId(), restoredMessage.getTransactionId());
+                assertEquals(message.getRequestUri(), restoredMessage.getRequestUri());
+                assertEquals(message.getSender(), restoredMessage.getSender());
+                assertEquals(
+                        SEQUENCE_ID,
+                        restoredMessage.getMdibVersionGroups().get(0).getSequenceId());
+                assertEquals("bodyHash", restoredMessage.getMdibVersionGroups().get(0).getBodyHash());
+            }
+
+            try (final Stream<ManipulationData> stream = backend.getManipulationDataByParametersAndManipulation(
+                    new ManipulationParameterUtil.ManipulationParameterData(List.of(Pair.of("handle", "alert"))),
+                    "setAlertActivation")) {
+                final List<ManipulationData> restored = stream.toList();
+                assertEquals(1, restored.size());
+                assertEquals(ResponseTypes.Result.RESULT_SUCCESS, restored.get(0).getResult());
+                assertEquals("response", restored.get(0).getResponse());
+            }
+
+            try (final Stream<ManipulationData> stream = backend.getManipulationDataByParametersAndManipulation(
+                    new ManipulationParameterUtil.ManipulationParameterData(List.of(Pair.of("handle", "other"))),
+                    "setAlertActivation")) {
+                assertEquals(0, stream.count());
+            }
+        }
+    }
+
+    /**
+     * Tests whether queries sorted by MdibVersion return a message once per MdibVersionGroup, like the inner join
+     * of the hibernate backend.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testSortingByMdibVersion(@TempDir final Path dir) throws IOException {
+        final String metric = Constants.MSG_EPISODIC_METRIC_REPORT.toString();
+        final String alert = Constants.MSG_EPISODIC_ALERT_REPORT.toString();
+        final MessageContent second = message(20, CommunicationLog.Direction.INBOUND, Map.of(), group(2, metric));
+        final MessageContent first = message(30, CommunicationLog.Direction.INBOUND, Map.of(), group(1, metric));
+        final MessageContent both =
+                message(10, CommunicationLog.Direction.INBOUND, Map.of(), group(3, metric), group(4, alert));
+        final MessageContent outbound = message(5, CommunicationLog.Direction.OUTBOUND, Map.of(), group(0, metric));
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(second, first, both, outbound), List.of());
+
+            try (final Stream<MessageContent> stream =
+                    backend.getInboundMessagesByBodyType(true, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(
+                        List.of(first.getUuid(), second.getUuid(), both.getUuid(), both.getUuid()),
+                        stream.map(MessageContent::getUuid).toList());
+            }
+            try (final Stream<MessageContent> stream =
+                    backend.getInboundMessagesByBodyType(false, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(
+                        List.of(second.getUuid(), first.getUuid(), both.getUuid()),
+                        stream.map(MessageContent::getUuid).toList());
+            }
+            try (final Stream<MessageContent> stream = backend.getInboundMessagesByTimeIntervalAndBodyType(
+                    15, 30, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(
+                        List.of(first.getUuid(), second.getUuid()),
+                        stream.map(MessageContent::getUuid).toList());
+            }
+            try (final Stream<MessageContent> stream = backend.getInboundMessagesByTimestampAndBodyType(
+                    SEQUENCE_ID, 30, Constants.MSG_EPISODIC_ALERT_REPORT)) {
+                assertEquals(
+                        List.of(both.getUuid(), both.getUuid()),
+                        stream.map(MessageContent::getUuid).toList());
+            }
+            try (final Stream<MessageContent> stream = backend.getInboundMessagesByTimestampAndBodyType(
+                    SEQUENCE_ID, 1, 31, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(
+                        List.of(second.getUuid(), both.getUuid(), both.getUuid()),
+                        stream.map(MessageContent::getUuid).toList());
+            }
+        }
+    }
+
+    /**
+     * Tests whether written messages are assigned ascending ids across batches, which retrieve them again.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testMessagesByIds(@TempDir final Path dir) throws IOException {
+        final MessageContent first = message(10, CommunicationLog.Direction.INBOUND, Map.of());
+        final MessageContent second = message(20, CommunicationLog.Direction.OUTBOUND, Map.of());
+        final MessageContent third = message(30, CommunicationLog.Direction.INBOUND, Map.of());
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(first, second), List.of());
+            backend.write(List.of(third), List.of());
+            assertEquals(List.of(1L, 2L, 3L), List.of(first.getIncId(), second.getIncId(), third.getIncId()));
+
+            try (final Stream<MessageContent> stream = backend.getMessagesByIds(first.getIncId(), third.getIncId())) {
+                final List<MessageContent> restored = stream.toList();
+                assertEquals(
+                        List.of(first.getUuid(), third.getUuid()),
+                        restored.stream().map(MessageContent::getUuid).toList());
+                assertEquals(
+                        List.of(first.getIncId(), third.getIncId()),
+                        restored.stream().map(MessageContent::getIncId).toList());
+            }
+        }
+    }
+
+    /**
+     * Tests the SOAP and HTTP header based filters.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testHeaderFilters(@TempDir final Path dir) throws IOException {
+        final String metric = Constants.MSG_EPISODIC_METRIC_REPORT.toString();
+        final MessageContent soapHeader = message(
+                1,
+                CommunicationLog.Direction.OUTBOUND,
+                Map.of("Content-Type", List.of(SOAP_CONTENT_TYPE)),
+                group(1, metric));
+        final MessageContent plain = message(
+                2,
+                CommunicationLog.Direction.OUTBOUND,
+                Map.of("Content-Type", List.of("text/plain")),
+                group(2, metric));
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(soapHeader, plain), List.of());
+
+            try (final Stream<MessageContent> stream = backend.getOutboundHttpMessagesByBodyTypeAndHeaders(
+                    List.of(Constants.MSG_EPISODIC_METRIC_REPORT),
+                    List.of(new AbstractMap.SimpleImmutableEntry<>("content-type", "text/plain")))) {
+                assertEquals(List.of(plain.getUuid()), stream.map(MessageContent::getUuid).toList());
+            }
+            try (final Stream<MessageContent> stream = backend.getInboundSoapMessages()) {
+                assertEquals(0, stream.count());
+            }
+            try (final Stream<MessageContent> stream = backend.getOutboundMessages()) {
+                assertEquals(2, stream.count());
+            }
+        }
+    }
+
+    /**
+     * Tests whether projections of inbound messages are derived from the matching messages.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testProjections(@TempDir final Path dir) throws IOException {
+        final String metric = Constants.MSG_EPISODIC_METRIC_REPORT.toString();
+        final String alert = Constants.MSG_EPISODIC_ALERT_REPORT.toString();
+        final MessageContent metricReport = message(1, CommunicationLog.Direction.INBOUND, Map.of(), group(1, metric));
+        final MessageContent alertReport = message(2, CommunicationLog.Direction.INBOUND, Map.of(), group(2, alert));
+        final MessageContent outbound = message(3, CommunicationLog.Direction.OUTBOUND, Map.of(), group(3, metric));
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(metricReport, alertReport, outbound), List.of());
+
+            try (final Stream<MessageMetadata> stream = backend.getInboundMessages(MessageProjection.METADATA)) {
+                assertEquals(
+                        List.of(MessageMetadata.of(metricReport), MessageMetadata.of(alertReport)), stream.toList());
+            }
+            try (final Stream<String> stream = backend.getInboundMessages(MessageProjection.BODY)) {
+                assertEquals(List.of("<body/>", "<body/>"), stream.toList());
+            }
+            try (final Stream<List<MdibVersionGroupEntity.MdibVersionGroup>> stream =
+                    backend.getInboundMessagesByBodyType(
+                            MessageProjection.MDIB_VERSION_GROUPS, Constants.MSG_EPISODIC_METRIC_REPORT)) {
+                assertEquals(List.of(List.of(group(1, metric))), stream.toList());
+            }
+        }
+    }
+
+    /**
+     * Tests whether logs of earlier runs are discarded when the backend is created.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testExistingLogIsDiscarded(@TempDir final Path dir) throws IOException {
+        final MessageContent message = message(
+                1,
+                CommunicationLog.Direction.INBOUND,
+                Map.of(),
+                group(1, Constants.MSG_EPISODIC_METRIC_REPORT.toString()));
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(message), List.of());
+        }
+        assertTrue(Files.size(dir.resolve("segment-000000.log")) > 0);
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            try (final Stream<MessageContent> stream = backend.getInboundMessages()) {
+                assertFalse(stream.findAny().isPresent());
+            }
+            assertEquals(0, Files.size(dir.resolve("segment-000000.log")));
+        }
+    }
+
+    /**
+     * Tests whether identical bodies are appended only once and are still returned for every message.
+     *
+     * @param dir log directory
+     * @throws IOException on io exceptions
+     */
+    @Test
+    public void testIdenticalBodiesAreStoredOnce(@TempDir final Path dir) throws IOException {
+        final String body = "<body>" + "x".repeat(10000) + "</body>";
+        final MessageBody messageBody = new MessageBody(MessageUtil.hashMessage(body), body, null);
+        final String metric = Constants.MSG_EPISODIC_METRIC_REPORT.toString();
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(
+                    List.of(message(messageBody, 1, CommunicationLog.Direction.INBOUND, Map.of(), group(1, metric))),
+                    List.of());
+            // a separate batch, the body has to be found among the already persisted ones
+            backend.write(
+                    List.of(message(
+                            new MessageBody(MessageUtil.hashMessage(body), body, null),
+                            2,
+                            CommunicationLog.Direction.INBOUND,
+                            Map.of(),
+                            group(2, metric))),
+                    List.of());
+
+            assertTrue(Files.size(dir.resolve("segment-000000.log")) < 2L * body.length());
+            try (final Stream<MessageContent> stream = backend.getInboundMessages()) {
+                assertEquals(List.of(body, body), stream.map(MessageContent::getBody).toList());
+            }
+        }
+    }
+
+    /**
+     * Tests whether identical certificate chains are appended only once and are shared by the restored messages.
+     *
+     * @param dir log directory
+     * @throws IOException          on io exceptions
+     * @throws CertificateException on certificate exceptions
+     */
+    @Test
+    public void testIdenticalCertificateChainsAreStoredOnce(@TempDir final Path dir)
+            throws IOException, CertificateException {
+        final X509Certificate certificate = CertificateUtil.getDummyCert();
+        final String metric = Constants.MSG_EPISODIC_METRIC_REPORT.toString();
+        final MessageContent first = message(1, CommunicationLog.Direction.INBOUND, Map.of(), group(1, metric));
+        first.setCertificateChain(CertificateChain.of(List.of(certificate)));
+        final MessageContent second = message(2, CommunicationLog.Direction.INBOUND, Map.of(), group(2, metric));
+        second.setCertificateChain(CertificateChain.of(List.of(certificate)));
+
+        try (final AppendLogStorageBackend backend = new AppendLogStorageBackend(dir)) {
+            backend.write(List.of(first), List.of());
+            final long sizeAfterFirst = Files.size(dir.resolve("segment-000000.log"));
+            // a separate batch, the chain has to be found among the already persisted ones
+            backend.write(List.of(second), List.of());
+
+            assertTrue(Files.size(dir.resolve("segment-000000.log")) - sizeAfterFirst
+                    < certificate.getEncoded().length);
+            try (final Stream<MessageContent> stream = backend.getInboundMessages()) {
+                final List<MessageContent> restored = stream.toList();
+                assertEquals(2, restored.size());
+                assertEquals(List.of(certificate), restored.get(0).getCerts());
+                assertSame(restored.get(0).getCertificateChain(), restored.get(1).getCertificateChain());
+            }
+        }
+    }
+
+    private static MdibVersionGroupEntity.MdibVersionGroup group(final long mdibVersion, final String bodyElement) {
+        return new MdibVersionGroupEntity.MdibVersionGroup(mdibVersion, SEQUENCE_ID, bodyElement, null);
+    }
+
+    private static MessageContent message(
+            final long nanoTimestamp,
+            final CommunicationLog.Direction direction,
+            final Map<String, List<String>> headers,
+            final MdibVersionGroupEntity.MdibVersionGroup... groups) {
+        return message(
+                new MessageBody(MessageUtil.hashMessage("<body/>"), "<body/>", null),
+                nanoTimestamp,
+                direction,
+                headers,
+                groups);
+    }
+
+    private static MessageContent message(
+            final MessageBody messageBody,
+            final long nanoTimestamp,
+            final CommunicationLog.Direction direction,
+            final Map<String, List<String>> headers,
+            final MdibVersionGroupEntity.MdibVersionGroup... groups) {
+        return new MessageContent(
+                messageBody,
+                null,
+                BodyEncoding.TEXT,
+                null,
+                headers,
+                List.of(groups),
+                Set.of(),
+                direction,
+                CommunicationLog.MessageType.REQUEST,
+                null,
+                null,
+                nanoTimestamp,
+                nanoTimestamp,
+                "hash",
+                Constants.HTTP_SCHEME,
+                UUID.randomUUID().toString(),
+                true,
+                null);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.draeger.medical.sdccc.messages.HibernateConfigBase;
+import com.draeger.medical.sdccc.messages.mapping.BodyEncoding;
+import com.draeger.medical.sdccc.messages.mapping.CertificateChain;
+import com.draeger.medical.sdccc.messages.mapping.ManipulationData;
+import com.draeger.medical.sdccc.messages.mapping.MdibVersionGroupEntity;
+import com.draeger.medical.sdccc.messages.mapping.MessageBody;
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import com.draeger.medical.sdccc.messages.util.MessageUtil;
+import com.draeger.medical.sdccc.util.Constants;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.somda.sdc.dpws.CommunicationLog;
+
+/**
+ * Unit tests for the schema used by the {@linkplain HibernateStorageBackend}.
+ */
+public class TestHibernateStorageBackend {
+
+    private static final int PLAN_CHECK_MESSAGES = 2000;
+    private static final int PLAN_CHECK_BODY_ELEMENTS = 20;
+
+    /**
+     * Tests whether the schema created by hibernate contains the secondary indexes of the message storage, and whether
+     * the indexes used to deduplicate bodies and certificate chains are unique.
+     */
+    @Test
+    public void testIndexesAreCreated() {
+        // index name to whether it is unique
+        final Map<String, Boolean> expectedIndexes = new HashMap<>();
+        expectedIndexes.put(MdibVersionGroupEntity.BODY_ELEMENT_INDEX, false);
+        expectedIndexes.put(MdibVersionGroupEntity.MESSAGE_CONTENT_INDEX, false);
+        expectedIndexes.put(MessageContent.DIRECTION_INDEX, false);
+        expectedIndexes.put(MessageContent.UUID_INDEX, false);
+        expectedIndexes.put(MessageBody.BODY_HASH_INDEX, true);
+        expectedIndexes.put(CertificateChain.FINGERPRINT_INDEX, true);
+        expectedIndexes.put(ManipulationData.UUID_INDEX, false);
+
+        final Map<String, Boolean> actualIndexes = new HashMap<>();
+        final HibernateConfigBase configuration = new HibernateConfigBase("memory:" + UUID.randomUUID());
+        try (final SessionFactory sessionFactory =
+                        configuration.getConfiguration().buildSessionFactory();
+                final Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                for (final String table : new String[] {
+                    "mdib_version_groups", "message_content", "message_body", "certificate_chain", "manipulation_data"
+                }) {
+                    readIndexes(connection, table, actualIndexes);
+                }
+            });
+        } finally {
+            configuration.close();
+        }
+
+        for (final Map.Entry<String, Boolean> expectedIndex : expectedIndexes.entrySet()) {
+            assertEquals(
+                    expectedIndex.getValue(),
+                    actualIndexes.get(expectedIndex.getKey().toUpperCase(Locale.ROOT)),
+                    expectedIndex.getKey());
+        }
+    }
+
+    /**
+     * Tests whether Derby uses the secondary indexes for the query shapes of the message storage, by checking the
+     * runtime statistics of the executed queries once the tables contain enough rows for index access to pay off.
+     *
+     * @throws SQLException on database errors
+     */
+    @Test
+    public void testQueryPlansUseIndexes() throws SQLException {
+        final String databaseName = "memory:" + UUID.randomUUID();
+        final HibernateConfigBase configuration = new HibernateConfigBase(databaseName);
+        try {
+            try (final HibernateStorageBackend backend = new HibernateStorageBackend(configuration)) {
+                final List<MessageContent> messageContents = new ArrayList<>();
+                for (int i = 0; i < PLAN_CHECK_MESSAGES; i++) {
+                    messageContents.add(message(i, "{urn:body}element" + i % PLAN_CHECK_BODY_ELEMENTS));
+                }
+                backend.write(messageContents, List.of());
+
+                try (final Connection connection = DriverManager.getConnection("jdbc:derby:" + databaseName);
+                        final Statement statement = connection.createStatement()) {
+                    updateStatistics(connection, "MESSAGE_CONTENT");
+                    updateStatistics(connection, "MDIB_VERSION_GROUPS");
+
+                    // the body type query of the inbound message getters
+                    final String reportPlan = getQueryPlan(
+                            statement,
+                            "SELECT m.incId FROM message_content m WHERE m.direction = 0 AND EXISTS "
+                                    + "(SELECT g.incId FROM mdib_version_groups g "
+                                    + "WHERE g.messageContent_incId = m.incId "
+                                    + "AND g.bodyElement = '{urn:body}element1')");
+                    assertFalse(reportPlan.contains("TABLE SCAN RESULTSET FOR MDIB_VERSION_GROUPS"), reportPlan);
+                    assertTrue(
+                            reportPlan.contains(MdibVersionGroupEntity.MESSAGE_CONTENT_INDEX.toUpperCase(Locale.ROOT))
+                                    || reportPlan.contains(
+                                            MdibVersionGroupEntity.BODY_ELEMENT_INDEX.toUpperCase(Locale.ROOT)),
+                            reportPlan);
+
+                    // the SequenceId lookups sorted by MdibVersion
+                    final String sequencePlan = getQueryPlan(
+                            statement,
+                            "SELECT g.mdibVersion FROM mdib_version_groups g "
+                                    + "WHERE g.bodyElement = '{urn:body}element1' AND g.sequenceId = 'urn:uuid:1' "
+                                    + "ORDER BY g.mdibVersion");
+                    assertTrue(
+                            sequencePlan.contains(MdibVersionGroupEntity.BODY_ELEMENT_INDEX.toUpperCase(Locale.ROOT)),
+                            sequencePlan);
+
+                    // messages resolved by id from the message index, e.g. the ones with a given action
+                    final String actionPlan = getQueryPlan(
+                            statement, "SELECT m.uuid FROM message_content m WHERE m.incId IN (1, 50, 100)");
+                    assertFalse(actionPlan.contains("TABLE SCAN RESULTSET FOR MESSAGE_CONTENT"), actionPlan);
+                }
+            }
+        } finally {
+            configuration.close();
+        }
+    }
+
+    private static void updateStatistics(final Connection connection, final String table) throws SQLException {
+        try (final PreparedStatement statement =
+                connection.prepareStatement("CALL SYSCS_UTIL.SYSCS_UPDATE_STATISTICS(?, ?, NULL)")) {
+            statement.setString(1, connection.getSchema());
+            statement.setString(2, table);
+            statement.execute();
+        }
+    }
+
+    private static String getQueryPlan(final Statement statement, final String query) throws SQLException {
+        statement.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+        try {
+            // the statistics are only complete once the result has been consumed
+            try (final ResultSet resultSet = statement.executeQuery(query)) {
+                while (resultSet.next()) {
+                    resultSet.getObject(1);
+                }
+            }
+            try (final ResultSet statistics =
+                    statement.executeQuery("VALUES SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()")) {
+                assertTrue(statistics.next());
+                return statistics.getString(1).toUpperCase(Locale.ROOT);
+            }
+        } finally {
+            statement.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+        }
+    }
+
+    private static MessageContent message(final long mdibVersion, final String bodyElement) {
+        return new MessageContent(
+                new MessageBody(MessageUtil.hashMessage("<body/>"), "<body/>", null),
+                null,
+                BodyEncoding.TEXT,
+                null,
+                Map.of(),
+                List.of(new MdibVersionGroupEntity.MdibVersionGroup(mdibVersion, "urn:uuid:1", bodyElement, null)),
+                Set.of(),
+                CommunicationLog.Direction.INBOUND,
+                CommunicationLog.MessageType.REQUEST,
+                null,
+                null,
+                mdibVersion,
+                mdibVersion,
+                "hash",
+                Constants.HTTP_SCHEME,
+                UUID.randomUUID().toString(),
+                true,
+                null);
+    }
+
+    private static void readIndexes(final Connection connection, final String table, final Map<String, Boolean> indexes)
+            throws SQLException {
+        try (final ResultSet indexInfo =
+                connection.getMetaData().getIndexInfo(null, null, table.toUpperCase(Locale.ROOT), false, true)) {
+            while (indexInfo.next()) {
+                final String indexName = indexInfo.getString("INDEX_NAME");
+                if (indexName != null) {
+                    indexes.put(indexName.toUpperCase(Locale.ROOT), !indexInfo.getBoolean("NON_UNIQUE"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+/**
+ * Tests for the storage backends of the message storage.
+ */
+@ParametersAreNonnullByDefault
+package com.draeger.medical.sdccc.messages.storage;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -0,0 +1,95 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.messages.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.ByteOrderMark;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@linkplain XmlPrologScanner}.
+ */
+public class TestXmlPrologScanner {
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<sometag></sometag>";
+
+    /**
+     * Tests whether the encoding is read from declarations encoded in each of the charset families.
+     */
+    @Test
+    public void testDeclarationPrefixes() {
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(null, StandardCharsets.US_ASCII, "ISO-8859-1"),
+                XmlPrologScanner.scan(DECLARATION.getBytes(StandardCharsets.UTF_8)));
+        for (final Charset charset : new Charset[] {
+            StandardCharsets.UTF_16LE, StandardCharsets.UTF_16BE, Charset.forName("UTF-32LE"), Charset.forName("UTF-32BE")
+        }) {
+            assertEquals(
+                    new XmlPrologScanner.XmlProlog(null, charset, "ISO-8859-1"),
+                    XmlPrologScanner.scan(DECLARATION.getBytes(charset)));
+        }
+
+        final Charset ebcdic = Charset.forName("ebcdic-gb-285+euro");
+        final String ebcdicDeclaration = "<?xml version=\"1.0\" encoding=\"ebcdic-gb-285+euro\"?>\n<sometag/>";
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(
+                        null, Charset.forName("ebcdic-international-500+euro"), "ebcdic-gb-285+euro"),
+                XmlPrologScanner.scan(ebcdicDeclaration.getBytes(ebcdic)));
+    }
+
+    /**
+     * Tests whether the byte order mark determines how the declaration is read.
+     */
+    @Test
+    public void testByteOrderMarks() {
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(StandardCharsets.UTF_8, StandardCharsets.US_ASCII, "ISO-8859-1"),
+                XmlPrologScanner.scan(withByteOrderMark(ByteOrderMark.UTF_8, StandardCharsets.UTF_8)));
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(StandardCharsets.UTF_16LE, null, "ISO-8859-1"),
+                XmlPrologScanner.scan(withByteOrderMark(ByteOrderMark.UTF_16LE, StandardCharsets.UTF_16LE)));
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(Charset.forName("UTF-32LE"), null, "ISO-8859-1"),
+                XmlPrologScanner.scan(withByteOrderMark(ByteOrderMark.UTF_32LE, Charset.forName("UTF-32LE"))));
+        // the declaration cannot be read in the charset of an inconsistent byte order mark
+        assertEquals(
+                new XmlPrologScanner.XmlProlog(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE, null),
+                XmlPrologScanner.scan(withByteOrderMark(ByteOrderMark.UTF_8, StandardCharsets.UTF_16LE)));
+    }
+
+    /**
+     * Tests whether pseudo-attributes are read regardless of quotes and whitespace and only within the declaration.
+     */
+    @Test
+    public void testPseudoAttributes() {
+        assertEquals("utf-8", scanEncoding("<?xml version='1.0' encoding = 'utf-8' ?><a/>"));
+        assertEquals("b", scanEncoding("<?xml version=\"1.0\" encodings='a' encoding=\"b\"?><a/>"));
+        assertEquals(null, scanEncoding("<?xml version=\"1.0\"?><a encoding=\"b\"/>"));
+        assertEquals(null, scanEncoding("<?xml version=\"1.0\" encoding=\"unterminated"));
+        assertEquals(null, scanEncoding("<a/>"));
+        assertEquals(null, scanEncoding(""));
+        assertEquals(
+                null,
+                scanEncoding("<?xml version=\"1.0\"" + " ".repeat(XmlPrologScanner.MAXIMUM_DECLARATION_LENGTH)
+                        + "encoding=\"utf-8\"?><a/>"));
+    }
+
+    private static byte[] withByteOrderMark(final ByteOrderMark byteOrderMark, final Charset charset) {
+        final byte[] bom = byteOrderMark.getBytes();
+        final byte[] content = DECLARATION.getBytes(charset);
+        final byte[] result = new byte[bom.length + content.length];
+        System.arraycopy(bom, 0, result, 0, bom.length);
+        System.arraycopy(content, 0, result, bom.length, content.length);
+        return result;
+    }
+
+    private static String scanEncoding(final String document) {
+        return XmlPrologScanner.scan(document.getBytes(StandardCharsets.UTF_8)).encoding();
+    }
+}
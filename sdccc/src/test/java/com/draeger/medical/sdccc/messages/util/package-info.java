@@ -0,0 +1,13 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+/**
+ * Utilities for operations on messages and the message storage.
+ */
+@ParametersAreNonnullByDefault
+package com.draeger.medical.sdccc.messages.util;
+
+import javax.annotation.ParametersAreNonnullByDefault;
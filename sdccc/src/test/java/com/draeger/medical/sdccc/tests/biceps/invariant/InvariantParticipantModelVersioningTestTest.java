@@ -34,6 +34,7 @@ import com.draeger.medical.biceps.model.participant.SafetyClassification;
 import com.draeger.medical.biceps.model.participant.StringMetricState;
 import com.draeger.medical.biceps.model.participant.VmdDescriptor;
 import com.draeger.medical.dpws.soap.model.Envelope;
+import com.draeger.medical.sdccc.configuration.EnabledTestConfig;
 import com.draeger.medical.sdccc.marshalling.MarshallingUtil;
 import com.draeger.medical.sdccc.messages.MessageStorage;
 import com.draeger.medical.sdccc.sdcri.testclient.TestClient;
@@ -47,6 +48,8 @@ import com.draeger.medical.sdccc.util.MessageBuilder;
 import com.draeger.medical.sdccc.util.MessageStorageUtil;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 import jakarta.xml.bind.JAXBException;
 import java.io.IOException;
 import java.math.BigInteger;
@@ -138,6 +141,12 @@ public class InvariantParticipantModelVersioningTestTest {
             @Override
             protected void configure() {
                 bind(TestClient.class).toInstance(mockClient);
+                for (final String testIdentifier : List.of(
+                        EnabledTestConfig.BICEPS_R0033,
+                        EnabledTestConfig.BICEPS_R0034_0,
+                        EnabledTestConfig.BICEPS_R0038_0)) {
+                    bind(Key.get(Boolean.class, Names.named(testIdentifier))).toInstance(true);
+                }
             }
         });
         InjectorTestBase.setInjector(injector);
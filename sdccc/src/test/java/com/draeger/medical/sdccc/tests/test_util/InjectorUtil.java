@@ -12,6 +12,7 @@ import com.draeger.medical.sdccc.configuration.DefaultTestSuiteModule;
 import com.draeger.medical.sdccc.configuration.TestRunConfig;
 import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
 import com.draeger.medical.sdccc.messages.HibernateConfig;
+import com.draeger.medical.sdccc.messages.storage.HibernateStorageBackend;
 import com.draeger.medical.sdccc.util.HibernateConfigInMemoryImpl;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -65,6 +66,13 @@ public final class InjectorUtil {
                             @Override
                             protected void configureCommlogSettings() {
                                 bind(TestSuiteConfig.COMMLOG_MESSAGE_BUFFER_SIZE, int.class, 1);
+                                bind(
+                                        TestSuiteConfig.COMMLOG_STORAGE_BACKEND,
+                                        String.class,
+                                        HibernateStorageBackend.NAME);
+                                bind(TestSuiteConfig.COMMLOG_DECODE_THREADS, int.class, 1);
+                                bind(TestSuiteConfig.COMMLOG_BODY_STORAGE, String.class, "Text");
+                                bind(TestSuiteConfig.COMMLOG_OVERFLOW_POLICY, String.class, "Block");
                             }
                         },
                         new DefaultEnabledTestConfig(),
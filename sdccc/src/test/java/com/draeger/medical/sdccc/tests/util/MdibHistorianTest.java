@@ -9,7 +9,9 @@ package com.draeger.medical.sdccc.tests.util;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -18,6 +20,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.draeger.medical.biceps.model.message.DescriptionModificationType;
 import com.draeger.medical.biceps.model.message.EpisodicContextReport;
 import com.draeger.medical.biceps.model.message.InvocationError;
 import com.draeger.medical.biceps.model.message.InvocationState;
@@ -28,6 +31,7 @@ import com.draeger.medical.biceps.model.participant.MetricCategory;
 import com.draeger.medical.biceps.model.participant.OperatingMode;
 import com.draeger.medical.biceps.model.participant.PatientContextState;
 import com.draeger.medical.dpws.soap.model.Envelope;
+import com.draeger.medical.sdccc.configuration.TestSuiteConfig;
 import com.draeger.medical.sdccc.marshalling.MarshallingUtil;
 import com.draeger.medical.sdccc.messages.MessageStorage;
 import com.draeger.medical.sdccc.sdcri.testclient.TestClient;
@@ -41,6 +45,7 @@ import com.draeger.medical.sdccc.util.MessageStorageUtil;
 import com.draeger.medical.sdccc.util.TestRunObserver;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
+import com.google.inject.name.Names;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.xml.bind.JAXBException;
 import java.io.IOException;
@@ -53,6 +58,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -226,6 +232,61 @@ public class MdibHistorianTest {
         }
     }
 
+    /**
+     * Tests whether the mdib until a timestamp contains exactly the reports received before the timestamp, also when
+     * computed by another historian sharing the cached history, and whether storages created from the cached initial
+     * mdib are independent of each other.
+     */
+    @Test
+    void testUniqueEpisodicReportBasedMdibUntilTimestamp()
+            throws IOException, JAXBException, PreprocessingException, ReportProcessingException {
+        final var firstMdibVersion = BigInteger.TEN;
+        final var secondMdibVersion = firstMdibVersion.add(BigInteger.ONE);
+
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildMdibEnvelope(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ZERO));
+        final long beforeReports = System.nanoTime();
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildEpisodicMetricReport(MdibBuilder.DEFAULT_SEQUENCE_ID, firstMdibVersion, BigInteger.TWO));
+        final long betweenReports = System.nanoTime();
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage,
+                buildEpisodicMetricReport(MdibBuilder.DEFAULT_SEQUENCE_ID, secondMdibVersion, BigInteger.TEN));
+
+        final var mockObserver = mock(TestRunObserver.class);
+        for (final var historian : List.of(
+                historianFactory.createMdibHistorian(storage, mockObserver),
+                historianFactory.createMdibHistorian(storage, mockObserver))) {
+            assertNull(historian.uniqueEpisodicReportBasedMdibUntilTimestamp(
+                    MdibBuilder.DEFAULT_SEQUENCE_ID, beforeReports));
+
+            final var firstMdib = historian.uniqueEpisodicReportBasedMdibUntilTimestamp(
+                    MdibBuilder.DEFAULT_SEQUENCE_ID, betweenReports);
+            assertNotNull(firstMdib);
+            assertEquals(firstMdibVersion, firstMdib.getMdibVersion().getVersion());
+            assertEquals(
+                    BigInteger.TWO,
+                    firstMdib.getState(STRING_METRIC_HANDLE).orElseThrow().getStateVersion());
+
+            final var lastMdib = historian.uniqueEpisodicReportBasedMdibUntilTimestamp(
+                    MdibBuilder.DEFAULT_SEQUENCE_ID, Long.MAX_VALUE);
+            assertNotNull(lastMdib);
+            assertEquals(secondMdibVersion, lastMdib.getMdibVersion().getVersion());
+            assertEquals(
+                    BigInteger.TEN,
+                    lastMdib.getState(STRING_METRIC_HANDLE).orElseThrow().getStateVersion());
+        }
+
+        final var historian = historianFactory.createMdibHistorian(storage, mockObserver);
+        final var first = historian.createNewStorage(MdibBuilder.DEFAULT_SEQUENCE_ID);
+        final var second = historian.createNewStorage(MdibBuilder.DEFAULT_SEQUENCE_ID);
+        final var report = messageBuilder.buildEpisodicMetricReport(MdibBuilder.DEFAULT_SEQUENCE_ID);
+        report.setMdibVersion(BigInteger.ONE);
+        historian.applyReportOnStorage(first, report);
+        assertEquals(BigInteger.ONE, first.getMdibVersion().getVersion());
+        assertEquals(BigInteger.ZERO, second.getMdibVersion().getVersion());
+    }
+
     @Test
     void testExceptionMissingDescriptor()
             throws IOException, JAXBException, PreprocessingException, ReportProcessingException {
@@ -1143,6 +1204,203 @@ public class MdibHistorianTest {
         assertEquals(2, processedMdibVersionsBySequence.get(sequenceIds.get(1)).size());
     }
 
+    /**
+     * Tests whether replaying the histories of several sequence ids concurrently keeps the order of each history and
+     * reports the failures in the order of the sequence ids.
+     */
+    @Test
+    void testProcessAllRemoteMdibAccessInParallel() throws Exception {
+        final var sequenceIds = List.of("seq-1", "seq-2", "seq-3");
+        for (final String sequenceId : sequenceIds) {
+            messageStorageUtil.addInboundSecureHttpMessage(storage, buildMdibEnvelope(sequenceId, BigInteger.ONE));
+            messageStorageUtil.addInboundSecureHttpMessage(
+                    storage, buildEpisodicMetricReport(sequenceId, BigInteger.TWO, BigInteger.ONE));
+            messageStorageUtil.addInboundSecureHttpMessage(
+                    storage, buildEpisodicMetricReport(sequenceId, BigInteger.TEN, BigInteger.TWO));
+        }
+
+        final Injector parallelInjector = TestClientUtil.createClientInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Integer.class)
+                        .annotatedWith(Names.named(TestSuiteConfig.MDIB_HISTORIAN_THREADS))
+                        .toInstance(sequenceIds.size());
+            }
+        });
+        final var parallelSoapMarshalling = parallelInjector.getInstance(SoapMarshalling.class);
+        final var parallelJaxbMarshalling = parallelInjector.getInstance(JaxbMarshalling.class);
+        parallelSoapMarshalling.startAsync().awaitRunning();
+        parallelJaxbMarshalling.startAsync().awaitRunning();
+        try {
+            final var historian = parallelInjector
+                    .getInstance(MdibHistorianFactory.class)
+                    .createMdibHistorian(storage, mock(TestRunObserver.class));
+
+            final Map<String, List<BigInteger>> processedMdibVersionsBySequence = new HashMap<>();
+            historian.processAllRemoteMdibAccess((mdibAccess, sequenceId) -> processedMdibVersionsBySequence
+                    .computeIfAbsent(sequenceId, id -> new ArrayList<>())
+                    .add(mdibAccess.getMdibVersion().getVersion()));
+
+            for (final String sequenceId : sequenceIds) {
+                assertEquals(
+                        List.of(BigInteger.ONE, BigInteger.TWO, BigInteger.TEN),
+                        processedMdibVersionsBySequence.get(sequenceId));
+            }
+
+            final var error = assertThrows(
+                    AssertionError.class,
+                    () -> historian.processAllRemoteMdibAccess((mdibAccess, sequenceId) -> {
+                        if (!sequenceId.equals(sequenceIds.get(0))) {
+                            fail(sequenceId);
+                        }
+                    }));
+            assertEquals(sequenceIds.get(1), error.getMessage());
+            assertEquals(1, error.getSuppressed().length);
+            assertEquals(sequenceIds.get(2), error.getSuppressed()[0].getMessage());
+        } finally {
+            parallelSoapMarshalling.stopAsync().awaitTerminated();
+            parallelJaxbMarshalling.stopAsync().awaitTerminated();
+        }
+    }
+
+    /**
+     * Tests whether consecutive pairs contain the mdib before and after each report, also when the reports between two
+     * applicable reports exceed what the trailing mdib catches up with.
+     */
+    @Test
+    void testProcessConsecutivePairs() throws Exception {
+        final int reportCount = 70;
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildMdibEnvelope(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ZERO));
+        for (int i = 1; i <= reportCount; i++) {
+            messageStorageUtil.addInboundSecureHttpMessage(
+                    storage,
+                    buildEpisodicMetricReport(
+                            MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.valueOf(i), BigInteger.valueOf(i)));
+        }
+
+        final var historian = historianFactory.createMdibHistorian(storage, mock(TestRunObserver.class));
+
+        final List<Pair<BigInteger, BigInteger>> pairs = new ArrayList<>();
+        historian.processAllConsecutivePairsForSequenceId(
+                (first, second) -> pairs.add(Pair.of(
+                        first.getMdibVersion().getVersion(),
+                        second.getMdibVersion().getVersion())),
+                MdibBuilder.DEFAULT_SEQUENCE_ID);
+        assertEquals(reportCount, pairs.size());
+        for (int i = 1; i <= reportCount; i++) {
+            assertEquals(Pair.of(BigInteger.valueOf(i - 1), BigInteger.valueOf(i)), pairs.get(i - 1));
+        }
+
+        final var applicableVersions = Set.of(BigInteger.valueOf(3), BigInteger.valueOf(reportCount));
+        final List<Pair<BigInteger, BigInteger>> metricVersions = new ArrayList<>();
+        historian.processAllApplicableReportsConsecutivePairs(
+                report -> applicableVersions.contains(report.getMdibVersion()), (first, second, report) -> {
+                    assertEquals(
+                            report.getMdibVersion().subtract(BigInteger.ONE),
+                            first.getMdibVersion().getVersion());
+                    assertEquals(report.getMdibVersion(), second.getMdibVersion().getVersion());
+                    metricVersions.add(Pair.of(
+                            first.getState(STRING_METRIC_HANDLE).orElseThrow().getStateVersion(),
+                            second.getState(STRING_METRIC_HANDLE).orElseThrow().getStateVersion()));
+                });
+        assertEquals(
+                List.of(
+                        Pair.of(BigInteger.TWO, BigInteger.valueOf(3)),
+                        Pair.of(BigInteger.valueOf(reportCount - 1), BigInteger.valueOf(reportCount))),
+                metricVersions);
+    }
+
+    /**
+     * Tests whether the change sets of consecutive pairs contain the handles touched by each report, including the
+     * parent and all descendants of a deleted descriptor.
+     */
+    @Test
+    void testProcessConsecutivePairsWithChanges() throws Exception {
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildMdibEnvelope(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ZERO));
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildEpisodicMetricReport(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ONE, BigInteger.ONE));
+
+        final var deletion = messageBuilder.buildDescriptionModificationReportReportPart();
+        deletion.setModificationType(DescriptionModificationType.DEL);
+        deletion.getDescriptor().add(mdibBuilder.buildChannel(CHANNEL_HANDLE).getLeft());
+        final var report =
+                messageBuilder.buildDescriptionModificationReport(MdibBuilder.DEFAULT_SEQUENCE_ID, List.of(deletion));
+        report.setMdibVersion(BigInteger.TWO);
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage,
+                messageBuilder.createSoapMessageWithBody(
+                        ActionConstants.ACTION_DESCRIPTION_MODIFICATION_REPORT, report));
+
+        final var historian = historianFactory.createMdibHistorian(storage, mock(TestRunObserver.class));
+
+        final List<Pair<Set<String>, Set<String>>> changes = new ArrayList<>();
+        historian.processAllConsecutivePairsWithChangesForSequenceId(
+                (first, second, changeSet) -> {
+                    assertEquals(changeSet.report().getMdibVersion(), second.getMdibVersion().getVersion());
+                    changes.add(Pair.of(changeSet.descriptorHandles(), changeSet.stateHandles()));
+                },
+                MdibBuilder.DEFAULT_SEQUENCE_ID);
+
+        assertEquals(
+                List.of(
+                        Pair.of(Set.of(), Set.of(STRING_METRIC_HANDLE)),
+                        Pair.of(
+                                Set.of(VMD_HANDLE, CHANNEL_HANDLE, STRING_METRIC_HANDLE),
+                                Set.of(CHANNEL_HANDLE, STRING_METRIC_HANDLE))),
+                changes);
+    }
+
+    /**
+     * Tests whether consecutive snapshots share the entities unchanged by the report in between and retained snapshots
+     * are not affected by later reports.
+     */
+    @Test
+    void testProcessSnapshots() throws Exception {
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildMdibEnvelope(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ZERO));
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage, buildEpisodicMetricReport(MdibBuilder.DEFAULT_SEQUENCE_ID, BigInteger.ONE, BigInteger.ONE));
+
+        final var deletion = messageBuilder.buildDescriptionModificationReportReportPart();
+        deletion.setModificationType(DescriptionModificationType.DEL);
+        deletion.getDescriptor().add(mdibBuilder.buildChannel(CHANNEL_HANDLE).getLeft());
+        final var report =
+                messageBuilder.buildDescriptionModificationReport(MdibBuilder.DEFAULT_SEQUENCE_ID, List.of(deletion));
+        report.setMdibVersion(BigInteger.TWO);
+        messageStorageUtil.addInboundSecureHttpMessage(
+                storage,
+                messageBuilder.createSoapMessageWithBody(
+                        ActionConstants.ACTION_DESCRIPTION_MODIFICATION_REPORT, report));
+
+        final var historian = historianFactory.createMdibHistorian(storage, mock(TestRunObserver.class));
+
+        final List<MdibSnapshot> snapshots = new ArrayList<>();
+        historian.processSnapshotsForSequenceId(snapshots::add, MdibBuilder.DEFAULT_SEQUENCE_ID);
+
+        assertEquals(3, snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(BigInteger.valueOf(i), snapshots.get(i).getMdibVersion().getVersion());
+        }
+
+        final var initial = snapshots.get(0);
+        final var afterMetricReport = snapshots.get(1);
+        final var afterDeletion = snapshots.get(2);
+        assertSame(
+                initial.getEntity(VMD_HANDLE).orElseThrow(),
+                afterMetricReport.getEntity(VMD_HANDLE).orElseThrow());
+        assertNotSame(
+                initial.getEntity(STRING_METRIC_HANDLE).orElseThrow(),
+                afterMetricReport.getEntity(STRING_METRIC_HANDLE).orElseThrow());
+
+        assertTrue(afterDeletion.getEntity(CHANNEL_HANDLE).isEmpty());
+        assertTrue(afterDeletion.getState(STRING_METRIC_HANDLE).isEmpty());
+        assertTrue(afterDeletion.getEntity(VMD_HANDLE).isPresent());
+        assertTrue(afterMetricReport.getEntity(CHANNEL_HANDLE).isPresent());
+        assertTrue(afterMetricReport.getState(STRING_METRIC_HANDLE).isPresent());
+    }
+
     /**
      * Tests if episodicReportBasedHistory() gracefully ignores a given report.
      * @param report - the report to ignore
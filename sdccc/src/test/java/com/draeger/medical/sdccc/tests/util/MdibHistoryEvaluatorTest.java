@@ -0,0 +1,147 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.draeger.medical.sdccc.messages.MessageIndex;
+import com.draeger.medical.sdccc.messages.MessageStorage;
+import com.draeger.medical.sdccc.tests.util.guice.MdibHistorianFactory;
+import com.draeger.medical.sdccc.util.TestRunObserver;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.util.TriConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.somda.sdc.biceps.consumer.access.RemoteMdibAccess;
+
+/**
+ * Unit tests for the {@linkplain MdibHistoryEvaluator}.
+ */
+public class MdibHistoryEvaluatorTest {
+    private static final String PASSING = "passing";
+    private static final String FAILING = "failing";
+    private static final String NO_DATA = "noData";
+
+    private MessageStorage messageStorage;
+    private MessageIndex messageIndex;
+    private MdibHistorian mdibHistorian;
+    private MdibHistoryEvaluator evaluator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        messageIndex = mock(MessageIndex.class);
+        messageStorage = mock(MessageStorage.class);
+        when(messageStorage.getMessageIndex()).thenReturn(messageIndex);
+
+        mdibHistorian = mock(MdibHistorian.class);
+        doAnswer(invocation -> {
+                    invocation
+                            .getArgument(0, TriConsumer.class)
+                            .accept(
+                                    mock(RemoteMdibAccess.class),
+                                    mock(RemoteMdibAccess.class),
+                                    new MdibChangeSet(null, Set.of(), Set.of()));
+                    return null;
+                })
+                .when(mdibHistorian)
+                .processAllConsecutivePairsWithChangesForSequenceId(any(), anyString());
+        final var mdibHistorianFactory = mock(MdibHistorianFactory.class);
+        when(mdibHistorianFactory.createMdibHistorian(any(), any())).thenReturn(mdibHistorian);
+
+        evaluator = new MdibHistoryEvaluator(mdibHistorianFactory);
+    }
+
+    /**
+     * Tests whether all checks are evaluated in a single replay per sequence and a failing check does not affect the
+     * others.
+     */
+    @Test
+    void testEvaluateChecksInSingleReplay() throws Exception {
+        when(mdibHistorian.getKnownSequenceIds()).thenAnswer(invocation -> Stream.of("first", "second"));
+        final var pairs = new AtomicInteger();
+        final var failure = new AssertionFailedError("failed");
+
+        final Map<String, Supplier<MdibHistoryVisitor>> checks = Map.of(
+                PASSING,
+                () -> new MdibHistoryVisitor() {
+                    @Override
+                    public void visitPair(
+                            final RemoteMdibAccess first,
+                            final RemoteMdibAccess second,
+                            final MdibChangeSet changes) {
+                        pairs.incrementAndGet();
+                    }
+                },
+                FAILING,
+                () -> new MdibHistoryVisitor() {
+                    @Override
+                    public void visitPair(
+                            final RemoteMdibAccess first,
+                            final RemoteMdibAccess second,
+                            final MdibChangeSet changes) {
+                        throw failure;
+                    }
+
+                    @Override
+                    public void finish() {
+                        fail("finish must not be called after a failure");
+                    }
+                },
+                NO_DATA,
+                () -> new MdibHistoryVisitor() {
+                    @Override
+                    public void finish() throws NoTestData {
+                        throw new NoTestData("no data");
+                    }
+                });
+
+        final var observer = mock(TestRunObserver.class);
+        assertDoesNotThrow(() -> evaluator.evaluate(messageStorage, observer, PASSING, checks));
+        assertSame(failure, assertThrows(AssertionFailedError.class, () -> evaluator.evaluate(
+                messageStorage, observer, FAILING, checks)));
+        assertThrows(NoTestData.class, () -> evaluator.evaluate(messageStorage, observer, NO_DATA, checks));
+
+        assertEquals(2, pairs.get());
+        verify(mdibHistorian, times(2)).processAllConsecutivePairsWithChangesForSequenceId(any(), anyString());
+    }
+
+    /**
+     * Tests whether outcomes are discarded once further messages have been written.
+     */
+    @Test
+    void testReplayAfterNewMessages() throws Exception {
+        when(mdibHistorian.getKnownSequenceIds()).thenAnswer(invocation -> Stream.of("sequence"));
+        final Map<String, Supplier<MdibHistoryVisitor>> checks = Map.of(PASSING, () -> new MdibHistoryVisitor() {});
+        final var observer = mock(TestRunObserver.class);
+
+        when(messageIndex.getMessageCount()).thenReturn(1L);
+        evaluator.evaluate(messageStorage, observer, PASSING, checks);
+        evaluator.evaluate(messageStorage, observer, PASSING, checks);
+        verify(mdibHistorian, times(1)).processAllConsecutivePairsWithChangesForSequenceId(any(), anyString());
+
+        when(messageIndex.getMessageCount()).thenReturn(2L);
+        evaluator.evaluate(messageStorage, observer, PASSING, checks);
+        verify(mdibHistorian, times(2)).processAllConsecutivePairsWithChangesForSequenceId(any(), anyString());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@linkplain PersistentHashMap}.
+ */
+public class PersistentHashMapTest {
+
+    /**
+     * Tests whether keys with equal hashes are kept apart, can be replaced and removed individually.
+     */
+    @Test
+    void testCollidingHashes() {
+        final var first = new Key("first", 42);
+        final var second = new Key("second", 42);
+        final var third = new Key("third", 42);
+
+        var map = PersistentHashMap.<Key, String>empty()
+                .plus(first, "1")
+                .plus(second, "2")
+                .plus(third, "3");
+        assertEquals(3, map.size());
+        assertEquals("1", map.get(first));
+        assertEquals("2", map.get(second));
+        assertEquals("3", map.get(third));
+        assertNull(map.get(new Key("other", 42)));
+
+        map = map.plus(second, "2b");
+        assertEquals(3, map.size());
+        assertEquals("2b", map.get(second));
+
+        map = map.minus(first);
+        assertEquals(2, map.size());
+        assertNull(map.get(first));
+        assertEquals("2b", map.get(second));
+        assertEquals("3", map.get(third));
+
+        // a key which is not contained does not derive a new map
+        assertSame(map, map.minus(new Key("other", 42)));
+        assertSame(map, map.minus(first));
+    }
+
+    /**
+     * Tests whether removing every entry, including entries which share all but the most significant hash bits and
+     * entries with colliding hashes, leads to an empty map.
+     */
+    @Test
+    void testRemoveDownToEmpty() {
+        final List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(new Key("key" + i, i));
+        }
+        keys.add(new Key("collision", 7));
+        keys.add(new Key("high", 7 | 1 << 30));
+        keys.add(new Key("negative", 7 | 1 << 31));
+
+        var map = PersistentHashMap.<Key, Integer>empty();
+        for (int i = 0; i < keys.size(); i++) {
+            map = map.plus(keys.get(i), i);
+        }
+        assertEquals(keys.size(), map.size());
+        assertEquals(keys.size(), map.values().size());
+
+        for (int i = 0; i < keys.size(); i++) {
+            map = map.minus(keys.get(i));
+            assertEquals(keys.size() - i - 1, map.size());
+            assertNull(map.get(keys.get(i)));
+            for (int j = i + 1; j < keys.size(); j++) {
+                assertEquals(j, map.get(keys.get(j)));
+            }
+        }
+        assertEquals(0, map.size());
+        assertTrue(map.values().isEmpty());
+    }
+
+    /**
+     * Tests whether deriving maps leaves all earlier versions unchanged.
+     */
+    @Test
+    void testOlderVersionsAreUnchanged() {
+        final List<PersistentHashMap<Key, Integer>> versions = new ArrayList<>();
+        final List<Map<Key, Integer>> expectedVersions = new ArrayList<>();
+
+        var map = PersistentHashMap.<Key, Integer>empty();
+        final Map<Key, Integer> expected = new HashMap<>();
+        versions.add(map);
+        expectedVersions.add(Map.copyOf(expected));
+        for (int i = 0; i < 200; i++) {
+            // every third key collides with another one, and some keys are updated or removed later on
+            final var key = new Key("key" + i % 150, i % 3 == 0 ? 3 : i % 150);
+            if (i % 7 == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                map = map.plus(key, i);
+                expected.put(key, i);
+            }
+            versions.add(map);
+            expectedVersions.add(Map.copyOf(expected));
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            final var version = versions.get(i);
+            final var expectedVersion = expectedVersions.get(i);
+            assertEquals(expectedVersion.size(), version.size());
+            for (final var entry : expectedVersion.entrySet()) {
+                assertEquals(entry.getValue(), version.get(entry.getKey()));
+            }
+            assertEquals(
+                    expectedVersion.values().stream().sorted().toList(),
+                    version.values().stream().sorted().toList());
+        }
+    }
+
+    private record Key(String name, int hash) {
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
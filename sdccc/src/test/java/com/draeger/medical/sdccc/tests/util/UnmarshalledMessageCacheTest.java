@@ -0,0 +1,81 @@
+/*
+ * This Source Code Form is subject to the terms of the "SDCcc non-commercial use license".
+ *
+ * Copyright (C) 2025 Draegerwerk AG & Co. KGaA
+ */
+
+package com.draeger.medical.sdccc.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.draeger.medical.sdccc.messages.mapping.MessageContent;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.somda.sdc.dpws.soap.MarshallingService;
+import org.somda.sdc.dpws.soap.SoapMessage;
+
+/**
+ * Unit tests for the {@linkplain UnmarshalledMessageCache}.
+ */
+public class UnmarshalledMessageCacheTest {
+
+    private MarshallingService marshalling;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        marshalling = mock(MarshallingService.class);
+        when(marshalling.unmarshal(any(InputStream.class))).thenAnswer(invocation -> mock(SoapMessage.class));
+    }
+
+    /**
+     * Tests whether a message is only unmarshalled once and the least recently used message is evicted first.
+     */
+    @Test
+    void testUnmarshalOnceAndEvictLeastRecentlyUsed() throws Exception {
+        final var cache = new UnmarshalledMessageCache(marshalling, 2, false);
+        final var first = messageContent("first");
+        final var second = messageContent("second");
+        final var third = messageContent("third");
+
+        final var firstMessage = cache.unmarshal(first);
+        assertSame(firstMessage, cache.unmarshal(first));
+        final var secondMessage = cache.unmarshal(second);
+        // first is now more recently used than second
+        assertSame(firstMessage, cache.unmarshal(first));
+        cache.unmarshal(third);
+
+        assertEquals(2, cache.size());
+        assertSame(firstMessage, cache.unmarshal(first));
+        assertNotSame(secondMessage, cache.unmarshal(second));
+        verify(marshalling, times(4)).unmarshal(any(InputStream.class));
+    }
+
+    /**
+     * Tests whether a cache size of zero unmarshals every message on every call.
+     */
+    @Test
+    void testDisabledCache() throws Exception {
+        final var cache = new UnmarshalledMessageCache(marshalling, 0, true);
+        final var message = messageContent("message");
+
+        assertNotSame(cache.unmarshal(message), cache.unmarshal(message));
+        assertEquals(0, cache.size());
+        verify(marshalling, times(2)).unmarshal(any(InputStream.class));
+    }
+
+    private static MessageContent messageContent(final String uuid) {
+        final var messageContent = mock(MessageContent.class);
+        when(messageContent.getUuid()).thenReturn(uuid);
+        when(messageContent.getBodyStream()).thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+        return messageContent;
+    }
+}